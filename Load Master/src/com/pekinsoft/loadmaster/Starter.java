@@ -6,19 +6,21 @@
 
 package com.pekinsoft.loadmaster;
 
-import com.pekinsoft.loadmaster.controller.BrokerCtl;
-import com.pekinsoft.loadmaster.controller.CustomerCtl;
 import com.pekinsoft.loadmaster.controller.EntryCtl;
-import com.pekinsoft.loadmaster.controller.LoadCtl;
-import com.pekinsoft.loadmaster.controller.StopCtl;
+import com.pekinsoft.loadmaster.db.SaveScheduler;
+import com.pekinsoft.loadmaster.db.SqlStore;
+import com.pekinsoft.loadmaster.db.Transaction;
 import com.pekinsoft.loadmaster.enums.SysExits;
+import com.pekinsoft.loadmaster.err.ConflictException;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.err.InvalidLoggingLevelException;
 import com.pekinsoft.loadmaster.sys.AppProperties;
 import com.pekinsoft.loadmaster.sys.ArgumentParser;
 import com.pekinsoft.loadmaster.sys.Logger;
 import com.pekinsoft.loadmaster.sys.VersionCalculator;
+import com.pekinsoft.loadmaster.utils.MessageBox;
 import com.pekinsoft.loadmaster.view.LoadMaster;
+import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import javax.swing.JFrame;
@@ -38,18 +40,32 @@ public class Starter {
     
     static {
         logger = Logger.getInstance();
+        props = AppProperties.getInstance();
+        
+        // The logging level defaults to DEBUG, but may be raised in the
+        //+ settings, so that the debugging and tracing entries are skipped.
         try {
-            logger.setLevel(Logger.DEBUG);
+            logger.setLevel(props.getPropertyAsInt("logging.level", 
+                    String.valueOf(Logger.DEBUG)));
         } catch (InvalidLoggingLevelException ex) {
             System.err.println(ex.getMessage());
             ex.printStackTrace(System.err);
         }
         
-        props = AppProperties.getInstance();
         DB_URL = props.getProperty("app.data.folder",
                 System.getProperty("user.home") + System.getProperty("file.separator") +
                         ".loadmaster" + System.getProperty("file.separator") +
                         "data" + System.getProperty("file.separator"));    
+        
+        // Write the log from a background thread, so that logging does not
+        //+ slow down the loading and saving of the data tables.
+        if ( props.getPropertyAsBoolean("logging.async", "true") ) {
+            logger.startAsync(
+                    props.getPropertyAsInt("logging.async.capacity", "8192"),
+                    Logger.toOverflowPolicy(
+                            props.getProperty("logging.async.overflow", 
+                                    "block")));
+        }
     }
 
     /**
@@ -69,6 +85,16 @@ public class Starter {
         params = new ArgumentParser(args);        
         version = new VersionCalculator();
         
+        // Finish, or undo, any group of table writes that was cut short when
+        //+ the application last stopped, before any table is read.
+        Transaction.recover();
+        
+        // Copy the data tables into the database given in the settings, once,
+        //+ when asked to on the command line.
+        if ( params.isSwitchPresent("--migrate") ) {
+            migrate();
+        }
+        
         setUI();
 
         // Let's show the only window in the application.
@@ -93,31 +119,41 @@ public class Starter {
     public static void exit(SysExits status) {
         // Perform all cleanup here:\\
         ///////////////\\\\\\\\\\\\\\\
-        // Store the number of records in each table to the settings file.
+        // The number of records in each table is kept in the settings by the
+        //+ tables themselves, as records are added, so nothing needs to be
+        //+ read in here.
+        
+        // Write the saves that are still waiting on the save scheduler.
         try {
-            BrokerCtl b = new BrokerCtl();
-            props.setProperty("table.brokers.records", 
-                    String.valueOf(b.getRecordCount()));
-            b = null;
-            
-            CustomerCtl c = new CustomerCtl();
-            props.setProperty("table.customers.records", 
-                    String.valueOf(c.getRecordCount()));
-            c = null;
-            
-            LoadCtl l = new LoadCtl();
-            props.setProperty("table.loads.records", 
-                    String.valueOf(l.getRecordCount()));
-            l = null;
-            
-            StopCtl s = new StopCtl();
-            props.setProperty("table.stops.records", 
-                    String.valueOf(s.getRecordCount()));
-            s = null;
+            SaveScheduler.flushNow();
         } catch ( DataStoreException ex ) {
+            LogRecord record = Logger.newRecord(Starter.class);
+            record.setMessage("Unable to write the last saves of the data "
+                    + "tables: " + ex.getMessage());
+            record.setThrown(ex);
+            record.setSourceMethodName("exit");
+            record.setParameters(null);
+            logger.error(record);
             
+            // The saves are lost, so the user is told, as they would have
+            //+ been had the saves been written straight away.
+            if ( ex instanceof ConflictException ) {
+                MessageBox.showError(ex, "Data Access Error");
+            }
         }
         
+        // Put the last of the grouped table writes on the disk, so that they
+        //+ do not need to be recovered on the next start.
+        try {
+            Transaction.settle();
+        } catch ( IOException ex ) {
+            // Already on the disk in the journal, so recovered on the next
+            //+ start.
+        }
+        
+        // Disconnect from the database, if there is one.
+        SqlStore.shutdown();
+        
         // Last thing prior to exiting is to save the application settings and
         //+ to close out the application log.
         logger.close(); // Complete logging.
@@ -127,6 +163,31 @@ public class Starter {
     }
 
     
+    private static void migrate() {
+        LogRecord record = Logger.newRecord(Starter.class);
+        record.setSourceMethodName("migrate");
+        record.setParameters(null);
+        
+        SqlStore store = SqlStore.getInstance();
+        
+        if ( store == null ) {
+            record.setMessage("No database is configured, or it could not be "
+                    + "connected to, so there is nothing to migrate to. Set "
+                    + "db.name in the settings first.");
+            logger.warning(record);
+            return;
+        }
+        
+        try {
+            record.setMessage("Migrated " + store.migrateAll() + " rows of the "
+                    + "data tables into the database.");
+            logger.info(record);
+        } catch ( DataStoreException ex ) {
+            // Already logged by the SqlStore; the tables that were not
+            //+ migrated just go on being read from their table files.
+        }
+    }
+    
     private static void setUI() {
         /* Set the look and feel */
         // If the system the application is being run on is Windows (any version),
@@ -37,18 +37,18 @@
 package com.pekinsoft.loadmaster.controller;
 
 import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.db.GroupIndex;
+import com.pekinsoft.loadmaster.db.IdIndex;
+import com.pekinsoft.loadmaster.db.NameIndex;
+import com.pekinsoft.loadmaster.db.RecordCodec;
+import com.pekinsoft.loadmaster.db.RecordTokenizer;
+import com.pekinsoft.loadmaster.db.Table;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.model.BrokerModel;
-import com.pekinsoft.loadmaster.view.LoadMaster;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * The `BrokerCtl` object provides all functionality related to accessing the
@@ -84,20 +84,24 @@ public class BrokerCtl {
     
     //</editor-fold>
 
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final RecordCodec<BrokerModel> CODEC = RecordCodec.of(
+            BrokerCtl::readRecord, BrokerCtl::buildRecordLine);
+    //</editor-fold>
+
     //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
     // Table Data:
-    private final File TABLE;
+    private final Table<BrokerModel> table;
     
     // Table Information:
-    private BrokerModel broker;
-    private final ArrayList<BrokerModel> records;
-    private int row;
-    
-    // System:
-    private LogRecord entry;
+    private final IdIndex ids;
+    private final GroupIndex states;
+    private final GroupIndex cities;
+    private NameIndex companies;
     
-    // Flags:
-    private boolean fileJustCreated = false;
+    // The number of times that the rows of the records had moved when they
+    //+ were last indexed.
+    private int indexed;
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Static Initializer">
@@ -108,44 +112,18 @@ public class BrokerCtl {
 
     //<editor-fold defaultstate="collapsed" desc="Intstance Initializer">
     {
-        records = new ArrayList<>();
-        row = 0;
-        entry = new LogRecord(Level.FINEST, "");
-        entry.setSourceClassName(this.getClass().getCanonicalName());
+        ids = new IdIndex();
+        states = new GroupIndex();
+        cities = new GroupIndex();
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
     public BrokerCtl () throws DataStoreException {
-        broker = new BrokerModel();
-        TABLE = new File(Starter.DB_URL + "brokers.tbl");
+        table = new Table<>(new File(Starter.DB_URL + "brokers.tbl"), CODEC,
+                "table.brokers.records");
         
-        // Check to see if the table file exists:
-        if ( !TABLE.exists() ) {
-            try {
-                TABLE.createNewFile();
-                
-                // Set our flag:
-                fileJustCreated = true;
-            } catch (IOException ex) {
-                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                        + "\nThrowing DataStoreException...");
-                entry.setParameters(null);
-                entry.setSourceMethodName("BrokerCtl");
-                entry.setThrown(ex);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        if ( !fileJustCreated )
-            connect();
-//        else
-//            MessageBox.showInfo("Data file was just now created.\n"
-//                    + "Add records to it, then save, in order\n"
-//                    + "to not see this message in the future.", 
-//                    "New Data File Created");
+        reindex();
     }
     //</editor-fold>
 
@@ -160,7 +138,7 @@ public class BrokerCtl {
      * @return The current broker record.
      */
     public BrokerModel get() {
-        return records.get(row);
+        return table.get();
     }
     
     /**
@@ -173,10 +151,31 @@ public class BrokerCtl {
      *              `null` is returned.
      */
     public BrokerModel get(int idx) {
-        if ( idx < 0 || idx >= getRecordCount() )
-            return null;
+        return table.get(idx);
+    }
+    
+    /**
+     * Retrieves the broker with the specified ID number. The brokers are
+     * indexed by their ID numbers when the table is read in, so the table does
+     * not need to be searched, and the record pointer is not moved.
+     * 
+     * @param id    The ID number of the broker to retrieve.
+     * @return      The broker with that ID number, or `null` if there is no
+     *              such broker.
+     */
+    public BrokerModel getById(long id) {
+        checkIndex();
         
-        return records.get(idx);
+        int x = ids.get(id);
+        
+        if ( x >= 0 && table.get(x).getId() != id ) {
+            // The ID was changed on the record itself, without going through
+            //+ update(), so bring the index back up to date and look again.
+            indexIds();
+            x = ids.get(id);
+        }
+        
+        return x < 0 ? null : table.get(x);
     }
     
     /**
@@ -187,68 +186,58 @@ public class BrokerCtl {
      * <dl><dt>Note</dt><dd>It is a best practice to call this method prior to
      * calling the `addNew(BrokerModel)` method as a means of ensuring each 
      * broker is only entered into the database a single time.</dd></dl>
-     * <dl><dt>Developer's Note</dt><dd>If a `javax.swing.JProgressBar` is 
-     * provided to this method, the developer will need to reset the progress
-     * bar once this method has returned from their own code, as we only set it
-     * up for use and use it on each record while the search proceeds. This 
-     * method does not zero the progress bar out once completed, nor do we 
-     * change its visibility within this method. Therefore, prior to providing
-     * the progress bar, the developer needs to make sure that it is visible to
-     * the user and, once this method returns, the developer needs to handle the
-     * progress bar how they desire.
-     * 
-     * Furthermore, this method changes the tooltip text of the progress bar to
-     * "Broker Search Progress", so the developer will also need to reset the
-     * tooltip on the progress bar once this method returns.</dd></dl>
+     * <dl><dt>Developer's Note</dt><dd>The companies are indexed by name, so
+     * this method no longer needs to look through every record, and so no
+     * longer uses the `javax.swing.JProgressBar`. The `bar` parameter is only
+     * kept so that existing callers do not need to change.</dd></dl>
      * 
      * @param company The company whose record is to be located.
-     * @param bar a `javax.swing.JProgressBar` object to visually display the
-     *            search progress to the user. May be null.
+     * @param bar no longer used. May be null.
      * @return  `BrokerModel` object containing the company record, if it exists.
      *          `null` otherwise.
      * @throws DataStoreException in the event a database access error occurs.
      */
-    public BrokerModel getByCompany(String company, javax.swing.JProgressBar bar) 
-            throws DataStoreException {
-        // Check to see if we were given a JProgressBar to work with.
-        if ( bar == null ) {
-            // If not, create one, even though it will not be displayed, just so
-            //+ we do not have to constantly repeat this check.
-            bar = new javax.swing.JProgressBar();
-        }
-        
-        bar.setMaximum(getRecordCount());
-        bar.setMinimum(0);
-        bar.setToolTipText("Broker Search Progress");
-        bar.setValue(0);
-        
-        // Store the current record number.
-        int lastRecord = getCurrentRecordNumber();
-        
-        // Prepare a record object.
-        BrokerModel tmp = null;
-        
-        if ( getRecordCount() > 0 ) {
-            // Move to the first record.
-            first();
-
-            // Now, loop through all of the records in the table.
-            for ( int x = 0; x < records.size(); x++ ) {
-                bar.setValue(x + 1);
-                // Check to see if the current record's company matches the company
-                //+ being sought by the user.
-                if ( records.get(x).getCompany().equalsIgnoreCase(company) ) {
-                    // Grab the record.
-                    tmp = records.get(x);
-
-                    // Break out of the loop because we do not need to continue.
-                    break;
-                }
-            }
-        }
+    public BrokerModel getByCompany(String company, 
+            javax.swing.JProgressBar bar) throws DataStoreException {
+        int[] rows = checked(() -> companies().findAll(company),
+                (BrokerModel r) -> same(r.getCompany(), company));
         
         // Return the record we found, or null if there was no match.
-        return tmp;
+        return rows.length == 0 ? null : table.get(rows[0]);
+    }
+    
+    /**
+     * Retrieves all of the brokers whose company names start with the
+     * specified text, ignoring case, spaces and punctuation. The brokers are
+     * found through an index of their company names, so the table does not
+     * need to be searched, and the record pointer is not moved.
+     * 
+     * @param prefix    The text with which the company names must start.
+     * @return          An `ArrayList` of the matching brokers, in table order,
+     *                  or `null` if none are found.
+     */
+    public ArrayList<BrokerModel> getCompaniesStartingWith(String prefix) {
+        return toRecords(checked(() -> companies().startingWith(prefix),
+                (BrokerModel r) -> startsWith(r.getCompany(), prefix)));
+    }
+    
+    /**
+     * Retrieves all of the brokers whose company names have a word in them
+     * that starts with the specified text, ignoring case, spaces and 
+     * punctuation. For example, "truck" finds "Acme Trucking, Inc.". This is
+     * meant for type-ahead searches, such as in the selection dialogs. The
+     * brokers are found through an index of their company names, so the 
+     * table does not need to be searched, and the record pointer is not moved.
+     * 
+     * @param prefix    The text with which a word of the company names must
+     *                  start.
+     * @return          An `ArrayList` of the matching brokers, in table order,
+     *                  or `null` if none are found.
+     */
+    public ArrayList<BrokerModel> getCompaniesWithWord(String prefix) {
+        return toRecords(checked(
+                () -> companies().withWordStartingWith(prefix),
+                (BrokerModel r) -> hasWord(r.getCompany(), prefix)));
     }
     
     /**
@@ -256,58 +245,21 @@ public class BrokerCtl {
      * broker records.This method is useful for allowing the user to filter a 
      * long list ofrecords down to narrow his/her search for a broker, such as 
      * in the Book Load Wizard.
-     * <dl><dt>Developer's Note</dt><dd>If a `javax.swing.JProgressBar` is 
-     * provided to this method, the developer will need to reset the progress
-     * bar once this method has returned from their own code, as we only set it
-     * up for use and use it on each record while the search proceeds. This 
-     * method does not zero the progress bar out once completed, nor do we 
-     * change its visibility within this method. Therefore, prior to providing
-     * the progress bar, the developer needs to make sure that it is visible to
-     * the user and, once this method returns, the developer needs to handle the
-     * progress bar how they desire.
-     * 
-     * Furthermore, this method changes the tooltip text of the progress bar to
-     * "Broker Search Progress", so the developer will also need to reset the
-     * tooltip on the progress bar once this method returns.</dd></dl>
+     * <dl><dt>Developer's Note</dt><dd>The records are indexed by state, so
+     * this method no longer needs to look through every record, and so no
+     * longer uses the `javax.swing.JProgressBar`. The `bar` parameter is only
+     * kept so that existing callers do not need to change.</dd></dl>
      * 
      * @param state The state in which the broker(s) must be located.
-     * @param bar a `javax.swing.JProgressBar` object to visually display the
-     *            search progress to the user. May be null.
+     * @param bar no longer used. May be null.
      * @return an `ArrayList` of all matching brokers, or `null` if none found.
      * @throws DataStoreException in the event a database access error occurs.
      */
     public ArrayList<BrokerModel> getCompaniesByState(String state,
             javax.swing.JProgressBar bar) throws DataStoreException {
-        // Check to see if we were given a JProgressBar to work with.
-        if ( bar == null ) {
-            // If not, create one, even though it will not be displayed, just so
-            //+ we do not have to constantly repeat this check.
-            bar = new javax.swing.JProgressBar();
-        }
-        
-        bar.setMaximum(getRecordCount());
-        bar.setMinimum(0);
-        bar.setToolTipText("Broker Search Progress");
-        bar.setValue(0);
-        
-        // Initialize our ArrayList for returning to the requesting method.
-        ArrayList<BrokerModel> tmp = new ArrayList<>();
-        
-        if ( getRecordCount() > 0 ) {
-            // Loop through all of our records.
-            for ( int x = 0; x < records.size(); x++ ) {
-                bar.setValue(x + 1);
-                // Check to see if the current record contains a broker from the 
-                //+ requested state.
-                if ( records.get(x).getState().equalsIgnoreCase(state) ) {
-                    // Add the record to our returnable ArrayList.
-                    tmp.add(records.get(x));
-                }
-            }
-        }
-        
         // Return either the list of located brokers or null.
-        return tmp.size() > 0 ? tmp : null;
+        return toRecords(checked(() -> states.get(state),
+                (BrokerModel r) -> same(r.getState(), state)));
     }
     
     
@@ -318,56 +270,21 @@ public class BrokerCtl {
      * This method is useful for allowing the user to filter a long list of 
      * records down to narrow his/her search for a broker, such as in the Book
      * Load Wizard.
-     * <dl><dt>Developer's Note</dt><dd>If a `javax.swing.JProgressBar` is 
-     * provided to this method, the developer will need to reset the progress
-     * bar once this method has returned from their own code, as we only set it
-     * up for use and use it on each record while the search proceeds. This 
-     * method does not zero the progress bar out once completed, nor do we 
-     * change its visibility within this method. Therefore, prior to providing
-     * the progress bar, the developer needs to make sure that it is visible to
-     * the user and, once this method returns, the developer needs to handle the
-     * progress bar how they desire.
-     * 
-     * Furthermore, this method changes the tooltip text of the progress bar to
-     * "Broker Search Progress", so the developer will also need to reset the
-     * tooltip on the progress bar once this method returns.</dd></dl>
+     * <dl><dt>Developer's Note</dt><dd>The records are indexed by city, so
+     * this method no longer needs to look through every record, and so no
+     * longer uses the `javax.swing.JProgressBar`. The `bar` parameter is only
+     * kept so that existing callers do not need to change.</dd></dl>
      * 
      * @param city The city in which the broker(s) must be located.
+     * @param bar no longer used. May be null.
      * @return an `ArrayList` of all matching brokers, or `null` if none found.
      * @throws DataStoreException in the event a database access error occurs.
      */
     public ArrayList<BrokerModel> getCompaniesByCity(String city,
             javax.swing.JProgressBar bar) throws DataStoreException {
-        // Check to see if we were given a JProgressBar to work with.
-        if ( bar == null ) {
-            // If not, create one, even though it will not be displayed, just so
-            //+ we do not have to constantly repeat this check.
-            bar = new javax.swing.JProgressBar();
-        }
-        
-        bar.setMaximum(getRecordCount());
-        bar.setMinimum(0);
-        bar.setToolTipText("Broker Search Progress");
-        bar.setValue(0);
-        
-        // Initialize our ArrayList for returning to the requesting method.
-        ArrayList<BrokerModel> tmp = new ArrayList<>();
-        
-        if ( getRecordCount() > 0 ) {
-            // Loop through all of our records.
-            for ( int x = 0; x < records.size(); x++ ) {
-                bar.setValue(x + 1);
-                // Check to see if the current record contains a broker from the 
-                //+ requested state.
-                if ( records.get(x).getCity().equalsIgnoreCase(city) ) {
-                    // Add the record to our returnable ArrayList.
-                    tmp.add(records.get(x));
-                }
-            }
-        }
-        
         // Return either the list of located brokers or null.
-        return tmp.size() > 0 ? tmp : null;
+        return toRecords(checked(() -> cities.get(city),
+                (BrokerModel r) -> same(r.getCity(), city)));
     }
     
     /**
@@ -376,7 +293,7 @@ public class BrokerCtl {
      * @return int The number of records
      */
     public int getRecordCount() {
-        return records.size();
+        return table.getRecordCount();
     }
     
     /**
@@ -385,7 +302,7 @@ public class BrokerCtl {
      * @return int The current record number
      */
     public int getCurrentRecordNumber() {
-        return row + 1;
+        return table.getCurrentRecordNumber();
     }
     
     /**
@@ -396,7 +313,7 @@ public class BrokerCtl {
      *          `false` otherwise.
      */
     public boolean hasNext() {
-        return row < records.size();
+        return table.hasNext();
     }
     
     /**
@@ -408,18 +325,7 @@ public class BrokerCtl {
      *                       the table
      */
     public BrokerModel first() throws DataStoreException {
-        if ( row >= 0 ) {
-            row = 0;
-            
-            try {
-                broker = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                broker = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return broker;
+        return table.first();
     }
     
     /**
@@ -431,18 +337,7 @@ public class BrokerCtl {
      *                       the table
      */
     public BrokerModel last() throws DataStoreException {
-        if ( row < getRecordCount() ) {
-            row = getRecordCount() - 1;
-            
-            try {
-                broker = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                broker = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return broker;
+        return table.last();
     }
     
     /**
@@ -454,18 +349,7 @@ public class BrokerCtl {
      *                       the table
      */
     public BrokerModel next() throws DataStoreException {
-        if ( row < getRecordCount() ) {
-            row++;
-            
-            try {
-                broker = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                broker = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return broker;
+        return table.next();
     }
     
     /**
@@ -477,18 +361,7 @@ public class BrokerCtl {
      *                       the table
      */
     public BrokerModel previous() throws DataStoreException {
-        if ( row > 0 ) {
-            row--;
-            
-            try {
-                broker = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                broker = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return broker;
+        return table.previous();
     }
     
     /**
@@ -497,9 +370,18 @@ public class BrokerCtl {
      * @param cust The new data model to use to update the record.
      */
     public void update(BrokerModel cust) {
-            broker = cust;
-            
-            records.set(row, broker);
+        table.update(cust);
+        
+        int row = table.getRow();
+        
+        if ( ids.get(cust.getId()) != row ) {
+            // The ID number was changed, so rebuild the index.
+            indexIds();
+        }
+        
+        companies = null;
+        states.set(row, cust.getState());
+        cities.set(row, cust.getCity());
     }
     
     /**
@@ -508,11 +390,15 @@ public class BrokerCtl {
      * @param cust The new customer record to add to the table
      */
     public void addNew(BrokerModel cust) {
-        records.add(cust);
-        row = getRecordCount() - 1;
+        int row = table.addNew(cust);
+        
+        ids.add(cust.getId(), row);
+        states.set(row, cust.getState());
+        cities.set(row, cust.getCity());
         
-        Starter.props.setPropertyAsInt("table.brokers.records",
-                getRecordCount());
+        if ( companies != null ) {
+            companies.add(cust.getCompany(), row);
+        }
     }
     
     /**
@@ -522,119 +408,146 @@ public class BrokerCtl {
      *                            data.
      */
     public void close() throws DataStoreException {
-        BufferedWriter out;
+        // The records changed through their setters are no longer marked as
+        //+ changed once they are saved, so they are indexed again first.
+        reindexChanged();
+        table.save();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private NameIndex companies() {
+        // The index is built on first use, and again after any update, as an
+        //+ update may have changed the company name.
+        if ( companies == null ) {
+            companies = new NameIndex();
+            
+            for ( int x = 0; x < table.getRecordCount(); x++ ) {
+                companies.add(table.get(x).getCompany(), x);
+            }
+        }
         
-        LoadMaster.loadProgress.setMaximum(
-                Starter.props.getPropertyAsInt("table.stops.records", "0"));
-        LoadMaster.loadProgress.setValue(
-                Starter.props.getPropertyAsInt("table.stops.records", "0"));
+        return companies;
+    }
+    
+    // Runs a search of one of the indexes, and checks the rows that it finds
+    //+ against the records themselves, as a record may have been changed
+    //+ through its setters, instead of through update(), since it was
+    //+ indexed. If any of them no longer match, the indexes are rebuilt, and
+    //+ the search is run again.
+    private int[] checked(Supplier<int[]> search, Predicate<BrokerModel> test) {
+        checkIndex();
         
-        if ( TABLE.exists() ) {
-            TABLE.delete();
-            try {
-                TABLE.createNewFile();
-            } catch ( IOException ex ) {
-                entry.setMessage("Something went wrong deleting and recreating the data table.");
-                entry.setThrown(ex);
-                entry.setSourceMethodName("storeData");
-                entry.setParameters(null);
-                Starter.logger.error(entry);
+        int[] rows = search.get();
+        
+        for ( int x : rows ) {
+            if ( !test.test(table.get(x)) ) {
+                reindex();
                 
-                throw new DataStoreException(ex.getMessage(), ex);
+                return search.get();
             }
         }
         
-        try {
-            out = new BufferedWriter(new FileWriter(TABLE));
-            
-            for ( int x = 0; x < records.size(); x++ ) {
-                out.write(buildRecordLine(records.get(x)) + "\n");
-                
-                LoadMaster.fileProgress.setValue(
-                        LoadMaster.fileProgress.getValue() - 1);
-            }
-            
-            out.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("storeData");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
+        return rows;
+    }
+    
+    // Rebuilds all of the indexes from the records.
+    private void reindex() {
+        indexIds();
+        
+        // Group the records by state and by city, for the list filters.
+        for ( int x = 0; x < table.getRecordCount(); x++ ) {
+            states.set(x, table.get(x).getState());
+            cities.set(x, table.get(x).getCity());
         }
-
+        
+        companies = null;
+        indexed = table.getMoveCount();
     }
-    //</editor-fold>
-
-    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
-    private void connect() throws DataStoreException {
-        BufferedReader in;
-        if ( LoadMaster.fileProgress != null ) {
-            LoadMaster.fileProgress.setMinimum(0);
-            LoadMaster.fileProgress.setMaximum(
-                    Starter.props.getPropertyAsInt("table.brokers.records", "0"));
-            LoadMaster.fileProgress.setVisible(true);
+    
+    // The rows of the records move down when the records saved by another
+    //+ controller are taken in ahead of the ones added here.
+    private void checkIndex() {
+        if ( indexed != table.getMoveCount() ) {
+            reindex();
         }
+    }
+    
+    // Brings the indexes up to date with the records that have been changed
+    //+ since they were last saved.
+    private void reindexChanged() {
+        boolean changed = false;
         
-        try {
-            in = new BufferedReader(new FileReader(TABLE));
-            
-            String line = in.readLine();
-            
-            while ( line != null ) {
-                String[] record = line.split("~");
-                
-                createAndAddRecord(record);
-                
-                line = in.readLine();
-                
-                if ( LoadMaster.fileProgress != null ) {
-                    LoadMaster.fileProgress.setValue(
-                            LoadMaster.fileProgress.getValue() + 1);
-                }
-            }
+        for ( int x : table.getModifiedRows() ) {
+            BrokerModel record = table.get(x);
             
-            row = 0;    // Set our current row to the first record.
-            
-            in.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("connect");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
-        } finally {
-            if ( LoadMaster.fileProgress != null ) {
-                LoadMaster.fileProgress.setValue(0);
-                LoadMaster.fileProgress.setVisible(false);
-            }
+            states.set(x, record.getState());
+            cities.set(x, record.getCity());
+            changed = true;
+        }
+        
+        if ( changed ) {
+            indexIds();
+            companies = null;
         }
     }
     
-    private void createAndAddRecord(String[] record) {
-        broker = new BrokerModel();
-        broker.setId(Long.parseLong(record[0]));
-        broker.setCompany(record[1]);
-        broker.setStreet(record[2]);
-        broker.setSuite(record[3]);
-        broker.setCity(record[4]);
-        broker.setState(record[5]);
-        broker.setZip(record[6]);
-        broker.setContact(record[7]);
-        broker.setPhone(record[8]);
-        broker.setFax(record[9]);
-        broker.setEmail(record[10]);
+    private ArrayList<BrokerModel> toRecords(int[] rows) {
+        if ( rows.length == 0 ) {
+            return null;
+        }
         
-        records.add(broker);
+        ArrayList<BrokerModel> tmp = new ArrayList<>(rows.length);
+        
+        for ( int x : rows ) {
+            tmp.add(table.get(x));
+        }
+        
+        return tmp;
+    }
+    
+    private void indexIds() {
+        ids.clear();
+        
+        for ( int x = 0; x < table.getRecordCount(); x++ ) {
+            ids.add(table.get(x).getId(), x);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static boolean same(String value, String sought) {
+        return NameIndex.normalize(value).equals(NameIndex.normalize(sought));
+    }
+    
+    private static boolean startsWith(String name, String prefix) {
+        return NameIndex.normalize(name).startsWith(
+                NameIndex.normalize(prefix));
+    }
+    
+    private static boolean hasWord(String name, String prefix) {
+        return (" " + NameIndex.normalize(name)).contains(" "
+                + NameIndex.normalize(prefix));
+    }
+    
+    private static BrokerModel readRecord(RecordTokenizer record) {
+        BrokerModel broker = new BrokerModel();
+        broker.setId(record.nextLong());
+        broker.setCompany(record.nextString());
+        broker.setStreet(record.nextString());
+        broker.setSuite(record.nextString());
+        broker.setCity(record.nextString());
+        broker.setState(record.nextString());
+        broker.setZip(record.nextString());
+        broker.setContact(record.nextString());
+        broker.setPhone(record.nextString());
+        broker.setFax(record.nextString());
+        broker.setEmail(record.nextString());
+        
+        return broker;
     }
     
-    private String buildRecordLine(BrokerModel model) {
+    private static String buildRecordLine(BrokerModel model) {
         return model.getId() + "~" + model.getCompany() + "~"
                 + model.getStreet() + "~" + model.getSuite() + "~"
                 + model.getCity() + "~" + model.getState() + "~"
@@ -33,18 +33,18 @@
 package com.pekinsoft.loadmaster.controller;
 
 import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.db.GroupIndex;
+import com.pekinsoft.loadmaster.db.IdIndex;
+import com.pekinsoft.loadmaster.db.NameIndex;
+import com.pekinsoft.loadmaster.db.RecordCodec;
+import com.pekinsoft.loadmaster.db.RecordTokenizer;
+import com.pekinsoft.loadmaster.db.Table;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.model.CustomerModel;
-import com.pekinsoft.loadmaster.view.LoadMaster;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  *
@@ -58,20 +58,24 @@ public class CustomerCtl {
     
     //</editor-fold>
 
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final RecordCodec<CustomerModel> CODEC = RecordCodec.of(
+            CustomerCtl::readRecord, CustomerCtl::buildRecordLine);
+    //</editor-fold>
+
     //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
     // Table Data:
-    private final File TABLE;
+    private final Table<CustomerModel> table;
     
     // Table Information:
-    private CustomerModel customer;
-    private final ArrayList<CustomerModel> records;
-    private int row;
-    
-    // System:
-    private LogRecord entry;
+    private final IdIndex ids;
+    private final GroupIndex states;
+    private final GroupIndex cities;
+    private NameIndex companies;
     
-    // Flags:
-    private boolean fileJustCreated = false;
+    // The number of times that the rows of the records had moved when they
+    //+ were last indexed.
+    private int indexed;
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Static Initializer">
@@ -82,44 +86,18 @@ public class CustomerCtl {
 
     //<editor-fold defaultstate="collapsed" desc="Intstance Initializer">
     {
-        records = new ArrayList<>();
-        row = 0;
-        entry = new LogRecord(Level.FINEST, "");
-        entry.setSourceClassName(this.getClass().getCanonicalName());
+        ids = new IdIndex();
+        states = new GroupIndex();
+        cities = new GroupIndex();
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
     public CustomerCtl () throws DataStoreException {
-        customer = new CustomerModel();
-        TABLE = new File(Starter.DB_URL + "customers.tbl");
-        
-        // Check to see if the table file exists:
-        if ( !TABLE.exists() ) {
-            try {
-                TABLE.createNewFile();
-                
-                // Set our flag:
-                fileJustCreated = true;
-            } catch (IOException ex) {
-                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                        + "\nThrowing DataStoreException...");
-                entry.setParameters(null);
-                entry.setSourceMethodName("Customer");
-                entry.setThrown(ex);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
+        table = new Table<>(new File(Starter.DB_URL + "customers.tbl"), CODEC,
+                "table.customers.records");
         
-        if ( !fileJustCreated )
-            connect();
-//        else
-//            MessageBox.showInfo("Data file was just now created.\n"
-//                    + "Add records to it, then save, in order\n"
-//                    + "to not see this message in the future.", 
-//                    "New Data File Created");
+        reindex();
     }
     //</editor-fold>
 
@@ -134,7 +112,7 @@ public class CustomerCtl {
      * @return The current customer.
      */
     public CustomerModel get() {
-        return records.get(row);
+        return table.get();
     }
     
     /**
@@ -147,10 +125,31 @@ public class CustomerCtl {
      *              `getRecordCount()`), then `null` is returned.
      */
     public CustomerModel get(int idx) {
-        if ( idx < 0 || idx >= getRecordCount() )
-            return null;
+        return table.get(idx);
+    }
+    
+    /**
+     * Retrieves the customer with the specified ID number. The customers are indexed
+     * by their ID numbers when the table is read in, so the table does not
+     * need to be searched, and the record pointer is not moved.
+     * 
+     * @param id    The ID number of the customer to retrieve.
+     * @return      The customer with that ID number, or `null` if there is no
+     *              such customer.
+     */
+    public CustomerModel getById(long id) {
+        checkIndex();
+        
+        int x = ids.get(id);
         
-        return records.get(idx);
+        if ( x >= 0 && table.get(x).getId() != id ) {
+            // The ID was changed on the record itself, without going through
+            //+ update(), so bring the index back up to date and look again.
+            indexIds();
+            x = ids.get(id);
+        }
+        
+        return x < 0 ? null : table.get(x);
     }
     
     /**
@@ -161,70 +160,58 @@ public class CustomerCtl {
      * <dl><dt>Note</dt><dd>It is a best practice to call this method prior to
      * calling the `addNew(BrokerModel)` method as a means of ensuring each 
      * broker is only entered into the database a single time.</dd></dl>
-     * <dl><dt>Developer's Note</dt><dd>If a `javax.swing.JProgressBar` is 
-     * provided to this method, the developer will need to reset the progress
-     * bar once this method has returned from their own code, as we only set it
-     * up for use and use it on each record while the search proceeds. This 
-     * method does not zero the progress bar out once completed, nor do we 
-     * change its visibility within this method. Therefore, prior to providing
-     * the progress bar, the developer needs to make sure that it is visible to
-     * the user and, once this method returns, the developer needs to handle the
-     * progress bar how they desire.
-     * 
-     * Furthermore, this method changes the tooltip text of the progress bar to
-     * "Broker Search Progress", so the developer will also need to reset the
-     * tooltip on the progress bar once this method returns.</dd></dl>
+     * <dl><dt>Developer's Note</dt><dd>The companies are indexed by name, so
+     * this method no longer needs to look through every record, and so no
+     * longer uses the `javax.swing.JProgressBar`. The `bar` parameter is only
+     * kept so that existing callers do not need to change.</dd></dl>
      * 
      * @param company The company whose record is to be located.
-     * @param bar a `javax.swing.JProgressBar` object to visually display the
-     *            search progress to the user. May be null.
+     * @param bar no longer used. May be null.
      * @return  `BrokerModel` object containing the company record, if it exists.
      *          `null` otherwise.
      * @throws DataStoreException in the event a database access error occurs.
      */
     public CustomerModel getByCompany(String company, 
             javax.swing.JProgressBar bar) throws DataStoreException {
-        // Check to see if we were given a JProgressBar to work with.
-        if ( bar == null ) {
-            // If not, create one, even though it will not be displayed, just so
-            //+ we do not have to constantly repeat this check.
-            bar = new javax.swing.JProgressBar();
-        }
-        
-        bar.setMaximum(getRecordCount());
-        bar.setMinimum(0);
-        bar.setToolTipText("Broker Search Progress");
-        bar.setValue(0);
-        
-        // Store the current record number.
-        int lastRecord = getCurrentRecordNumber();
-        
-        // Prepare a record object.
-        CustomerModel tmp = null;
-        
-        if ( getRecordCount() > 0 ) {
-            // Move to the first record.
-            first();
-
-            // Now, loop through all of the records in the table.
-            for ( int x = 0; x < records.size(); x++ ) {
-                bar.setValue(x + 1);
-                // Check to see if the current record's company matches the company
-                //+ being sought by the user.
-                if ( records.get(x).getCompany().equalsIgnoreCase(company) ) {
-                    // Grab the record.
-                    tmp = records.get(x);
-
-                    // Break out of the loop because we do not need to continue.
-                    break;
-                }
-            }
-        }
-        
-        row = lastRecord;
+        int[] rows = checked(() -> companies().findAll(company),
+                (CustomerModel r) -> same(r.getCompany(), company));
         
         // Return the record we found, or null if there was no match.
-        return tmp;
+        return rows.length == 0 ? null : table.get(rows[0]);
+    }
+    
+    /**
+     * Retrieves all of the customers whose company names start with the
+     * specified text, ignoring case, spaces and punctuation. The customers are
+     * found through an index of their company names, so the table does not
+     * need to be searched, and the record pointer is not moved.
+     * 
+     * @param prefix    The text with which the company names must start.
+     * @return          An `ArrayList` of the matching customers, in table order,
+     *                  or `null` if none are found.
+     */
+    public ArrayList<CustomerModel> getCompaniesStartingWith(String prefix) {
+        return toRecords(checked(() -> companies().startingWith(prefix),
+                (CustomerModel r) -> startsWith(r.getCompany(), prefix)));
+    }
+    
+    /**
+     * Retrieves all of the customers whose company names have a word in them
+     * that starts with the specified text, ignoring case, spaces and 
+     * punctuation. For example, "truck" finds "Acme Trucking, Inc.". This is
+     * meant for type-ahead searches, such as in the selection dialogs. The
+     * customers are found through an index of their company names, so the 
+     * table does not need to be searched, and the record pointer is not moved.
+     * 
+     * @param prefix    The text with which a word of the company names must
+     *                  start.
+     * @return          An `ArrayList` of the matching customers, in table order,
+     *                  or `null` if none are found.
+     */
+    public ArrayList<CustomerModel> getCompaniesWithWord(String prefix) {
+        return toRecords(checked(
+                () -> companies().withWordStartingWith(prefix),
+                (CustomerModel r) -> hasWord(r.getCompany(), prefix)));
     }
     
     /**
@@ -232,58 +219,21 @@ public class CustomerCtl {
      * customer records.This method is useful for allowing the user to filter a 
      * long list ofrecords down to narrow his/her search for a customer, such as 
      * in the Book Load Wizard.
-     * <dl><dt>Developer's Note</dt><dd>If a `javax.swing.JProgressBar` is 
-     * provided to this method, the developer will need to reset the progress
-     * bar once this method has returned from their own code, as we only set it
-     * up for use and use it on each record while the search proceeds. This 
-     * method does not zero the progress bar out once completed, nor do we 
-     * change its visibility within this method. Therefore, prior to providing
-     * the progress bar, the developer needs to make sure that it is visible to
-     * the user and, once this method returns, the developer needs to handle the
-     * progress bar how they desire.
-     * 
-     * Furthermore, this method changes the tooltip text of the progress bar to
-     * "Broker Search Progress", so the developer will also need to reset the
-     * tooltip on the progress bar once this method returns.</dd></dl>
+     * <dl><dt>Developer's Note</dt><dd>The records are indexed by state, so
+     * this method no longer needs to look through every record, and so no
+     * longer uses the `javax.swing.JProgressBar`. The `bar` parameter is only
+     * kept so that existing callers do not need to change.</dd></dl>
      * 
      * @param state The state in which the customer(s) must be located.
-     * @param bar a `javax.swing.JProgressBar` object to visually display the
-     *            search progress to the user. May be null.
+     * @param bar no longer used. May be null.
      * @return an `ArrayList` of all matching customers, or `null` if none found.
      * @throws DataStoreException in the event a database access error occurs.
      */
     public ArrayList<CustomerModel> getCompaniesByState(String state,
             javax.swing.JProgressBar bar) throws DataStoreException {
-        // Check to see if we were given a JProgressBar to work with.
-        if ( bar == null ) {
-            // If not, create one, even though it will not be displayed, just so
-            //+ we do not have to constantly repeat this check.
-            bar = new javax.swing.JProgressBar();
-        }
-        
-        bar.setMaximum(getRecordCount());
-        bar.setMinimum(0);
-        bar.setToolTipText("Broker Search Progress");
-        bar.setValue(0);
-        
-        // Initialize our ArrayList for returning to the requesting method.
-        ArrayList<CustomerModel> tmp = new ArrayList<>();
-        
-        if ( getRecordCount() > 0 ) {
-            // Loop through all of our records.
-            for ( int x = 0; x < records.size(); x++ ) {
-                bar.setValue(x + 1);
-                // Check to see if the current record contains a broker from the 
-                //+ requested state.
-                if ( records.get(x).getState().equalsIgnoreCase(state) ) {
-                    // Add the record to our returnable ArrayList.
-                    tmp.add(records.get(x));
-                }
-            }
-        }
-        
-        // Return either the list of located brokers or null.
-        return tmp.size() > 0 ? tmp : null;
+        // Return either the list of located customers or null.
+        return toRecords(checked(() -> states.get(state),
+                (CustomerModel r) -> same(r.getState(), state)));
     }
         
     /**
@@ -293,130 +243,47 @@ public class CustomerCtl {
      * This method is useful for allowing the user to filter a long list of 
      * records down to narrow his/her search for a customer, such as in the Book
      * Load Wizard.
-     * <dl><dt>Developer's Note</dt><dd>If a `javax.swing.JProgressBar` is 
-     * provided to this method, the developer will need to reset the progress
-     * bar once this method has returned from their own code, as we only set it
-     * up for use and use it on each record while the search proceeds. This 
-     * method does not zero the progress bar out once completed, nor do we 
-     * change its visibility within this method. Therefore, prior to providing
-     * the progress bar, the developer needs to make sure that it is visible to
-     * the user and, once this method returns, the developer needs to handle the
-     * progress bar how they desire.
-     * 
-     * Furthermore, this method changes the tooltip text of the progress bar to
-     * "Broker Search Progress", so the developer will also need to reset the
-     * tooltip on the progress bar once this method returns.</dd></dl>
+     * <dl><dt>Developer's Note</dt><dd>The records are indexed by city, so
+     * this method no longer needs to look through every record, and so no
+     * longer uses the `javax.swing.JProgressBar`. The `bar` parameter is only
+     * kept so that existing callers do not need to change.</dd></dl>
      * 
      * @param city The city in which the customer(s) must be located.
+     * @param bar no longer used. May be null.
      * @return an `ArrayList` of all matching customers, or `null` if none found.
      * @throws DataStoreException in the event a database access error occurs.
      */
     public ArrayList<CustomerModel> getCompaniesByCity(String city,
             javax.swing.JProgressBar bar) throws DataStoreException {
-        // Check to see if we were given a JProgressBar to work with.
-        if ( bar == null ) {
-            // If not, create one, even though it will not be displayed, just so
-            //+ we do not have to constantly repeat this check.
-            bar = new javax.swing.JProgressBar();
-        }
-        
-        bar.setMaximum(getRecordCount());
-        bar.setMinimum(0);
-        bar.setToolTipText("Broker Search Progress");
-        bar.setValue(0);
-        
-        // Initialize our ArrayList for returning to the requesting method.
-        ArrayList<CustomerModel> tmp = new ArrayList<>();
-        
-        if ( getRecordCount() > 0 ) {
-            // Loop through all of our records.
-            for ( int x = 0; x < records.size(); x++ ) {
-                bar.setValue(x + 1);
-                // Check to see if the current record contains a broker from the 
-                //+ requested state.
-                if ( records.get(x).getCity().equalsIgnoreCase(city) ) {
-                    // Add the record to our returnable ArrayList.
-                    tmp.add(records.get(x));
-                }
-            }
-        }
-        
-        // Return either the list of located brokers or null.
-        return tmp.size() > 0 ? tmp : null;
+        // Return either the list of located customers or null.
+        return toRecords(checked(() -> cities.get(city),
+                (CustomerModel r) -> same(r.getCity(), city)));
     }
     
     /**
-     * Provides a method of retrieving the record for the specified company.
+     * Provides a method of retrieving all of the records for the specified
+     * company, such as when a company has more than one location.
      * This method may be used to find that specific company for multiple 
      * purposes, including to make sure the user is not attempting to enter the 
      * same company record multiple times. 
      * <dl><dt>Note</dt><dd>It is a best practice to call this method prior to
      * calling the `addNew(BrokerModel)` method as a means of ensuring each 
      * broker is only entered into the database a single time.</dd></dl>
-     * <dl><dt>Developer's Note</dt><dd>If a `javax.swing.JProgressBar` is 
-     * provided to this method, the developer will need to reset the progress
-     * bar once this method has returned from their own code, as we only set it
-     * up for use and use it on each record while the search proceeds. This 
-     * method does not zero the progress bar out once completed, nor do we 
-     * change its visibility within this method. Therefore, prior to providing
-     * the progress bar, the developer needs to make sure that it is visible to
-     * the user and, once this method returns, the developer needs to handle the
-     * progress bar how they desire.
-     * 
-     * Furthermore, this method changes the tooltip text of the progress bar to
-     * "Broker Search Progress", so the developer will also need to reset the
-     * tooltip on the progress bar once this method returns.</dd></dl>
+     * <dl><dt>Developer's Note</dt><dd>The companies are indexed by name, so
+     * this method no longer needs to look through every record, and so no
+     * longer uses the `javax.swing.JProgressBar`. The `bar` parameter is only
+     * kept so that existing callers do not need to change.</dd></dl>
      * 
      * @param company The company whose record is to be located.
-     * @param bar a `javax.swing.JProgressBar` object to visually display the
-     *            search progress to the user. May be null.
+     * @param bar no longer used. May be null.
      * @return  `ArrayList<BrokerModel>` object containing the company records, 
      *          if any exist. `null` otherwise.
      * @throws DataStoreException in the event a database access error occurs.
      */
     public ArrayList<CustomerModel> getCustomersByCompany(String company, 
             javax.swing.JProgressBar bar) throws DataStoreException {
-        // Check to see if we were given a JProgressBar to work with.
-        if ( bar == null ) {
-            // If not, create one, even though it will not be displayed, just so
-            //+ we do not have to constantly repeat this check.
-            bar = new javax.swing.JProgressBar();
-        }
-        
-        bar.setMaximum(getRecordCount());
-        bar.setMinimum(0);
-        bar.setToolTipText("Broker Search Progress");
-        bar.setValue(0);
-        
-        // Store the current record number.
-        int lastRecord = getCurrentRecordNumber();
-        
-        // Prepare a record object.
-        ArrayList<CustomerModel> tmp = new ArrayList<>();
-        
-        if ( getRecordCount() > 0 ) {
-            // Move to the first record.
-            first();
-
-            // Now, loop through all of the records in the table.
-            for ( int x = 0; x < records.size(); x++ ) {
-                bar.setValue(x + 1);
-                // Check to see if the current record's company matches the company
-                //+ being sought by the user.
-                if ( records.get(x).getCompany().equalsIgnoreCase(company) ) {
-                    // Grab the record.
-                    tmp.add(records.get(x));
-
-                    // Break out of the loop because we do not need to continue.
-                    break;
-                }
-            }
-        }
-        
-        row = lastRecord;
-        
-        // Return the record we found, or null if there was no match.
-        return tmp.size() > 0 ? tmp : null;
+        return toRecords(checked(() -> companies().findAll(company),
+                (CustomerModel r) -> same(r.getCompany(), company)));
     }
     
     /**
@@ -425,7 +292,7 @@ public class CustomerCtl {
      * @return int The number of records
      */
     public int getRecordCount() {
-        return records.size();
+        return table.getRecordCount();
     }
     
     /**
@@ -434,12 +301,12 @@ public class CustomerCtl {
      * @return int The current record number
      */
     public int getCurrentRecordNumber() {
-        return row + 1;
+        return table.getCurrentRecordNumber();
     }
     
     
     public boolean hasNext() {
-        return row < records.size();
+        return table.hasNext();
     }
     
     /**
@@ -451,18 +318,7 @@ public class CustomerCtl {
      *                       the table
      */
     public CustomerModel first() throws DataStoreException {
-        if ( row >= 0 ) {
-            row = 0;
-            
-            try {
-                customer = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                customer = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return customer;
+        return table.first();
     }
     
     /**
@@ -474,18 +330,7 @@ public class CustomerCtl {
      *                       the table
      */
     public CustomerModel last() throws DataStoreException {
-        if ( row < getRecordCount() ) {
-            row = getRecordCount() - 1;
-            
-            try {
-                customer = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                customer = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return customer;
+        return table.last();
     }
     
     /**
@@ -497,18 +342,7 @@ public class CustomerCtl {
      *                       the table
      */
     public CustomerModel next() throws DataStoreException {
-        if ( row < getRecordCount() ) {
-            row++;
-            
-            try {
-                customer = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                customer = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return customer;
+        return table.next();
     }
     
     /**
@@ -520,18 +354,7 @@ public class CustomerCtl {
      *                       the table
      */
     public CustomerModel previous() throws DataStoreException {
-        if ( row > 0 ) {
-            row--;
-            
-            try {
-                customer = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                customer = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return customer;
+        return table.previous();
     }
     
     /**
@@ -540,9 +363,18 @@ public class CustomerCtl {
      * @param cust The new data model to use to update the record.
      */
     public void update(CustomerModel cust) {
-            customer = cust;
-            
-            records.set(row, customer);
+        table.update(cust);
+        
+        int row = table.getRow();
+        
+        if ( ids.get(cust.getId()) != row ) {
+            // The ID number was changed, so rebuild the index.
+            indexIds();
+        }
+        
+        companies = null;
+        states.set(row, cust.getState());
+        cities.set(row, cust.getCity());
     }
     
     /**
@@ -551,11 +383,15 @@ public class CustomerCtl {
      * @param cust The new customer record to add to the table
      */
     public void addNew(CustomerModel cust) {
-        records.add(cust);
-        row = getRecordCount() - 1;
+        int row = table.addNew(cust);
         
-        Starter.props.setPropertyAsInt("table.customers.records",
-                getRecordCount());
+        ids.add(cust.getId(), row);
+        states.set(row, cust.getState());
+        cities.set(row, cust.getCity());
+        
+        if ( companies != null ) {
+            companies.add(cust.getCompany(), row);
+        }
     }
     
     /**
@@ -565,118 +401,145 @@ public class CustomerCtl {
      *                            data.
      */
     public void storeData() throws DataStoreException {
-        BufferedWriter out;
-        
-        LoadMaster.loadProgress.setMaximum(
-                Starter.props.getPropertyAsInt("table.customers.records", "0"));
-        LoadMaster.loadProgress.setValue(
-                Starter.props.getPropertyAsInt("table.customers.records", "0"));
-        
-        if ( TABLE.exists() ) {
-            TABLE.delete();
-            try {
-                TABLE.createNewFile();
-            } catch ( IOException ex ) {
-                entry.setMessage("Something went wrong deleting and recreating the data table.");
-                entry.setThrown(ex);
-                entry.setSourceMethodName("storeData");
-                entry.setParameters(null);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
+        // The records changed through their setters are no longer marked as
+        //+ changed once they are saved, so they are indexed again first.
+        reindexChanged();
+        table.save();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private NameIndex companies() {
+        // The index is built on first use, and again after any update, as an
+        //+ update may have changed the company name.
+        if ( companies == null ) {
+            companies = new NameIndex();
+            
+            for ( int x = 0; x < table.getRecordCount(); x++ ) {
+                companies.add(table.get(x).getCompany(), x);
             }
         }
         
-        try {
-            out = new BufferedWriter(new FileWriter(TABLE));
-            
-            for ( int x = 0; x < records.size(); x++ ) {
-                out.write(buildRecordLine(records.get(x)) + "\n");
+        return companies;
+    }
+    
+    // Runs a search of one of the indexes, and checks the rows that it finds
+    //+ against the records themselves, as a record may have been changed
+    //+ through its setters, instead of through update(), since it was
+    //+ indexed. If any of them no longer match, the indexes are rebuilt, and
+    //+ the search is run again.
+    private int[] checked(Supplier<int[]> search, Predicate<CustomerModel> test) {
+        checkIndex();
+        
+        int[] rows = search.get();
+        
+        for ( int x : rows ) {
+            if ( !test.test(table.get(x)) ) {
+                reindex();
                 
-                LoadMaster.fileProgress.setValue(
-                        LoadMaster.fileProgress.getValue() - 1);
+                return search.get();
             }
-            
-            out.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("storeData");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
         }
-
+        
+        return rows;
     }
-    //</editor-fold>
-
-    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
-    private void connect() throws DataStoreException {
-        BufferedReader in;
-        if ( LoadMaster.fileProgress != null ) {
-            LoadMaster.fileProgress.setMinimum(0);
-            LoadMaster.fileProgress.setMaximum(
-                    Starter.props.getPropertyAsInt("table.customers.records", "0"));
-            LoadMaster.fileProgress.setVisible(true);
+    
+    // Rebuilds all of the indexes from the records.
+    private void reindex() {
+        indexIds();
+        
+        // Group the records by state and by city, for the list filters.
+        for ( int x = 0; x < table.getRecordCount(); x++ ) {
+            states.set(x, table.get(x).getState());
+            cities.set(x, table.get(x).getCity());
         }
         
-        try {
-            in = new BufferedReader(new FileReader(TABLE));
-            
-            String line = in.readLine();
-            
-            while ( line != null ) {
-                String[] record = line.split("~");
-                
-                createAndAddRecord(record);
-                
-                line = in.readLine();
-
-                if ( LoadMaster.fileProgress != null ) {
-                    LoadMaster.fileProgress.setValue(
-                            LoadMaster.fileProgress.getValue() + 1);
-                }
-            }
-            
-            row = 0;    // Set our current row to the first record.
-            
-            in.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("connect");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
+        companies = null;
+        indexed = table.getMoveCount();
+    }
+    
+    // The rows of the records move down when the records saved by another
+    //+ controller are taken in ahead of the ones added here.
+    private void checkIndex() {
+        if ( indexed != table.getMoveCount() ) {
+            reindex();
+        }
+    }
+    
+    // Brings the indexes up to date with the records that have been changed
+    //+ since they were last saved.
+    private void reindexChanged() {
+        boolean changed = false;
+        
+        for ( int x : table.getModifiedRows() ) {
+            CustomerModel record = table.get(x);
             
-            throw new DataStoreException(ex.getMessage(), ex);
-        } finally {
-            if ( LoadMaster.fileProgress != null ) {
-                LoadMaster.fileProgress.setValue(0);
-                LoadMaster.fileProgress.setVisible(false);
-            }
+            states.set(x, record.getState());
+            cities.set(x, record.getCity());
+            changed = true;
+        }
+        
+        if ( changed ) {
+            indexIds();
+            companies = null;
+        }
+    }
+    
+    private ArrayList<CustomerModel> toRecords(int[] rows) {
+        if ( rows.length == 0 ) {
+            return null;
+        }
+        
+        ArrayList<CustomerModel> tmp = new ArrayList<>(rows.length);
+        
+        for ( int x : rows ) {
+            tmp.add(table.get(x));
         }
+        
+        return tmp;
     }
     
-    private void createAndAddRecord(String[] record) {
-        customer = new CustomerModel();
-        customer.setId(Long.parseLong(record[0]));
-        customer.setCompany(record[1]);
-        customer.setStreet(record[2]);
-        customer.setSuite(record[3]);
-        customer.setCity(record[4]);
-        customer.setState(record[5]);
-        customer.setZip(record[6]);
-        customer.setContact(record[7]);
-        customer.setPhone(record[8]);
-        customer.setComments(record[9]);
+    private void indexIds() {
+        ids.clear();
         
-        records.add(customer);
+        for ( int x = 0; x < table.getRecordCount(); x++ ) {
+            ids.add(table.get(x).getId(), x);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static boolean same(String value, String sought) {
+        return NameIndex.normalize(value).equals(NameIndex.normalize(sought));
+    }
+    
+    private static boolean startsWith(String name, String prefix) {
+        return NameIndex.normalize(name).startsWith(
+                NameIndex.normalize(prefix));
+    }
+    
+    private static boolean hasWord(String name, String prefix) {
+        return (" " + NameIndex.normalize(name)).contains(" "
+                + NameIndex.normalize(prefix));
+    }
+    
+    private static CustomerModel readRecord(RecordTokenizer record) {
+        CustomerModel customer = new CustomerModel();
+        customer.setId(record.nextLong());
+        customer.setCompany(record.nextString());
+        customer.setStreet(record.nextString());
+        customer.setSuite(record.nextString());
+        customer.setCity(record.nextString());
+        customer.setState(record.nextString());
+        customer.setZip(record.nextString());
+        customer.setContact(record.nextString());
+        customer.setPhone(record.nextString());
+        customer.setComments(record.nextString());
+        
+        return customer;
     }
     
-    private String buildRecordLine(CustomerModel model) {
+    private static String buildRecordLine(CustomerModel model) {
         return model.getId() + "~" + model.getCompany() + "~"
                 + model.getStreet() + "~" + model.getSuite() + "~"
                 + model.getCity() + "~" + model.getState() + "~"
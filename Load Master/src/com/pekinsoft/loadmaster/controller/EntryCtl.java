@@ -33,19 +33,22 @@
 package com.pekinsoft.loadmaster.controller;
 
 import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.db.ChangeLog;
+import com.pekinsoft.loadmaster.db.RecordCodec;
+import com.pekinsoft.loadmaster.db.RecordCursor;
+import com.pekinsoft.loadmaster.db.RecordTokenizer;
+import com.pekinsoft.loadmaster.db.SqlStore;
+import com.pekinsoft.loadmaster.db.SqlTable;
+import com.pekinsoft.loadmaster.db.Table;
+import com.pekinsoft.loadmaster.db.TableLoader;
+import com.pekinsoft.loadmaster.db.TablePartitions;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.model.EntryModel;
-import com.pekinsoft.loadmaster.utils.MessageBox;
-import com.pekinsoft.loadmaster.view.LoadMaster;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import com.pekinsoft.loadmaster.sys.Logger;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
@@ -64,16 +67,13 @@ public class EntryCtl {
     
     //</editor-fold>
 
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final RecordCodec<EntryModel> CODEC = RecordCodec.of(
+            EntryCtl::readRecord, EntryCtl::buildRecordLine);
+    //</editor-fold>
+
     //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
-    private final ArrayList<EntryModel> records;
-    private final File TABLE;
-    
-    private final LogRecord entry;
-    
-    private EntryModel record;
-    private int row;
-    
-    private boolean fileJustCreated;
+    private final Table<EntryModel> table;
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Static Initializer">
@@ -90,62 +90,114 @@ public class EntryCtl {
 
     //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
     public EntryCtl () throws DataStoreException {
-        entry = new LogRecord(Level.ALL, "Logging initiated for EntryCtl class.");
+        LogRecord entry = new LogRecord(Level.ALL, "Logging initiated for EntryCtl class.");
         entry.setSourceClassName(this.getClass().getName());
         entry.setSourceMethodName("EntryCtl (Constructor)");
         entry.setParameters(null);
         Starter.logger.enter(entry);
         
-        fileJustCreated = false;
-        
-        records = new ArrayList<>();
-        record = new EntryModel();
-        row = 0;
+        table = new Table<>(new File(Starter.props.getDataFolder()
+                + "0.ldgr"), CODEC, "journal.gl.records", 0);
         
-        TABLE = new File(Starter.props.getDataFolder() + "0.ldgr");
+        entry.setMessage("Done creating EntryCtl object.");
+        Starter.logger.exit(entry, null);
+    }
+    //</editor-fold>
 
-        // Check to see if the table file exists:
-        if ( !TABLE.exists() ) {
-            try {
-                TABLE.createNewFile();
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Totals up the amounts that have been posted to and from the specified
+     * account in the General Ledger, as it was last saved. The ledger is
+     * scanned directly from the table file, so it does not need to be read
+     * into memory, and only the account and amount fields of each entry are
+     * parsed. Once the ledger has been migrated into the `SqlStore`, the
+     * total is taken from the database, through its account indexes, instead.
+     * 
+     * @param account the account number to total.
+     * @return the amounts posted to the account, less the amounts posted from
+     *         it.
+     * @throws DataStoreException in the event the ledger cannot be read.
+     */
+    public static double getAccountTotal(int account) 
+            throws DataStoreException {
+        SqlStore store = SqlStore.getInstance();
+        
+        if ( store != null && store.isMigrated(SqlTable.LEDGER) ) {
+            return store.queryForDouble("SELECT SUM(amount) FROM ledger "
+                    + "WHERE to_account = ?", account)
+                    - store.queryForDouble("SELECT SUM(amount) FROM ledger "
+                    + "WHERE from_account = ?", account);
+        }
+        
+        File ledger = new File(Starter.props.getDataFolder() + "0.ldgr");
+        double[] total = {0};
+        
+        try {
+            // The ledger may have been split up into partitions.
+            for ( File part : TablePartitions.getFiles(ledger) ) {
+                new ChangeLog(part).scan((int x, RecordTokenizer record) -> {
+                    record.skip();  // Date
+                    record.skip();  // Code
+                    record.skip();  // Description
+                
+                    int from = record.nextInt();
+                    int to = record.nextInt();
+                    double amount = record.nextDouble();
                 
-                // Set our flag:
-                fileJustCreated = true;
-            } catch (IOException ex) {
-                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                        + "\nThrowing DataStoreException...");
-                entry.setParameters(null);
-                entry.setSourceMethodName("EntryCtl");
-                entry.setThrown(ex);
-                Starter.logger.error(entry);
+                    if ( to == account ) {
+                        total[0] += amount;
+                    }
                 
-                throw new DataStoreException(ex.getMessage(), ex);
+                    if ( from == account ) {
+                        total[0] -= amount;
+                    }
+                
+                    return true;
+                });
             }
+        } catch ( IOException ex ) {
+            LogRecord entry = Logger.newRecord(EntryCtl.class);
+            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                    + "Throwing DataStoreException to calling method...");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("getAccountTotal");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+            
+            throw new DataStoreException(ex.getMessage(), ex);
         }
         
-        if ( !fileJustCreated )
-            connect();
-//        else
-//            MessageBox.showInfo("Data file was just now created.\n"
-//                    + "Add records to it, then save, in order\n"
-//                    + "to not see this message in the future.", 
-//                    "New Data File Created");
-        
-        entry.setMessage("Done creating EntryCtl object.");
-        Starter.logger.exit(entry, null);
+        return total[0];
     }
-    //</editor-fold>
-
-    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
     
+    /**
+     * Opens a cursor over the ledger entries that match a filter, which reads
+     * them in from the disk a page at a time, instead of reading in the whole
+     * table. This is the way to browse the General Ledger, which grows with
+     * every entry posted to it, when only some of the entries are wanted.
+     * 
+     * <dl><dt>Note</dt><dd>The cursor sees the table as it was last saved, so
+     * any changes made through an `EntryCtl` must be saved before the cursor is
+     * opened if the cursor is to see them. The cursor must be closed once it is
+     * no longer needed.</dd></dl>
+     * 
+     * @param filter the test that an entry must pass to be seen by the cursor,
+     *               or `null` for all of them.
+     * @param pageSize the number of entries to read from the disk at a time.
+     * @return the cursor, positioned at the first matching entry.
+     * @throws DataStoreException in the event the table cannot be read.
+     */
+    public static RecordCursor<EntryModel> openCursor(
+            Predicate<EntryModel> filter, int pageSize)
+            throws DataStoreException {
+        return Table.openCursor(new File(Starter.props.getDataFolder()
+                + "0.ldgr"), CODEC, filter, pageSize);
+    }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
     public void addNew(EntryModel model) {
-        records.add(model);
-        row = getRecordCount() - 1;
-        
-        Starter.props.setPropertyAsInt("journal.gl.records", getRecordCount());
+        table.addNew(model);
     }
     
     public void close() throws DataStoreException {
@@ -161,18 +213,7 @@ public class EntryCtl {
      *                       the ledger
      */
     public EntryModel first() throws DataStoreException {
-        if ( row >= 0 ) {
-            row = 0;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.first();
     }
     
     /**
@@ -184,18 +225,7 @@ public class EntryCtl {
      *                       the ledger
      */
     public EntryModel previous() throws DataStoreException {
-        if ( row > 0 ) {
-            row--;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.previous();
     }
     
     /**
@@ -207,18 +237,7 @@ public class EntryCtl {
      *                       the ledger
      */
     public EntryModel next() throws DataStoreException {
-        if ( row < records.size() ) {
-            row++;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.next();
     }
     
     /**
@@ -230,18 +249,7 @@ public class EntryCtl {
      *                       the ledger
      */
     public EntryModel last() throws DataStoreException {
-        if ( row < records.size() ) {
-            row = records.size() - 1;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.last();
     }
     
     /**
@@ -250,7 +258,7 @@ public class EntryCtl {
      * @return `true` if more transactions, `false` if not.
      */
     public boolean hasNext() {
-        return row < records.size();
+        return table.hasNext();
     }
     
     /**
@@ -259,7 +267,7 @@ public class EntryCtl {
      * @return The current entry.
      */
     public EntryModel get() {
-        return records.get(row);
+        return table.get();
     }
     
     /**
@@ -272,7 +280,7 @@ public class EntryCtl {
      *              `getRecordCount()`), null is returned.
      */
     public EntryModel get(int idx) {
-        return records.get(idx);
+        return table.get(idx);
     }
     
     /**
@@ -281,7 +289,7 @@ public class EntryCtl {
      * @return int The current record number
      */
     public int getCurrentRecordNumber() {
-        return row + 1;
+        return table.getCurrentRecordNumber();
     }
     
     /**
@@ -290,164 +298,55 @@ public class EntryCtl {
      * @return int The number of records
      */
     public int getRecordCount() {
-        return records.size();
+        return table.getRecordCount();
     }
     
     public void update(EntryModel model) {
-        record = model;
-        
-        records.set(row, model);
+        table.update(model);
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
-    private void connect() throws DataStoreException {
-        entry.setMessage("Enter...");
-        entry.setSourceMethodName("connect");
-        entry.setParameters(new Object[]{});
-        Starter.logger.enter(entry);
-        
-        BufferedReader in;
-        
-        entry.setMessage("Setting up LoadMaster.fileProgress...");
-        entry.setParameters(null);
-        Starter.logger.config(entry);
-        
-        if ( LoadMaster.fileProgress != null ) {
-            LoadMaster.fileProgress.setMaximum(
-                    Starter.props.getPropertyAsInt("table.loads.records", "0") 
-                    + (Starter.props.getPropertyAsInt("table.stops.records", "0") * 2));
-            LoadMaster.fileProgress.setValue(0);
-            LoadMaster.fileProgress.setVisible(true);
-        }
-        
-        try {
-            in = new BufferedReader(new FileReader(TABLE));
-            
-            String line = in.readLine();
-            
-            while ( line != null ) {
-                String[] record = line.split("~");
-                
-                createAndAddRecord(record);
-                
-                line = in.readLine();
-
-                if ( LoadMaster.fileProgress != null ) {
-                    LoadMaster.fileProgress.setValue(
-                            LoadMaster.fileProgress.getValue() + 1);
-                }
-            }
-            
-            row = 0;    // Set our current row to the first record.
-            
-            in.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("connect");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
-        } finally {
-            if ( LoadMaster.fileProgress != null ) {
-                LoadMaster.fileProgress.setValue(0);
-                LoadMaster.fileProgress.setVisible(false);
-            }
-        }
-    }
-    
     private void save() throws DataStoreException {
-        BufferedWriter out;
-        
-        LoadMaster.loadProgress.setMaximum(
-                Starter.props.getPropertyAsInt("table.stops.records", "0"));
-        LoadMaster.loadProgress.setValue(
-                Starter.props.getPropertyAsInt("table.stops.records", "0"));
-        
-        if ( TABLE.exists() ) {
-            TABLE.delete();
-            try {
-                TABLE.createNewFile();
-            } catch ( IOException ex ) {
-                entry.setMessage("Something went wrong deleting and recreating the data table.");
-                entry.setThrown(ex);
-                entry.setSourceMethodName("storeData");
-                entry.setParameters(null);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        try {
-            out = new BufferedWriter(new FileWriter(TABLE));
-            
-            for ( int x = 0; x < records.size(); x++ ) {
-                out.write(buildRecordLine(records.get(x)) + "\n");
-                
-                LoadMaster.fileProgress.setValue(
-                        LoadMaster.fileProgress.getValue() - 1);
-            }
-            
-            out.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("storeData");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
-        }
-    }
-    
-    private String buildRecordLine(EntryModel model) {
-        return record.getDateAsString() + "~" + record.getCode() + "~"
-                + record.getDescription() + "~" + record.getFromAccount()
-                + "~" + record.getToAccount() + "~" + record.getAmount()
-                + "~" + record.isDeductible() + "~" + record.isBalanced();
+        table.save();
     }
-    
-    private void createAndAddRecord(String[] line) {
-        entry.setMessage("Entering...");
-        entry.setSourceMethodName("createAndAddRecord");
-        entry.setParameters(line);
-        Starter.logger.enter(entry);
-        
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        
-        record = new EntryModel();
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static EntryModel readRecord(RecordTokenizer line) {
+        EntryModel record = new EntryModel();
         
         
         try {
-            record.setDate(sdf.parse(line[0]));
+            record.setDate(line.nextDate());
         } catch ( ParseException ex ) {
+            LogRecord entry = Logger.newRecord(EntryCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
                     + "Parsing error while parsing the dispatch date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Parsing Error");
+            TableLoader.reportError(ex, "Parsing Error");
         }
         
-        record.setCode(line[1]);
-        record.setDescription(line[2]);
-        record.setFromAccount(Integer.parseInt(line[3]));
-        record.setToAccount(Integer.parseInt(line[4]));
-        record.setAmount(Double.parseDouble(line[5]));
-        record.setDeductible(Boolean.parseBoolean(line[6]));
-        record.setBalanced(Boolean.parseBoolean(line[7]));
-        
-        records.add(record);
+        record.setCode(line.nextString());
+        record.setDescription(line.nextString());
+        record.setFromAccount(line.nextInt());
+        record.setToAccount(line.nextInt());
+        record.setAmount(line.nextDouble());
+        record.setDeductible(line.nextBoolean());
+        record.setBalanced(line.nextBoolean());
         
-        LoadMaster.fileProgress.setValue(
-                LoadMaster.fileProgress.getValue() + 1);
+        return record;
+    }
+    
+    private static String buildRecordLine(EntryModel model) {
+        return model.getDateAsString() + "~" + model.getCode() + "~"
+                + model.getDescription() + "~" + model.getFromAccount()
+                + "~" + model.getToAccount() + "~" + model.getAmount()
+                + "~" + model.isDeductible() + "~" + model.isBalanced();
     }
     //</editor-fold>
 
@@ -33,19 +33,20 @@
 package com.pekinsoft.loadmaster.controller;
 
 import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.db.ChangeLog;
+import com.pekinsoft.loadmaster.db.RecordCodec;
+import com.pekinsoft.loadmaster.db.RecordCursor;
+import com.pekinsoft.loadmaster.db.RecordTokenizer;
+import com.pekinsoft.loadmaster.db.Table;
+import com.pekinsoft.loadmaster.db.TableLoader;
+import com.pekinsoft.loadmaster.db.TablePartitions;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.model.FuelPurchaseModel;
-import com.pekinsoft.loadmaster.utils.MessageBox;
-import com.pekinsoft.loadmaster.view.LoadMaster;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import com.pekinsoft.loadmaster.sys.Logger;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
@@ -61,16 +62,13 @@ public class FuelPurchaseCtl {
     
     //</editor-fold>
 
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final RecordCodec<FuelPurchaseModel> CODEC = RecordCodec.of(
+            FuelPurchaseCtl::readRecord, FuelPurchaseCtl::buildRecordLine);
+    //</editor-fold>
+
     //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
-    private final ArrayList<FuelPurchaseModel> records;
-    private final File TABLE;
-    
-    private final LogRecord entry;
-    
-    private FuelPurchaseModel record;
-    private int row;
-    
-    private boolean fileJustCreated;
+    private final Table<FuelPurchaseModel> table;
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Static Initializer">
@@ -87,62 +85,96 @@ public class FuelPurchaseCtl {
 
     //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
     public FuelPurchaseCtl () throws DataStoreException {
-        entry = new LogRecord(Level.ALL, "Logging initiated for ReceivablesCtl "
+        LogRecord entry = new LogRecord(Level.ALL, "Logging initiated for ReceivablesCtl "
                 + "class.");
         entry.setSourceClassName(this.getClass().getName());
         entry.setSourceMethodName("FuelPurchaseCtl (Constructor)");
         entry.setParameters(null);
         Starter.logger.enter(entry);
         
-        fileJustCreated = false;
-        
-        records = new ArrayList<>();
-        row = 0;
+        table = new Table<>(new File(Starter.props.getDataFolder()
+                + "10040.jrnl"), CODEC, "journal.fuel.records", 1);
         
-        TABLE = new File(Starter.props.getDataFolder() + "10040.jrnl");
+        entry.setMessage("Done creating FuelPurchaseCtl object.");
+        Starter.logger.exit(entry, null);
+    }
+    //</editor-fold>
 
-        // Check to see if the table file exists:
-        if ( !TABLE.exists() ) {
-            try {
-                TABLE.createNewFile();
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Totals up the cost of all of the fuel purchased, both diesel and DEF, as
+     * it was last saved. The journal is scanned directly from the table file,
+     * so it does not need to be read into memory, and the location and notes
+     * of each purchase are never parsed.
+     * 
+     * @return the total cost of all fuel purchases.
+     * @throws DataStoreException in the event the journal cannot be read.
+     */
+    public static double getTotalCost() throws DataStoreException {
+        File journal = new File(Starter.props.getDataFolder() + "10040.jrnl");
+        double[] total = {0};
+        
+        try {
+            // The journal may have been split up into partitions.
+            for ( File part : TablePartitions.getFiles(journal) ) {
+                new ChangeLog(part).scan((int x, RecordTokenizer record) -> {
+                    record.skip();  // ID
+                    record.skip();  // Date
+                    record.skip();  // Odometer
+                    record.skip();  // Location
                 
-                // Set our flag:
-                fileJustCreated = true;
-            } catch (IOException ex) {
-                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                        + "\nThrowing DataStoreException...");
-                entry.setParameters(null);
-                entry.setSourceMethodName("FuelPurchaseCtl (Constructor)");
-                entry.setThrown(ex);
-                Starter.logger.error(entry);
+                    total[0] += record.nextDouble() * record.nextDouble();
                 
-                throw new DataStoreException(ex.getMessage(), ex);
+                    if ( record.nextBoolean() ) {
+                        total[0] += record.nextDouble() * record.nextDouble();
+                    }
+                
+                    return true;
+                });
             }
+        } catch ( IOException ex ) {
+            LogRecord entry = Logger.newRecord(FuelPurchaseCtl.class);
+            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                    + "Throwing DataStoreException to calling method...");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("getTotalCost");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+            
+            throw new DataStoreException(ex.getMessage(), ex);
         }
         
-        if ( !fileJustCreated )
-            connect();
-//        else
-//            MessageBox.showInfo("Data file was just now created.\n"
-//                    + "Add records to it, then save, in order\n"
-//                    + "to not see this message in the future.", 
-//                    "New Data File Created");
-        
-        entry.setMessage("Done creating FuelPurchaseCtl object.");
-        Starter.logger.exit(entry, null);
+        return total[0];
     }
-    //</editor-fold>
-
-    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
     
+    /**
+     * Opens a cursor over the fuel purchases that match a filter, which reads
+     * them in from the disk a page at a time, instead of reading in the whole
+     * table. This is the way to browse the fuel purchases journal, which grows
+     * with every fill-up, when only some of the purchases are wanted.
+     * 
+     * <dl><dt>Note</dt><dd>The cursor sees the table as it was last saved, so
+     * any changes made through a `FuelPurchaseCtl` must be saved before the
+     * cursor is opened if the cursor is to see them. The cursor must be closed
+     * once it is no longer needed.</dd></dl>
+     * 
+     * @param filter the test that a purchase must pass to be seen by the
+     *               cursor, or `null` for all of them.
+     * @param pageSize the number of purchases to read from the disk at a time.
+     * @return the cursor, positioned at the first matching purchase.
+     * @throws DataStoreException in the event the table cannot be read.
+     */
+    public static RecordCursor<FuelPurchaseModel> openCursor(
+            Predicate<FuelPurchaseModel> filter, int pageSize)
+            throws DataStoreException {
+        return Table.openCursor(new File(Starter.props.getDataFolder()
+                + "10040.jrnl"), CODEC, filter, pageSize);
+    }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
     public void addNew(FuelPurchaseModel model) {
-        records.add(model);
-        row = getRecordCount() - 1;
-        
-        Starter.props.setPropertyAsInt("journal.fuel.records", getRecordCount());
+        table.addNew(model);
     }
     
     /**
@@ -166,18 +198,7 @@ public class FuelPurchaseCtl {
      *                       the journal
      */
     public FuelPurchaseModel first() throws DataStoreException {
-        if ( row >= 0 ) {
-            row = 0;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.first();
     }
     
     /**
@@ -189,18 +210,7 @@ public class FuelPurchaseCtl {
      *                       the journal
      */
     public FuelPurchaseModel previous() throws DataStoreException {
-        if ( row > 0 ) {
-            row--;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.previous();
     }
     
     /**
@@ -212,18 +222,7 @@ public class FuelPurchaseCtl {
      *                       the journal
      */
     public FuelPurchaseModel next() throws DataStoreException {
-        if ( row < records.size() ) {
-            row++;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.next();
     }
     
     /**
@@ -235,18 +234,7 @@ public class FuelPurchaseCtl {
      *                       the journal
      */
     public FuelPurchaseModel last() throws DataStoreException {
-        if ( row < records.size() ) {
-            row = records.size() - 1;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.last();
     }
     
     /**
@@ -255,7 +243,7 @@ public class FuelPurchaseCtl {
      * @return `true` if more transactions, `false` if not.
      */
     public boolean hasNext() {
-        return row < records.size();
+        return table.hasNext();
     }
     
     /**
@@ -264,7 +252,7 @@ public class FuelPurchaseCtl {
      * @return The current entry.
      */
     public FuelPurchaseModel get() {
-        return records.get(row);
+        return table.get();
     }
     
     /**
@@ -277,7 +265,7 @@ public class FuelPurchaseCtl {
      *              `getRecordCount()`), null is returned.
      */
     public FuelPurchaseModel get(int idx) {
-        return records.get(idx);
+        return table.get(idx);
     }
     
     /**
@@ -286,7 +274,7 @@ public class FuelPurchaseCtl {
      * @return int The current record number
      */
     public int getCurrentRecordNumber() {
-        return row + 1;
+        return table.getCurrentRecordNumber();
     }
     
     /**
@@ -295,126 +283,52 @@ public class FuelPurchaseCtl {
      * @return int The number of records
      */
     public int getRecordCount() {
-        return records.size();
+        return table.getRecordCount();
     }
     
     public void update(FuelPurchaseModel model) {
-        record = model;
-        
-        records.set(row, model);
+        table.update(model);
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
-    private void connect() throws DataStoreException {
-        entry.setMessage("Enter...");
-        entry.setSourceMethodName("connect");
-        entry.setParameters(new Object[]{});
-        Starter.logger.enter(entry);
-        
-        BufferedReader in;
-        
-        entry.setMessage("Setting up LoadMaster.fileProgress...");
-        entry.setParameters(null);
-        Starter.logger.config(entry);
-        
-        if ( LoadMaster.fileProgress != null ) {
-            LoadMaster.fileProgress.setMaximum(
-                    Starter.props.getPropertyAsInt("journal.fuel.records", "0") 
-                    + (Starter.props.getPropertyAsInt("journal.fuel.records", "0")));
-            LoadMaster.fileProgress.setValue(0);
-            LoadMaster.fileProgress.setVisible(true);
-        }
+    private void save() throws DataStoreException {
+        table.save();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static FuelPurchaseModel readRecord(RecordTokenizer line) {
+        FuelPurchaseModel record = new FuelPurchaseModel();
+        record.setId(line.nextLong());
         
         try {
-            in = new BufferedReader(new FileReader(TABLE));
-            
-            String line = in.readLine();
-            
-            while ( line != null ) {
-                String[] record = line.split("~");
-                
-                createAndAddRecord(record);
-                
-                line = in.readLine();
-
-                if ( LoadMaster.fileProgress != null ) {
-                    LoadMaster.fileProgress.setValue(
-                            LoadMaster.fileProgress.getValue() + 1);
-                }
-            }
-            
-            row = 0;    // Set our current row to the first record.
-            
-            in.close();
-            
-        } catch ( IOException ex ) {
+            record.setDate(line.nextDate());
+        } catch ( ParseException ex ) {
+            LogRecord entry = Logger.newRecord(FuelPurchaseCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
+                    + "Parsing error while parsing the dispatch date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("connect");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            throw new DataStoreException(ex.getMessage(), ex);
-        } finally {
-            if ( LoadMaster.fileProgress != null ) {
-                LoadMaster.fileProgress.setValue(0);
-                LoadMaster.fileProgress.setVisible(false);
-            }
-            Starter.props.setPropertyAsInt("journal.fuel.records", records.size());
-            Starter.props.flush();
+            TableLoader.reportError(ex, "Parsing Error");
         }
-    }
-    
-    private void save() throws DataStoreException {
-        BufferedWriter out;
         
-        LoadMaster.fileProgress.setMaximum(
-                Starter.props.getPropertyAsInt("journal.fuel.records", "0"));
-        LoadMaster.fileProgress.setValue(
-                Starter.props.getPropertyAsInt("journal.fuel.records", "0"));
+        record.setOdometer(line.nextInt());
+        record.setLocation(line.nextString());
+        record.setGallonsOfDiesel(line.nextDouble());
+        record.setPricePerGallonDiesel(line.nextDouble());
+        record.setDefPurchased(line.nextBoolean());
+        record.setGallonsOfDef(line.nextDouble());
+        record.setPricePerGallonDef(line.nextDouble());
+        record.setNotes(line.nextString());
         
-        if ( TABLE.exists() ) {
-            TABLE.delete();
-            try {
-                TABLE.createNewFile();
-            } catch ( IOException ex ) {
-                entry.setMessage("Something went wrong deleting and recreating "
-                        + "the data table.");
-                entry.setThrown(ex);
-                entry.setSourceMethodName("save");
-                entry.setParameters(null);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        try {
-            out = new BufferedWriter(new FileWriter(TABLE));
-            
-            for ( int x = 0; x < records.size(); x++ ) {
-                out.write(buildRecordLine(records.get(x)) + "\n");
-                
-                LoadMaster.fileProgress.setValue(
-                        LoadMaster.fileProgress.getValue() - 1);
-            }
-            
-            out.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("storeData");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
-        }
+        return record;
     }
     
-    private String buildRecordLine(FuelPurchaseModel model) {
+    private static String buildRecordLine(FuelPurchaseModel model) {
         return model.getIdAsString() + "~" + model.getDateAsString() + "~"
                 + model.getOdometer() + "~" + model.getLocation()+ "~"
                 + model.getGallonsOfDieselAsString()+ "~" 
@@ -423,46 +337,6 @@ public class FuelPurchaseCtl {
                 + "~" + String.valueOf(model.getPricePerGallonDef()) + "~"
                 + model.getNotes();
     }
-    
-    private void createAndAddRecord(String[] line) {
-        entry.setMessage("Entering...");
-        entry.setSourceMethodName("createAndAddRecord");
-        entry.setParameters(line);
-        Starter.logger.enter(entry);
-        
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        
-//        record = new ReceivablesModel();
-        
-        
-        try {
-            record.setDate(sdf.parse(line[1]));
-        } catch ( ParseException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Parsing error while parsing the dispatch date.");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            MessageBox.showError(ex, "Parsing Error");
-        }
-        
-        record.setId(line[0]);
-        record.setOdometer(line[2]);
-        record.setLocation(line[3]);
-        record.setGallonsOfDiesel(line[4]);
-        record.setPricePerGallonOfDiesel(line[5]);
-        record.setDefPurchased(Boolean.parseBoolean(line[6]));
-        record.setGallonsOfDef(line[7]);
-        record.setPricePerGallonDef(line[8]);
-        record.setNotes(line[9]);
-        
-        records.add(record);
-        
-        LoadMaster.fileProgress.setValue(
-                LoadMaster.fileProgress.getValue() + 1);
-    }
     //</editor-fold>
 
 }
@@ -33,21 +33,26 @@
 package com.pekinsoft.loadmaster.controller;
 
 import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.db.RecordCodec;
+import com.pekinsoft.loadmaster.db.RecordCursor;
+import com.pekinsoft.loadmaster.db.RecordTokenizer;
+import com.pekinsoft.loadmaster.db.Table;
+import com.pekinsoft.loadmaster.db.TableArchive;
+import com.pekinsoft.loadmaster.db.TableLoader;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.model.LoadModel;
 import com.pekinsoft.loadmaster.model.StopModel;
-import com.pekinsoft.loadmaster.utils.MessageBox;
-import com.pekinsoft.loadmaster.view.LoadMaster;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import com.pekinsoft.loadmaster.sys.Logger;
+import com.pekinsoft.loadmaster.utils.DateUtils;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.logging.Level;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.function.Predicate;
 import java.util.logging.LogRecord;
 
 /**
@@ -64,18 +69,25 @@ public class LoadCtl {
 
     //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
     // Table Data:
-    private final File TABLE;
+    private final Table<LoadModel> table;
     
-    // Table Information:
-    private LoadModel load;
-    private final ArrayList<LoadModel> records;
-    private int row;
+    // The rows of the loads, keyed by their order numbers and by their trip
+    //+ numbers. Only the first load with any given number is kept.
+    private final HashMap<String, Integer> orders;
+    private final HashMap<String, Integer> trips;
     
-    // System:
-    private LogRecord entry;
+    // The number of times that the rows of the loads had moved when they
+    //+ were last indexed.
+    private int indexed;
     
-    // Flags:
-    private boolean fileJustCreated = false;
+    // Stops for the loads being read in, keyed by trip number, and the stops
+    //+ table they came from. These are only populated while the table is
+    //+ being read in.
+    private HashMap<String, ArrayList<StopModel>> stopsByTrip;
+    private StopCtl stopCtl;
+    
+    // The last load that was found in the archive, rather than in the table.
+    private LoadModel archived;
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Static Initializer">
@@ -86,49 +98,119 @@ public class LoadCtl {
 
     //<editor-fold defaultstate="collapsed" desc="Intstance Initializer">
     {
-        records = new ArrayList<>();
-        row = 0;
-        entry = new LogRecord(Level.FINEST, "");
-        entry.setSourceClassName(this.getClass().getCanonicalName());
+        orders = new HashMap<>();
+        trips = new HashMap<>();
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
     public LoadCtl () throws DataStoreException {
-        load = new LoadModel();
-        TABLE = new File(Starter.DB_URL + "loads.tbl");
-        
-        // Check to see if the table file exists:
-        if ( !TABLE.exists() ) {
-            try {
-                TABLE.createNewFile();
-                
-                // Set our flag:
-                fileJustCreated = true;
-            } catch (IOException ex) {
-                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                        + "\nThrowing DataStoreException...");
-                entry.setParameters(null);
-                entry.setSourceMethodName("BrokerCtl");
-                entry.setThrown(ex);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
+        // The loads pick up their stops as they are read in, so the codec
+        //+ belongs to this controller, rather than being shared. The loads are
+        //+ partitioned by their dispatch dates.
+        try {
+            table = new Table<>(new File(Starter.DB_URL + "loads.tbl"), 
+                    RecordCodec.of(this::readRecord, LoadCtl::buildRecordLine),
+                    "table.loads.records", 4);
+        } finally {
+            readDone();
         }
         
-        if ( !fileJustCreated )
-            connect();
-//        else
-//            MessageBox.showInfo("Data file was just now created.\n"
-//                    + "Add records to it, then save, in order\n"
-//                    + "to not see this message in the future.", 
-//                    "New Data File Created");
+        indexLoads();
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Moves the loads that have been completed or cancelled out of the loads
+     * table, and their stops out of the stops table, into the archives of
+     * those tables (see {@link TableArchive}). The loads that are left in the
+     * table are the ones that are still being worked, so reading the loads
+     * and stops in, and saving them, no longer costs more with every load
+     * that has ever been booked. The archived loads can still be found by
+     * `findByOrder` and `findByTrip`.
+     * 
+     * The loads are archived before their stops. If the application is
+     * stopped in between, the stops of those loads are left in the stops
+     * table, where they are still found along with their loads.
+     * 
+     * <dl><dt>Note</dt><dd>This is meant to be called before the loads and
+     * stops are read in, as any `LoadCtl` or `StopCtl` that already has them
+     * in memory can no longer save them, and must be created again. Nothing
+     * is archived while the `SqlStore` is set up.</dd></dl>
+     * 
+     * @return the number of loads archived.
+     * @throws DataStoreException in the event an error occurs while archiving
+     *                            the loads or their stops.
+     */
+    public static int archiveClosed() throws DataStoreException {
+        HashSet<String> closed = new HashSet<>();
+        int count;
+        
+        try {
+            count = new TableArchive(new File(Starter.DB_URL + "loads.tbl"))
+                    .archive((RecordTokenizer record) -> {
+                        record.skip();  // Order
+                        String trip = record.nextString();
+                        
+                        // Skip to the flags, which follow the BOL number.
+                        for ( int x = 0; x < 18; x++ ) {
+                            record.skip();
+                        }
+                        
+                        boolean[] flags = readFlags(record);
+                        
+                        if ( flags[0] || flags[1] ) {
+                            closed.add(trip);
+                            
+                            return true;
+                        }
+                        
+                        return false;
+                    });
+        } catch ( IOException ex ) {
+            LogRecord entry = Logger.newRecord(LoadCtl.class);
+            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                    + "Throwing DataStoreException to calling method...");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("archiveClosed");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+            
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+        
+        StopCtl.archiveTrips(closed);
+        
+        return count;
+    }
     
+    /**
+     * Opens a cursor over the loads that match a filter, which reads the loads
+     * in from the disk a page at a time, instead of reading in the whole
+     * table. If the table has been partitioned, the cursor runs through all of
+     * its partitions, oldest first, without any of them being read in. This
+     * is the way to look through the whole history of the loads.
+     * 
+     * <dl><dt>Note</dt><dd>The loads seen through the cursor do not have their
+     * stops, as picking those up would mean reading in the stops table. The
+     * cursor sees the table as it was last saved, and must be closed once it
+     * is no longer needed.</dd></dl>
+     * 
+     * @param filter    The test that a load must pass to be seen by the
+     *                  cursor, or `null` for all loads.
+     * @param pageSize  The number of loads to read from the disk at a time.
+     * @return          The cursor, positioned at the first matching load.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                  the table
+     */
+    public static RecordCursor<LoadModel> openCursor(
+            Predicate<LoadModel> filter, int pageSize)
+            throws DataStoreException {
+        return Table.openCursor(new File(Starter.DB_URL + "loads.tbl"),
+                RecordCodec.of(LoadCtl::readLoad, LoadCtl::buildRecordLine),
+                filter, pageSize);
+    }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
@@ -138,7 +220,7 @@ public class LoadCtl {
      * @return The current load.
      */
     public LoadModel get() {
-        return records.get(row);
+        return table.get();
     }
     
     /**
@@ -151,7 +233,7 @@ public class LoadCtl {
      *              `getRecordCount()`), null is returned.
      */
     public LoadModel get(int idx) {
-        return records.get(idx);
+        return table.get(idx);
     }
     
     /**
@@ -160,7 +242,7 @@ public class LoadCtl {
      * @return int The number of records
      */
     public int getRecordCount() {
-        return records.size();
+        return table.getRecordCount();
     }
     
     /**
@@ -169,12 +251,12 @@ public class LoadCtl {
      * @return int The current record number
      */
     public int getCurrentRecordNumber() {
-        return row + 1;
+        return table.getCurrentRecordNumber();
     }
     
     
     public boolean hasNext() {
-        return row < records.size();
+        return table.hasNext();
     }
     
     /**
@@ -186,18 +268,11 @@ public class LoadCtl {
      *                       the table
      */
     public LoadModel first() throws DataStoreException {
-        if ( row >= 0 ) {
-            row = 0;
-            
-            try {
-                load = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                load = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
+        try {
+            return table.first();
+        } finally {
+            readDone();
         }
-        
-        return load;
     }
     
     /**
@@ -209,18 +284,11 @@ public class LoadCtl {
      *                       the table
      */
     public LoadModel last() throws DataStoreException {
-        if ( row < getRecordCount() ) {
-            row = getRecordCount() - 1;
-            
-            try {
-                load = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                load = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
+        try {
+            return table.last();
+        } finally {
+            readDone();
         }
-        
-        return load;
     }
     
     /**
@@ -232,18 +300,7 @@ public class LoadCtl {
      *                       the table
      */
     public LoadModel next() throws DataStoreException {
-        if ( row < getRecordCount() ) {
-            row++;
-            
-            try {
-                load = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                load = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return load;
+        return table.next();
     }
     
     /**
@@ -255,18 +312,11 @@ public class LoadCtl {
      *                       the table
      */
     public LoadModel previous() throws DataStoreException {
-        if ( row > 0 ) {
-            row--;
-            
-            try {
-                load = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                load = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
+        try {
+            return table.previous();
+        } finally {
+            readDone();
         }
-        
-        return load;
     }
     
     /**
@@ -275,9 +325,17 @@ public class LoadCtl {
      * @param cust The new data model to use to update the record.
      */
     public void update(LoadModel cust) {
-            load = cust;
-            
-            records.set(row, load);
+        if ( cust == archived ) {
+            throw new IllegalStateException("Load " + cust.getOrder() 
+                    + " has been archived, so it cannot be updated.");
+        }
+        
+        table.update(cust);
+        
+        // If the order or trip number was changed, any old entry for it
+        //+ is caught, and the index rebuilt, the next time it is used.
+        orders.putIfAbsent(key(cust.getOrder()), table.getRow());
+        trips.putIfAbsent(key(cust.getTrip()), table.getRow());
     }
     
     /**
@@ -286,215 +344,415 @@ public class LoadCtl {
      * @param cust The new customer record to add to the table
      */
     public void addNew(LoadModel cust) {
-        records.add(cust);
-        row = getRecordCount() - 1;
+        int row = table.addNew(cust);
         
-        Starter.props.setPropertyAsInt("table.loads.records", getRecordCount());
+        orders.putIfAbsent(key(cust.getOrder()), row);
+        trips.putIfAbsent(key(cust.getTrip()), row);
     }
     
     /**
-     * Writes the data out to the table data file.
+     * Writes any loads that were added or updated out to the table data file.
      * 
      * @throws DataStoreException In the event there is an error writing the
      *                            data.
      */
     public void close() throws DataStoreException {
-        BufferedWriter out;
+        table.save();
         
-        LoadMaster.loadProgress.setMaximum(
-                Starter.props.getPropertyAsInt("table.stops.records", "0"));
-        LoadMaster.loadProgress.setValue(
-                Starter.props.getPropertyAsInt("table.stops.records", "0"));
+        saveStops();
+    }
+    
+    /**
+     * Finds the load with the specified order number, and makes it the
+     * current record, so that it can then be passed to `update`. Order numbers
+     * are compared without regard to case. The loads are indexed by their order
+     * numbers, so this takes the same time no matter how many loads are in the
+     * table. If the table has been partitioned, and the load is not one of
+     * those that have been read in, the older partitions are looked through
+     * with a cursor (see `openCursor`), and only those back to the dispatch
+     * date of the load are read in. None are read in if it is not there.
+     * 
+     * If the load is not in the table at all, it is looked for in the archive
+     * of the loads table. A load found there is not part of the table, so the
+     * record pointer is not moved, and it cannot be passed to `update`.
+     * 
+     * @param order The order number of the load.
+     * @return the load, or `null` if there is no load with that order number,
+     *         in which case the record pointer is not moved.
+     */
+    public LoadModel findByOrder(String order) {
+        int row = findRow(orders, order, true, true);
         
-        if ( TABLE.exists() ) {
-            TABLE.delete();
-            try {
-                TABLE.createNewFile();
-            } catch ( IOException ex ) {
-                entry.setMessage("Something went wrong deleting and recreating the data table.");
-                entry.setThrown(ex);
-                entry.setSourceMethodName("storeData");
-                entry.setParameters(null);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
+        return row < 0 ? findArchived(order, true) : moveTo(row);
+    }
+    
+    /**
+     * Finds the load with the specified trip number, and makes it the current
+     * record, so that it can then be passed to `update`. Trip numbers are
+     * compared without regard to case. The loads are indexed by their trip
+     * numbers, so this takes the same time no matter how many loads are in the
+     * table. If the table has been partitioned, and the load is not one of
+     * those that have been read in, the older partitions are looked through
+     * with a cursor (see `openCursor`), and only those back to the dispatch
+     * date of the load are read in. None are read in if it is not there.
+     * 
+     * If the load is not in the table at all, it is looked for in the archive
+     * of the loads table. A load found there is not part of the table, so the
+     * record pointer is not moved, and it cannot be passed to `update`.
+     * 
+     * @param trip The trip number of the load.
+     * @return the load, or `null` if there is no load with that trip number,
+     *         in which case the record pointer is not moved.
+     */
+    public LoadModel findByTrip(String trip) {
+        int row = findRow(trips, trip, false, true);
+        
+        return row < 0 ? findArchived(trip, false) : moveTo(row);
+    }
+    
+    /**
+     * Determines whether a load with the specified order number has already
+     * been booked, so that the same load is not booked twice. The record
+     * pointer is not moved.
+     * 
+     * <dl><dt>Note</dt><dd>Only the loads that have been read in are checked.
+     * If the table has been partitioned, these are the loads dispatched in
+     * the current period and after, unless older ones have been read in, so
+     * that checking an order number does not read in the whole history of
+     * the table. Nor are the loads in the archive checked.</dd></dl>
+     * 
+     * @param order The order number to check.
+     * @return `true` if there is already a load with that order number.
+     */
+    public boolean containsOrder(String order) {
+        return findRow(orders, order, true, false) >= 0;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private void indexLoads() {
+        orders.clear();
+        trips.clear();
+        
+        for ( int x = 0; x < table.getRecordCount(); x++ ) {
+            orders.putIfAbsent(key(table.get(x).getOrder()), x);
+            trips.putIfAbsent(key(table.get(x).getTrip()), x);
+        }
+        
+        indexed = table.getMoveCount();
+    }
+    
+    private int findRow(HashMap<String, Integer> index, String number, 
+            boolean byOrder, boolean older) {
+        String key = key(number);
+        
+        // The rows of the loads move down when older ones are read in ahead
+        //+ of them, or loads saved by another controller are taken in.
+        if ( indexed != table.getMoveCount() ) {
+            indexLoads();
+        }
+        
+        Integer found = index.get(key);
+        
+        if ( found != null ) {
+            LoadModel model = table.get(found);
+
+            if ( key.equals(key(byOrder ? model.getOrder() 
+                    : model.getTrip())) ) {
+                return found;
             }
+
+            // The number of that load has been changed since it was indexed.
+            indexLoads();
+            found = index.get(key);
         }
         
-        try {
-            out = new BufferedWriter(new FileWriter(TABLE));
+        if ( found == null && older && table.hasOlder() ) {
+            found = findOlder(index, key, byOrder);
+        }
+        
+        return found == null ? -1 : found;
+    }
+    
+    // Looks for the load in the older partitions that have not been read in
+    //+ yet, through a cursor, so that only the partitions back to the dispatch
+    //+ date of the load are read in, and none at all if it is not there.
+    private Integer findOlder(HashMap<String, Integer> index, String key,
+            boolean byOrder) {
+        try ( RecordCursor<LoadModel> cursor = openCursor((LoadModel load) ->
+                key.equals(key(byOrder ? load.getOrder() : load.getTrip())),
+                1) ) {
+            LoadModel load = cursor.first();
             
-            for ( int x = 0; x < records.size(); x++ ) {
-                out.write(buildRecordLine(records.get(x)) + "\n");
-                
-                LoadMaster.fileProgress.setValue(
-                        LoadMaster.fileProgress.getValue() - 1);
+            if ( load == null ) {
+                return null;
             }
             
-            out.close();
-        } catch ( IOException ex ) {
+            table.loadBackTo(load.getDispatch());
+        } catch ( IOException | DataStoreException ex ) {
+            LogRecord entry = Logger.newRecord(getClass());
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
+                    + "The above error occurred while trying to find the "
+                            + "load in the older loads.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("storeData");
+            entry.setSourceMethodName("findOlder");
             entry.setParameters(null);
             Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
+        } finally {
+            readDone();
         }
-
-        saveStops();
+        
+        indexLoads();
+        Integer found = index.get(key);
+        
+        // A load without a dispatch date may be kept in any partition.
+        while ( found == null && loadOlder() > 0 ) {
+            indexLoads();
+            found = index.get(key);
+        }
+        
+        return found;
     }
-    //</editor-fold>
-
-    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
-    private void connect() throws DataStoreException {
-        entry.setMessage("Enter...");
-        entry.setSourceMethodName("connect");
-        entry.setParameters(new Object[]{});
-        Starter.logger.enter(entry);
-        
-        BufferedReader in;
-        
-        entry.setMessage("Setting up LoadMaster.fileProgress...");
-        entry.setParameters(null);
-        Starter.logger.config(entry);
-        
-        if ( LoadMaster.fileProgress != null ) {
-            LoadMaster.fileProgress.setMaximum(
-                    Starter.props.getPropertyAsInt("journal.fuel.records", "0") 
-                    + (Starter.props.getPropertyAsInt("journal.fuel.records", "0")));
-            LoadMaster.fileProgress.setValue(0);
-            LoadMaster.fileProgress.setVisible(true);
+    
+    private int loadOlder() {
+        try {
+            return table.loadOlder();
+        } catch ( DataStoreException ex ) {
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                    + "The above error occurred while trying to read in the "
+                            + "older loads.");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("loadOlder");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+            
+            return 0;
+        } finally {
+            readDone();
         }
+    }
+    
+    // Once the loads have been read in, we no longer need the stops index,
+    //+ so let it go.
+    private void readDone() {
+        stopsByTrip = null;
+        stopCtl = null;
+    }
+    
+    // Loads that have been archived are only looked for once they cannot be
+    //+ found in the table, as the archive has to be read from the disk.
+    private LoadModel findArchived(String number, boolean byOrder) {
+        String key = key(number);
+        String[] found = { null };
         
         try {
-            in = new BufferedReader(new FileReader(TABLE));
+            new TableArchive(new File(Starter.DB_URL + "loads.tbl")).scan(
+                    (int row, RecordTokenizer record) -> {
+                        String line = record.toString();
+                        String order = record.nextString();
+                        String trip = record.nextString();
+                        
+                        if ( key.equals(key(byOrder ? order : trip)) ) {
+                            found[0] = line;
+                        }
+                        
+                        return found[0] == null;
+                    });
             
-            String line = in.readLine();
+            if ( found[0] == null ) {
+                return null;
+            }
             
-            while ( line != null ) {
-                String[] record = line.split("~");
-                
-                createAndAddRecord(record);
-                
-                line = in.readLine();
-
-                if ( LoadMaster.fileProgress != null ) {
-                    LoadMaster.fileProgress.setValue(
-                            LoadMaster.fileProgress.getValue() + 1);
+            LoadModel load = readLoad(new RecordTokenizer().reset(found[0]));
+            ArrayList<StopModel> tripStops = StopCtl.getArchivedStops(
+                    load.getTrip());
+            
+            // The stops may not have been archived along with the load.
+            if ( tripStops.isEmpty() ) {
+                try {
+                    tripStops = loadStopsByTrip(load.getDispatch())
+                            .getOrDefault(load.getTrip(), tripStops);
+                } finally {
+                    readDone();
                 }
             }
             
-            row = 0;    // Set our current row to the first record.
+            for ( StopModel stop : tripStops ) {
+                load.addStop(stop);
+            }
             
-            in.close();
-        } catch ( IOException ex ) {
+            archived = load;
+            
+            return load;
+        } catch ( IOException | DataStoreException ex ) {
+            LogRecord entry = Logger.newRecord(getClass());
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
+                    + "The above error occurred while trying to find the "
+                            + "load in the archive.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("connect");
+            entry.setSourceMethodName("findArchived");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            throw new DataStoreException(ex.getMessage(), ex);
-        } finally {
-            if ( LoadMaster.fileProgress != null ) {
-                LoadMaster.fileProgress.setValue(0);
-                LoadMaster.fileProgress.setVisible(false);
-            }
+            return null;
         }
     }
     
-    private void createAndAddRecord(String[] record) {
-        entry.setMessage("Entering...");
-        entry.setSourceMethodName("createAndAddRecord");
-        entry.setParameters(record);
-        Starter.logger.enter(entry);
-        
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        
-        load = new LoadModel();
-        
-        load.setOrder(record[0]);
-        load.setTrip(record[1]);
-        load.setStartOdo(Integer.valueOf(record[2]));
-        load.setEndOdo(Integer.valueOf(record[3]));
+    private LoadModel moveTo(int found) {
+        return found < 0 ? null : table.moveTo(found);
+    }
+    
+    private static String key(String number) {
+        return number == null ? "" : number.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    
+    // Read the stops table in one time only, grouping the stops by trip
+    //+ number, so that each load can pick up its stops with a single lookup,
+    //+ instead of re-reading the stops table for every load. If the stops
+    //+ table has been partitioned, its older partitions are read in as far
+    //+ back as the dispatch date of the load, and the stops grouped again.
+    private HashMap<String, ArrayList<StopModel>> loadStopsByTrip(
+            Date dispatch) {
+        LogRecord entry = Logger.newRecord(getClass());
         
         try {
-            load.setDispatch(sdf.parse(record[4]));
-        } catch ( ParseException ex ) {
+            if ( stopsByTrip == null ) {
+                stopCtl = new StopCtl();
+                stopCtl.loadBackTo(dispatch);
+                stopsByTrip = stopCtl.getStopsByTrip();
+            } else if ( stopCtl != null && stopCtl.loadBackTo(dispatch) > 0 ) {
+                stopsByTrip = stopCtl.getStopsByTrip();
+            }
+        } catch ( DataStoreException ex ) {
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Parsing error while parsing the dispatch date.");
+                    + "The above error occurred while trying to load the "
+                            + "existing stops.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("loadStopsByTrip");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Parsing Error");
+            // Do not try again until the loads have been read in.
+            stopCtl = null;
+            
+            if ( stopsByTrip == null ) {
+                stopsByTrip = new HashMap<>();
+            }
         }
         
-        load.setRate(Double.valueOf(record[5]));
-        load.setMiles(Integer.valueOf(record[6]));
-        load.setWeight(Integer.valueOf(record[7]));
-        load.setPieces(Integer.valueOf(record[8]));
-        load.setCommodity(record[9]);
-        load.setHazMat(Boolean.parseBoolean(record[10]));
-        load.setTarped(Boolean.parseBoolean(record[11]));
-        load.setTeam(Boolean.parseBoolean(record[12]));
-        load.setTwic(Boolean.parseBoolean(record[13]));
-        load.setTopCust(Boolean.parseBoolean(record[14]));
-        load.setLtl(Boolean.parseBoolean(record[15]));
-        load.setCbd(Boolean.parseBoolean(record[16]));
-        load.setRamps(Boolean.parseBoolean(record[17]));
-        load.setBroker(Long.valueOf(record[18]));
-        load.setBol(record[19]);
-        load.setCompleted(Boolean.parseBoolean(record[20]));
-        load.setCancelled(Boolean.parseBoolean(record[21]));
-        
-        records.add(load);
+        return stopsByTrip;
+    }
+    
+    private LoadModel readRecord(RecordTokenizer record) {
+        LoadModel load = readLoad(record);
         
-        StopCtl stops = null;
+        ArrayList<StopModel> tripStops = loadStopsByTrip(load.getDispatch())
+                .get(load.getTrip());
+        
+        if ( tripStops != null ) {
+            for ( StopModel stop : tripStops ) {
+                load.addStop(stop);
+            }
+        }
+        
+        return load;
+    }
+    
+    private static LoadModel readLoad(RecordTokenizer record) {
+        LoadModel load = new LoadModel();
+        
+        load.setOrder(record.nextString());
+        load.setTrip(record.nextString());
+        load.setStartOdo(record.nextInt());
+        load.setEndOdo(record.nextInt());
         
         try {
-            stops = new StopCtl();
-        } catch ( DataStoreException ex ) {
+            load.setDispatch(record.nextDate());
+        } catch ( ParseException ex ) {
+            LogRecord entry = Logger.newRecord(LoadCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
+                    + "Parsing error while parsing the dispatch date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("connect");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
+            
+            TableLoader.reportError(ex, "Parsing Error");
         }
         
-        if ( stops != null ) {
-            for ( StopModel stop : stops.getList() ) {
-                if ( stop.getTripNumber().equals(load.getTrip()) ) {
-                    load.addStop(stop);
-                }
-//                LoadMaster.fileProgress.setValue(
-//                        LoadMaster.fileProgress.getValue() + 1);
-            }
-        }
+        load.setRate(record.nextDouble());
+        load.setMiles(record.nextInt());
+        load.setWeight(record.nextInt());
+        load.setPieces(record.nextInt());
+        load.setCommodity(record.nextString());
+        load.setHazMat(record.nextBoolean());
+        load.setTarped(record.nextBoolean());
+        load.setTeam(record.nextBoolean());
+        load.setTwic(record.nextBoolean());
+        load.setTopCust(record.nextBoolean());
+        load.setLtl(record.nextBoolean());
+        load.setCbd(record.nextBoolean());
+        load.setRamps(record.nextBoolean());
+        load.setBroker(record.nextLong());
+        load.setBol(record.nextString());
+        
+        boolean[] flags = readFlags(record);
+        load.setCompleted(flags[0]);
+        load.setCancelled(flags[1]);
+        
+        return load;
     }
     
-    private String buildRecordLine(LoadModel model) {
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
+    // Reads the completed and cancelled flags, which follow the BOL number.
+    private static boolean[] readFlags(RecordTokenizer record) {
+        boolean completed = record.nextBoolean();
+        boolean cancelled = record.nextBoolean();
         
+        // Loads saved by earlier versions have an empty field after the BOL
+        //+ number, so the flags are the last two fields, not the first two.
+        if ( record.hasNext() ) {
+            completed = cancelled;
+            cancelled = record.nextBoolean();
+        }
+        
+        return new boolean[] { completed, cancelled };
+    }
+    
+    private static String buildRecordLine(LoadModel model) {
         return model.getOrder() + "~" + model.getTrip() + "~" 
                 + model.getStartOdo() + "~" + model.getEndOdo() + "~" 
-                + sdf.format(model.getDispatch()) + "~" + model.getRate()
-                + "~" + model.getMiles() + "~" + model.getWeight() + "~" 
-                + model.getPieces() + "~" + model.getCommodity() + "~" 
+                + DateUtils.formatDate(model.getDispatch()) + "~" 
+                + model.getRate() + "~" + model.getMiles() + "~" 
+                + model.getWeight() + "~" + model.getPieces() + "~" 
+                + model.getCommodity() + "~" 
                 + model.isHazMat() + "~" + model.isTarped()+ "~" 
                 + model.isTeam() + "~" + model.isTwic() + "~" 
                 + model.isTopCust() + "~" + model.isLtl()+ "~" + model.isCbd()
                 + "~" + model.isRamps() + "~" + model.getBroker() + "~" 
-                + model.getBol() + "~" + "~" + model.isCompleted() + "~" 
+                + model.getBol() + "~" + model.isCompleted() + "~" 
                 + model.isCancelled();
     }
     
+    private Date getOldestDispatch() {
+        Date oldest = null;
+        
+        for ( int x = 0; x < table.getRecordCount(); x++ ) {
+            Date dispatch = table.get(x).getDispatch();
+            
+            if ( dispatch != null 
+                    && (oldest == null || dispatch.before(oldest)) ) {
+                oldest = dispatch;
+            }
+        }
+        
+        return oldest;
+    }
+    
     private void saveStops() {
+        LogRecord entry = Logger.newRecord(getClass());
+        
         StopCtl stops = null;
         
         try {
@@ -510,21 +768,31 @@ public class LoadCtl {
         }
         
         if ( stops != null ) {
-            boolean exists = false;
-            
-            for ( StopModel stop : stops.getList() ) { // All stops in database
-                for ( LoadModel load : records ) { // All loads in database
-                    for ( StopModel s : load.getStops() ) { // All stops in load
-                        if ( s.getTripNumber().equals(load.getTrip()) ) {
-                            exists = true;
-                        }
-                    } // All stops in load
-                } // All loads in database
+            // The stops of any older loads that have been read in need to be
+            //+ read in as well, or they would be taken to be new ones.
+            try {
+                stops.loadBackTo(getOldestDispatch());
+            } catch ( DataStoreException ex ) {
+                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                        + "The above error occurred while trying to load the "
+                                + "existing stops.");
+                entry.setThrown(ex);
+                entry.setSourceMethodName("saveStops");
+                entry.setParameters(null);
+                Starter.logger.error(entry);
                 
-                if ( !exists ) {
-                    stops.addNew(stop);
+                return;
+            }
+            
+            // Add any stops of the loads that are not in the stops table yet.
+            for ( int x = 0; x < table.getRecordCount(); x++ ) {
+                for ( StopModel stop : table.get(x).getStops() ) {
+                    if ( stops.getStop(stop.getTripNumber(), 
+                            stop.getStopNumber()) == null ) {
+                        stops.addNew(stop);
+                    }
                 }
-            } // All stops in database
+            }
             
             try {
                 stops.close();
@@ -533,7 +801,7 @@ public class LoadCtl {
                         + "The above error occurred while trying to store the "
                                 + "newly added stops.");
                 entry.setThrown(ex);
-                entry.setSourceMethodName("connect");
+                entry.setSourceMethodName("saveStops");
                 entry.setParameters(null);
                 Starter.logger.error(entry);
             }
@@ -33,19 +33,23 @@
 package com.pekinsoft.loadmaster.controller;
 
 import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.db.ChangeLog;
+import com.pekinsoft.loadmaster.db.RecordCodec;
+import com.pekinsoft.loadmaster.db.RecordCursor;
+import com.pekinsoft.loadmaster.db.RecordTokenizer;
+import com.pekinsoft.loadmaster.db.SqlStore;
+import com.pekinsoft.loadmaster.db.SqlTable;
+import com.pekinsoft.loadmaster.db.Table;
+import com.pekinsoft.loadmaster.db.TableLoader;
+import com.pekinsoft.loadmaster.db.TablePartitions;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.model.ReceivablesModel;
-import com.pekinsoft.loadmaster.utils.MessageBox;
-import com.pekinsoft.loadmaster.view.LoadMaster;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import com.pekinsoft.loadmaster.sys.Logger;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Date;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
@@ -61,16 +65,13 @@ public class ReceivablesCtl {
     
     //</editor-fold>
 
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final RecordCodec<ReceivablesModel> CODEC = RecordCodec.of(
+            ReceivablesCtl::readRecord, ReceivablesCtl::buildRecordLine);
+    //</editor-fold>
+
     //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
-    private final ArrayList<ReceivablesModel> records;
-    private final File TABLE;
-    
-    private final LogRecord entry;
-    
-    private ReceivablesModel record;
-    private int row;
-    
-    private boolean fileJustCreated;
+    private final Table<ReceivablesModel> table;
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Static Initializer">
@@ -87,62 +88,106 @@ public class ReceivablesCtl {
 
     //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
     public ReceivablesCtl () throws DataStoreException {
-        entry = new LogRecord(Level.ALL, "Logging initiated for ReceivablesCtl "
+        LogRecord entry = new LogRecord(Level.ALL, "Logging initiated for ReceivablesCtl "
                 + "class.");
         entry.setSourceClassName(this.getClass().getName());
         entry.setSourceMethodName("ReceivablesCtl (Constructor)");
         entry.setParameters(null);
         Starter.logger.enter(entry);
         
-        fileJustCreated = false;
-        
-        records = new ArrayList<>();
-        row = 0;
+        table = new Table<>(new File(Starter.props.getDataFolder()
+                + "50500.jrnl"), CODEC, "journal.ar.records", 1);
         
-        TABLE = new File(Starter.props.getDataFolder() + "50500.jrnl");
+        entry.setMessage("Done creating ReceivablesCtl object.");
+        Starter.logger.exit(entry, null);
+    }
+    //</editor-fold>
 
-        // Check to see if the table file exists:
-        if ( !TABLE.exists() ) {
-            try {
-                TABLE.createNewFile();
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Totals up the amounts of all of the receivables that have not yet been
+     * settled, as they were last saved. The journal is scanned directly from
+     * the table file, so it does not need to be read into memory, and only the
+     * amount and settled fields of each receivable are parsed. Once the
+     * journal has been migrated into the `SqlStore`, the total is taken from
+     * the database instead.
+     * 
+     * @return the total amount still outstanding.
+     * @throws DataStoreException in the event the journal cannot be read.
+     */
+    public static double getOutstandingTotal() throws DataStoreException {
+        SqlStore store = SqlStore.getInstance();
+        
+        if ( store != null && store.isMigrated(SqlTable.RECEIVABLES) ) {
+            return store.queryForDouble("SELECT SUM(amount) FROM receivables "
+                    + "WHERE settled = ?", false);
+        }
+        
+        File journal = new File(Starter.props.getDataFolder() + "50500.jrnl");
+        double[] total = {0};
+        
+        try {
+            // The journal may have been split up into partitions.
+            for ( File part : TablePartitions.getFiles(journal) ) {
+                new ChangeLog(part).scan((int x, RecordTokenizer record) -> {
+                    record.skip();  // ID
+                    record.skip();  // Date
+                    record.skip();  // Trip Number
+                    record.skip();  // Order Number
+                
+                    double amount = record.nextDouble();
                 
-                // Set our flag:
-                fileJustCreated = true;
-            } catch (IOException ex) {
-                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                        + "\nThrowing DataStoreException...");
-                entry.setParameters(null);
-                entry.setSourceMethodName("ReceivablesCtl");
-                entry.setThrown(ex);
-                Starter.logger.error(entry);
+                    if ( !record.nextBoolean() ) {
+                        total[0] += amount;
+                    }
                 
-                throw new DataStoreException(ex.getMessage(), ex);
+                    return true;
+                });
             }
+        } catch ( IOException ex ) {
+            LogRecord entry = Logger.newRecord(ReceivablesCtl.class);
+            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                    + "Throwing DataStoreException to calling method...");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("getOutstandingTotal");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+            
+            throw new DataStoreException(ex.getMessage(), ex);
         }
         
-        if ( !fileJustCreated )
-            connect();
-//        else
-//            MessageBox.showInfo("Data file was just now created.\n"
-//                    + "Add records to it, then save, in order\n"
-//                    + "to not see this message in the future.", 
-//                    "New Data File Created");
-        
-        entry.setMessage("Done creating ReceivablesCtl object.");
-        Starter.logger.exit(entry, null);
+        return total[0];
     }
-    //</editor-fold>
-
-    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
     
+    /**
+     * Opens a cursor over the receivables that match a filter, which reads them
+     * in from the disk a page at a time, instead of reading in the whole table.
+     * This is the way to browse the receivables journal, which grows with every
+     * load that is delivered, when only some of the receivables are wanted.
+     * 
+     * <dl><dt>Note</dt><dd>The cursor sees the table as it was last saved, so
+     * any changes made through a `ReceivablesCtl` must be saved before the
+     * cursor is opened if the cursor is to see them. The cursor must be closed
+     * once it is no longer needed.</dd></dl>
+     * 
+     * @param filter the test that a receivable must pass to be seen by the
+     *               cursor, or `null` for all of them.
+     * @param pageSize the number of receivables to read from the disk at a
+     *                 time.
+     * @return the cursor, positioned at the first matching receivable.
+     * @throws DataStoreException in the event the table cannot be read.
+     */
+    public static RecordCursor<ReceivablesModel> openCursor(
+            Predicate<ReceivablesModel> filter, int pageSize)
+            throws DataStoreException {
+        return Table.openCursor(new File(Starter.props.getDataFolder()
+                + "50500.jrnl"), CODEC, filter, pageSize);
+    }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
     public void addNew(ReceivablesModel model) {
-        records.add(model);
-        row = getRecordCount() - 1;
-        
-        Starter.props.setPropertyAsInt("journal.ar.records", getRecordCount());
+        table.addNew(model);
     }
     
     public void close() throws DataStoreException {
@@ -158,18 +203,7 @@ public class ReceivablesCtl {
      *                       the journal
      */
     public ReceivablesModel first() throws DataStoreException {
-        if ( row >= 0 ) {
-            row = 0;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.first();
     }
     
     /**
@@ -181,18 +215,7 @@ public class ReceivablesCtl {
      *                       the journal
      */
     public ReceivablesModel previous() throws DataStoreException {
-        if ( row > 0 ) {
-            row--;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.previous();
     }
     
     /**
@@ -204,18 +227,7 @@ public class ReceivablesCtl {
      *                       the journal
      */
     public ReceivablesModel next() throws DataStoreException {
-        if ( row < records.size() ) {
-            row++;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.next();
     }
     
     /**
@@ -227,18 +239,7 @@ public class ReceivablesCtl {
      *                       the journal
      */
     public ReceivablesModel last() throws DataStoreException {
-        if ( row < records.size() ) {
-            row = records.size() - 1;
-            
-            try {
-                record = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                record = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return record;
+        return table.last();
     }
     
     /**
@@ -247,7 +248,7 @@ public class ReceivablesCtl {
      * @return `true` if more transactions, `false` if not.
      */
     public boolean hasNext() {
-        return row < records.size();
+        return table.hasNext();
     }
     
     /**
@@ -256,7 +257,7 @@ public class ReceivablesCtl {
      * @return The current entry.
      */
     public ReceivablesModel get() {
-        return records.get(row);
+        return table.get();
     }
     
     /**
@@ -269,7 +270,7 @@ public class ReceivablesCtl {
      *              `getRecordCount()`), null is returned.
      */
     public ReceivablesModel get(int idx) {
-        return records.get(idx);
+        return table.get(idx);
     }
     
     /**
@@ -278,7 +279,7 @@ public class ReceivablesCtl {
      * @return int The current record number
      */
     public int getCurrentRecordNumber() {
-        return row + 1;
+        return table.getCurrentRecordNumber();
     }
     
     /**
@@ -287,166 +288,55 @@ public class ReceivablesCtl {
      * @return int The number of records
      */
     public int getRecordCount() {
-        return records.size();
+        return table.getRecordCount();
     }
     
     public void update(ReceivablesModel model) {
-        record = model;
-        
-        records.set(row, model);
+        table.update(model);
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
-    private void connect() throws DataStoreException {
-        entry.setMessage("Enter...");
-        entry.setSourceMethodName("connect");
-        entry.setParameters(new Object[]{});
-        Starter.logger.enter(entry);
-        
-        BufferedReader in;
-        
-        entry.setMessage("Setting up LoadMaster.fileProgress...");
-        entry.setParameters(null);
-        Starter.logger.config(entry);
-        
-        if ( LoadMaster.fileProgress != null ) {
-            LoadMaster.fileProgress.setMaximum(
-                    Starter.props.getPropertyAsInt("journal.fuel.records", "0") 
-                    + (Starter.props.getPropertyAsInt("journal.fuel.records", "0")));
-            LoadMaster.fileProgress.setValue(0);
-            LoadMaster.fileProgress.setVisible(true);
-        }
+    private void save() throws DataStoreException {
+        table.save();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static ReceivablesModel readRecord(RecordTokenizer line) {
+        long id = line.nextLong();
+        Date date = null;
         
         try {
-            in = new BufferedReader(new FileReader(TABLE));
-            
-            String line = in.readLine();
-            
-            while ( line != null ) {
-                String[] record = line.split("~");
-                
-                createAndAddRecord(record);
-                
-                line = in.readLine();
-
-                if ( LoadMaster.fileProgress != null ) {
-                    LoadMaster.fileProgress.setValue(
-                            LoadMaster.fileProgress.getValue() + 1);
-                }
-            }
-            
-            row = 0;    // Set our current row to the first record.
-            
-            in.close();
-            
-        } catch ( IOException ex ) {
+            date = line.nextDate();
+        } catch ( ParseException ex ) {
+            LogRecord entry = Logger.newRecord(ReceivablesCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
+                    + "Parsing error while parsing the dispatch date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("connect");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            throw new DataStoreException(ex.getMessage(), ex);
-        } finally {
-            if ( LoadMaster.fileProgress != null ) {
-                LoadMaster.fileProgress.setValue(0);
-                LoadMaster.fileProgress.setVisible(false);
-            }
-            Starter.props.setPropertyAsInt("journal.ar.records", records.size());
-            Starter.props.flush();
+            TableLoader.reportError(ex, "Parsing Error");
         }
-    }
-    
-    private void save() throws DataStoreException {
-        BufferedWriter out;
         
-        LoadMaster.fileProgress.setMaximum(
-                Starter.props.getPropertyAsInt("journal.ar.records", "0"));
-        LoadMaster.fileProgress.setValue(
-                Starter.props.getPropertyAsInt("journal.ar.records", "0"));
+        String trip = line.nextString();
+        String order = line.nextString();
         
-        if ( TABLE.exists() ) {
-            TABLE.delete();
-            try {
-                TABLE.createNewFile();
-            } catch ( IOException ex ) {
-                entry.setMessage("Something went wrong deleting and recreating "
-                        + "the data table.");
-                entry.setThrown(ex);
-                entry.setSourceMethodName("save");
-                entry.setParameters(null);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
+        ReceivablesModel record = new ReceivablesModel(date, trip, order,
+                line.nextDouble());
+        record.setId(id);
+        record.setSettled(line.nextBoolean());
         
-        try {
-            out = new BufferedWriter(new FileWriter(TABLE));
-            
-            for ( int x = 0; x < records.size(); x++ ) {
-                out.write(buildRecordLine(records.get(x)) + "\n");
-                
-                LoadMaster.fileProgress.setValue(
-                        LoadMaster.fileProgress.getValue() - 1);
-            }
-            
-            out.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("storeData");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
-        }
+        return record;
     }
     
-    private String buildRecordLine(ReceivablesModel model) {
+    private static String buildRecordLine(ReceivablesModel model) {
         return model.getIdAsString() + "~" + model.getDateAsString() + "~"
                 + model.getTripNumber() + "~" + model.getOrderNumber() + "~"
                 + model.getAmountAsString() + "~" + model.isSettled();
     }
-    
-    private void createAndAddRecord(String[] line) {
-        entry.setMessage("Entering...");
-        entry.setSourceMethodName("createAndAddRecord");
-        entry.setParameters(line);
-        Starter.logger.enter(entry);
-        
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        
-//        record = new ReceivablesModel();
-        
-        
-        try {
-            record.setDate(sdf.parse(line[1]));
-        } catch ( ParseException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Parsing error while parsing the dispatch date.");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            MessageBox.showError(ex, "Parsing Error");
-        }
-        
-        record.setId(line[0]);
-        record.setTripNumber(line[2]);
-        record.setOrderNumber(line[3]);
-        record.setAmount(line[4]);
-        record.setSettled(Boolean.parseBoolean(line[5]));
-        
-        records.add(record);
-        
-        LoadMaster.fileProgress.setValue(
-                LoadMaster.fileProgress.getValue() + 1);
-    }
     //</editor-fold>
 
 }
@@ -33,21 +33,28 @@
 package com.pekinsoft.loadmaster.controller;
 
 import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.db.GroupIndex;
+import com.pekinsoft.loadmaster.db.RecordCodec;
+import com.pekinsoft.loadmaster.db.RecordCursor;
+import com.pekinsoft.loadmaster.db.RecordTokenizer;
+import com.pekinsoft.loadmaster.db.Table;
+import com.pekinsoft.loadmaster.db.TableArchive;
+import com.pekinsoft.loadmaster.db.TableLoader;
+import com.pekinsoft.loadmaster.db.TableRegistry;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.err.InvalidTimeException;
 import com.pekinsoft.loadmaster.model.StopModel;
-import com.pekinsoft.loadmaster.utils.MessageBox;
-import com.pekinsoft.loadmaster.view.LoadMaster;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import com.pekinsoft.loadmaster.sys.Logger;
+import com.pekinsoft.loadmaster.utils.DateUtils;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.logging.Level;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.logging.LogRecord;
 
 /**
@@ -62,20 +69,21 @@ public class StopCtl {
     
     //</editor-fold>
 
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final RecordCodec<StopModel> CODEC = RecordCodec.of(
+            StopCtl::readRecord, StopCtl::buildRecordLine);
+    //</editor-fold>
+
     //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
     // Table Data:
-    private final File TABLE;
+    private final Table<StopModel> table;
     
     // Table Information:
-    private StopModel stop;
-    private final ArrayList<StopModel> records;
-    private int row;
-    
-    // System:
-    private LogRecord entry;
+    private final GroupIndex trips;
     
-    // Flags:
-    private boolean fileJustCreated = false;
+    // The number of times that the rows of the stops had moved when they
+    //+ were last grouped by their trip.
+    private int indexed;
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Static Initializer">
@@ -86,49 +94,127 @@ public class StopCtl {
 
     //<editor-fold defaultstate="collapsed" desc="Intstance Initializer">
     {
-        records = new ArrayList<>();
-        row = 0;
-        entry = new LogRecord(Level.FINEST, "");
-        entry.setSourceClassName(this.getClass().getCanonicalName());
+        trips = new GroupIndex();
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
     public StopCtl () throws DataStoreException {
-        stop = new StopModel();
-        TABLE = new File(Starter.DB_URL + "stops.tbl");
-        
-        // Check to see if the table file exists:
-        if ( !TABLE.exists() ) {
-            try {
-                TABLE.createNewFile();
-                
-                // Set our flag:
-                fileJustCreated = true;
-            } catch (IOException ex) {
-                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                        + "\nThrowing DataStoreException...");
-                entry.setParameters(null);
-                entry.setSourceMethodName("Customer");
-                entry.setThrown(ex);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
+        // The stops are partitioned by their early date, which is not before
+        //+ the dispatch date of their load, so the stops of a load are never
+        //+ in an older partition than the load itself.
+        table = new Table<>(new File(Starter.DB_URL + "stops.tbl"), CODEC,
+                "table.stops.records", 3);
         
-        if ( !fileJustCreated )
-            connect();
-//        else
-//            MessageBox.showInfo("Data file was just now created.\n"
-//                    + "Add records to it, then save, in order\n"
-//                    + "to not see this message in the future.", 
-//                    "New Data File Created");
+        indexTrips();
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Opens a cursor over the stops that match a filter, which reads the stops
+     * in from the disk a page at a time, instead of reading in the whole
+     * table. This is the way to browse the stops table, which grows with every
+     * load that is booked, when only some of the stops are wanted.
+     * 
+     * <dl><dt>Note</dt><dd>The cursor sees the table as it was last saved, so
+     * any changes made through a `StopCtl` must be saved before the cursor is
+     * opened if the cursor is to see them. The cursor must be closed once it
+     * is no longer needed.</dd></dl>
+     * 
+     * @param filter    The test that a stop must pass to be seen by the
+     *                  cursor, or `null` for all stops.
+     * @param pageSize  The number of stops to read from the disk at a time.
+     * @return          The cursor, positioned at the first matching stop.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                  the table
+     */
+    public static RecordCursor<StopModel> openCursor(
+            Predicate<StopModel> filter, int pageSize)
+            throws DataStoreException {
+        return Table.openCursor(new File(Starter.DB_URL + "stops.tbl"), CODEC,
+                filter, pageSize);
+    }
     
+    /**
+     * Moves the stops of the specified trips out of the stops table, and into
+     * its archive (see {@link TableArchive}). This is used to archive the
+     * stops of the loads that have been archived.
+     * 
+     * <dl><dt>Note</dt><dd>Any `StopCtl` that has the stops in memory can no
+     * longer save them, and must be created again.</dd></dl>
+     * 
+     * @param trips The trip numbers of the stops to archive.
+     * @return      The number of stops archived.
+     * @throws DataStoreException in the event an error occurs while archiving
+     *                  the stops
+     */
+    public static int archiveTrips(Set<String> trips) 
+            throws DataStoreException {
+        if ( trips.isEmpty() ) {
+            return 0;
+        }
+        
+        try {
+            return new TableArchive(new File(Starter.DB_URL + "stops.tbl"))
+                    .archive((RecordTokenizer record) -> 
+                            trips.contains(record.nextString()));
+        } catch ( IOException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
+            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                    + "Throwing DataStoreException to calling method...");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("archiveTrips");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+            
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+    }
+    
+    /**
+     * Retrieves the stops of the specified trip from the archive of the stops
+     * table, sorted by their stop numbers. The archive is read from the disk
+     * each time, so this is only meant for the stops of a load that has been
+     * archived.
+     * 
+     * @param trip The trip number.
+     * @return     The archived stops of the trip. If there are none, the list
+     *             is empty.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                  the archive
+     */
+    public static ArrayList<StopModel> getArchivedStops(String trip) 
+            throws DataStoreException {
+        ArrayList<StopModel> tripStops = new ArrayList<>();
+        
+        try {
+            new TableArchive(new File(Starter.DB_URL + "stops.tbl")).scan(
+                    (int row, RecordTokenizer record) -> {
+                        String line = record.toString();
+                        
+                        if ( trip.equals(record.nextString()) ) {
+                            tripStops.add(readRecord(record.reset(line)));
+                        }
+                        
+                        return true;
+                    });
+        } catch ( IOException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
+            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                    + "Throwing DataStoreException to calling method...");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("getArchivedStops");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+            
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+        
+        tripStops.sort(Comparator.comparingInt(StopModel::getStopNumber));
+        
+        return tripStops;
+    }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
@@ -138,7 +224,7 @@ public class StopCtl {
      * @return Current stop.
      */
     public StopModel get() {
-        return records.get(row);
+        return table.get();
     }
     
     /**
@@ -150,10 +236,7 @@ public class StopCtl {
      * @return      The specified stop at the index provided or `null`.
      */
     public StopModel get(int idx) {
-        if ( idx < 0 || idx >= getRecordCount() ) 
-            return null;
-        
-        return records.get(idx);
+        return table.get(idx);
     }
     
     /**
@@ -162,7 +245,7 @@ public class StopCtl {
      * @return int The number of records
      */
     public int getRecordCount() {
-        return records.size();
+        return table.getRecordCount();
     }
     
     /**
@@ -171,7 +254,7 @@ public class StopCtl {
      * @return int The current record number
      */
     public int getCurrentRecordNumber() {
-        return row + 1;
+        return table.getCurrentRecordNumber();
     }
     
     /**
@@ -181,7 +264,7 @@ public class StopCtl {
      * @return `true` if there is at least one more record, `false` otherwise.
      */
     public boolean hasNext() {
-        return row < records.size();
+        return table.hasNext();
     }
     
     /**
@@ -193,16 +276,8 @@ public class StopCtl {
      *                       the table
      */
     public StopModel first() throws DataStoreException {
-        if ( row >= 0 ) {
-            row = 0;
-            
-            try {
-                stop = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                stop = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
+        StopModel stop = table.first();
+        checkIndex();
         
         return stop;
     }
@@ -216,16 +291,8 @@ public class StopCtl {
      *                       the table
      */
     public StopModel last() throws DataStoreException {
-        if ( row < getRecordCount() ) {
-            row = getRecordCount() - 1;
-            
-            try {
-                stop = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                stop = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
+        StopModel stop = table.last();
+        checkIndex();
         
         return stop;
     }
@@ -239,18 +306,7 @@ public class StopCtl {
      *                       the table
      */
     public StopModel next() throws DataStoreException {
-        if ( row < getRecordCount() ) {
-            row++;
-            
-            try {
-                stop = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                stop = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
-        
-        return stop;
+        return table.next();
     }
     
     /**
@@ -262,16 +318,8 @@ public class StopCtl {
      *                       the table
      */
     public StopModel previous() throws DataStoreException {
-        if ( row > 0 ) {
-            row--;
-            
-            try {
-                stop = records.get(row);
-            } catch (IndexOutOfBoundsException ex) {
-                stop = null;
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
+        StopModel stop = table.previous();
+        checkIndex();
         
         return stop;
     }
@@ -282,9 +330,8 @@ public class StopCtl {
      * @param cust The new data model to use to update the record.
      */
     public void update(StopModel cust) {
-            stop = cust;
-            
-            records.set(row, stop);
+        table.update(cust);
+        trips.set(table.getRow(), cust.getTripNumber());
     }
     
     /**
@@ -293,10 +340,7 @@ public class StopCtl {
      * @param cust The new stop record to add to the table
      */
     public void addNew(StopModel cust) {
-        records.add(cust);
-        row = getRecordCount() - 1;
-        
-        Starter.props.setPropertyAsInt("table.stops.records", getRecordCount());
+        trips.set(table.addNew(cust), cust.getTripNumber());
     }
     
     /**
@@ -306,228 +350,316 @@ public class StopCtl {
      *                            data.
      */
     public void close() throws DataStoreException {
-        BufferedWriter out = null;
+        commit();
+    }
+    
+    /**
+     * Saves the changes to a single stop, such as the arrival or departure
+     * time, straight out to the table data file. The stop is found by its trip
+     * and stop number, and becomes the current record. Only that stop (and any
+     * other changes that have not been saved yet) is written, so this is far
+     * less work than rewriting the table.
+     * 
+     * @param model The stop to save.
+     * @throws DataStoreException In the event the stop is not in this table,
+     *                            or there is an error writing the data.
+     */
+    public void save(StopModel model) throws DataStoreException {
+        if ( getStop(model.getTripNumber(), model.getStopNumber()) == null ) {
+            throw new DataStoreException("Stop " + model.getStopNumber() 
+                    + " of trip " + model.getTripNumber() + " is not in the "
+                    + "stops table.");
+        }
         
-        LoadMaster.loadProgress.setMaximum(
-                Starter.props.getPropertyAsInt("table.stops.records", "0"));
-        LoadMaster.loadProgress.setValue(
-                Starter.props.getPropertyAsInt("table.stops.records", "0"));
+        update(model);
+        commit();
+    }
+    
+    public ArrayList<StopModel> getList() {
+        return table.getList();
+    }
+    
+    /**
+     * Reads in the stops from the older partitions of the stops table, if it
+     * has been partitioned, back to the specified date. Only the stops from
+     * the current period on are read in when the table is opened, so this
+     * needs to be called before looking up the stops of a load that was
+     * dispatched before then.
+     * 
+     * @param date The earliest date wanted, such as the dispatch date of the
+     *             oldest load whose stops are wanted.
+     * @return the number of stops read in.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table
+     */
+    public int loadBackTo(Date date) throws DataStoreException {
+        int count = table.loadBackTo(date);
+        checkIndex();
         
-        if ( TABLE.exists() ) {
-            TABLE.delete();
-            try {
-                TABLE.createNewFile();
-            } catch ( IOException ex ) {
-                entry.setMessage("Something went wrong deleting and recreating "
-                        + "the data table.");
-                entry.setThrown(ex);
-                entry.setSourceMethodName("close");
-                entry.setParameters(null);
-                Starter.logger.error(entry);
-                
-                throw new DataStoreException(ex.getMessage(), ex);
-            }
-        }
+        return count;
+    }
+    
+    /**
+     * Groups all of the stops in this table by their trip number, in a single
+     * pass over the records. The stops for each trip are kept in the same order
+     * in which they appear in the table.
+     * 
+     * This is the method to use when the stops need to be attached to many
+     * loads at once, such as when the loads table is being read in, as it
+     * allows each load to find its stops with a single hash lookup instead of
+     * scanning the entire stops table for every load.
+     * 
+     * @return a `java.util.HashMap` of the stops in this table, keyed by their
+     *         trip number. If there are no stops, the map is empty.
+     */
+    public HashMap<String, ArrayList<StopModel>> getStopsByTrip() {
+        HashMap<String, ArrayList<StopModel>> byTrip = new HashMap<>();
         
-        try {
-            out = new BufferedWriter(new FileWriter(TABLE));
+        for ( StopModel s : table.getList() ) {
+            ArrayList<StopModel> tripStops = byTrip.get(s.getTripNumber());
             
-            for ( int x = 0; x < records.size(); x++ ) {
-                out.write(buildRecordLine(records.get(x)) + "\n");
-                
-                LoadMaster.fileProgress.setValue(
-                        LoadMaster.fileProgress.getValue() - 1);
+            if ( tripStops == null ) {
+                tripStops = new ArrayList<>();
+                byTrip.put(s.getTripNumber(), tripStops);
             }
             
-            out.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("close");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
+            tripStops.add(s);
         }
-
+        
+        return byTrip;
     }
     
+    /**
+     * Retrieves the stops for the specified trip, in stop number order. The
+     * stops are indexed by their trip number, so the table does not need to
+     * be searched, and the record pointer is not moved.
+     * 
+     * @param trip The trip number.
+     * @return the stops for the trip. If there are none, the list is empty.
+     */
+    public ArrayList<StopModel> getStopsForTrip(String trip) {
+        int[] rows = trips.get(trip);
+        ArrayList<StopModel> tripStops = new ArrayList<>(rows.length);
+        
+        for ( int x : rows ) {
+            tripStops.add(table.get(x));
+        }
+        
+        tripStops.sort(Comparator.comparingInt(StopModel::getStopNumber));
+        
+        return tripStops;
+    }
     
-    public ArrayList<StopModel> getList() {
-        return records;
+    /**
+     * Retrieves the specified stop of the specified trip, and makes it the
+     * current record, so that it can then be passed to `update`. The stops are
+     * indexed by their trip number, so only the stops of that one trip are
+     * looked at.
+     * 
+     * @param trip       The trip number.
+     * @param stopNumber The number of the stop on the trip.
+     * @return the stop, or `null` if there is no such stop, in which case the
+     *         record pointer is not moved.
+     */
+    public StopModel getStop(String trip, int stopNumber) {
+        for ( int x : trips.get(trip) ) {
+            StopModel stop = table.get(x);
+            
+            if ( stop.getStopNumber() == stopNumber
+                    && stop.getTripNumber().equalsIgnoreCase(trip) ) {
+                return table.moveTo(x);
+            }
+        }
+        
+        return null;
     }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
-    private void connect() throws DataStoreException {
-        BufferedReader in;
+    // Groups the stops by their trip, so that the stops for a trip can be
+    //+ found without looking through the whole table.
+    private void indexTrips() {
+        trips.clear();
         
-        try {
-            in = new BufferedReader(new FileReader(TABLE));
-            
-            String line = in.readLine();
-            
-            while ( line != null ) {
-                String[] record = line.split("~");
-                
-                createAndAddRecord(record);
-                
-                line = in.readLine();
-
-                if ( LoadMaster.fileProgress != null ) {
-                    LoadMaster.fileProgress.setValue(
-                            LoadMaster.fileProgress.getValue() + 1);
-                }
-            }
-            
-            row = 0;    // Set our current row to the first record.
-            
-            in.close();
-        } catch ( IOException ex ) {
-            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
-                    + "Throwing DataStoreException to calling method...");
-            entry.setThrown(ex);
-            entry.setSourceMethodName("connect");
-            entry.setParameters(null);
-            Starter.logger.error(entry);
-            
-            throw new DataStoreException(ex.getMessage(), ex);
-        } finally {
-            
+        for ( int x = 0; x < table.getRecordCount(); x++ ) {
+            trips.set(x, table.get(x).getTripNumber());
         }
+        
+        indexed = table.getMoveCount();
     }
     
-    private void createAndAddRecord(String[] record) {
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        
-        stop = new StopModel();
+    // The rows of the stops move down when older ones are read in ahead of
+    //+ them, or stops saved by another controller are taken in.
+    private void checkIndex() {
+        if ( indexed != table.getMoveCount() ) {
+            indexTrips();
+        }
+    }
+    
+    private void commit() throws DataStoreException {
+        // The loads carry their stops with them, so the loads that are in
+        //+ memory need to be read in again to pick up the changed stops.
+        if ( table.save() > 0 ) {
+            TableRegistry.invalidate(new File(Starter.DB_URL + "loads.tbl"));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static StopModel readRecord(RecordTokenizer record) {
+        StopModel stop = new StopModel();
+        Date date;
         
-        stop.setTripNumber(record[0]);
-        stop.setStopNumber(Integer.parseInt(record[1]));
-        stop.setCustomer(Long.parseLong(record[2]));
+        stop.setTripNumber(record.nextString());
+        stop.setStopNumber(record.nextInt());
+        stop.setCustomer(record.nextLong());
         
         try {
-            if ( record[3].length() > 1 )
-                stop.setEarlyDate(sdf.parse(record[3]));
+            date = record.nextDate();
+            
+            if ( date != null )
+                stop.setEarlyDate(date);
         } catch ( ParseException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
                     + "Parsing error while parsing the early date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Data Retrieval Error");
+            TableLoader.reportError(ex, "Data Retrieval Error");
         }
         
         try {
-            stop.setEarlyTime(record[4]);
+            stop.setEarlyTime(record.nextString());
         } catch ( InvalidTimeException | ParseException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
                     + "Parsing error while parsing the late date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Data Retrieval Error");            
+            TableLoader.reportError(ex, "Data Retrieval Error");            
         }
         
         try {
-            if ( record[5].length() > 1 )
-                stop.setLateDate(sdf.parse(record[5]));
+            date = record.nextDate();
+            
+            if ( date != null )
+                stop.setLateDate(date);
         } catch ( ParseException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
                     + "Parsing error while parsing the late date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Data Retrieval Error");
+            TableLoader.reportError(ex, "Data Retrieval Error");
         }
         
         try {
-            stop.setLateTime(record[6]);
+            stop.setLateTime(record.nextString());
         } catch ( InvalidTimeException | ParseException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
                     + "Parsing error while parsing the late date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Data Retrieval Error");            
+            TableLoader.reportError(ex, "Data Retrieval Error");            
         }
         
         try {
-            if ( record[7].length() > 1 )
-                stop.setArrDate(sdf.parse(record[7]));
+            date = record.nextDate();
+            
+            if ( date != null )
+                stop.setArrDate(date);
         } catch ( ParseException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
                     + "Parsing error while parsing the late date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Data Retrieval Error");
+            TableLoader.reportError(ex, "Data Retrieval Error");
         }
         
         try {
-            stop.setArrTime(record[8]);
+            stop.setArrTime(record.nextString());
         } catch ( InvalidTimeException | ParseException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
                     + "Parsing error while parsing the late date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Data Retrieval Error");            
+            TableLoader.reportError(ex, "Data Retrieval Error");            
         }
         
         try {
-            if ( record[9].length() > 1 )
-                stop.setDepDate(sdf.parse(record[9]));
+            date = record.nextDate();
+            
+            if ( date != null )
+                stop.setDepDate(date);
         } catch ( ParseException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
                     + "Parsing error while parsing the late date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Data Retrieval Error");
+            TableLoader.reportError(ex, "Data Retrieval Error");
         }
         
         try {
-            stop.setDepTime(record[10]);
+            stop.setDepTime(record.nextString());
         } catch ( InvalidTimeException | ParseException ex ) {
+            LogRecord entry = Logger.newRecord(StopCtl.class);
             entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
                     + "Parsing error while parsing the late date.");
             entry.setThrown(ex);
-            entry.setSourceMethodName("createAndAddRecord");
+            entry.setSourceMethodName("readRecord");
             entry.setParameters(null);
             Starter.logger.error(entry);
             
-            MessageBox.showError(ex, "Data Retrieval Error");            
+            TableLoader.reportError(ex, "Data Retrieval Error");            
         }
         
-//        stop.setSignedBy(record[11]);
+        stop.setSignedBy(record.nextString());
         
-        records.add(stop);
+        return stop;
     }
     
-    private String buildRecordLine(StopModel model) {
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        
+    private static String buildRecordLine(StopModel model) {
         return model.getTripNumber() + "~" + model.getStopNumber() + "~"
-                + model.getCustomer() + "~" + sdf.format(model.getEarlyDate())
-                 + "~" + model.getEarlyTime() + "~" 
-                + sdf.format(model.getLateDate()) + "~" + model.getLateTime()
-                + "~ ~ ~ ~ ~ ";
+                + model.getCustomer() + "~" 
+                + DateUtils.formatDate(model.getEarlyDate()) + "~" 
+                + model.getEarlyTime() + "~" 
+                + DateUtils.formatDate(model.getLateDate()) + "~" 
+                + model.getLateTime() + "~" 
+                + orBlank(DateUtils.formatDate(model.getArrDate())) + "~" 
+                + orBlank(model.getArrTime()) + "~" 
+                + orBlank(DateUtils.formatDate(model.getDepDate())) + "~" 
+                + orBlank(model.getDepTime()) + "~" 
+                + orBlank(model.getSignedBy());
+    }
+    
+    // Empty fields are stored as a single space.
+    private static String orBlank(String field) {
+        return field == null || field.isEmpty() ? " " : field;
     }
     //</editor-fold>
 
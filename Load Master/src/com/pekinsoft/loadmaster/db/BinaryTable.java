@@ -0,0 +1,617 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   BinaryTable
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Stores the rows of a data table in a compact binary form, with each
+ *      field held as a fixed-width number, flag or date, instead of as text
+ *      that has to be parsed every time the table is opened.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.utils.DateUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The `BinaryTable` is the binary form of a tilde-delimited data table. It
+ * holds exactly the same rows as the text form, and either form can be turned
+ * into the other without losing anything, but the binary form is smaller, and
+ * is much faster to open, as its numbers, flags and dates do not need to be
+ * parsed.
+ *
+ * The file is laid out as follows, with all numbers in big-endian order:
+ * <pre>
+ *     int     magic number (0x4C4D5442, "LMTB")
+ *     short   format version
+ *     short   number of fields in each record
+ *     int     number of records
+ *     int     size of each record, in bytes
+ *     long    position of the string heap in the file
+ *     byte[]  the type of each field, padded out to a multiple of 8 bytes
+ *     records one after another, each the same size
+ *     heap    the text of the string fields, each as an int length
+ *             followed by the text in UTF-8
+ * </pre>
+ *
+ * Each record starts with a `short` holding the number of fields that the
+ * row actually has, followed by a fixed-width slot for every field:
+ * <ul>
+ * <li>`LONG` and `DOUBLE` fields take eight bytes;</li>
+ * <li>`INT` fields, which are whole numbers that are never too large for an
+ *     `int`, take four bytes;</li>
+ * <li>`BOOLEAN` fields take one byte;</li>
+ * <li>`DATE` fields take four bytes, holding the date as `yyyymmdd`, or zero
+ *     for a blank date; and</li>
+ * <li>`STRING` fields take four bytes, holding the position of the text in
+ *     the heap. Text that is repeated, such as the trip number of each stop,
+ *     is only stored in the heap once.</li>
+ * </ul>
+ *
+ * Since every record is the same size, any row can be found straight away.
+ *
+ * The type of each field is worked out from the text form of the table when
+ * the file is written. A field is only given a type other than `STRING` when
+ * every value in it would be written back out exactly as it was read, so
+ * that, for instance, an order number such as "00123" stays as text.
+ *
+ * The records are read through a {@link RecordTokenizer}, which is `reset`
+ * with the table and row, so the controllers read the rows of a binary table
+ * in exactly the same way as the rows of a text table.
+ *
+ * <dl><dt>Note</dt><dd>The whole file is mapped into memory while it is being
+ * read, so a binary table may not be larger than 2GB.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ *
+ * @see ChangeLog
+ */
+public final class BinaryTable {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The number with which every binary table file starts.
+     */
+    public static final int MAGIC = 0x4C4D5442;
+
+    /**
+     * The version of the file format written by this class.
+     */
+    public static final short VERSION = 1;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Static Constants">
+    // The types of the fields.
+    static final byte STRING = 0;
+    static final byte LONG = 1;
+    static final byte DOUBLE = 2;
+    static final byte BOOLEAN = 3;
+    static final byte DATE = 4;
+    static final byte INT = 5;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final int HEADER_SIZE = 24;
+    private static final int CACHE_SIZE = 1024;
+
+    // The width of the slot for each type of field.
+    private static final int[] WIDTHS = { 4, 8, 8, 1, 4, 4 };
+
+    // The types that a field could still be, as bits, while the text form
+    //+ of the table is being looked over.
+    private static final int MAY_BE_LONG = 1 << LONG;
+    private static final int MAY_BE_DOUBLE = 1 << DOUBLE;
+    private static final int MAY_BE_BOOLEAN = 1 << BOOLEAN;
+    private static final int MAY_BE_DATE = 1 << DATE;
+    private static final int MAY_BE_INT = 1 << INT;
+    private static final int MAY_BE_ANY = MAY_BE_LONG | MAY_BE_DOUBLE
+            | MAY_BE_BOOLEAN | MAY_BE_DATE | MAY_BE_INT;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final ByteBuffer data;
+    private final byte[] types;
+
+    // The position of each field's slot within a record.
+    private final int[] slots;
+
+    private final int rows;
+    private final int recordSize;
+    private final int recordsStart;
+    private final int heapStart;
+
+    // Used to pull the text out of the heap.
+    private byte[] bytes;
+
+    // The text most recently pulled out of the heap, by its position, so
+    //+ that text used by many rows is only decoded once.
+    private final int[] cachedAt;
+    private final String[] cached;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    private BinaryTable (ByteBuffer data) throws IOException {
+        this.data = data;
+
+        if ( data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC ) {
+            throw new IOException("Not a binary table file.");
+        }
+
+        if ( data.getShort(4) > VERSION ) {
+            throw new IOException("The binary table file was written by a "
+                    + "newer version of Load Master (format version "
+                    + data.getShort(4) + ").");
+        }
+
+        types = new byte[Math.max(0, data.getShort(6))];
+        rows = data.getInt(8);
+        recordSize = data.getInt(12);
+        heapStart = (int) data.getLong(16);
+        recordsStart = align(HEADER_SIZE + types.length);
+
+        slots = new int[types.length];
+        int slot = 2;     // After the count of fields in the record.
+
+        for ( int x = 0; x < types.length; x++ ) {
+            types[x] = data.get(HEADER_SIZE + x);
+
+            if ( types[x] < 0 || types[x] >= WIDTHS.length ) {
+                throw new IOException("The binary table file is damaged.");
+            }
+
+            slots[x] = slot;
+            slot += WIDTHS[types[x]];
+        }
+
+        if ( slot != recordSize || heapStart > data.limit()
+                || (long) rows * recordSize > heapStart - recordsStart ) {
+            throw new IOException("The binary table file is damaged.");
+        }
+
+        bytes = new byte[256];
+        cachedAt = new int[CACHE_SIZE];
+        cached = new String[CACHE_SIZE];
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Determines whether the specified file is a binary table file.
+     *
+     * @param file the table file.
+     * @return `true` if the file is a binary table, `false` if it is a text
+     *         table, or does not exist.
+     * @throws IOException in the event an error occurs reading the file.
+     */
+    public static boolean isBinary(File file) throws IOException {
+        if ( !file.exists() ) {
+            return false;
+        }
+
+        try ( RandomAccessFile in = new RandomAccessFile(file, "r") ) {
+            return in.length() >= 4 && in.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Determines whether the specified open file is a binary table file.
+     *
+     * @param channel the open table file.
+     * @return `true` if the file is a binary table.
+     * @throws IOException in the event an error occurs reading the file.
+     */
+    public static boolean isBinary(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+
+        while ( magic.hasRemaining() ) {
+            if ( channel.read(magic, magic.position()) < 0 ) {
+                return false;
+            }
+        }
+
+        return magic.getInt(0) == MAGIC;
+    }
+
+    /**
+     * Opens a binary table file for reading, by mapping it into memory. The
+     * table can still be read once the channel has been closed.
+     *
+     * @param channel the open table file.
+     * @return the table.
+     * @throws IOException in the event the file is not a binary table, is
+     *                     damaged, or cannot be read.
+     */
+    public static BinaryTable open(FileChannel channel) throws IOException {
+        if ( channel.size() > Integer.MAX_VALUE ) {
+            throw new IOException("The binary table file is larger than 2GB.");
+        }
+
+        return new BinaryTable(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                channel.size()));
+    }
+
+    /**
+     * Writes the specified record lines out to a file, as a binary table. The
+     * file is forced to disk before this method returns.
+     *
+     * @param file  the file to write.
+     * @param lines the tilde-delimited record lines of the table, in row
+     *              order.
+     * @throws IOException in the event an error occurs writing the file, or
+     *                     the table is too large to be stored in binary form.
+     */
+    public static void write(File file, List<String> lines) throws IOException {
+        // Split the lines up into their fields, and work out the type of each
+        //+ field from the values that are in it.
+        ArrayList<String[]> table = new ArrayList<>(lines.size());
+        RecordTokenizer record = new RecordTokenizer();
+        ArrayList<String> fields = new ArrayList<>();
+        int[] mayBe = new int[0];
+
+        for ( String line : lines ) {
+            fields.clear();
+            record.reset(line);
+
+            while ( record.hasNext() ) {
+                fields.add(record.nextString());
+            }
+
+            if ( fields.size() > Short.MAX_VALUE ) {
+                throw new IOException("A record has too many fields to be "
+                        + "stored in a binary table.");
+            }
+
+            if ( fields.size() > mayBe.length ) {
+                int from = mayBe.length;
+                mayBe = Arrays.copyOf(mayBe, fields.size());
+                Arrays.fill(mayBe, from, mayBe.length, MAY_BE_ANY);
+            }
+
+            for ( int x = 0; x < fields.size(); x++ ) {
+                mayBe[x] &= typesOf(fields.get(x));
+            }
+
+            table.add(fields.toArray(new String[fields.size()]));
+        }
+
+        byte[] types = new byte[mayBe.length];
+        int recordSize = 2;
+
+        for ( int x = 0; x < types.length; x++ ) {
+            types[x] = bestTypeOf(mayBe[x]);
+            recordSize += WIDTHS[types[x]];
+        }
+
+        int recordsStart = align(HEADER_SIZE + types.length);
+        long heapStart = recordsStart + (long) recordSize * table.size();
+
+        if ( heapStart > Integer.MAX_VALUE ) {
+            throw new IOException("The table is too large to be stored in a "
+                    + "binary table.");
+        }
+
+        // Now build the records, putting the text into the heap as it goes.
+        ByteBuffer records = ByteBuffer.allocate((int) heapStart);
+        ByteArrayOutputStream heap = new ByteArrayOutputStream();
+        HashMap<String, Integer> stored = new HashMap<>();
+
+        records.putInt(MAGIC).putShort(VERSION).putShort((short) types.length)
+                .putInt(table.size()).putInt(recordSize).putLong(heapStart)
+                .put(types).position(recordsStart);
+
+        for ( String[] row : table ) {
+            records.putShort((short) row.length);
+
+            for ( int x = 0; x < types.length; x++ ) {
+                String value = x < row.length ? row[x] : "";
+
+                switch ( types[x] ) {
+                    case LONG:
+                        records.putLong(x < row.length
+                                ? Long.parseLong(value) : 0L);
+                        break;
+                    case INT:
+                        records.putInt(x < row.length
+                                ? Integer.parseInt(value) : 0);
+                        break;
+                    case DOUBLE:
+                        records.putDouble(x < row.length
+                                ? Double.parseDouble(value) : 0.0);
+                        break;
+                    case BOOLEAN:
+                        records.put(Boolean.parseBoolean(value)
+                                ? (byte) 1 : (byte) 0);
+                        break;
+                    case DATE:
+                        records.putInt(x < row.length ? packDate(value) : 0);
+                        break;
+                    default:
+                        Integer at = stored.get(value);
+
+                        if ( at == null ) {
+                            byte[] text = value.getBytes(
+                                    StandardCharsets.UTF_8);
+
+                            at = heap.size();
+                            stored.put(value, at);
+                            heap.write(ByteBuffer.allocate(4)
+                                    .putInt(text.length).array(), 0, 4);
+                            heap.write(text, 0, text.length);
+                        }
+
+                        if ( heapStart + heap.size() > Integer.MAX_VALUE ) {
+                            throw new IOException("The table is too large to "
+                                    + "be stored in a binary table.");
+                        }
+
+                        records.putInt(at);
+                        break;
+                }
+            }
+        }
+
+        try ( FileOutputStream out = new FileOutputStream(file) ) {
+            out.write(records.array());
+            heap.writeTo(out);
+            out.flush();
+            out.getFD().sync();
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Retrieves the number of rows in the table.
+     *
+     * @return the number of rows.
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Retrieves the size of each record in the table, in bytes.
+     *
+     * @return the record size.
+     */
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Retrieves the size of the whole table file, in bytes.
+     *
+     * @return the file size.
+     */
+    public int getSize() {
+        return data.limit();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Instance Methods">
+    int recordAt(int row) {
+        if ( row < 0 || row >= rows ) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+
+        return recordsStart + row * recordSize;
+    }
+
+    int fieldsIn(int record) {
+        return Math.min(data.getShort(record), types.length);
+    }
+
+    byte typeOf(int field) {
+        return types[field];
+    }
+
+    // Reads both LONG and INT fields.
+    long getLong(int record, int field) {
+        return types[field] == INT ? data.getInt(record + slots[field])
+                : data.getLong(record + slots[field]);
+    }
+
+    double getDouble(int record, int field) {
+        return data.getDouble(record + slots[field]);
+    }
+
+    boolean getBoolean(int record, int field) {
+        return data.get(record + slots[field]) != 0;
+    }
+
+    int getDate(int record, int field) {
+        return data.getInt(record + slots[field]);
+    }
+
+    String getString(int record, int field) {
+        int at = heapStart + data.getInt(record + slots[field]);
+        int slot = at & (CACHE_SIZE - 1);
+
+        if ( cachedAt[slot] == at && cached[slot] != null ) {
+            return cached[slot];
+        }
+
+        int length = data.getInt(at);
+
+        if ( bytes.length < length ) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+        }
+
+        for ( int x = 0; x < length; x++ ) {
+            bytes[x] = data.get(at + 4 + x);
+        }
+
+        cachedAt[slot] = at;
+        cached[slot] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+
+        return cached[slot];
+    }
+
+    // Retrieves the field exactly as it was in the text form of the table.
+    String getText(int record, int field) {
+        switch ( types[field] ) {
+            case LONG:
+            case INT:
+                return Long.toString(getLong(record, field));
+            case DOUBLE:
+                return Double.toString(getDouble(record, field));
+            case BOOLEAN:
+                return getBoolean(record, field) ? "true" : "false";
+            case DATE:
+                int date = getDate(record, field);
+
+                if ( date == 0 ) {
+                    return " ";     // Blank dates are stored as a space.
+                }
+
+                char[] text = new char[10];
+                formatDate(date, text);
+
+                return new String(text);
+            default:
+                return getString(record, field);
+        }
+    }
+
+    // Puts a `yyyymmdd` date into the text as MM/dd/yyyy.
+    static void formatDate(int date, char[] text) {
+        int year = date / 10000;
+        int month = date / 100 % 100;
+        int day = date % 100;
+
+        text[0] = (char) ('0' + month / 10);
+        text[1] = (char) ('0' + month % 10);
+        text[2] = '/';
+        text[3] = (char) ('0' + day / 10);
+        text[4] = (char) ('0' + day % 10);
+        text[5] = '/';
+        text[6] = (char) ('0' + year / 1000);
+        text[7] = (char) ('0' + year / 100 % 10);
+        text[8] = (char) ('0' + year / 10 % 10);
+        text[9] = (char) ('0' + year % 10);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    // Works out which types, other than STRING, would give the value back
+    //+ exactly as it is.
+    private static int typesOf(String value) {
+        int mayBe = 0;
+
+        if ( value.equals("true") || value.equals("false") ) {
+            mayBe |= MAY_BE_BOOLEAN;
+        }
+
+        try {
+            long number = Long.parseLong(value);
+
+            if ( Long.toString(number).equals(value) ) {
+                mayBe |= MAY_BE_LONG;
+
+                if ( number == (int) number ) {
+                    mayBe |= MAY_BE_INT;
+                }
+            }
+        } catch ( NumberFormatException ex ) {
+            // Not a whole number.
+        }
+
+        try {
+            if ( Double.toString(Double.parseDouble(value)).equals(value) ) {
+                mayBe |= MAY_BE_DOUBLE;
+            }
+        } catch ( NumberFormatException ex ) {
+            // Not a number.
+        }
+
+        if ( value.equals(" ") || packDate(value) != 0 ) {
+            mayBe |= MAY_BE_DATE;
+        }
+
+        return mayBe;
+    }
+
+    private static byte bestTypeOf(int mayBe) {
+        if ( (mayBe & MAY_BE_BOOLEAN) != 0 ) {
+            return BOOLEAN;
+        } else if ( (mayBe & MAY_BE_INT) != 0 ) {
+            return INT;
+        } else if ( (mayBe & MAY_BE_LONG) != 0 ) {
+            return LONG;
+        } else if ( (mayBe & MAY_BE_DATE) != 0 ) {
+            return DATE;
+        } else if ( (mayBe & MAY_BE_DOUBLE) != 0 ) {
+            return DOUBLE;
+        }
+
+        return STRING;
+    }
+
+    // Packs a MM/dd/yyyy date into `yyyymmdd`, or returns zero if the value
+    //+ is not a date that would be written back out the same way.
+    private static int packDate(String value) {
+        if ( value.length() != 10 || value.charAt(2) != '/'
+                || value.charAt(5) != '/' ) {
+            return 0;
+        }
+
+        try {
+            if ( !DateUtils.formatDate(DateUtils.parseDate(value))
+                    .equals(value) ) {
+                return 0;
+            }
+        } catch ( ParseException ex ) {
+            return 0;
+        }
+
+        int date = Integer.parseInt(value.substring(6)) * 10000
+                + Integer.parseInt(value.substring(0, 2)) * 100
+                + Integer.parseInt(value.substring(3, 5));
+
+        return date > 0 ? date : 0;
+    }
+
+    private static int align(int position) {
+        return (position + 7) & ~7;
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,1568 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   ChangeLog
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Provides an append-only change log for a single data table, so that
+ *      saving a table only costs the rows that were changed.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.err.ConflictException;
+import com.pekinsoft.loadmaster.sys.Logger;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.logging.LogRecord;
+
+/**
+ * The `ChangeLog` class keeps an append-only log of the changes made to one of
+ * the tilde-delimited data tables, such as `loads.tbl` or `stops.tbl`. Instead
+ * of deleting and rewriting the entire table every time it is saved, the
+ * controller for the table only appends the rows that were inserted or updated
+ * since the last save to the log file (the table file name with a `.wal`
+ * extension added to it).
+ *
+ * Each entry in the log is a single line, in one of these forms:
+ * <pre>
+ *     I~&lt;row&gt;~&lt;record line&gt;     (row inserted)
+ *     U~&lt;row&gt;~&lt;record line&gt;     (row updated)
+ *     C~&lt;entries&gt;                (commit marker)
+ * </pre>
+ *
+ * The entries from a single save are always followed by a commit marker, and
+ * the log is forced to disk before the save returns, unless the
+ * {@link SaveScheduler} is turned on, in which case the entries are written
+ * by it shortly afterwards, together with the other saves of the table made
+ * in the meantime. When the log is read back
+ * in, any entries that are not followed by a commit marker (i.e., from a save
+ * that was interrupted by a crash) are ignored, so a save is either applied in
+ * its entirety or not at all. The commit marker holds the number of entries in
+ * its batch, so the entries of an interrupted save are still ignored once the
+ * next save has been written after them, and a line that the crash left
+ * half written is ended before anything else is written to the log. Saves
+ * made while a {@link Transaction} is open are written to the logs of their
+ * tables together, when the transaction is committed.
+ *
+ * Once enough entries have built up in the log, the log is compacted into the
+ * base table file on a background thread. The compacted table is written to a
+ * temporary file, which is then moved over the top of the base table file, and
+ * only then is the log removed. Since both inserts and updates simply set the
+ * contents of a given row, replaying the log a second time over a table that
+ * it has already been compacted into has no effect, so a crash at any point
+ * during compaction does not lose or duplicate any rows.
+ *
+ * The base table file may be in either the tilde-delimited text form or the
+ * {@link BinaryTable} form, and is read the same way in either case. The log
+ * itself is always text. The form that the base table is compacted into is
+ * chosen by the `table.binary` setting, and a table that is read in while it
+ * is in the other form is compacted into the chosen one straight away, on the
+ * background thread. The `convert` method changes the form of a table on
+ * demand.
+ *
+ * More than one instance of the application may share the same data folder
+ * (over a network drive, for instance), so each table has a lock file (the
+ * table file name with a `.lck` extension added to it), which is locked
+ * through its `FileChannel`. It is locked shared while the table is read, and
+ * exclusive while the log is written or the table is compacted, so that one
+ * instance never reads the table part way through another writing it. The
+ * lock file also holds the generation of the table, which is moved on by one
+ * for every batch of entries written to the log. A save checks that the
+ * generation is still the one that the table was read in at, and throws a
+ * {@link ConflictException}, instead of writing over the other instance's
+ * saves, if it is not.
+ *
+ * Within this instance of the application, each table keeps the number of
+ * rows that have been added to it, by all of its logs. A save that adds rows
+ * after fewer rows than that would write them over the rows already added by
+ * another log, for another controller, so it throws a `ConflictException` as
+ * well, instead. Saves that only update rows are not affected.
+ *
+ * <dl><dt>Developer's Note</dt><dd>None of the controllers delete rows from
+ * their tables, so there is no delete entry in the log. Adding one would make
+ * the replay order-dependent and would require the compaction to be made
+ * atomic with the removal of the log. Rows only ever leave a table when they
+ * are moved into its {@link TableArchive}, which rewrites the table file
+ * without them, under the same lock as a compaction, instead.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public class ChangeLog {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The extension added to the table file name for the change log file.
+     */
+    public static final String EXTENSION = ".wal";
+
+    /**
+     * The extension added to the table file name for the lock file, which is
+     * locked by each instance of the application that reads or writes the
+     * table, and which holds the generation of the table.
+     */
+    public static final String LOCK_EXTENSION = ".lck";
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Interfaces">
+    /**
+     * Receives the number of bytes read from the table and log files while
+     * they are being read in. This allows a table to be read in on a
+     * background thread while reporting how far along it is, and allows that
+     * read to be cancelled part way through.
+     *
+     * @see #setProgress(ChangeLog.Progress)
+     */
+    @FunctionalInterface
+    public interface Progress {
+        /**
+         * Called each time another block of bytes has been read from a table
+         * or log file.
+         *
+         * @param count the number of bytes just read.
+         * @throws InterruptedIOException to cancel the read.
+         */
+        void bytesRead(long count) throws InterruptedIOException;
+    }
+
+    /**
+     * Visits each row of the table during a `scan`, or each row read back
+     * from a {@link TableSnapshot}.
+     *
+     * @see #scan(ChangeLog.RowVisitor)
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        /**
+         * Called once for each row of the table, in row order. The tokenizer
+         * is reused for every row, so it must not be held on to.
+         *
+         * @param row    the index of the row.
+         * @param record a tokenizer positioned at the first field of the row.
+         * @return `true` to go on to the next row, `false` to stop the scan.
+         */
+        boolean visit(int row, RecordTokenizer record);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Interfaces">
+    // A change made to the files of the table while it is locked exclusively,
+    //+ which returns whether it moved the rows of the table elsewhere.
+    @FunctionalInterface
+    interface Change {
+        boolean apply() throws IOException;
+    }
+
+    // Something done while several tables are locked exclusively at once.
+    @FunctionalInterface
+    interface Locked {
+        void run() throws IOException, ConflictException;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    // The fewest entries that will cause the log to be compacted. Tables with
+    //+ more rows than four times this are compacted once the log holds a
+    //+ quarter as many entries as the table has rows.
+    private static final int MIN_COMPACT_ENTRIES = 256;
+
+    // The most of the table file that is mapped into memory at one time
+    //+ during a scan, and how often the progress of a scan is reported.
+    private static final long SCAN_WINDOW = 64L * 1024 * 1024;
+    private static final int SCAN_REPORT_BYTES = 64 * 1024;
+
+    // The shared state for each table file. It is also used as the lock, so
+    //+ that saves and compactions of the same table never overlap, even
+    //+ across controller instances.
+    private static final ConcurrentHashMap<String, Shared> TABLES;
+
+    // The single background thread that compacts all of the change logs.
+    private static final ExecutorService COMPACTOR;
+
+    // The progress of the table reads made on each thread, if anyone wants to
+    //+ know about it.
+    private static final ThreadLocal<Progress> PROGRESS;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final File table;
+    private final File log;
+    private final File lockFile;
+    private final Shared shared;
+
+    // The generation of the table as of the last read, until the log is
+    //+ reset, or -1.
+    private long seen;
+
+    // The updated rows that have not yet been written to the log.
+    private final TreeSet<Integer> updated;
+
+    // The number of rows that were in the table as of the last save.
+    private int storedRows;
+
+    // The number of times that rows had been archived out of the table, as
+    //+ of the last read.
+    private int archives;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Static Initializer">
+    static {
+        TABLES = new ConcurrentHashMap<>();
+        COMPACTOR = Executors.newSingleThreadExecutor((Runnable r) -> {
+            Thread t = new Thread(r, "ChangeLog Compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        PROGRESS = new ThreadLocal<>();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates a `ChangeLog` for the specified table file.
+     *
+     * @param table the base table file whose changes are to be logged.
+     */
+    public ChangeLog (File table) {
+        this.table = table;
+        this.log = new File(table.getPath() + EXTENSION);
+        this.lockFile = new File(table.getPath() + LOCK_EXTENSION);
+        this.shared = TABLES.computeIfAbsent(table.getAbsolutePath(),
+                (String k) -> new Shared());
+
+        updated = new TreeSet<>();
+        storedRows = 0;
+        seen = -1;
+        archives = shared.archives;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Sets the object that is told about the bytes read by every `ChangeLog`
+     * that reads its table in on the current thread. Only the current thread
+     * is affected, so reads made on the Event Dispatching Thread (EDT) are not
+     * reported to a background loader, and vice versa.
+     *
+     * @param progress the progress to report to, or `null` to stop reporting.
+     */
+    public static void setProgress(Progress progress) {
+        if ( progress == null ) {
+            PROGRESS.remove();
+        } else {
+            PROGRESS.set(progress);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Reads in all of the record lines for the table. The lines from the base
+     * table file are read first, and then every committed entry in the log is
+     * applied over the top of them.
+     *
+     * @return the current record lines for the table, in row order.
+     * @throws IOException in the event an error occurs reading the table or
+     *                     its log.
+     */
+    public ArrayList<String> read() throws IOException {
+        flushPending();
+
+        synchronized ( shared ) {
+            FileLock lock = lock(false);
+
+            try {
+                ArrayList<String> lines = readBase();
+
+                shared.entries = replay(lines);
+                seen = generation();
+                archives = shared.archives;
+                reset(lines.size());
+                checkForm(BinaryTable.isBinary(table));
+
+                return lines;
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    /**
+     * Scans all of the rows of the table, without reading the table into
+     * memory. The table file is mapped into memory, read-only, and its lines
+     * are found and handed to the visitor directly from the mapped file, so
+     * no `String` is created for any row that has not been changed in the log.
+     * The committed entries in the log are applied over the top of the table
+     * file, just as they are by `read`.
+     *
+     * This is meant for the tables that grow without bound, such as the
+     * General Ledger, where a report or a total only needs to look at a few
+     * fields of each row.
+     *
+     * <dl><dt>Note</dt><dd>The scan sees the table as it was when the scan
+     * started. Saves made while the scan is running are not seen. Unlike
+     * `read`, this method does not change what the log considers to be
+     * saved.</dd></dl>
+     *
+     * @param visitor the visitor to hand each row to.
+     * @return the number of rows visited.
+     * @throws IOException in the event an error occurs reading the table or
+     *                     its log.
+     */
+    public int scan(RowVisitor visitor) throws IOException {
+        FileChannel channel = null;
+        BinaryTable binary = null;
+        ArrayList<String> changed;
+
+        flushPending();
+
+        try {
+            synchronized ( shared ) {
+                FileLock lock = lock(false);
+
+                try {
+                    // The table file is only ever replaced, never written to,
+                    //+ so once it is open, it will not change under the scan.
+                    if ( table.exists() ) {
+                        channel = FileChannel.open(table.toPath(),
+                                StandardOpenOption.READ);
+
+                        if ( BinaryTable.isBinary(channel) ) {
+                            binary = BinaryTable.open(channel);
+                        }
+                    }
+
+                    changed = new ArrayList<>();
+
+                    if ( log.exists() ) {
+                        // Stand in a null for every row of the table file, so
+                        //+ that only the changed rows are filled in by the
+                        //+ log.
+                        int rows = channel == null ? 0 : binary != null
+                                ? binary.getRowCount() : countLines(channel);
+                        changed.addAll(Collections.nCopies(rows,
+                                (String) null));
+                        shared.entries = replay(changed);
+                    } else {
+                        shared.entries = 0;
+                    }
+
+                    seen = generation();
+                } finally {
+                    unlock(lock);
+                }
+
+                checkForm(binary != null);
+            }
+
+            RecordTokenizer record = new RecordTokenizer();
+            int row = channel == null ? 0 : binary != null
+                    ? scanBinary(binary, changed, record, visitor)
+                    : scanBase(channel, changed, record, visitor);
+
+            if ( row < 0 ) {
+                return -row - 1;    // The visitor stopped the scan.
+            }
+
+            // Finally, the rows that were added by the log.
+            for ( ; row < changed.size(); row++ ) {
+                if ( !visitor.visit(row, record.reset(changed.get(row))) ) {
+                    return row + 1;
+                }
+            }
+
+            return row;
+        } finally {
+            if ( channel != null ) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Takes a snapshot of the table as it stands now, from which any of its
+     * rows may later be read back from the disk, without the rest of the
+     * table ever being read into memory. The committed entries in the log are
+     * applied over the top of the table file, just as they are by `read`.
+     *
+     * <dl><dt>Note</dt><dd>The snapshot holds the table file open, and must be
+     * closed once it is no longer needed. Saves made after the snapshot was
+     * taken are not seen by it.</dd></dl>
+     *
+     * @return the snapshot of the table.
+     * @throws IOException in the event an error occurs reading the table or
+     *                     its log.
+     */
+    public TableSnapshot snapshot() throws IOException {
+        flushPending();
+
+        synchronized ( shared ) {
+            FileLock lock = lock(false);
+            FileChannel channel = null;
+
+            try {
+                channel = table.exists() ? FileChannel.open(table.toPath(),
+                        StandardOpenOption.READ) : null;
+                TableSnapshot snapshot = new TableSnapshot(channel);
+
+                if ( log.exists() ) {
+                    // As for a scan, only the changed rows are filled in.
+                    ArrayList<String> changed = new ArrayList<>(
+                            Collections.nCopies(snapshot.getBaseRowCount(),
+                                    (String) null));
+                    shared.entries = replay(changed);
+                    snapshot.setChanges(changed);
+                }
+
+                return snapshot;
+            } catch ( IOException | RuntimeException ex ) {
+                if ( channel != null ) {
+                    channel.close();
+                }
+
+                throw ex;
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    /**
+     * Tells the log that the table currently holds the specified number of
+     * rows, all of which have already been saved. This is used in place of
+     * `read` when the rows of the table were obtained from the
+     * {@link TableRegistry} instead of from the table file, and after a `scan`
+     * that read the rows of the table in, in which case the rows are taken to
+     * be the table as this instance of the application last saw it.
+     *
+     * @param rowCount the number of rows stored in the table.
+     */
+    public void reset(int rowCount) {
+        storedRows = rowCount;
+        updated.clear();
+
+        synchronized ( shared ) {
+            shared.rows = Math.max(shared.rows, rowCount);
+
+            if ( seen >= 0 ) {
+                shared.generation = seen;
+                seen = -1;
+            }
+        }
+    }
+
+    /**
+     * Marks the specified row as having been updated, so that it is written to
+     * the log on the next call to `commit`. Rows that have been added since the
+     * last save do not need to be marked, as they are always written.
+     *
+     * @param row the index of the updated row.
+     */
+    public void markUpdated(int row) {
+        if ( row >= 0 && row < storedRows ) {
+            updated.add(row);
+        }
+    }
+
+    /**
+     * Determines whether there are any changes that have not been written to
+     * the log yet.
+     *
+     * @param rowCount the number of rows currently in the table.
+     * @return `true` if there are unsaved changes, `false` otherwise.
+     */
+    public boolean hasChanges(int rowCount) {
+        return rowCount > storedRows || !updated.isEmpty();
+    }
+
+    /**
+     * Writes all rows that were updated or added since the last save to the end
+     * of the log, followed by a commit marker, and forces the log to disk. If
+     * there are no changes, this method does nothing. If a {@link Transaction}
+     * is open on the current thread, the rows are staged in it instead, and
+     * are written to the log when it is committed.
+     *
+     * @param rowCount the number of rows currently in the table.
+     * @param lines    a function that builds the record line for a given row.
+     * @return the number of rows written to the log.
+     * @throws IOException       in the event an error occurs writing the log.
+     * @throws ConflictException in the event another instance of the
+     *                           application has written to the table since
+     *                           this instance read it in, or rows are being
+     *                           added after another log for the table, in
+     *                           this instance, has added rows of its own.
+     */
+    public int commit(int rowCount, IntFunction<String> lines)
+            throws IOException, ConflictException {
+        if ( !hasChanges(rowCount) ) {
+            return 0;
+        }
+
+        // The generation only tells this instance of the application apart
+        //+ from the others, so archiving is counted here as well.
+        if ( archives != shared.archives ) {
+            throw new ConflictException(table.getName() + " has had rows "
+                    + "archived out of it since it was read in. It must be "
+                    + "read in again before it can be saved.");
+        }
+
+        // The rows added here are claimed, before anything is written, so that
+        //+ another log for the same table cannot add rows at the same rows.
+        if ( rowCount > storedRows ) {
+            synchronized ( shared ) {
+                if ( shared.rows > storedRows ) {
+                    throw new ConflictException(table.getName() + " has had "
+                            + "rows added to it since it was read in. It must "
+                            + "be read in again before rows can be added to "
+                            + "it.");
+                }
+
+                shared.rows = rowCount;
+            }
+        }
+
+        int count;
+
+        try {
+            count = stage(rowCount, lines);
+        } catch ( IOException | ConflictException | RuntimeException ex ) {
+            // Nothing was added, so the rows are given back.
+            synchronized ( shared ) {
+                if ( shared.rows == rowCount ) {
+                    shared.rows = storedRows;
+                }
+            }
+
+            throw ex;
+        }
+
+        reset(rowCount);
+
+        return count;
+    }
+
+    /**
+     * Queues the compaction of the log into the base table file on the
+     * background compaction thread.
+     */
+    public void scheduleCompaction() {
+        COMPACTOR.execute(() -> {
+            try {
+                compact();
+            } catch ( IOException ex ) {
+                LogRecord entry = Logger.newRecord(getClass());
+                entry.setMessage("Compaction of " + log.getName() + " failed. "
+                        + "The log has been left in place and will be replayed"
+                        + " on the next read.");
+                entry.setSourceMethodName("scheduleCompaction");
+                entry.setParameters(null);
+                entry.setThrown(ex);
+                Starter.logger.error(entry);
+            }
+        });
+    }
+
+    /**
+     * Compacts the log into the base table file. The base table and its log are
+     * merged into a temporary file, which then replaces the base table file,
+     * after which the log is removed. The new base table file is written in
+     * the form chosen by the `table.binary` setting.
+     *
+     * @throws IOException in the event an error occurs while compacting.
+     */
+    public void compact() throws IOException {
+        flushPending();
+
+        synchronized ( shared ) {
+            boolean binary = isBinaryWanted();
+
+            if ( !log.exists() && BinaryTable.isBinary(table) == binary ) {
+                return;
+            }
+
+            convert(binary);
+        }
+    }
+
+    /**
+     * Converts the base table file into the binary form, or back into the
+     * text form, compacting the log into it along the way. The rows of the
+     * table are not changed in any way.
+     *
+     * <dl><dt>Note</dt><dd>The next compaction puts the table back into the
+     * form chosen by the `table.binary` setting.</dd></dl>
+     *
+     * @param binary `true` to convert the table into the binary form, `false`
+     *               to convert it into the text form.
+     * @throws IOException in the event an error occurs while converting.
+     */
+    public void convert(boolean binary) throws IOException {
+        flushPending();
+
+        synchronized ( shared ) {
+            FileLock lock = lock(true);
+
+            try {
+                rewrite(binary);
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    /**
+     * Determines whether the base table file is in the binary form.
+     *
+     * @return `true` if the table is a {@link BinaryTable}, `false` if it is
+     *         text, or does not exist yet.
+     * @throws IOException in the event an error occurs reading the table.
+     */
+    public boolean isBinary() throws IOException {
+        return BinaryTable.isBinary(table);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Static Methods">
+    // Runs a task on the background compaction thread.
+    static void execute(Runnable task) {
+        COMPACTOR.execute(task);
+    }
+
+    // Runs the action with all of the tables locked exclusively, against the
+    //+ other instances of the application and the other threads of this one,
+    //+ so that nothing else can be written to any of them until it is done.
+    //+ The tables are always locked in the same order, by name, so that two
+    //+ instances locking some of the same tables cannot deadlock.
+    static void lockAll(List<ChangeLog> logs, Locked action)
+            throws IOException, ConflictException {
+        ArrayList<ChangeLog> sorted = new ArrayList<>(logs);
+        sorted.sort(Comparator.comparing((ChangeLog log) ->
+                log.table.getName()).thenComparing((ChangeLog log) ->
+                        log.table.getAbsolutePath()));
+
+        lockFrom(sorted, 0, action);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Instance Methods">
+    File getTable() {
+        return table;
+    }
+
+    // Appends a batch of entries to the log, after any saves still waiting
+    //+ on the SaveScheduler, followed by its commit marker, and forces the
+    //+ log to disk, if asked to. The table is locked against the other
+    //+ instances of the application while it is written, and its generation
+    //+ is checked first, if asked to, and moved on.
+    void write(String entries, int count, int rowCount, boolean sync,
+            boolean check) throws IOException, ConflictException {
+        boolean compact;
+
+        synchronized ( shared ) {
+            // Saves waiting on the SaveScheduler were made first, so they are
+            //+ written first, as part of the same batch.
+            if ( !shared.pending.isEmpty() ) {
+                entries = String.join("", shared.pending.values()) + entries;
+                count += shared.pending.size();
+                rowCount = Math.max(rowCount, shared.pendingRows);
+            }
+
+            if ( count == 0 ) {
+                return;
+            }
+
+            FileLock lock = lock(true);
+
+            try {
+                long generation = generation();
+
+                if ( check ) {
+                    checkGeneration(generation);
+                }
+
+                endLine();
+
+                try ( FileOutputStream out = new FileOutputStream(log,
+                        true) ) {
+                    out.write((entries + "C~" + count + "\n").getBytes(
+                            Charset.defaultCharset()));
+
+                    if ( sync ) {
+                        out.getFD().sync();
+                    }
+                }
+
+                setGeneration(generation + 1);
+            } finally {
+                unlock(lock);
+            }
+
+            shared.pending.clear();
+            shared.pendingRows = 0;
+            shared.entries += count;
+            compact = shared.entries >= Math.max(MIN_COMPACT_ENTRIES,
+                    rowCount / 4);
+        }
+
+        if ( compact ) {
+            scheduleCompaction();
+        }
+    }
+
+    // Writes the saves of this table that are waiting on the SaveScheduler to
+    //+ the log, and forces it to disk, before the table is read. Nothing
+    //+ reading the table made the saves, so a conflict is shown to the user
+    //+ here, instead of being thrown.
+    void flushPending() throws IOException {
+        try {
+            writePending();
+        } catch ( ConflictException ex ) {
+            TableLoader.reportError(ex, "Data Access Error");
+        }
+    }
+
+    // Writes the saves of this table that are waiting on the SaveScheduler to
+    //+ the log, and forces it to disk. A conflict is thrown, just as it is by
+    //+ commit, once the saves that cannot be written have been dropped.
+    void writePending() throws IOException, ConflictException {
+        if ( !hasPending() ) {
+            return;
+        }
+
+        // As for any other save, a transaction that wrote to this log must be
+        //+ on the disk before anything is written after it.
+        if ( Transaction.isUnsettled() ) {
+            Transaction.settle();
+        }
+
+        try {
+            write("", 0, 0, true, true);
+        } catch ( ConflictException ex ) {
+            // The saves cannot be written without overwriting the other
+            //+ instance's, so they are dropped, and the table is read in again
+            //+ by the next controller.
+            synchronized ( shared ) {
+                shared.pending.clear();
+                shared.pendingRows = 0;
+                shared.rows = -1;
+            }
+
+            TableRegistry.invalidate(table);
+
+            ConflictException lost = new ConflictException(ex.getMessage()
+                    + " The changes to it that were waiting to be saved have "
+                    + "been lost, and will need to be made again.");
+
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage(lost.getMessage());
+            entry.setThrown(ex);
+            entry.setSourceMethodName("writePending");
+            entry.setParameters(null);
+            Starter.logger.warning(entry);
+
+            throw lost;
+        }
+    }
+
+    boolean hasPending() {
+        synchronized ( shared ) {
+            return !shared.pending.isEmpty();
+        }
+    }
+
+    // Appends a batch of entries from a journal that is being recovered, as
+    //+ long as the table is still at the generation that the batch was to be
+    //+ written at, which shows that the batch never reached the log. If the
+    //+ table has moved on since, another instance of the application may have
+    //+ saved over the same rows, so a ConflictException is thrown instead. A
+    //+ generation of -1 is not checked, for the journals that were written
+    //+ before the generations were kept in them.
+    void recover(String entries, int count, long generation)
+            throws IOException, ConflictException {
+        synchronized ( shared ) {
+            FileLock lock = lock(true);
+
+            try {
+                long now = generation();
+
+                if ( generation >= 0 && now != generation ) {
+                    throw new ConflictException(table.getName() + " has been "
+                            + "changed since the transaction was committed "
+                            + "(generation " + generation + ", now " + now
+                            + "), so it cannot be rolled forward.");
+                }
+
+                write(entries, count, 0, true, false);
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    // Whether a batch of entries from a journal is already in the table:
+    //+ either the log still holds it, or, once the log has been compacted,
+    //+ every row that it sets still reads back as it was set.
+    boolean holds(String entries) throws IOException {
+        synchronized ( shared ) {
+            FileLock lock = lock(false);
+
+            try {
+                if ( log.exists() && new String(Files.readAllBytes(
+                        log.toPath()), Charset.defaultCharset())
+                        .contains(entries) ) {
+                    return true;
+                }
+
+                ArrayList<String> lines = readBase();
+                replay(lines);
+
+                for ( String entry : entries.split("\n") ) {
+                    String[] change = entry.split("~", 3);
+
+                    if ( change.length < 3 ) {
+                        continue;
+                    }
+
+                    int row = Integer.parseInt(change[1]);
+
+                    if ( row >= lines.size()
+                            || !change[2].equals(lines.get(row)) ) {
+                        return false;
+                    }
+                }
+
+                return true;
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    // The generation of the table, as it stands now.
+    long getGeneration() throws IOException {
+        synchronized ( shared ) {
+            FileLock lock = lock(false);
+
+            try {
+                return generation();
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    // Moves the rows that pass the test out of the table, and into a new
+    //+ segment of the archive, which is written before the table is rewritten
+    //+ without them. The rows that are left move up, so the generation is
+    //+ moved on, and the archive counted: any copy of the table still in
+    //+ memory, here or in another instance of the application, has to be
+    //+ read in again before it can be saved.
+    int archive(Predicate<RecordTokenizer> test, TableArchive archive)
+            throws IOException {
+        flushPending();
+
+        synchronized ( shared ) {
+            FileLock lock = lock(true);
+
+            try {
+                ArrayList<String> lines = readBase();
+                replay(lines);
+
+                ArrayList<String> kept = new ArrayList<>(lines.size());
+                ArrayList<String> archived = new ArrayList<>();
+                RecordTokenizer record = new RecordTokenizer();
+
+                for ( String line : lines ) {
+                    if ( test.test(record.reset(line)) ) {
+                        archived.add(line);
+                    } else {
+                        kept.add(line);
+                    }
+                }
+
+                if ( archived.isEmpty() ) {
+                    return 0;
+                }
+
+                archive.write(archived);
+                replace(kept, isBinaryWanted());
+
+                setGeneration(generation() + 1);
+                shared.archives++;
+                shared.rows = kept.size();
+
+                return archived.size();
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    // Makes a change to the files of the table, such as splitting it up into
+    //+ partitions, with the table locked exclusively for the whole of it, so
+    //+ that no other instance of the application reads or writes the table
+    //+ part way through. If the rows were moved, the generation is moved on,
+    //+ and the archive counted, just as they are by archive.
+    void change(Change change) throws IOException {
+        flushPending();
+
+        synchronized ( shared ) {
+            FileLock lock = lock(true);
+
+            try {
+                if ( change.apply() ) {
+                    setGeneration(generation() + 1);
+                    shared.archives++;
+                }
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    // Throws a ConflictException if another instance of the application has
+    //+ written to the table since this one last read it in.
+    void checkGeneration() throws IOException, ConflictException {
+        synchronized ( shared ) {
+            FileLock lock = lock(false);
+
+            try {
+                checkGeneration(generation());
+            } finally {
+                unlock(lock);
+            }
+        }
+    }
+
+    // Forces the log to disk, if it is still there. If it has been compacted
+    //+ since it was written, the table file was forced to disk instead.
+    void force() throws IOException {
+        synchronized ( shared ) {
+            if ( log.exists() ) {
+                try ( FileChannel channel = FileChannel.open(log.toPath(),
+                        StandardOpenOption.WRITE) ) {
+                    channel.force(false);
+                }
+            }
+        }
+    }
+
+    // The number of rows that were in the table as of the last save.
+    int getStoredRows() {
+        return storedRows;
+    }
+
+    // Tells the log that rows have been added to the table, after the ones
+    //+ that it had saved, by another log for it, so that they are counted as
+    //+ saved. The rows updated here are still written on the next save.
+    void catchUp(int rowCount) {
+        storedRows = rowCount;
+
+        synchronized ( shared ) {
+            shared.rows = Math.max(shared.rows, rowCount);
+        }
+    }
+
+    // Puts back what had been saved before a save that was rolled back.
+    void restore(int storedRows, TreeSet<Integer> updated) {
+        this.storedRows = storedRows;
+        this.updated.clear();
+        this.updated.addAll(updated);
+
+        // The rows that the save added were never written.
+        synchronized ( shared ) {
+            shared.rows = Math.min(shared.rows, storedRows);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    // Writes the rows that were updated or added since the last save to the
+    //+ log, or leaves them with the transaction or the SaveScheduler, and
+    //+ returns how many there were.
+    private int stage(int rowCount, IntFunction<String> lines)
+            throws IOException, ConflictException {
+        TreeMap<Integer, String> entries = new TreeMap<>();
+
+        for ( Integer row : updated ) {
+            entries.put(row, entry('U', row, lines.apply(row)));
+        }
+
+        for ( int row = storedRows; row < rowCount; row++ ) {
+            entries.put(row, entry('I', row, lines.apply(row)));
+        }
+
+        int count = entries.size();
+        Transaction tx = Transaction.current();
+
+        if ( tx != null ) {
+            // Written to the log along with the rest of the transaction.
+            tx.stage(this, String.join("", entries.values()), count, rowCount,
+                    storedRows, new TreeSet<>(updated));
+        } else if ( SaveScheduler.isEnabled() ) {
+            // Written to the log by the SaveScheduler, along with any other
+            //+ saves of this table made before it gets to it. A conflict is
+            //+ still reported to the caller, if it is already known.
+            checkGeneration();
+
+            synchronized ( shared ) {
+                // A row that is still waiting to be inserted stays an insert.
+                entries.forEach((Integer row, String entry) ->
+                        shared.pending.merge(row, entry,
+                                (String was, String now) -> was.charAt(0)
+                                        == 'I' ? 'I' + now.substring(1)
+                                        : now));
+                shared.pendingRows = Math.max(shared.pendingRows, rowCount);
+            }
+
+            SaveScheduler.schedule(this);
+        } else {
+            // A transaction that wrote to this log must be on the disk before
+            //+ anything is written after it.
+            if ( Transaction.isUnsettled() ) {
+                Transaction.settle();
+            }
+
+            write(String.join("", entries.values()), count, rowCount, true,
+                    true);
+        }
+
+        return count;
+    }
+
+    // Merges the log into a new table file, in the chosen form, which then
+    //+ replaces the table file. Must be called with the table locked.
+    private void rewrite(boolean binary) throws IOException {
+        ArrayList<String> lines = readBase();
+        replay(lines);
+        replace(lines, binary);
+    }
+
+    // Writes the lines to a new table file, in the chosen form, which then
+    //+ replaces the table file, and removes the log, which they already
+    //+ include. Must be called with the table locked.
+    private void replace(ArrayList<String> lines, boolean binary)
+            throws IOException {
+        File tmp = new File(table.getPath() + ".tmp");
+
+        if ( binary ) {
+            BinaryTable.write(tmp, lines);
+        } else {
+            try ( FileOutputStream fos = new FileOutputStream(tmp);
+                    BufferedWriter out = new BufferedWriter(
+                            new OutputStreamWriter(fos,
+                                    Charset.defaultCharset())) ) {
+                for ( String line : lines ) {
+                    out.write(line);
+                    out.write('\n');
+                }
+
+                out.flush();
+                fos.getFD().sync();
+            }
+        }
+
+        Files.move(tmp.toPath(), table.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        if ( log.exists() ) {
+            Files.delete(log.toPath());
+        }
+
+        shared.entries = 0;
+    }
+
+    private ArrayList<String> readBase() throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+
+        if ( BinaryTable.isBinary(table) ) {
+            try ( FileChannel channel = FileChannel.open(table.toPath(),
+                    StandardOpenOption.READ) ) {
+                scanBinary(BinaryTable.open(channel), new ArrayList<>(),
+                        new RecordTokenizer(),
+                        (int row, RecordTokenizer record) -> {
+                            lines.add(record.toString());
+                            return true;
+                        });
+            }
+        } else if ( table.exists() ) {
+            try ( BufferedReader in = open(table) ) {
+                String line = in.readLine();
+
+                while ( line != null ) {
+                    lines.add(line);
+                    line = in.readLine();
+                }
+            }
+        }
+
+        return lines;
+    }
+
+    private BufferedReader open(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        Progress progress = PROGRESS.get();
+
+        if ( progress != null ) {
+            in = new ProgressInputStream(in, progress);
+        }
+
+        return new BufferedReader(new InputStreamReader(in,
+                Charset.defaultCharset()));
+    }
+
+    private int countLines(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int lines = 0;
+
+        for ( long pos = 0; pos < size; pos += SCAN_WINDOW ) {
+            long length = Math.min(size - pos, SCAN_WINDOW);
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+                    pos, length);
+
+            for ( int x = 0; x < length; x++ ) {
+                if ( buf.get(x) == '\n' ) {
+                    lines++;
+                }
+            }
+
+            if ( pos + length == size && buf.get((int) length - 1) != '\n' ) {
+                lines++;    // The last line has no line feed.
+            }
+        }
+
+        return lines;
+    }
+
+    // Returns the number of rows scanned, or, if the visitor stopped the scan,
+    //+ minus one more than the number of rows scanned.
+    private int scanBase(FileChannel channel, ArrayList<String> changed,
+            RecordTokenizer record, RowVisitor visitor) throws IOException {
+        Progress progress = PROGRESS.get();
+        long size = channel.size();
+        long pos = 0;
+        int row = 0;
+
+        while ( pos < size ) {
+            int length = (int) Math.min(size - pos, SCAN_WINDOW);
+            boolean last = pos + length == size;
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+                    pos, length);
+            int start = 0;
+            int reported = 0;
+
+            for ( int x = 0; x <= length; x++ ) {
+                if ( x < length ? buf.get(x) != '\n' : !last || start == x ) {
+                    continue;
+                }
+
+                // Found the end of a line, so leave off the line feed, and the
+                //+ carriage return, if there is one.
+                int end = x > start && buf.get(x - 1) == '\r' ? x - 1 : x;
+                String line = row < changed.size() ? changed.get(row) : null;
+
+                if ( line != null ) {
+                    record.reset(line);
+                } else {
+                    record.reset(buf, start, end);
+                }
+
+                if ( !visitor.visit(row++, record) ) {
+                    return -row - 1;
+                }
+
+                start = x + 1;
+
+                if ( progress != null
+                        && start - reported >= SCAN_REPORT_BYTES ) {
+                    progress.bytesRead(start - reported);
+                    reported = start;
+                }
+            }
+
+            if ( !last && start == 0 ) {
+                throw new IOException("A line in " + table.getName()
+                        + " is longer than " + SCAN_WINDOW + " bytes.");
+            }
+
+            // Pick up any partial line at the end of the window in the next.
+            int used = last ? length : start;
+
+            if ( progress != null && used > reported ) {
+                progress.bytesRead(used - reported);
+            }
+
+            pos += used;
+        }
+
+        return row;
+    }
+
+    // Works the same way as scanBase, but for a binary table file.
+    private int scanBinary(BinaryTable binary, ArrayList<String> changed,
+            RecordTokenizer record, RowVisitor visitor) throws IOException {
+        Progress progress = PROGRESS.get();
+        int reportEvery = Math.max(1, SCAN_REPORT_BYTES
+                / binary.getRecordSize());
+        int rows = binary.getRowCount();
+        int row = 0;
+
+        for ( ; row < rows; row++ ) {
+            String line = row < changed.size() ? changed.get(row) : null;
+
+            if ( line != null ) {
+                record.reset(line);
+            } else {
+                record.reset(binary, row);
+            }
+
+            if ( !visitor.visit(row, record) ) {
+                return -row - 2;
+            }
+
+            if ( progress != null && (row + 1) % reportEvery == 0 ) {
+                progress.bytesRead((long) reportEvery
+                        * binary.getRecordSize());
+            }
+        }
+
+        // The header and the text make up the rest of the file.
+        if ( progress != null ) {
+            progress.bytesRead(binary.getSize() - (long) (rows / reportEvery)
+                    * reportEvery * binary.getRecordSize());
+        }
+
+        return row;
+    }
+
+    // Puts the table into the form chosen in the settings, if it is not in
+    //+ that form already.
+    private void checkForm(boolean binary) {
+        if ( table.exists() && binary != isBinaryWanted() ) {
+            scheduleCompaction();
+        }
+    }
+
+    private static boolean isBinaryWanted() {
+        return Starter.props.getPropertyAsBoolean("table.binary", "false");
+    }
+
+    private int replay(ArrayList<String> lines) throws IOException {
+        if ( !log.exists() ) {
+            return 0;
+        }
+
+        int applied = 0;
+        ArrayList<String[]> pending = new ArrayList<>();
+
+        try ( BufferedReader in = open(log) ) {
+            String line = in.readLine();
+
+            while ( line != null ) {
+                if ( line.startsWith("C~") ) {
+                    int count = countOf(line);
+
+                    // The batch was committed, so apply it. It is the last
+                    //+ `count` entries: any before them are from a batch that
+                    //+ was torn by a crash, and was never committed. If there
+                    //+ are fewer, the marker does not belong to them, and
+                    //+ they are all dropped.
+                    if ( count >= 0 && count <= pending.size() ) {
+                        for ( String[] change : pending.subList(
+                                pending.size() - count, pending.size()) ) {
+                            apply(lines, change);
+                        }
+
+                        applied += count;
+                    }
+
+                    pending.clear();
+                } else {
+                    String[] change = line.split("~", 3);
+
+                    if ( change.length == 3 ) {
+                        pending.add(change);
+                    }
+                }
+
+                line = in.readLine();
+            }
+        }
+
+        // Anything left in pending was never committed, so it is dropped.
+        return applied;
+    }
+
+    // The number of entries that a commit marker says are in its batch, or
+    //+ -1 if the marker cannot be read.
+    private int countOf(String marker) {
+        try {
+            return Integer.parseInt(marker.substring(2).trim());
+        } catch ( NumberFormatException ex ) {
+            return -1;
+        }
+    }
+
+    private void apply(ArrayList<String> lines, String[] change) {
+        int row;
+
+        try {
+            row = Integer.parseInt(change[1]);
+        } catch ( NumberFormatException ex ) {
+            return;
+        }
+
+        // Both inserts and updates set the contents of the row, which is what
+        //+ makes replaying the log more than once safe.
+        if ( row < lines.size() ) {
+            lines.set(row, change[2]);
+        } else if ( row == lines.size() ) {
+            lines.add(change[2]);
+        }
+    }
+
+    // Ends the log with a line feed, if a crash left it part way through an
+    //+ entry, so that the next entry written starts on a line of its own.
+    //+ Must be called with the table locked.
+    private void endLine() throws IOException {
+        if ( log.length() == 0 ) {
+            return;
+        }
+
+        try ( FileChannel channel = FileChannel.open(log.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE) ) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+
+            if ( last.get(0) != '\n' ) {
+                channel.write(ByteBuffer.wrap(new byte[] { '\n' }),
+                        channel.size());
+            }
+        }
+    }
+
+    private void checkGeneration(long generation) throws ConflictException {
+        if ( shared.generation >= 0 && generation != shared.generation ) {
+            throw new ConflictException(table.getName() + " has been changed "
+                    + "by another instance of " + Starter.props.getProjectName()
+                    + " since it was read in (generation " + shared.generation
+                    + ", now " + generation + "). It must be read in again "
+                    + "before it can be saved.");
+        }
+    }
+
+    // Locks the lock file of the table, shared to read the table, or
+    //+ exclusive to write it, waiting for any other instance of the
+    //+ application to let go of it first. Must be called while synchronized
+    //+ on the shared state. Returns null if this thread already has the table
+    //+ locked, as it is then let go of by the outermost caller.
+    private FileLock lock(boolean exclusive) throws IOException {
+        if ( shared.lock != null ) {
+            if ( exclusive && shared.lock.isShared() ) {
+                throw new IllegalStateException("The read lock on "
+                        + lockFile.getName() + " cannot be made exclusive.");
+            }
+
+            return null;
+        }
+
+        FileChannel channel = FileChannel.open(lockFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        try {
+            shared.lock = channel.lock(0, Long.MAX_VALUE, !exclusive);
+        } catch ( IOException | RuntimeException ex ) {
+            channel.close();
+
+            throw ex;
+        }
+
+        return shared.lock;
+    }
+
+    private void unlock(FileLock lock) throws IOException {
+        if ( lock != null ) {
+            shared.lock = null;
+            lock.channel().close();     // Which lets go of the lock.
+        }
+    }
+
+    // The generation is kept at the start of the lock file, and is moved on
+    //+ by one for every batch written to the log. Must be called with the
+    //+ table locked.
+    private long generation() throws IOException {
+        FileChannel channel = shared.lock.channel();
+        ByteBuffer buf = ByteBuffer.allocate(Long.BYTES);
+
+        if ( channel.size() < Long.BYTES ) {
+            return 0;
+        }
+
+        channel.read(buf, 0);
+
+        return buf.getLong(0);
+    }
+
+    private void setGeneration(long generation) throws IOException {
+        shared.lock.channel().write(ByteBuffer.allocate(Long.BYTES)
+                .putLong(0, generation), 0);
+        shared.generation = generation;
+    }
+
+    private String entry(char type, int row, String line) {
+        return type + "~" + row + "~" + line + "\n";
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    // Locks the tables from the one given on, one inside the other, and runs
+    //+ the action once they are all locked.
+    private static void lockFrom(List<ChangeLog> logs, int x, Locked action)
+            throws IOException, ConflictException {
+        if ( x == logs.size() ) {
+            action.run();
+
+            return;
+        }
+
+        ChangeLog changes = logs.get(x);
+
+        synchronized ( changes.shared ) {
+            FileLock lock = changes.lock(true);
+
+            try {
+                lockFrom(logs, x + 1, action);
+            } finally {
+                changes.unlock(lock);
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Classes">
+    private static class Shared {
+        // The number of entries currently in the log file.
+        int entries;
+
+        // The entries of the saves waiting on the SaveScheduler, by row, so
+        //+ that a row saved more than once is only written once, and the
+        //+ number of rows in the table as of the last of them.
+        final TreeMap<Integer, String> pending = new TreeMap<>();
+        int pendingRows;
+
+        // The lock on the lock file, while it is held, and the generation of
+        //+ the table as this instance of the application last saw it, or -1.
+        FileLock lock;
+        long generation = -1;
+
+        // The number of times that rows have been archived out of the table.
+        int archives;
+
+        // The number of rows in the table, with the rows added by every log
+        //+ for it in this instance of the application, or -1 if not known.
+        int rows = -1;
+    }
+
+    // Reports each block of bytes read from the file to a Progress. The
+    //+ readers above it pull from the file in large blocks, so this is called
+    //+ once per block, not once per line.
+    private static class ProgressInputStream extends FilterInputStream {
+        private final Progress progress;
+
+        ProgressInputStream (InputStream in, Progress progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+
+            if ( b >= 0 ) {
+                progress.bytesRead(1);
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+
+            if ( count > 0 ) {
+                progress.bytesRead(count);
+            }
+
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long count = super.skip(n);
+
+            if ( count > 0 ) {
+                progress.bytesRead(count);
+            }
+
+            return count;
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   GroupIndex
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Groups the rows of a table by the value of one of their fields, such as
+ *      the state or city, so that all of the rows with a given value can be
+ *      found without looking at every row of the table.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The `GroupIndex` keeps, for each value of a field, the list of the rows that
+ * hold that value. The values are compared in their normalized form (see
+ * {@link NameIndex#normalize(String)}), so "IL" and "il", or "St. Louis" and
+ * "st louis", are the same value.
+ *
+ * The rows for each value are kept in a plain `int` array, in row order, so a
+ * table of any size can be grouped without creating an object for each row.
+ * Finding the rows for a value takes the time needed to copy them out, no
+ * matter how many rows are in the table.
+ *
+ * The index also remembers the value it was given for each row, so that when
+ * the value of a row is set again, the row is simply moved from its old group
+ * to its new one.
+ *
+ * <dl><dt>Note</dt><dd>A `GroupIndex` is not thread-safe.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class GroupIndex {
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final int[] NONE = new int[0];
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final HashMap<String, Group> groups;
+
+    // The group that each row is in, by row.
+    private Group[] groupOfRow;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates an empty `GroupIndex`.
+     */
+    public GroupIndex () {
+        groups = new HashMap<>();
+        groupOfRow = new Group[64];
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Sets the value held in the specified row, either when the row is first
+     * added, or when its value may have changed.
+     *
+     * @param row   the row.
+     * @param value the value held in the row. May be `null`.
+     */
+    public void set(int row, String value) {
+        String key = NameIndex.normalize(value);
+
+        if ( row >= groupOfRow.length ) {
+            groupOfRow = Arrays.copyOf(groupOfRow,
+                    Math.max(row + 1, groupOfRow.length * 2));
+        }
+
+        Group old = groupOfRow[row];
+
+        if ( old != null ) {
+            if ( old.key.equals(key) ) {
+                return;     // Still in the same group.
+            }
+
+            old.remove(row);
+
+            if ( old.size == 0 ) {
+                groups.remove(old.key);
+            }
+        }
+
+        Group group = groups.computeIfAbsent(key, Group::new);
+        group.add(row);
+        groupOfRow[row] = group;
+    }
+
+    /**
+     * Retrieves all of the rows that hold the specified value.
+     *
+     * @param value the value sought.
+     * @return the rows that hold the value, in row order.
+     */
+    public int[] get(String value) {
+        Group group = groups.get(NameIndex.normalize(value));
+
+        return group == null ? NONE : Arrays.copyOf(group.rows, group.size);
+    }
+
+    /**
+     * Counts the rows that hold the specified value.
+     *
+     * @param value the value sought.
+     * @return the number of rows that hold the value.
+     */
+    public int count(String value) {
+        Group group = groups.get(NameIndex.normalize(value));
+
+        return group == null ? 0 : group.size;
+    }
+
+    /**
+     * Removes all of the rows from the index.
+     */
+    public void clear() {
+        groups.clear();
+        groupOfRow = new Group[64];
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Classes">
+    private static class Group {
+        final String key;
+        int[] rows;
+        int size;
+
+        Group(String key) {
+            this.key = key;
+            rows = new int[4];
+            size = 0;
+        }
+
+        void add(int row) {
+            if ( size == rows.length ) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+
+            // Rows are nearly always added at the end of the table, so only
+            //+ search for the spot when that is not the case.
+            int x = size == 0 || rows[size - 1] < row ? size
+                    : -Arrays.binarySearch(rows, 0, size, row) - 1;
+
+            System.arraycopy(rows, x, rows, x + 1, size - x);
+            rows[x] = row;
+            size++;
+        }
+
+        void remove(int row) {
+            int x = Arrays.binarySearch(rows, 0, size, row);
+
+            if ( x >= 0 ) {
+                System.arraycopy(rows, x + 1, rows, x, size - x - 1);
+                size--;
+            }
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   IdIndex
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Maps the `long` ID numbers of the records in a table to the rows that
+ *      hold them, so that a record can be found by its ID without searching
+ *      through the whole table.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+/**
+ * The `IdIndex` is a hash table from the `long` ID number of a record to the
+ * row of the table that holds it. The IDs and rows are kept in plain `long` and
+ * `int` arrays, with open addressing, so no objects are created for any of the
+ * entries, and finding a record takes the same time no matter how many records
+ * are in the table.
+ *
+ * The controllers build the index once, when the table is read in, and then
+ * keep it up to date as records are added and updated.
+ *
+ * <dl><dt>Note</dt><dd>When more than one row holds the same ID, the index
+ * only keeps the first of them, which is the one a search from the top of the
+ * table would have found.</dd></dl>
+ *
+ * <dl><dt>Note</dt><dd>An `IdIndex` is not thread-safe.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class IdIndex {
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final int MIN_CAPACITY = 16;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private long[] ids;
+
+    // The row for each ID, plus one, so that zero marks an empty slot.
+    private int[] rows;
+
+    private int size;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates an empty `IdIndex`.
+     */
+    public IdIndex () {
+        ids = new long[MIN_CAPACITY];
+        rows = new int[MIN_CAPACITY];
+        size = 0;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Retrieves the row that holds the record with the specified ID.
+     *
+     * @param id the ID of the record.
+     * @return the row of the record, or `-1` if there is no such record.
+     */
+    public int get(long id) {
+        int mask = ids.length - 1;
+
+        for ( int x = slotOf(id, mask); rows[x] != 0; x = (x + 1) & mask ) {
+            if ( ids[x] == id ) {
+                return rows[x] - 1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Adds the specified ID to the index, unless it is already there.
+     *
+     * @param id  the ID of the record.
+     * @param row the row that holds the record.
+     * @return `true` if the ID was added, `false` if it was already in the
+     *         index, in which case the index is left as it was.
+     */
+    public boolean add(long id, int row) {
+        // Keep the table no more than half full, so that the runs of used
+        //+ slots stay short.
+        if ( (size + 1) * 2 > ids.length ) {
+            grow();
+        }
+
+        int mask = ids.length - 1;
+        int x = slotOf(id, mask);
+
+        for ( ; rows[x] != 0; x = (x + 1) & mask ) {
+            if ( ids[x] == id ) {
+                return false;
+            }
+        }
+
+        ids[x] = id;
+        rows[x] = row + 1;
+        size++;
+
+        return true;
+    }
+
+    /**
+     * Removes the specified ID from the index.
+     *
+     * @param id the ID of the record.
+     * @return `true` if the ID was in the index.
+     */
+    public boolean remove(long id) {
+        int mask = ids.length - 1;
+        int x = slotOf(id, mask);
+
+        while ( rows[x] != 0 && ids[x] != id ) {
+            x = (x + 1) & mask;
+        }
+
+        if ( rows[x] == 0 ) {
+            return false;
+        }
+
+        // Close up the gap, by moving back any of the following entries that
+        //+ would no longer be found past the now empty slot.
+        int gap = x;
+
+        for ( x = (x + 1) & mask; rows[x] != 0; x = (x + 1) & mask ) {
+            int home = slotOf(ids[x], mask);
+
+            if ( ((x - home) & mask) >= ((x - gap) & mask) ) {
+                ids[gap] = ids[x];
+                rows[gap] = rows[x];
+                gap = x;
+            }
+        }
+
+        rows[gap] = 0;
+        size--;
+
+        return true;
+    }
+
+    /**
+     * Removes all of the IDs from the index.
+     */
+    public void clear() {
+        ids = new long[MIN_CAPACITY];
+        rows = new int[MIN_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Retrieves the number of IDs in the index.
+     *
+     * @return the number of IDs.
+     */
+    public int size() {
+        return size;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private void grow() {
+        long[] oldIds = ids;
+        int[] oldRows = rows;
+
+        ids = new long[oldIds.length * 2];
+        rows = new int[oldRows.length * 2];
+
+        int mask = ids.length - 1;
+
+        for ( int x = 0; x < oldIds.length; x++ ) {
+            if ( oldRows[x] != 0 ) {
+                int y = slotOf(oldIds[x], mask);
+
+                while ( rows[y] != 0 ) {
+                    y = (y + 1) & mask;
+                }
+
+                ids[y] = oldIds[x];
+                rows[y] = oldRows[x];
+            }
+        }
+    }
+
+    private static int slotOf(long id, int mask) {
+        // IDs are often handed out in sequence, so mix the bits up before
+        //+ picking a slot, to keep neighboring IDs from clumping together.
+        long h = id * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+    //</editor-fold>
+
+}
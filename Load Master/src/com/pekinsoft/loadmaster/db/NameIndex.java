@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   NameIndex
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Indexes the names held in a table, such as company names, so that they
+ *      can be searched by how they start, or by the words in them, without
+ *      looking at every row of the table.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * The `NameIndex` is a case-insensitive index of the names held in the rows
+ * of a table. Each name is normalized (i.e., put into lower case, with any run
+ * of spaces and punctuation turned into a single space) and kept in a sorted
+ * array, together with each of its trailing parts that starts on a word. For
+ * instance, "Acme Truck-Lines, Inc." is kept as "acme truck lines inc", "truck
+ * lines inc", "lines inc" and "inc".
+ *
+ * Any search is then a binary search for the first entry that starts with the
+ * text being sought, followed by a walk along the entries that match it. So a
+ * search takes O(log n + k) time, where `k` is the number of matches, rather
+ * than the O(n) that it takes to look at every row.
+ *
+ * Three kinds of searches are supported:
+ * <ul>
+ * <li>`find` and `findAll`, for the rows whose names are the same as the text
+ *     sought;</li>
+ * <li>`startingWith`, for the rows whose names start with the text sought;
+ *     and</li>
+ * <li>`withWordStartingWith`, for the rows whose names have a word in them that
+ *     starts with the text sought, which is what a type-ahead search
+ *     needs.</li>
+ * </ul>
+ *
+ * Names may be added at any time. The index is sorted the next time it is
+ * searched.
+ *
+ * <dl><dt>Note</dt><dd>A `NameIndex` is not thread-safe.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class NameIndex {
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final int[] NONE = new int[0];
+
+    // Sorts by the text, and then by the row, so that the first of any rows
+    //+ with the same name is also the first one found.
+    private static final Comparator<Entry> ORDER
+            = Comparator.comparing((Entry e) -> e.key).thenComparingInt(
+                    (Entry e) -> e.row);
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private Entry[] entries;
+    private int size;
+    private boolean sorted;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates an empty `NameIndex`.
+     */
+    public NameIndex () {
+        entries = new Entry[64];
+        size = 0;
+        sorted = true;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Puts a name into the form in which it is kept in the index: in lower
+     * case, with no leading or trailing spaces, and with every run of
+     * characters that are neither letters nor digits turned into a single
+     * space.
+     *
+     * @param name the name to normalize. May be `null`.
+     * @return the normalized name, which is empty if the name is `null`.
+     */
+    public static String normalize(String name) {
+        if ( name == null ) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean space = false;
+
+        for ( int x = 0; x < name.length(); x++ ) {
+            char c = name.charAt(x);
+
+            if ( Character.isLetterOrDigit(c) ) {
+                if ( space && sb.length() > 0 ) {
+                    sb.append(' ');
+                }
+
+                sb.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Adds the name held in the specified row to the index.
+     *
+     * @param name the name held in the row. May be `null`.
+     * @param row  the row.
+     */
+    public void add(String name, int row) {
+        String key = normalize(name);
+
+        add(new Entry(key, row, true));
+
+        for ( int x = key.indexOf(' '); x >= 0; x = key.indexOf(' ', x + 1) ) {
+            add(new Entry(key.substring(x + 1), row, false));
+        }
+    }
+
+    /**
+     * Finds the first row with the specified name. Names are compared in
+     * their normalized forms.
+     *
+     * @param name the name to find.
+     * @return the row of the name, or `-1` if no row has that name.
+     */
+    public int find(String name) {
+        int[] rows = findAll(name);
+
+        return rows.length > 0 ? rows[0] : -1;
+    }
+
+    /**
+     * Finds all of the rows with the specified name. Names are compared in
+     * their normalized forms.
+     *
+     * @param name the name to find.
+     * @return the rows with that name, in row order.
+     */
+    public int[] findAll(String name) {
+        String key = normalize(name);
+        int[] rows = new int[4];
+        int count = 0;
+
+        // Entries with the same text are in row order already.
+        for ( int x = lowerBound(key); x < size && entries[x].key.equals(key);
+                x++ ) {
+            if ( entries[x].whole ) {
+                if ( count == rows.length ) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+
+                rows[count++] = entries[x].row;
+            }
+        }
+
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Finds all of the rows whose names start with the specified text.
+     *
+     * @param prefix the text with which the names must start.
+     * @return the matching rows, in row order.
+     */
+    public int[] startingWith(String prefix) {
+        return search(prefix, true);
+    }
+
+    /**
+     * Finds all of the rows whose names have a word in them that starts with
+     * the specified text. The text may run on over more than one word, so that
+     * "truck li" matches "Acme Truck Lines".
+     *
+     * @param prefix the text with which one of the words must start.
+     * @return the matching rows, in row order.
+     */
+    public int[] withWordStartingWith(String prefix) {
+        return search(prefix, false);
+    }
+
+    /**
+     * Removes all of the names from the index.
+     */
+    public void clear() {
+        entries = new Entry[64];
+        size = 0;
+        sorted = true;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private void add(Entry entry) {
+        if ( size == entries.length ) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+
+        entries[size++] = entry;
+        sorted = false;
+    }
+
+    private int[] search(String prefix, boolean wholeOnly) {
+        String key = normalize(prefix);
+
+        if ( key.isEmpty() ) {
+            return NONE;
+        }
+
+        int[] rows = new int[16];
+        int count = 0;
+
+        for ( int x = lowerBound(key); x < size
+                && entries[x].key.startsWith(key); x++ ) {
+            if ( wholeOnly && !entries[x].whole ) {
+                continue;
+            }
+
+            if ( count == rows.length ) {
+                rows = Arrays.copyOf(rows, count * 2);
+            }
+
+            rows[count++] = entries[x].row;
+        }
+
+        // A name may match on more than one of its words, so put the rows in
+        //+ order and drop any repeats.
+        Arrays.sort(rows, 0, count);
+
+        int unique = 0;
+
+        for ( int x = 0; x < count; x++ ) {
+            if ( unique == 0 || rows[unique - 1] != rows[x] ) {
+                rows[unique++] = rows[x];
+            }
+        }
+
+        return Arrays.copyOf(rows, unique);
+    }
+
+    // Finds the first entry that is not less than the key.
+    private int lowerBound(String key) {
+        if ( !sorted ) {
+            Arrays.sort(entries, 0, size, ORDER);
+            sorted = true;
+        }
+
+        int low = 0;
+        int high = size;
+
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+
+            if ( entries[mid].key.compareTo(key) < 0 ) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Classes">
+    private static class Entry {
+        final String key;
+        final int row;
+
+        // Whether the key is the whole name, rather than the trailing part.
+        final boolean whole;
+
+        Entry(String key, int row, boolean whole) {
+            this.key = key;
+            this.row = row;
+            this.whole = whole;
+        }
+    }
+    //</editor-fold>
+
+}
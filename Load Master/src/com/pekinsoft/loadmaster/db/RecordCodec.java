@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   RecordCodec
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Turns the rows of a data table into records, and records back into
+ *      rows, for one kind of record.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import java.util.function.Function;
+
+/**
+ * A `RecordCodec` knows the layout of the rows of one data table: it builds a
+ * record from the fields of a row, and builds the tilde-delimited record line
+ * for a record. It is all that a {@link Table} needs to know about the records
+ * that it holds.
+ *
+ * The two methods must agree with one another, so that a record that is
+ * encoded and then decoded again comes back the same.
+ *
+ * @param <T> the type of the records.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Builds a record from a row of the table. The tokenizer is reused for
+     * every row, so it must not be held on to.
+     *
+     * @param record a tokenizer positioned at the first field of the row.
+     * @return the record.
+     */
+    T decode(RecordTokenizer record);
+
+    /**
+     * Builds the tilde-delimited record line for a record.
+     *
+     * @param record the record.
+     * @return the record line, without a line terminator.
+     */
+    String encode(T record);
+
+    /**
+     * Creates a `RecordCodec` from a pair of functions, such as the methods
+     * that a controller already has for reading and writing its rows.
+     *
+     * @param <T>     the type of the records.
+     * @param decoder builds a record from a row.
+     * @param encoder builds the record line for a record.
+     * @return the codec.
+     */
+    static <T> RecordCodec<T> of(Function<RecordTokenizer, T> decoder,
+            Function<T, String> encoder) {
+        return new RecordCodec<T>() {
+            @Override
+            public T decode(RecordTokenizer record) {
+                return decoder.apply(record);
+            }
+
+            @Override
+            public String encode(T record) {
+                return encoder.apply(record);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,487 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   RecordCursor
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Steps through the records of a table that match a filter, a page at a
+ *      time, reading each page from the disk only when it is needed, so that
+ *      a table of any size can be browsed without holding it in memory.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.err.DataStoreException;
+import com.pekinsoft.loadmaster.sys.Logger;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.LogRecord;
+
+/**
+ * A `RecordCursor` steps through the records of a table that match a filter,
+ * with the same `first`, `next`, `previous` and `last` navigation that the
+ * controllers provide, but without reading the table into memory.
+ *
+ * When the cursor is opened, it takes a {@link TableSnapshot} of the table and
+ * reads through it once, keeping only the row numbers of the records that
+ * match the filter. A table that has been split up into partitions (see
+ * {@link TablePartitions}) is read through one partition after another, as
+ * though they were one table, oldest first. From then on, the records are read back from the disk a
+ * page at a time, as the record pointer moves onto each page, and only the
+ * current page is kept in memory. So a cursor over a table of any size costs
+ * four bytes for each matching record, plus one page of records.
+ *
+ * The records are built from their rows by the reader given to the cursor,
+ * which is the same code that the controller uses to build its records when
+ * it reads its table in.
+ *
+ * <dl><dt>Note</dt><dd>The cursor sees the table as it was last saved when
+ * the cursor was opened. Changes that have not been saved by a controller,
+ * and saves made after the cursor was opened, are not seen by it.</dd></dl>
+ *
+ * <dl><dt>Note</dt><dd>The cursor holds the table file open, and must be
+ * closed once it is no longer needed. A `RecordCursor` is not
+ * thread-safe.</dd></dl>
+ *
+ * @param <T> the type of the records in the table.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public class RecordCursor<T> implements Closeable {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The number of records in a page, when no other size is given.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final TableSnapshot[] snapshots;
+    private final Function<RecordTokenizer, T> reader;
+    private final int pageSize;
+
+    // The first row of each snapshot, counting through all of them, followed
+    //+ by the total number of rows.
+    private final int[] starts;
+
+    // The rows of the table that match the filter, in row order.
+    private final int[] matches;
+
+    // The page that is currently in memory, and its records.
+    private int page;
+    private final ArrayList<T> records;
+
+    // The record pointer, as an index into the matching records.
+    private int row;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Opens a `RecordCursor` over the records of a table that match a filter.
+     *
+     * @param changes  the change log of the table.
+     * @param reader   builds a record from the tokenizer for its row.
+     * @param filter   the test that a record must pass to be seen by the
+     *                 cursor, or `null` for all of the records.
+     * @param pageSize the number of records to read from the disk at a time.
+     *                 If this is less than one, the `DEFAULT_PAGE_SIZE` is
+     *                 used.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table.
+     */
+    public RecordCursor (ChangeLog changes, Function<RecordTokenizer, T> reader,
+            Predicate<? super T> filter, int pageSize)
+            throws DataStoreException {
+        this(Collections.singletonList(changes), reader, filter, pageSize);
+    }
+
+    /**
+     * Opens a `RecordCursor` over the records of a table that is kept in
+     * more than one file, such as the partitions of a table, that match a
+     * filter. The files are read through in the order given, as though they
+     * were one table.
+     *
+     * @param changes  the change logs of the files of the table.
+     * @param reader   builds a record from the tokenizer for its row.
+     * @param filter   the test that a record must pass to be seen by the
+     *                 cursor, or `null` for all of the records.
+     * @param pageSize the number of records to read from the disk at a time.
+     *                 If this is less than one, the `DEFAULT_PAGE_SIZE` is
+     *                 used.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table.
+     */
+    public RecordCursor (List<ChangeLog> changes,
+            Function<RecordTokenizer, T> reader, Predicate<? super T> filter,
+            int pageSize) throws DataStoreException {
+        this.reader = reader;
+        this.pageSize = pageSize < 1 ? DEFAULT_PAGE_SIZE : pageSize;
+        records = new ArrayList<>(this.pageSize);
+        page = -1;
+        row = 0;
+
+        TableSnapshot[] opened = new TableSnapshot[changes.size()];
+        starts = new int[changes.size() + 1];
+        int[] found = new int[0];
+
+        try {
+            for ( int x = 0; x < opened.length; x++ ) {
+                opened[x] = changes.get(x).snapshot();
+                starts[x + 1] = starts[x] + opened[x].getRowCount();
+
+                if ( filter != null ) {
+                    found = matching(found, opened[x], starts[x], filter);
+                }
+            }
+
+            matches = filter == null ? allRows(starts[opened.length]) : found;
+        } catch ( IOException | RuntimeException ex ) {
+            for ( TableSnapshot table : opened ) {
+                closeQuietly(table);
+            }
+
+            throw error(ex, "RecordCursor");
+        }
+
+        snapshots = opened;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Retrieves the current record.
+     *
+     * @return the current record, or `null` if there are no records.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table.
+     */
+    public T get() throws DataStoreException {
+        return get(row);
+    }
+
+    /**
+     * Retrieves the specified record, reading its page in from the disk if it
+     * is not the current page. The record pointer is not moved.
+     *
+     * @param idx the index of the record to retrieve.
+     * @return the specified record, or `null` if the index is invalid (i.e.,
+     *         below zero (0) or not less than `getRecordCount()`).
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table.
+     */
+    public T get(int idx) throws DataStoreException {
+        if ( idx < 0 || idx >= getRecordCount() ) {
+            return null;
+        }
+
+        loadPage(idx / pageSize);
+
+        return records.get(idx % pageSize);
+    }
+
+    /**
+     * Retrieves the total number of records that matched the filter.
+     *
+     * @return int The number of records
+     */
+    public int getRecordCount() {
+        return matches.length;
+    }
+
+    /**
+     * Retrieves the current record number of the record in this cursor.
+     *
+     * @return int The current record number
+     */
+    public int getCurrentRecordNumber() {
+        return row + 1;
+    }
+
+    /**
+     * Provides a means of determining if this cursor has another record beyond
+     * the current record.
+     *
+     * @return `true` if there is at least one more record, `false` otherwise.
+     */
+    public boolean hasNext() {
+        return row < getRecordCount() - 1;
+    }
+
+    /**
+     * Moves the record pointer to the first record.
+     *
+     * @return the first record, or `null` if there are no records.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table.
+     */
+    public T first() throws DataStoreException {
+        row = 0;
+
+        return get();
+    }
+
+    /**
+     * Moves the record pointer to the last record.
+     *
+     * @return the last record, or `null` if there are no records.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table.
+     */
+    public T last() throws DataStoreException {
+        row = Math.max(0, getRecordCount() - 1);
+
+        return get();
+    }
+
+    /**
+     * Moves the record pointer to the next record. If the pointer is already
+     * at the last record, it is left there.
+     *
+     * @return the record now at the record pointer.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table.
+     */
+    public T next() throws DataStoreException {
+        if ( hasNext() ) {
+            row++;
+        }
+
+        return get();
+    }
+
+    /**
+     * Moves the record pointer to the previous record. If the pointer is
+     * already at the first record, it is left there.
+     *
+     * @return the record now at the record pointer.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table.
+     */
+    public T previous() throws DataStoreException {
+        if ( row > 0 ) {
+            row--;
+        }
+
+        return get();
+    }
+
+    /**
+     * Retrieves the number of records in each page.
+     *
+     * @return the page size.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Retrieves the number of pages needed to hold all of the records.
+     *
+     * @return the number of pages.
+     */
+    public int getPageCount() {
+        return (getRecordCount() + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * Retrieves the records on the specified page, reading them in from the
+     * disk if it is not the current page. The record pointer is moved to the
+     * first record on the page.
+     *
+     * @param page the index of the page, from zero (0).
+     * @return the records on the page, which may not be changed, or an empty
+     *         list if there is no such page. The list is only good until
+     *         another page is read in.
+     * @throws DataStoreException in the event an error occurs while reading
+     *                            the table.
+     */
+    public List<T> getPage(int page) throws DataStoreException {
+        if ( page < 0 || page >= getPageCount() ) {
+            return Collections.emptyList();
+        }
+
+        loadPage(page);
+        row = page * pageSize;
+
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     * Retrieves the row of the table that holds the current record. This is
+     * the record number to use with the controller for the table. The rows of
+     * a partitioned table are counted through all of its partitions, so they
+     * are only the same as the rows of the controller once all of its
+     * partitions have been read in.
+     *
+     * @return the row of the current record, or `-1` if there are no records.
+     */
+    public int getTableRow() {
+        return getRecordCount() == 0 ? -1 : matches[row];
+    }
+
+    /**
+     * Closes the table file, and lets go of the current page.
+     *
+     * @throws IOException in the event an error occurs closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        records.clear();
+        page = -1;
+
+        IOException failed = null;
+
+        for ( TableSnapshot table : snapshots ) {
+            try {
+                table.close();
+            } catch ( IOException ex ) {
+                failed = failed == null ? ex : failed;
+            }
+        }
+
+        if ( failed != null ) {
+            throw failed;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private void loadPage(int number) throws DataStoreException {
+        if ( number == page ) {
+            return;
+        }
+
+        records.clear();
+        page = -1;
+
+        int from = number * pageSize;
+        int to = Math.min(from + pageSize, getRecordCount());
+
+        try {
+            // The page may run on from one snapshot into the next.
+            for ( int s = 0; s < snapshots.length && from < to; s++ ) {
+                int end = from;
+
+                while ( end < to && matches[end] < starts[s + 1] ) {
+                    end++;
+                }
+
+                if ( end > from ) {
+                    int[] rows = new int[end - from];
+
+                    for ( int x = 0; x < rows.length; x++ ) {
+                        rows[x] = matches[from + x] - starts[s];
+                    }
+
+                    snapshots[s].read(rows, 0, rows.length,
+                            (int x, RecordTokenizer record) -> {
+                                records.add(reader.apply(record));
+                                return true;
+                            });
+                }
+
+                from = end;
+            }
+        } catch ( IOException | RuntimeException ex ) {
+            records.clear();
+
+            throw error(ex, "loadPage");
+        }
+
+        page = number;
+    }
+
+    // Adds the rows of the snapshot that match the filter, counted on from
+    //+ the row of the snapshot given, to those found so far.
+    private int[] matching(int[] before, TableSnapshot table, int start,
+            Predicate<? super T> filter) throws IOException {
+        // Held in arrays, so that the visitor can grow and count them.
+        int[][] found = { Arrays.copyOf(before, Math.max(64,
+                before.length * 2)) };
+        int[] count = { before.length };
+
+        // Each record is only built to test it, and is then let go.
+        table.scan((int x, RecordTokenizer record) -> {
+            if ( filter.test(reader.apply(record)) ) {
+                if ( count[0] == found[0].length ) {
+                    found[0] = Arrays.copyOf(found[0], count[0] * 2);
+                }
+
+                found[0][count[0]++] = start + x;
+            }
+
+            return true;
+        });
+
+        return Arrays.copyOf(found[0], count[0]);
+    }
+
+    private DataStoreException error(Exception ex, String method) {
+        LogRecord entry = Logger.newRecord(getClass());
+        entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                + "\nThrowing DataStoreException...");
+        entry.setThrown(ex);
+        entry.setSourceMethodName(method);
+        entry.setParameters(null);
+        Starter.logger.error(entry);
+
+        return new DataStoreException(ex.getMessage(), ex);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static int[] allRows(int count) {
+        int[] rows = new int[count];
+
+        for ( int x = 0; x < count; x++ ) {
+            rows[x] = x;
+        }
+
+        return rows;
+    }
+
+    private static void closeQuietly(TableSnapshot table) {
+        if ( table != null ) {
+            try {
+                table.close();
+            } catch ( IOException ignored ) {
+                // Already failing, so the first error is the one reported.
+            }
+        }
+    }
+    //</editor-fold>
+
+}
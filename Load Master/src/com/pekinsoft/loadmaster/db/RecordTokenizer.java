@@ -0,0 +1,525 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   RecordTokenizer
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Splits the tilde-delimited record lines of the data tables into their
+ *      fields, and parses the fields, without creating a `String` for every
+ *      field along the way.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.utils.DateUtils;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.util.Date;
+
+/**
+ * The `RecordTokenizer` walks through the fields of a single tilde-delimited
+ * record line, such as those stored in `loads.tbl` or `0.ldgr`, one field at a
+ * time. The line is copied into a character buffer that is reused from one
+ * line to the next, and each field is parsed directly out of that buffer. Only
+ * the fields that are actually wanted as text (i.e., through `nextString`)
+ * have a `String` created for them. Numbers, flags and dates are parsed in
+ * place.
+ *
+ * A tokenizer is meant to be created once per table read, and then `reset`
+ * with each line of the table:
+ * <pre>
+ * RecordTokenizer record = new RecordTokenizer();
+ *
+ * for ( String line : lines ) {
+ *     record.reset(line);
+ *
+ *     model.setId(record.nextLong());
+ *     model.setCompany(record.nextString());
+ *     ...
+ * }
+ * </pre>
+ *
+ * The fields must be read in the order in which they appear in the line. Any
+ * field asked for past the end of the line is treated as empty, so a line
+ * that has lost its trailing empty fields can still be read.
+ *
+ * A tokenizer can also be `reset` with a row of a {@link BinaryTable}. The
+ * fields are then taken straight from the binary record, with no parsing at
+ * all, whenever the type that is asked for is the type that the field is
+ * stored as. Any other field is turned back into its text and read as it
+ * would have been from the text table, so a row reads exactly the same from
+ * either form of the table.
+ *
+ * <dl><dt>Note</dt><dd>A `RecordTokenizer` is not thread-safe. Each thread
+ * that reads a table must use its own.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class RecordTokenizer {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The character that separates the fields of a record line.
+     */
+    public static final char DELIMITER = '~';
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    // Powers of ten that can be represented exactly as doubles. Dividing a
+    //+ whole number of no more than 53 bits by one of these gives the same,
+    //+ correctly rounded, result as Double.parseDouble.
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+        1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private char[] buffer;
+    private int length;
+
+    // The start of the next field to be read.
+    private int pos;
+
+    // The bounds of the field that was just read.
+    private int start;
+    private int end;
+
+    // The binary table that the record is being read from, if it is not being
+    //+ read from a line, along with the position of the record in the table,
+    //+ the number of fields that the record holds, and the next field to be
+    //+ read.
+    private BinaryTable table;
+    private int record;
+    private int fields;
+    private int field;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates a `RecordTokenizer` with no line to read.
+     */
+    public RecordTokenizer () {
+        buffer = new char[256];
+        length = 0;
+        pos = 1;    // Nothing to read until reset.
+        start = 0;
+        end = 0;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Starts reading a new record line, from its first field.
+     *
+     * @param line the record line to read.
+     * @return this tokenizer.
+     */
+    public RecordTokenizer reset(String line) {
+        length = line.length();
+
+        if ( buffer.length < length ) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+        }
+
+        line.getChars(0, length, buffer, 0);
+        pos = 0;
+        start = 0;
+        end = 0;
+        table = null;
+
+        return this;
+    }
+
+    /**
+     * Starts reading a new record line, from its first field, directly from a
+     * range of bytes, such as a line of a memory-mapped table file. A line
+     * that is plain ASCII, as nearly all of them are, is simply widened into
+     * the buffer. Any other line is decoded using the default character set,
+     * which is the same one used to write the tables.
+     *
+     * @param bytes the bytes holding the line.
+     * @param from  the index of the first byte of the line.
+     * @param to    the index just past the last byte of the line, not
+     *              counting the line terminator.
+     * @return this tokenizer.
+     */
+    public RecordTokenizer reset(ByteBuffer bytes, int from, int to) {
+        length = to - from;
+
+        if ( buffer.length < length ) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+        }
+
+        for ( int x = 0; x < length; x++ ) {
+            byte b = bytes.get(from + x);
+
+            if ( b < 0 ) {
+                // Not ASCII, so it needs to be properly decoded.
+                ByteBuffer line = bytes.duplicate();
+                line.limit(to).position(from);
+
+                return reset(Charset.defaultCharset().decode(line).toString());
+            }
+
+            buffer[x] = (char) b;
+        }
+
+        pos = 0;
+        start = 0;
+        end = 0;
+        table = null;
+
+        return this;
+    }
+
+    /**
+     * Starts reading a new record, from its first field, directly from a row
+     * of a binary table.
+     *
+     * @param table the binary table holding the record.
+     * @param row   the row of the record.
+     * @return this tokenizer.
+     * @throws IndexOutOfBoundsException if the table has no such row.
+     */
+    public RecordTokenizer reset(BinaryTable table, int row) {
+        record = table.recordAt(row);
+        fields = table.fieldsIn(record);
+        field = 0;
+        this.table = table;
+        start = 0;
+        end = 0;
+
+        return this;
+    }
+
+    /**
+     * Determines whether there are any more fields left in the line.
+     *
+     * @return `true` if there is at least one more field to be read.
+     */
+    public boolean hasNext() {
+        return table != null ? field < fields : pos <= length;
+    }
+
+    /**
+     * Skips over the next field.
+     */
+    public void skip() {
+        if ( table != null ) {
+            field++;
+        } else {
+            advance();
+        }
+    }
+
+    /**
+     * Reads the next field as text.
+     *
+     * @return the next field, which is empty if the field is empty or missing.
+     */
+    public String nextString() {
+        if ( nextType() == BinaryTable.STRING ) {
+            return table.getString(record, field++);
+        }
+
+        advance();
+
+        return end > start ? new String(buffer, start, end - start) : "";
+    }
+
+    /**
+     * Reads the next field as an `int`.
+     *
+     * @return the value of the next field.
+     * @throws NumberFormatException if the field is not a valid `int`.
+     */
+    public int nextInt() {
+        long value = nextLong();
+
+        if ( value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ) {
+            throw invalidNumber();
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * Reads the next field as a `long`.
+     *
+     * @return the value of the next field.
+     * @throws NumberFormatException if the field is not a valid `long`.
+     */
+    public long nextLong() {
+        if ( nextType() == BinaryTable.LONG
+                || nextType() == BinaryTable.INT ) {
+            return table.getLong(record, field++);
+        }
+
+        advance();
+
+        int x = start;
+        boolean negative = false;
+
+        if ( x < end && (buffer[x] == '-' || buffer[x] == '+') ) {
+            negative = buffer[x] == '-';
+            x++;
+        }
+
+        if ( x == end ) {
+            throw invalidNumber();
+        }
+
+        // Build the value up as a negative number, as there is one more
+        //+ negative long than there are positive ones.
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+
+        for ( ; x < end; x++ ) {
+            int digit = buffer[x] - '0';
+
+            if ( digit < 0 || digit > 9 || value < limit / 10 ) {
+                throw invalidNumber();
+            }
+
+            value *= 10;
+
+            if ( value < limit + digit ) {
+                throw invalidNumber();
+            }
+
+            value -= digit;
+        }
+
+        return negative ? value : -value;
+    }
+
+    /**
+     * Reads the next field as a `double`. Plain decimal numbers, such as
+     * `1234.56`, are parsed directly from the buffer. Anything else, such as a
+     * number in scientific notation, is handed off to `Double.parseDouble`.
+     *
+     * @return the value of the next field.
+     * @throws NumberFormatException if the field is not a valid `double`.
+     */
+    public double nextDouble() {
+        if ( nextType() == BinaryTable.DOUBLE ) {
+            return table.getDouble(record, field++);
+        } else if ( nextType() == BinaryTable.LONG
+                || nextType() == BinaryTable.INT ) {
+            return table.getLong(record, field++);
+        }
+
+        advance();
+
+        int x = start;
+        boolean negative = false;
+
+        if ( x < end && (buffer[x] == '-' || buffer[x] == '+') ) {
+            negative = buffer[x] == '-';
+            x++;
+        }
+
+        long mantissa = 0;
+        int scale = -1;     // Digits after the decimal point, once it is seen.
+        int digits = 0;
+
+        for ( ; x < end; x++ ) {
+            char c = buffer[x];
+
+            if ( c >= '0' && c <= '9' ) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+
+                if ( scale >= 0 ) {
+                    scale++;
+                }
+
+                if ( mantissa >= MAX_EXACT_MANTISSA ) {
+                    return parseDoubleSlowly();
+                }
+            } else if ( c == '.' && scale < 0 ) {
+                scale = 0;
+            } else {
+                return parseDoubleSlowly();
+            }
+        }
+
+        if ( digits == 0 ) {
+            throw invalidNumber();
+        }
+
+        if ( scale >= POWERS_OF_TEN.length ) {
+            return parseDoubleSlowly();
+        }
+
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads the next field as a `boolean`, in the same way as
+     * `Boolean.parseBoolean`: the field is `true` if it is the word "true",
+     * in any case, and is `false` otherwise.
+     *
+     * @return the value of the next field.
+     */
+    public boolean nextBoolean() {
+        if ( nextType() == BinaryTable.BOOLEAN ) {
+            return table.getBoolean(record, field++);
+        }
+
+        advance();
+
+        return end - start == 4
+                && (buffer[start] == 't' || buffer[start] == 'T')
+                && (buffer[start + 1] == 'r' || buffer[start + 1] == 'R')
+                && (buffer[start + 2] == 'u' || buffer[start + 2] == 'U')
+                && (buffer[start + 3] == 'e' || buffer[start + 3] == 'E');
+    }
+
+    /**
+     * Reads the next field as a date in the `MM/dd/yyyy` format used by all of
+     * the data tables, using {@link DateUtils#parseDate(char[], int, int)}.
+     *
+     * @return the date in the next field, or `null` if the field is blank.
+     * @throws ParseException if the field is not a valid date.
+     */
+    public Date nextDate() throws ParseException {
+        if ( nextType() == BinaryTable.DATE ) {
+            int date = table.getDate(record, field++);
+
+            if ( date == 0 ) {
+                return null;
+            }
+
+            BinaryTable.formatDate(date, buffer);
+            start = 0;
+            end = 10;
+
+            return DateUtils.parseDate(buffer, start, end);
+        }
+
+        advance();
+
+        int x = start;
+
+        // Blank dates are stored as a single space.
+        while ( x < end && buffer[x] == ' ' ) {
+            x++;
+        }
+
+        if ( x == end ) {
+            return null;
+        }
+
+        return DateUtils.parseDate(buffer, x, end);
+    }
+
+    /**
+     * Retrieves the record line that is currently being read, for use in log
+     * messages.
+     *
+     * @return the current record line.
+     */
+    @Override
+    public String toString() {
+        if ( table != null ) {
+            StringBuilder line = new StringBuilder();
+
+            for ( int x = 0; x < fields; x++ ) {
+                if ( x > 0 ) {
+                    line.append(DELIMITER);
+                }
+
+                line.append(table.getText(record, x));
+            }
+
+            return line.toString();
+        }
+
+        return new String(buffer, 0, length);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private void advance() {
+        if ( table != null ) {
+            // Put the field into the buffer as the text that it was stored
+            //+ from, so that it is read just as it would be from a line.
+            String text = field < fields ? table.getText(record, field) : "";
+
+            if ( buffer.length < text.length() ) {
+                buffer = new char[Math.max(text.length(), buffer.length * 2)];
+            }
+
+            text.getChars(0, text.length(), buffer, 0);
+            start = 0;
+            end = text.length();
+            field++;
+            return;
+        }
+
+        if ( pos > length ) {
+            // Past the end of the line, so the field is empty.
+            start = length;
+            end = length;
+            return;
+        }
+
+        start = pos;
+        end = pos;
+
+        while ( end < length && buffer[end] != DELIMITER ) {
+            end++;
+        }
+
+        pos = end + 1;
+    }
+
+    // Returns the type of the next field of a binary record, or -1 if the
+    //+ record is a line, or the field is missing.
+    private int nextType() {
+        return table != null && field < fields ? table.typeOf(field) : -1;
+    }
+
+    private double parseDoubleSlowly() {
+        return Double.parseDouble(new String(buffer, start, end - start));
+    }
+
+    private NumberFormatException invalidNumber() {
+        return new NumberFormatException("For input string: \""
+                + new String(buffer, start, end - start) + "\"");
+    }
+
+    //</editor-fold>
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   SaveScheduler
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Writes the saves of the data tables to their change logs on a
+ *      background thread, a short while after they are made, so that a burst
+ *      of saves of the same table is written to the disk only once.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.err.ConflictException;
+import com.pekinsoft.loadmaster.err.DataStoreException;
+import com.pekinsoft.loadmaster.sys.Logger;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.LogRecord;
+
+/**
+ * The `SaveScheduler` takes the writing of the saves of the data tables off of
+ * the thread that makes them. When it is turned on, a save still works out
+ * which rows have changed and builds their record lines straight away, but
+ * instead of writing them to the change log of the table and waiting for the
+ * disk, it leaves them with the log and returns. The scheduler then writes
+ * all of the saves that are waiting, on its own thread, once no more saves
+ * have been made for a short while (the `save.delay` setting, in
+ * milliseconds). A row that is saved more than once in that time is only
+ * written once, and each table is forced to disk only once.
+ *
+ * So that a steady stream of saves cannot hold them back forever, the saves
+ * are also written once the oldest of them has been waiting for ten times the
+ * delay. They are written straight away when the table is read from the disk
+ * (by a cursor or a total, for instance), when a {@link Transaction} writes to
+ * the same table, when `flushNow` is called, and when the application exits,
+ * whether through `Starter.exit` or otherwise.
+ *
+ * The scheduler is turned off unless a delay is set. With the delay at zero
+ * (0), which is the default, every save is written to the disk before it
+ * returns, as it was before.
+ *
+ * <dl><dt>Note</dt><dd>A save that has returned, but has not yet been written
+ * by the scheduler, is lost if the application is killed, or the computer
+ * loses power, before the delay is up. It is also lost if another instance of
+ * the application has saved the same table in the meantime, in which case
+ * the user is told, as the save can no longer be written. Call `flushNow`
+ * after a save that must not be lost: it throws the same exceptions as a save
+ * that is written straight away, so that the caller can report them the same
+ * way.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class SaveScheduler {
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    // How many times the delay the oldest waiting save may be held back.
+    private static final int MAX_WAIT = 10;
+
+    // The single thread that writes the waiting saves.
+    private static final ScheduledExecutorService WRITER;
+
+    // Held while the waiting saves are being written, so that `flushNow`
+    //+ does not return while the writer thread is still writing some of them.
+    private static final Object FLUSH;
+
+    // The change logs that have saves waiting to be written, in the order
+    //+ that they were first saved.
+    private static final LinkedHashSet<ChangeLog> WAITING;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Fields">
+    // The next write on the writer thread, and when the oldest of the waiting
+    //+ saves was made.
+    private static ScheduledFuture<?> next;
+    private static long oldest;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Static Initializer">
+    static {
+        WRITER = Executors.newSingleThreadScheduledExecutor((Runnable r) -> {
+            Thread t = new Thread(r, "Save Scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        FLUSH = new Object();
+        WAITING = new LinkedHashSet<>();
+
+        // The logger may already be closed by the time this runs, so any
+        //+ error goes to the console.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            DataStoreException ex = flush();
+
+            if ( ex != null ) {
+                ex.printStackTrace(System.err);
+            }
+        }, "Save Scheduler Shutdown"));
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    private SaveScheduler () {
+        // Only static methods, so no need to construct.
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Retrieves the number of milliseconds that the scheduler waits for
+     * further saves before writing the ones it has, from the `save.delay`
+     * setting.
+     *
+     * @return the delay, or zero (0) if the scheduler is turned off, which it
+     *         is by default.
+     */
+    public static int getDelay() {
+        return Math.max(0, Starter.props.getPropertyAsInt("save.delay",
+                "0"));
+    }
+
+    /**
+     * Determines whether saves are being left for the scheduler to write.
+     *
+     * @return `true` if the scheduler is turned on, `false` if every save is
+     *         written before it returns.
+     */
+    public static boolean isEnabled() {
+        return getDelay() > 0;
+    }
+
+    /**
+     * Writes all of the saves that are waiting to their change logs, and
+     * forces them to disk, before returning. If the writer thread is part way
+     * through writing them already, this waits for it to finish.
+     *
+     * @throws ConflictException in the event another instance of the
+     *                           application has saved one of the tables since
+     *                           the saves waiting for it were made. Those saves
+     *                           are dropped, and the table must be read in
+     *                           again.
+     * @throws DataStoreException in the event one of the change logs cannot
+     *                            be written. The saves that were not written
+     *                            are left waiting, and are tried again the
+     *                            next time.
+     */
+    public static void flushNow() throws DataStoreException {
+        DataStoreException ex = flush();
+
+        if ( ex != null ) {
+            throw ex;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Static Methods">
+    // Called by a change log that has just been left a save to write. The
+    //+ write is put off again each time, up to the longest wait.
+    static synchronized void schedule(ChangeLog log) {
+        long now = System.nanoTime();
+        long delay = TimeUnit.MILLISECONDS.toNanos(getDelay());
+
+        if ( WAITING.isEmpty() ) {
+            oldest = now;
+        }
+
+        WAITING.add(log);
+
+        if ( next != null ) {
+            next.cancel(false);
+        }
+
+        long wait = Math.min(delay, oldest + delay * MAX_WAIT - now);
+        next = WRITER.schedule(SaveScheduler::write, Math.max(0, wait),
+                TimeUnit.NANOSECONDS);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    // Runs on the writer thread.
+    private static void write() {
+        DataStoreException ex = flush();
+
+        if ( ex instanceof ConflictException ) {
+            // Shown to the user, as it would have been by the save that was
+            //+ left waiting, had it been written straight away.
+            TableLoader.reportError(ex, "Data Access Error");
+        } else if ( ex != null ) {
+            LogRecord entry = Logger.newRecord(SaveScheduler.class);
+            entry.setMessage("Unable to write the waiting saves. They will be "
+                    + "tried again with the next save, or on exit.");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("write");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+        }
+    }
+
+    // Returns the first error, if any of the logs could not be written. A
+    //+ conflict is returned ahead of any other error, as the saves that it
+    //+ dropped will not be tried again.
+    private static DataStoreException flush() {
+        synchronized ( FLUSH ) {
+            DataStoreException failed = null;
+
+            for ( ChangeLog log : take() ) {
+                try {
+                    log.writePending();
+                } catch ( ConflictException ex ) {
+                    if ( !(failed instanceof ConflictException) ) {
+                        failed = ex;
+                    }
+                } catch ( IOException ex ) {
+                    if ( failed == null ) {
+                        failed = new DataStoreException(ex.getMessage(), ex);
+                    }
+
+                    synchronized ( SaveScheduler.class ) {
+                        WAITING.add(log);
+                    }
+                }
+            }
+
+            return failed;
+        }
+    }
+
+    private static synchronized ArrayList<ChangeLog> take() {
+        if ( next != null ) {
+            next.cancel(false);
+            next = null;
+        }
+
+        ArrayList<ChangeLog> logs = new ArrayList<>(WAITING);
+        WAITING.clear();
+
+        return logs;
+    }
+    //</editor-fold>
+
+}
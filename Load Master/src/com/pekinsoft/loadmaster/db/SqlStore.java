@@ -0,0 +1,491 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   SqlStore
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Keeps an embedded SQL database, given by the db.* settings, as an
+ *      indexed copy of the data tables, so that large histories can be
+ *      queried without scanning the table files.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.err.DataStoreException;
+import com.pekinsoft.loadmaster.sys.Logger;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.logging.LogRecord;
+
+/**
+ * The `SqlStore` is an optional embedded SQL database, such as HSQLDB, H2 or
+ * SQLite, that holds an indexed copy of each of the data tables, as described
+ * by {@link SqlTable}. The table files remain the store of record: the
+ * database is filled from them by {@link #migrate(SqlTable)}, and from then
+ * on each save of a {@link Table} writes the same rows to the database that
+ * it writes to the table file. The static totals of the controllers use the
+ * database, when their table has been migrated, so that they are answered
+ * from its indexes instead of by scanning the whole table file.
+ *
+ * The database is given by the `db.*` settings, read through
+ * `AppProperties`: the JDBC driver class from `db.driver`, and the connection
+ * URL from `db.url`, `db.name` and `db.options`, joined together. There is no
+ * database until `db.name` is set, and the driver must be on the class path.
+ * The migration is run once, by starting Load Master with the `--migrate`
+ * switch.
+ *
+ * The batches of rows are written through prepared statements, in a single
+ * transaction for each save. A row that is updated is deleted and inserted
+ * again, which works the same on every database, where an "upsert" does
+ * not.
+ *
+ * <dl><dt>Note</dt><dd>The `SqlStore` is shared by the whole application,
+ * and its methods are synchronized, as a JDBC connection may only be used
+ * by one thread at a time.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class SqlStore implements Closeable {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The number of rows written to the database in each batch.
+     */
+    public static final int BATCH_SIZE = 500;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Fields">
+    private static SqlStore instance;
+    private static boolean unavailable;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final Connection connection;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    private SqlStore (Connection connection) throws SQLException {
+        this.connection = connection;
+        connection.setAutoCommit(false);
+
+        createSchema();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Determines whether a database has been set up in the settings, by
+     * giving it a `db.name`.
+     *
+     * @return `true` if there is a database to use.
+     */
+    public static boolean isConfigured() {
+        String name = Starter.props.getDbName();
+
+        return name != null && !name.isBlank();
+    }
+
+    /**
+     * Retrieves the shared `SqlStore`, connecting to the database the first
+     * time that it is asked for.
+     *
+     * If the database cannot be connected to, the error is logged, and the
+     * application carries on with the table files alone, without trying to
+     * connect again.
+     *
+     * @return the `SqlStore`, or `null` if there is no database configured,
+     *         or it could not be connected to.
+     */
+    public static synchronized SqlStore getInstance() {
+        if ( instance == null && !unavailable && isConfigured() ) {
+            try {
+                instance = open();
+            } catch ( DataStoreException ex ) {
+                unavailable = true;
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Connects to the database given by the settings, and creates any of the
+     * tables and indexes that are not there yet.
+     *
+     * @return the new `SqlStore`, which the caller must close.
+     * @throws DataStoreException in the event the driver cannot be loaded or
+     *                            the database cannot be connected to.
+     */
+    public static SqlStore open() throws DataStoreException {
+        String url = Starter.props.getDbUrl() + Starter.props.getDbName()
+                + Starter.props.getDbOptions();
+
+        try {
+            Class.forName(Starter.props.getDbDriver());
+
+            return new SqlStore(DriverManager.getConnection(url));
+        } catch ( ClassNotFoundException | SQLException ex ) {
+            throw error(ex, "open", "Unable to connect to the database at "
+                    + url + ".");
+        }
+    }
+
+    /**
+     * Closes the shared `SqlStore`, if it was connected. This is called as the
+     * application exits.
+     */
+    public static synchronized void shutdown() {
+        if ( instance != null ) {
+            try {
+                instance.close();
+            } catch ( IOException ex ) {
+                // It has already been logged, and we are exiting anyway.
+            }
+
+            instance = null;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Copies all of the rows of a data table into the database, replacing any
+     * that are there already, and marks the table as migrated, so that its
+     * saves are written to the database from then on.
+     *
+     * @param table the table to migrate.
+     * @return the number of rows copied.
+     * @throws DataStoreException in the event the table file cannot be read,
+     *                            or the rows cannot be written, or the table
+     *                            has been partitioned.
+     */
+    public synchronized int migrate(SqlTable table)
+            throws DataStoreException {
+        long start = System.nanoTime();
+        int rows;
+
+        if ( TablePartitions.isPartitioned(table.getFile()) ) {
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage(table.getFile().getName() + " has been split up "
+                    + "into partitions, so it cannot be migrated into the "
+                    + "database.");
+            entry.setSourceMethodName("migrate");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+
+            throw new DataStoreException(entry.getMessage());
+        }
+
+        try ( Statement clear = connection.createStatement();
+                PreparedStatement insert = connection.prepareStatement(
+                        table.getInsertStatement()) ) {
+            clear.executeUpdate("DELETE FROM " + table.getName());
+            setMigrated(table, false);
+
+            int[] count = { 0 };
+
+            if ( table.getFile().exists() ) {
+                new ChangeLog(table.getFile()).scan(
+                        (int x, RecordTokenizer record) -> {
+                    // The visitor may not throw a SQLException, so it is
+                    //+ carried out, and unwrapped below.
+                    try {
+                        addRow(insert, table, x, record);
+
+                        if ( ++count[0] % BATCH_SIZE == 0 ) {
+                            insert.executeBatch();
+                        }
+                    } catch ( SQLException ex ) {
+                        throw new IllegalStateException(ex);
+                    }
+
+                    return true;
+                });
+            }
+
+            insert.executeBatch();
+            rows = count[0];
+
+            setMigrated(table, true);
+            connection.commit();
+        } catch ( IOException | SQLException ex ) {
+            rollback();
+
+            throw error(ex, "migrate", "Unable to migrate " + table.getName()
+                    + ".");
+        } catch ( IllegalStateException ex ) {
+            rollback();
+
+            throw error((Exception) ex.getCause(), "migrate", "Unable to "
+                    + "migrate " + table.getName() + ".");
+        }
+
+        if ( Starter.logger.isEnabled(Logger.DEBUG) ) {
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage("Migrated " + rows + " rows of "
+                    + table.getName() + " in "
+                    + (System.nanoTime() - start) / 1000000 + " ms.");
+            entry.setSourceMethodName("migrate");
+            entry.setParameters(null);
+            Starter.logger.debug(entry);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Copies all of the data tables into the database.
+     *
+     * @return the total number of rows copied.
+     * @throws DataStoreException in the event any of the tables cannot be
+     *                            migrated. The tables before it will have
+     *                            been migrated.
+     */
+    public int migrateAll() throws DataStoreException {
+        int rows = 0;
+
+        for ( SqlTable table : SqlTable.values() ) {
+            rows += migrate(table);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Determines whether a table has been migrated into the database, so that
+     * its rows there are the same as in its table file.
+     *
+     * @param table the table.
+     * @return `true` if the table has been migrated.
+     * @throws DataStoreException in the event the database cannot be read.
+     */
+    public synchronized boolean isMigrated(SqlTable table)
+            throws DataStoreException {
+        try ( PreparedStatement select = connection.prepareStatement(
+                "SELECT migrated FROM lm_tables WHERE table_name = ?") ) {
+            select.setString(1, table.getName());
+
+            try ( ResultSet result = select.executeQuery() ) {
+                return result.next() && result.getBoolean(1);
+            }
+        } catch ( SQLException ex ) {
+            throw error(ex, "isMigrated", "Unable to read lm_tables.");
+        }
+    }
+
+    /**
+     * Writes rows that were saved to a data table to the database as well, if
+     * that table has been migrated. This is called by {@link Table#save()}.
+     *
+     * @param table the table.
+     * @param rows  the rows that were saved.
+     * @param lines the record lines of those rows.
+     * @throws DataStoreException in the event the rows cannot be written.
+     */
+    public synchronized void write(SqlTable table, int[] rows,
+            String[] lines) throws DataStoreException {
+        if ( rows.length == 0 || !isMigrated(table) ) {
+            return;
+        }
+
+        RecordTokenizer record = new RecordTokenizer();
+
+        try ( PreparedStatement delete = connection.prepareStatement(
+                    table.getDeleteStatement());
+                PreparedStatement insert = connection.prepareStatement(
+                        table.getInsertStatement()) ) {
+            for ( int x = 0; x < rows.length; x++ ) {
+                delete.setInt(1, rows[x]);
+                delete.addBatch();
+                addRow(insert, table, rows[x], record.reset(lines[x]));
+
+                if ( (x + 1) % BATCH_SIZE == 0 ) {
+                    delete.executeBatch();
+                    insert.executeBatch();
+                }
+            }
+
+            delete.executeBatch();
+            insert.executeBatch();
+            connection.commit();
+        } catch ( SQLException ex ) {
+            rollback();
+
+            throw error(ex, "write", "Unable to write " + rows.length
+                    + " rows to " + table.getName() + ".");
+        }
+    }
+
+    /**
+     * Runs a query that returns a single number, such as a total, and returns
+     * that number.
+     *
+     * @param sql        the query, with a `?` for each of the parameters.
+     * @param parameters the parameters of the query.
+     * @return the number in the first column of the first row, or zero if
+     *         there are no rows or it is null.
+     * @throws DataStoreException in the event the query fails.
+     */
+    public synchronized double queryForDouble(String sql,
+            Object... parameters) throws DataStoreException {
+        try ( PreparedStatement query = connection.prepareStatement(sql) ) {
+            for ( int x = 0; x < parameters.length; x++ ) {
+                query.setObject(x + 1, parameters[x]);
+            }
+
+            try ( ResultSet result = query.executeQuery() ) {
+                return result.next() ? result.getDouble(1) : 0;
+            }
+        } catch ( SQLException ex ) {
+            throw error(ex, "queryForDouble", sql);
+        }
+    }
+
+    /**
+     * Closes the connection to the database.
+     *
+     * @throws IOException in the event the connection cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            connection.close();
+        } catch ( SQLException ex ) {
+            error(ex, "close", "Unable to close the database.");
+
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    // Creates each of the tables, with its indexes, if it is not there yet.
+    //+ The metadata is used to find out, as not every database understands
+    //+ CREATE TABLE IF NOT EXISTS.
+    private void createSchema() throws SQLException {
+        ArrayList<String> sql = new ArrayList<>();
+
+        if ( !exists("lm_tables") ) {
+            sql.add("CREATE TABLE lm_tables (table_name VARCHAR(64) NOT NULL, "
+                    + "migrated BOOLEAN, PRIMARY KEY (table_name))");
+        }
+
+        for ( SqlTable table : SqlTable.values() ) {
+            if ( !exists(table.getName()) ) {
+                sql.addAll(table.getCreateStatements());
+            }
+        }
+
+        try ( Statement create = connection.createStatement() ) {
+            for ( String statement : sql ) {
+                create.executeUpdate(statement);
+            }
+
+            connection.commit();
+        } catch ( SQLException ex ) {
+            rollback();
+
+            throw ex;
+        }
+    }
+
+    private boolean exists(String table) throws SQLException {
+        // Databases differ in the case in which they keep the table names.
+        for ( String name : new String[] { table, table.toUpperCase() } ) {
+            try ( ResultSet found = connection.getMetaData().getTables(null,
+                    null, name, null) ) {
+                if ( found.next() ) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void setMigrated(SqlTable table, boolean migrated)
+            throws SQLException {
+        try ( PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM lm_tables WHERE table_name = ?");
+                PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO lm_tables (table_name, migrated) "
+                        + "VALUES (?, ?)") ) {
+            delete.setString(1, table.getName());
+            delete.executeUpdate();
+            insert.setString(1, table.getName());
+            insert.setBoolean(2, migrated);
+            insert.executeUpdate();
+        }
+    }
+
+    private void addRow(PreparedStatement insert, SqlTable table, int row,
+            RecordTokenizer record) throws SQLException {
+        try {
+            table.bind(insert, row, record);
+        } catch ( ParseException | NumberFormatException ex ) {
+            throw new SQLException("Row " + row + " of " + table.getName()
+                    + " could not be read: " + ex.getMessage(), ex);
+        }
+
+        insert.addBatch();
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch ( SQLException ex ) {
+            // The first error is the one that is reported.
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static DataStoreException error(Exception ex, String method,
+            String message) {
+        LogRecord entry = Logger.newRecord(SqlStore.class);
+        entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                + "\n" + message);
+        entry.setThrown(ex);
+        entry.setSourceMethodName(method);
+        entry.setParameters(null);
+        Starter.logger.error(entry);
+
+        return new DataStoreException(message, ex);
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   SqlTable
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Describes the database table that mirrors each of the data tables:
+ *      its columns, in the order of the fields of the record lines, and the
+ *      indexes that are kept on it.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.utils.DateUtils;
+import java.io.File;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.text.ParseException;
+import java.util.ArrayList;
+
+/**
+ * The `SqlTable` enumeration describes the table in the {@link SqlStore}
+ * database that mirrors each of the data tables. Each table has one column
+ * for each field of the record lines of its data table, in the same order,
+ * after a `row_no` column that holds the row of the record in the data table.
+ * The row is the primary key, as it is the only thing that is sure to be
+ * unique for every record: nothing stops two loads from being given the same
+ * order number, for instance. The numbers that the records are looked up by
+ * are indexed instead.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public enum SqlTable {
+    /**
+     * The brokers table, `brokers.tbl`.
+     */
+    BROKERS("brokers", "brokers.tbl", false, -1,
+            new String[] { "id:LONG", "company", "street", "suite", "city",
+                "state", "zip", "contact", "phone", "fax", "email" },
+            new String[] { "id", "company", "state,city" }),
+
+    /**
+     * The customers table, `customers.tbl`.
+     */
+    CUSTOMERS("customers", "customers.tbl", false, -1,
+            new String[] { "id:LONG", "company", "street", "suite", "city",
+                "state", "zip", "contact", "phone", "comments" },
+            new String[] { "id", "company", "state,city" }),
+
+    /**
+     * The loads table, `loads.tbl`. Loads saved by earlier versions have an
+     * empty field after the BOL number, which is dropped.
+     */
+    LOADS("loads", "loads.tbl", false, 20,
+            new String[] { "order_no", "trip_no", "start_odo:INT",
+                "end_odo:INT", "dispatch:DATE", "rate:DOUBLE", "miles:INT",
+                "weight:INT", "pieces:INT", "commodity", "haz_mat:BOOLEAN",
+                "tarped:BOOLEAN", "team:BOOLEAN", "twic:BOOLEAN",
+                "top_cust:BOOLEAN", "ltl:BOOLEAN", "cbd:BOOLEAN",
+                "ramps:BOOLEAN", "broker:LONG", "bol", "completed:BOOLEAN",
+                "cancelled:BOOLEAN" },
+            new String[] { "order_no", "trip_no", "dispatch", "broker" }),
+
+    /**
+     * The stops table, `stops.tbl`.
+     */
+    STOPS("stops", "stops.tbl", false, -1,
+            new String[] { "trip_no", "stop_no:INT", "customer:LONG",
+                "early_date:DATE", "early_time", "late_date:DATE",
+                "late_time", "arr_date:DATE", "arr_time", "dep_date:DATE",
+                "dep_time", "signed_by" },
+            new String[] { "trip_no,stop_no", "customer" }),
+
+    /**
+     * The General Ledger, `0.ldgr`.
+     */
+    LEDGER("ledger", "0.ldgr", true, -1,
+            new String[] { "entry_date:DATE", "code", "description",
+                "from_account:INT", "to_account:INT", "amount:DOUBLE",
+                "deductible:BOOLEAN", "balanced:BOOLEAN" },
+            new String[] { "entry_date", "from_account", "to_account" }),
+
+    /**
+     * The Accounts Receivable journal, `50500.jrnl`.
+     */
+    RECEIVABLES("receivables", "50500.jrnl", true, -1,
+            new String[] { "id:LONG", "entry_date:DATE", "trip_no",
+                "order_no", "amount:DOUBLE", "settled:BOOLEAN" },
+            new String[] { "id", "trip_no", "order_no", "settled" }),
+
+    /**
+     * The Fuel Purchases journal, `10040.jrnl`.
+     */
+    FUEL("fuel", "10040.jrnl", true, -1,
+            new String[] { "id:LONG", "entry_date:DATE", "odometer:INT",
+                "location", "diesel_gallons:DOUBLE", "diesel_price:DOUBLE",
+                "def_purchased:BOOLEAN", "def_gallons:DOUBLE",
+                "def_price:DOUBLE", "notes" },
+            new String[] { "id", "entry_date" });
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final String name;
+    private final String fileName;
+    private final boolean journal;
+    private final int droppedField;
+    private final String[] columns;
+    private final String[] types;
+    private final String[] indexes;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    // Each column is given as its name, followed by a colon and its type, if
+    //+ it is not text. The dropped field is the field that is left out of any
+    //+ row that has one field too many, or -1.
+    private SqlTable (String name, String fileName, boolean journal,
+            int droppedField, String[] columns, String[] indexes) {
+        this.name = name;
+        this.fileName = fileName;
+        this.journal = journal;
+        this.droppedField = droppedField;
+        this.columns = new String[columns.length];
+        this.types = new String[columns.length];
+        this.indexes = indexes;
+
+        for ( int x = 0; x < columns.length; x++ ) {
+            int colon = columns[x].indexOf(':');
+
+            this.columns[x] = colon < 0 ? columns[x]
+                    : columns[x].substring(0, colon);
+            this.types[x] = colon < 0 ? "TEXT"
+                    : columns[x].substring(colon + 1);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Finds the `SqlTable` that mirrors the specified data table file.
+     *
+     * @param file the data table file.
+     * @return the `SqlTable`, or `null` if the file is not one of the data
+     *         tables.
+     */
+    public static SqlTable forFile(File file) {
+        for ( SqlTable table : values() ) {
+            if ( table.getFile().getAbsoluteFile().equals(
+                    file.getAbsoluteFile()) ) {
+                return table;
+            }
+        }
+
+        return null;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Retrieves the name of the database table.
+     *
+     * @return the table name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the data table file that this table mirrors.
+     *
+     * @return the data table file.
+     */
+    public File getFile() {
+        return new File((journal ? Starter.props.getDataFolder()
+                : Starter.DB_URL) + fileName);
+    }
+
+    /**
+     * Retrieves the number of columns, not counting the `row_no` column.
+     *
+     * @return the number of columns.
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Instance Methods">
+    // The statements that create the table and its indexes.
+    ArrayList<String> getCreateStatements() {
+        ArrayList<String> sql = new ArrayList<>();
+        StringBuilder create = new StringBuilder("CREATE TABLE ")
+                .append(name).append(" (row_no INTEGER NOT NULL");
+
+        for ( int x = 0; x < columns.length; x++ ) {
+            create.append(", ").append(columns[x]).append(' ')
+                    .append(sqlType(types[x]));
+        }
+
+        sql.add(create.append(", PRIMARY KEY (row_no))").toString());
+
+        for ( String index : indexes ) {
+            sql.add("CREATE INDEX ix_" + name + "_" + index.replace(',', '_')
+                    + " ON " + name + " (" + index + ")");
+        }
+
+        return sql;
+    }
+
+    String getInsertStatement() {
+        StringBuilder insert = new StringBuilder("INSERT INTO ").append(name)
+                .append(" (row_no");
+
+        for ( String column : columns ) {
+            insert.append(", ").append(column);
+        }
+
+        insert.append(") VALUES (?");
+
+        for ( int x = 0; x < columns.length; x++ ) {
+            insert.append(", ?");
+        }
+
+        return insert.append(')').toString();
+    }
+
+    String getDeleteStatement() {
+        return "DELETE FROM " + name + " WHERE row_no = ?";
+    }
+
+    // Sets the parameters of the insert statement from a row of the data
+    //+ table. All of the fields are read as text and converted here, so that
+    //+ a blank number or date is stored as a null, rather than failing.
+    void bind(PreparedStatement insert, int row, RecordTokenizer record)
+            throws SQLException, ParseException {
+        ArrayList<String> fields = new ArrayList<>(columns.length + 1);
+
+        while ( record.hasNext() ) {
+            fields.add(record.nextString());
+        }
+
+        if ( droppedField >= 0 && fields.size() > columns.length
+                && fields.get(droppedField).isBlank() ) {
+            fields.remove(droppedField);
+        }
+
+        insert.setInt(1, row);
+
+        for ( int x = 0; x < columns.length; x++ ) {
+            String field = x < fields.size() ? fields.get(x).trim() : "";
+            int param = x + 2;
+
+            if ( field.isEmpty() ) {
+                insert.setNull(param, jdbcType(types[x]));
+                continue;
+            }
+
+            switch ( types[x] ) {
+                case "INT":
+                    insert.setInt(param, Integer.parseInt(field));
+                    break;
+                case "LONG":
+                    insert.setLong(param, Long.parseLong(field));
+                    break;
+                case "DOUBLE":
+                    insert.setDouble(param, Double.parseDouble(field));
+                    break;
+                case "BOOLEAN":
+                    insert.setBoolean(param, Boolean.parseBoolean(field));
+                    break;
+                case "DATE":
+                    insert.setDate(param,
+                            new Date(DateUtils.parseDate(field).getTime()));
+                    break;
+                default:
+                    insert.setString(param, field);
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static String sqlType(String type) {
+        switch ( type ) {
+            case "INT":
+                return "INTEGER";
+            case "LONG":
+                return "BIGINT";
+            case "DOUBLE":
+            case "BOOLEAN":
+            case "DATE":
+                return type;
+            default:
+                return "VARCHAR(1024)";
+        }
+    }
+
+    private static int jdbcType(String type) {
+        switch ( type ) {
+            case "INT":
+                return Types.INTEGER;
+            case "LONG":
+                return Types.BIGINT;
+            case "DOUBLE":
+                return Types.DOUBLE;
+            case "BOOLEAN":
+                return Types.BOOLEAN;
+            case "DATE":
+                return Types.DATE;
+            default:
+                return Types.VARCHAR;
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,960 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   Table
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Provides the storage for a single data table, which all of the
+ *      controllers share, so that reading, navigating and saving a table is
+ *      only written once.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.err.ConflictException;
+import com.pekinsoft.loadmaster.err.DataStoreException;
+import com.pekinsoft.loadmaster.model.AbstractModel;
+import com.pekinsoft.loadmaster.sys.Logger;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.logging.LogRecord;
+
+/**
+ * A `Table` holds the records of one of the data tables, such as `loads.tbl`
+ * or the General Ledger, in memory, together with a record pointer, and saves
+ * the changes made to them through a {@link ChangeLog}. The layout of the rows
+ * is left to the {@link RecordCodec} that the table is given, so the same
+ * class serves every table. The controllers are built on top of a `Table`,
+ * and add to it the searches and indexes that are particular to their own
+ * records.
+ *
+ * When a `Table` is created, its table file is created if it does not exist
+ * yet. If the table has already been read in, the records are shared from the
+ * {@link TableRegistry}. Otherwise, the table file is scanned, and the records
+ * that were read are registered, so that the next `Table` created for the same
+ * file does not need to read it again.
+ *
+ * The record pointer works the same way as it always has for the controllers:
+ * `first`, `next`, `previous` and `last` move it and return the record they
+ * move it to, and `get` returns the record that it is on.
+ *
+ * A save only writes the records that have been added, passed to `update`,
+ * or marked as modified by their own setters (see {@link AbstractModel}), so
+ * saving a table that has not been changed writes nothing at all. The records
+ * tell the table which rows they are in as soon as they are modified, so a
+ * save never has to look through all of the records to find them.
+ *
+ * A table that only ever grows may be split up by date into partitions (see
+ * {@link TablePartitions}). Only the partitions for the current period and
+ * after are read in when such a table is opened. The older partitions are
+ * read in, one at a time, ahead of the records that are already in memory,
+ * when `first` or `previous` moves the record pointer back past the first of
+ * them, or when `loadOlder` or `loadBackTo` is called. The records of a
+ * partitioned table are only counted once they have been read in, and their
+ * rows move down each time an older partition is read in ahead of them.
+ *
+ * Each `Table` has its own list of the records, so the records added by one
+ * controller are not seen by another that already has the table open. When
+ * a `Table` is saved, the records that the other controllers have saved since
+ * it was opened are taken from the registry first, and go in ahead of the
+ * records added here, so that those are added after them. The rows of the
+ * records added here move down when that happens, just as they do when an
+ * older partition is read in, so a controller that keeps records by their
+ * rows can tell from `getMoveCount` when it needs to find them again.
+ *
+ * <dl><dt>Note</dt><dd>A `Table` is not thread-safe. Each controller has its
+ * own, and they only share the records through the registry, which takes a
+ * copy of them each time that they are saved.</dd></dl>
+ *
+ * @param <T> the type of the records in the table.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public class Table<T extends AbstractModel> {
+    //<editor-fold defaultstate="collapsed" desc="Private Static Fields">
+    // The rows modified through their setters in each of the table files that
+    //+ have been read in, shared by every Table that shares their records.
+    private static final ConcurrentHashMap<String, Dirty> DIRTY;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Static Initializer">
+    static {
+        DIRTY = new ConcurrentHashMap<>();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final File file;
+    private final RecordCodec<T> codec;
+
+    // The setting in which the number of records in the table is kept, or
+    //+ null if it is not kept.
+    private final String countProperty;
+
+    // The partitions of the table, or null if it is not partitioned, and the
+    //+ parts of the table that have been read in, oldest first. A table that
+    //+ is not partitioned has just the one part, for its table file.
+    private final TablePartitions partitions;
+    private final ArrayList<Part> parts;
+
+    private final ArrayList<T> records;
+    private int row;
+
+    // The number of rows that have been read in ahead of the rest, from the
+    //+ older partitions, since the table was opened, and the number of times
+    //+ that the rows of the records have moved, for any reason.
+    private int olderRows;
+    private int moves;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Opens the specified table, creating its table file if it does not exist
+     * yet, and reads in its records, unless they have already been read in.
+     *
+     * @param file          the table file.
+     * @param codec         reads and writes the rows of the table.
+     * @param countProperty the name of the setting in which to keep the number
+     *                      of records in the table, such as
+     *                      `table.loads.records`, or `null`.
+     * @throws DataStoreException in the event the table file cannot be
+     *                            created or read.
+     */
+    public Table (File file, RecordCodec<T> codec, String countProperty)
+            throws DataStoreException {
+        this(file, codec, countProperty, -1);
+    }
+
+    /**
+     * Opens the specified table, which may be split up into partitions by the
+     * date in one of the fields of its rows. If the table is partitioned, only
+     * the partitions for the current period and after are read in, unless
+     * they have already been read in. Otherwise, the table is opened just as
+     * it is by the other constructor.
+     *
+     * @param file          the table file.
+     * @param codec         reads and writes the rows of the table.
+     * @param countProperty the name of the setting in which to keep the number
+     *                      of records in the table, such as
+     *                      `table.loads.records`, or `null`.
+     * @param dateField     the index of the field that holds the date that the
+     *                      rows are partitioned by, or `-1` if the table is
+     *                      never partitioned.
+     * @throws DataStoreException in the event the table file, or one of its
+     *                            partitions, cannot be created or read.
+     */
+    public Table (File file, RecordCodec<T> codec, String countProperty,
+            int dateField) throws DataStoreException {
+        this.file = file;
+        this.codec = codec;
+        this.countProperty = countProperty;
+        parts = new ArrayList<>();
+        records = new ArrayList<>();
+        row = 0;
+        olderRows = 0;
+        moves = 0;
+
+        try {
+            partitions = dateField < 0 ? null
+                    : TablePartitions.open(file, dateField);
+        } catch ( IOException ex ) {
+            throw error(ex, "Table", "Unable to open the partitions of "
+                    + file.getName() + ".");
+        }
+
+        if ( partitions == null ) {
+            readPart(null, file);
+        } else {
+            String now = partitions.getCurrentPeriod();
+
+            for ( String period : partitions.getPeriods() ) {
+                if ( period.compareTo(now) >= 0 ) {
+                    readPart(period, partitions.getFile(period));
+                }
+            }
+        }
+
+        storeCount();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Opens a {@link RecordCursor} over the records of a table that match a
+     * filter, without reading the table into memory. If the table has been
+     * partitioned, the cursor runs through all of its partitions, oldest
+     * first.
+     *
+     * @param <T>      the type of the records in the table.
+     * @param file     the table file.
+     * @param codec    reads the rows of the table.
+     * @param filter   the test that a record must pass to be seen by the
+     *                 cursor, or `null` for all of them.
+     * @param pageSize the number of records to read from the disk at a time.
+     * @return the cursor, positioned at the first matching record.
+     * @throws DataStoreException in the event the table cannot be read.
+     */
+    public static <T> RecordCursor<T> openCursor(File file,
+            RecordCodec<T> codec, Predicate<? super T> filter, int pageSize)
+            throws DataStoreException {
+        ArrayList<ChangeLog> logs = new ArrayList<>();
+
+        try {
+            for ( File part : TablePartitions.getFiles(file) ) {
+                logs.add(new ChangeLog(part));
+            }
+        } catch ( IOException ex ) {
+            LogRecord entry = Logger.newRecord(Table.class);
+            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                    + "\nUnable to read the partitions of " + file.getName()
+                    + ".");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("openCursor");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+
+        return new RecordCursor<>(logs, codec::decode, filter, pageSize);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Retrieves the table file.
+     *
+     * @return the table file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Retrieves the record at the record pointer.
+     *
+     * @return the current record, or `null` if the table is empty.
+     */
+    public T get() {
+        return get(row);
+    }
+
+    /**
+     * Retrieves the record in the specified row. The record pointer is not
+     * moved.
+     *
+     * @param idx the row of the record.
+     * @return the record, or `null` if the row is invalid (i.e., less than
+     *         zero or not less than `getRecordCount()`).
+     */
+    public T get(int idx) {
+        return idx < 0 || idx >= records.size() ? null : records.get(idx);
+    }
+
+    /**
+     * Retrieves the number of records in the table.
+     *
+     * @return the number of records.
+     */
+    public int getRecordCount() {
+        return records.size();
+    }
+
+    /**
+     * Retrieves the row that the record pointer is on.
+     *
+     * @return the current row.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Retrieves the current record number, which is one more than the current
+     * row.
+     *
+     * @return the current record number.
+     */
+    public int getCurrentRecordNumber() {
+        return row + 1;
+    }
+
+    /**
+     * Determines whether there is another record after the current one.
+     *
+     * @return `true` if there is at least one more record.
+     */
+    public boolean hasNext() {
+        return row < records.size() - 1;
+    }
+
+    /**
+     * Moves the record pointer to the first record, reading in all of the
+     * older partitions of the table first, if it is partitioned.
+     *
+     * @return the first record.
+     * @throws DataStoreException if the table is empty, or an older partition
+     *                            cannot be read.
+     */
+    public T first() throws DataStoreException {
+        while ( loadOlder() > 0 ) {
+            // Until the oldest partition has been read in.
+        }
+
+        return moveOnto(0);
+    }
+
+    /**
+     * Moves the record pointer to the last record. If none of the records of
+     * a partitioned table have been read in yet, the newest of its older
+     * partitions is read in first.
+     *
+     * @return the last record.
+     * @throws DataStoreException if the table is empty, or an older partition
+     *                            cannot be read.
+     */
+    public T last() throws DataStoreException {
+        if ( records.isEmpty() ) {
+            loadOlder();
+        }
+
+        return moveOnto(records.size() - 1);
+    }
+
+    /**
+     * Moves the record pointer to the next record. If the pointer is already
+     * on the last record, it is left there.
+     *
+     * @return the record now at the record pointer.
+     * @throws DataStoreException if the table is empty.
+     */
+    public T next() throws DataStoreException {
+        return moveOnto(hasNext() ? row + 1 : row);
+    }
+
+    /**
+     * Moves the record pointer to the previous record. If the pointer is
+     * already on the first record that has been read in, the next older
+     * partition of the table is read in, if there is one, and the pointer is
+     * moved onto its last record. Otherwise, it is left where it is.
+     *
+     * @return the record now at the record pointer.
+     * @throws DataStoreException if the table is empty, or an older partition
+     *                            cannot be read.
+     */
+    public T previous() throws DataStoreException {
+        if ( row == 0 || records.isEmpty() ) {
+            loadOlder();
+        }
+
+        return moveOnto(row > 0 ? row - 1 : row);
+    }
+
+    /**
+     * Moves the record pointer to the specified row, such as one found through
+     * an index.
+     *
+     * @param idx the row to move to.
+     * @return the record in that row, or `null` if the row is invalid, in
+     *         which case the record pointer is not moved.
+     */
+    public T moveTo(int idx) {
+        T record = get(idx);
+
+        if ( record != null ) {
+            row = idx;
+        }
+
+        return record;
+    }
+
+    /**
+     * Replaces the record at the record pointer, so that it is written out on
+     * the next save. A record that is already in the table does not need to
+     * be passed to this method once it has been changed, as its setters have
+     * marked it as modified.
+     *
+     * @param record the new record for the current row.
+     */
+    public void update(T record) {
+        records.set(row, record);
+        markUpdated(row);
+    }
+
+    /**
+     * Adds a record to the end of the table, and moves the record pointer to
+     * it.
+     *
+     * @param record the record to add.
+     * @return the row of the new record.
+     */
+    public int addNew(T record) {
+        // Records are only ever added to the newest part, so that none of the
+        //+ rows already in memory move. A new partition is only listed in the
+        //+ manifest once the record has been saved.
+        if ( partitions != null ) {
+            String period = partitions.periodOf(new RecordTokenizer().reset(
+                    codec.encode(record)));
+            Part last = parts.isEmpty() ? null : parts.get(parts.size() - 1);
+            String floor = last == null ? partitions.getCurrentPeriod()
+                    : last.period;
+
+            if ( period == null || period.compareTo(floor) < 0 ) {
+                period = floor;
+            }
+
+            if ( last == null || !period.equals(last.period) ) {
+                Part part = new Part(period, partitions.getFile(period));
+                part.start = records.size();
+                part.listed = false;
+                parts.add(part);
+            }
+        }
+
+        records.add(record);
+        parts.get(parts.size() - 1).size++;
+        row = records.size() - 1;
+        storeCount();
+
+        return row;
+    }
+
+    /**
+     * Determines whether there are older partitions of the table that have
+     * not been read in yet.
+     *
+     * @return `true` if there is at least one more partition to read in.
+     */
+    public boolean hasOlder() {
+        return getOlderPeriod() != null;
+    }
+
+    /**
+     * Reads in the next older partition of the table that has any records in
+     * it, ahead of the records that are already in memory. The record pointer
+     * stays on the same record, so its row moves down by the number of
+     * records read in.
+     *
+     * @return the number of records read in, which is zero (0) if there are
+     *         no older partitions, or the table is not partitioned.
+     * @throws DataStoreException in the event the partition cannot be read.
+     */
+    public int loadOlder() throws DataStoreException {
+        String period = getOlderPeriod();
+        int count = 0;
+
+        while ( period != null && count == 0 ) {
+            count = readOlder(period);
+            period = getOlderPeriod();
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads in all of the older partitions of the table that hold records
+     * dated on or after the specified date. Records are never kept in a
+     * partition older than their date, so this makes sure that all of the
+     * records from that date on are in memory.
+     *
+     * @param date the earliest date wanted.
+     * @return the number of records read in.
+     * @throws DataStoreException in the event a partition cannot be read.
+     */
+    public int loadBackTo(Date date) throws DataStoreException {
+        if ( partitions == null || date == null ) {
+            return 0;
+        }
+
+        String wanted = partitions.periodOf(date);
+        String period = getOlderPeriod();
+        int count = 0;
+
+        while ( period != null && period.compareTo(wanted) >= 0 ) {
+            count += readOlder(period);
+            period = getOlderPeriod();
+        }
+
+        return count;
+    }
+
+    /**
+     * Retrieves the number of records that have been read in from the older
+     * partitions of the table since it was opened. The rows of the records
+     * that were in memory before move down by the number read in each time,
+     * so a controller that keeps records by their rows can tell from this
+     * when it needs to find them again.
+     *
+     * @return the number of records read in from older partitions.
+     */
+    public int getOlderRowCount() {
+        return olderRows;
+    }
+
+    /**
+     * Retrieves the number of times that the rows of the records in memory
+     * have moved since the table was opened, whether because an older
+     * partition was read in ahead of them, or because records saved by
+     * another controller were taken in ahead of the records added here. A
+     * controller that keeps records by their rows needs to find them again
+     * whenever this changes.
+     *
+     * @return the number of times that the rows have moved.
+     */
+    public int getMoveCount() {
+        return moves;
+    }
+
+    /**
+     * Retrieves a copy of all of the records in the table, in row order.
+     *
+     * @return the records.
+     */
+    public ArrayList<T> getList() {
+        return new ArrayList<>(records);
+    }
+
+    /**
+     * Determines whether there are any added or updated records that have not
+     * been saved yet.
+     *
+     * @return `true` if there are unsaved changes.
+     */
+    public boolean hasChanges() {
+        for ( Part part : parts ) {
+            if ( !part.listed || part.changes.hasChanges(part.size)
+                    || !part.dirty.rows.isEmpty() ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Retrieves the rows of the records that have been modified through their
+     * setters since they were last saved, such as for a controller to bring
+     * its indexes up to date before a save.
+     *
+     * @return the rows of the modified records, in row order.
+     */
+    public int[] getModifiedRows() {
+        ArrayList<Integer> modified = new ArrayList<>();
+
+        for ( Part part : parts ) {
+            int stored = part.changes.getStoredRows();
+
+            for ( Integer x : part.dirty.rows ) {
+                if ( x < stored ) {
+                    modified.add(part.start + x);
+                }
+            }
+
+            // The records added since the last save are not tracked yet.
+            for ( int x = stored; x < part.size; x++ ) {
+                if ( records.get(part.start + x).isModified() ) {
+                    modified.add(part.start + x);
+                }
+            }
+        }
+
+        modified.sort(null);
+
+        return modified.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Saves the records that were added or updated since the last save, by
+     * appending them to the change log for the table, and registers the
+     * records, so that the next `Table` for the same file shares them. If the
+     * table has been migrated into the {@link SqlStore}, the same records are
+     * written to the database. If a {@link Transaction} is open on the
+     * current thread, the records are only written once it is committed.
+     *
+     * @return the number of records written.
+     * @throws ConflictException in the event another instance of the
+     *                           application has saved the table since it was
+     *                           read in. The table must be read in again.
+     * @throws DataStoreException in the event the records cannot be written.
+     */
+    public int save() throws DataStoreException {
+        long start = System.nanoTime();
+        int written = 0;
+
+        for ( Part part : parts ) {
+            written += save(part);
+        }
+
+        if ( written > 0 && Starter.logger.isEnabled(Logger.DEBUG) ) {
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage("Saved " + written + " of " + records.size()
+                    + " records to " + file.getName() + " in "
+                    + (System.nanoTime() - start) / 1000000 + " ms.");
+            entry.setSourceMethodName("save");
+            entry.setParameters(null);
+            Starter.logger.debug(entry);
+        }
+
+        return written;
+    }
+
+    /**
+     * Opens a {@link RecordCursor} over the records of this table that match
+     * a filter. The cursor reads the table from the disk, so it only sees the
+     * records as they were last saved.
+     *
+     * @param filter   the test that a record must pass to be seen by the
+     *                 cursor, or `null` for all of them.
+     * @param pageSize the number of records to read from the disk at a time.
+     * @return the cursor, positioned at the first matching record.
+     * @throws DataStoreException in the event the table cannot be read.
+     */
+    public RecordCursor<T> openCursor(Predicate<? super T> filter,
+            int pageSize) throws DataStoreException {
+        return openCursor(file, codec, filter, pageSize);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    // Reads in a part of the table, or takes its records from the registry,
+    //+ and adds them to the end of the records.
+    private void readPart(String period, File partFile)
+            throws DataStoreException {
+        Part part = new Part(period, partFile);
+        part.start = records.size();
+        parts.add(part);
+        records.addAll(read(part));
+        part.size = records.size() - part.start;
+    }
+
+    // Reads in an older partition ahead of the records already in memory.
+    private int readOlder(String period) throws DataStoreException {
+        Part part = new Part(period, partitions.getFile(period));
+        List<T> older = read(part);
+        part.size = older.size();
+
+        for ( Part later : parts ) {
+            later.start += part.size;
+        }
+
+        parts.add(0, part);
+        records.addAll(0, older);
+        row += part.size;
+        olderRows += part.size;
+        moves++;
+        storeCount();
+
+        return part.size;
+    }
+
+    private List<T> read(Part part) throws DataStoreException {
+        boolean created = false;
+
+        if ( !part.file.exists() ) {
+            try {
+                created = part.file.createNewFile();
+            } catch ( IOException ex ) {
+                throw error(ex, "Table", "Unable to create "
+                        + part.file.getName() + ".");
+            }
+        }
+
+        // If the part has already been read in, share the records that are
+        //+ already in memory, instead of reading the table file in again.
+        List<T> shared = TableRegistry.lookup(part.file);
+
+        if ( shared != null ) {
+            part.dirty = DIRTY.computeIfAbsent(part.file.getAbsolutePath(),
+                    (String key) -> new Dirty());
+            part.changes.reset(shared.size());
+
+            return shared;
+        }
+
+        ArrayList<T> read = new ArrayList<>();
+        part.dirty = new Dirty();
+        DIRTY.put(part.file.getAbsolutePath(), part.dirty);
+
+        if ( !created ) {
+            connect(part, read);
+        }
+
+        TableRegistry.publish(part.file, read);
+
+        return read;
+    }
+
+    private void connect(Part part, ArrayList<T> read)
+            throws DataStoreException {
+        long start = System.nanoTime();
+
+        try {
+            // The table is scanned straight out of the table file, so the
+            //+ rows of a binary table never need to be turned into text.
+            part.changes.scan((int x, RecordTokenizer line) -> {
+                T record = codec.decode(line);
+                record.clearModified();
+                record.track(part.dirty, read.size());
+                read.add(record);
+                return true;
+            });
+            part.changes.reset(read.size());
+        } catch ( IOException ex ) {
+            throw error(ex, "connect", "Throwing DataStoreException to "
+                    + "calling method...");
+        }
+
+        if ( Starter.logger.isEnabled(Logger.DEBUG) ) {
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage("Read " + read.size() + " records from "
+                    + part.file.getName() + " in "
+                    + (System.nanoTime() - start) / 1000000 + " ms.");
+            entry.setSourceMethodName("connect");
+            entry.setParameters(null);
+            Starter.logger.debug(entry);
+        }
+    }
+
+    private int save(Part part) throws DataStoreException {
+        SqlStore store = SqlStore.getInstance();
+        SqlTable mirror = store == null ? null
+                : SqlTable.forFile(part.file);
+        ArrayList<Integer> rows = new ArrayList<>();
+        ArrayList<String> lines = new ArrayList<>();
+        int written;
+
+        catchUp(part);
+
+        // Pick up the records that were changed through their setters.
+        for ( Integer x : part.dirty.rows ) {
+            part.dirty.rows.remove(x);
+            part.changes.markUpdated(x);
+        }
+
+        try {
+            // A new partition is listed before anything is written to it.
+            if ( !part.listed ) {
+                partitions.add(part.period);
+                part.listed = true;
+            }
+
+            written = part.changes.commit(part.size, (int x) -> {
+                T record = records.get(part.start + x);
+                String line = codec.encode(record);
+                record.clearModified();
+                record.track(part.dirty, x);
+
+                // Keep the rows, to write them to the database as well.
+                if ( mirror != null ) {
+                    rows.add(x);
+                    lines.add(line);
+                }
+
+                return line;
+            });
+        } catch ( ConflictException ex ) {
+            // The records held here are out of date, so the other
+            //+ controllers must not be handed them either.
+            TableRegistry.invalidate(file);
+
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage(ex.getMessage());
+            entry.setThrown(ex);
+            entry.setSourceMethodName("save");
+            entry.setParameters(null);
+            Starter.logger.warning(entry);
+
+            throw ex;
+        } catch ( IOException ex ) {
+            throw error(ex, "save", "Throwing DataStoreException to calling "
+                    + "method...");
+        }
+
+        TableRegistry.publish(part.file, records.subList(part.start,
+                part.start + part.size));
+
+        if ( mirror != null && !rows.isEmpty() ) {
+            // Within a transaction, the rows only go to the database once
+            //+ they have been committed to the table file.
+            Transaction.afterCommit(() -> store.write(mirror, rows.stream()
+                    .mapToInt(Integer::intValue).toArray(),
+                    lines.toArray(new String[0])));
+        }
+
+        return written;
+    }
+
+    // Takes in the records that other controllers have saved to the part
+    //+ since this one read it, from the registry, ahead of the records added
+    //+ here that have not been saved yet, so that those are added after them.
+    private void catchUp(Part part) {
+        List<T> latest = TableRegistry.lookup(part.file);
+        int stored = part.changes.getStoredRows();
+
+        if ( latest == null || latest.size() <= stored ) {
+            return;
+        }
+
+        List<T> added = latest.subList(stored, latest.size());
+        int at = part.start + stored;
+
+        // The record pointer stays on the same record.
+        if ( row >= at && row < records.size() ) {
+            row += added.size();
+        }
+
+        records.addAll(at, added);
+        part.size += added.size();
+
+        for ( Part later : parts ) {
+            if ( later.start > part.start ) {
+                later.start += added.size();
+            }
+        }
+
+        part.changes.catchUp(latest.size());
+        moves++;
+        storeCount();
+    }
+
+    private void markUpdated(int idx) {
+        for ( Part part : parts ) {
+            if ( idx < part.start + part.size ) {
+                int x = idx - part.start;
+                part.changes.markUpdated(x);
+
+                // A record put in place of a saved one takes over its row.
+                if ( x < part.changes.getStoredRows() ) {
+                    records.get(idx).track(part.dirty, x);
+                }
+
+                return;
+            }
+        }
+    }
+
+    // The period of the next older partition to be read in, or null.
+    private String getOlderPeriod() {
+        if ( partitions == null ) {
+            return null;
+        }
+
+        // With nothing read in yet, every partition is older than the current
+        //+ period, so the newest of them is next.
+        String oldest = parts.isEmpty() ? null : parts.get(0).period;
+        String older = null;
+
+        for ( String period : partitions.getPeriods() ) {
+            if ( oldest != null && period.compareTo(oldest) >= 0 ) {
+                break;
+            }
+
+            older = period;
+        }
+
+        return older;
+    }
+
+    private T moveOnto(int idx) throws DataStoreException {
+        if ( idx < 0 || idx >= records.size() ) {
+            throw new DataStoreException("There are no records in "
+                    + file.getName() + ".");
+        }
+
+        row = idx;
+
+        return records.get(row);
+    }
+
+    private void storeCount() {
+        if ( countProperty != null ) {
+            Starter.props.setPropertyAsInt(countProperty, records.size());
+        }
+    }
+
+    private DataStoreException error(IOException ex, String method,
+            String message) {
+        LogRecord entry = Logger.newRecord(getClass());
+        entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                + "\n" + message);
+        entry.setThrown(ex);
+        entry.setSourceMethodName(method);
+        entry.setParameters(null);
+        Starter.logger.error(entry);
+
+        return new DataStoreException(ex.getMessage(), ex);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Classes">
+    // A part of the table that has been read in: either one partition, or the
+    //+ whole table file, if the table is not partitioned.
+    private static class Part {
+        final String period;
+        final File file;
+        final ChangeLog changes;
+
+        // The row of its first record, and the number of its records.
+        int start;
+        int size;
+
+        // Whether the partition is listed in the manifest yet.
+        boolean listed;
+
+        // The rows of the part modified through their setters.
+        Dirty dirty;
+
+        Part (String period, File file) {
+            this.period = period;
+            this.file = file;
+            changes = new ChangeLog(file);
+            listed = true;
+        }
+    }
+
+    // The rows of a part of the table whose records have been modified
+    //+ through their setters since they were last saved.
+    private static class Dirty implements AbstractModel.Tracker {
+        final Set<Integer> rows = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void modified(int row) {
+            rows.add(row);
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TableArchive
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Moves the records of a data table that are no longer worked with into
+ *      compressed archive files, so that they are no longer read in or saved
+ *      along with the rest of the table.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.sys.Logger;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.logging.LogRecord;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The `TableArchive` class keeps the records of a data table that are no
+ * longer worked with, such as the loads that have been completed or
+ * cancelled, out of the table itself. The records are moved out of the table
+ * by `archive`, and into a new segment of the archive, so the table that is
+ * left only holds the records that are still in use, and reading it in and
+ * saving it no longer costs more with every record ever added to it.
+ *
+ * Each segment is a GZIP-compressed file of record lines, in the same
+ * tilde-delimited form as a table file, named for the table file with `.arc`
+ * and the number of the segment added to it, such as `loads.tbl.arc.1`. A new
+ * segment is written every time that records are archived, and segments are
+ * never changed once they have been written. The records in the archive are
+ * only read by `scan`, which reads through the segments in the order that they
+ * were written.
+ *
+ * The records that pass the test are written to the new segment, and the
+ * segment is forced to disk, before the table is rewritten without them, so a
+ * crash part way through never loses a record, though it may leave some of
+ * them in both the archive and the table. If the table has been split up into
+ * {@link TablePartitions}, the records are archived out of every partition.
+ *
+ * <dl><dt>Note</dt><dd>The rows of a table move once records have been
+ * archived out of it, so any copy of the table that is still in memory can no
+ * longer be saved, and must be read in again. Records are not archived while
+ * the {@link SqlStore} is set up, as its rows are keyed by their row in the
+ * table file.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class TableArchive {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The extension added to the table file name, ahead of the number of the
+     * segment, for the archive segment files.
+     */
+    public static final String EXTENSION = ".arc";
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final File table;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates a `TableArchive` for the specified table file.
+     *
+     * @param table the table file whose records are archived.
+     */
+    public TableArchive (File table) {
+        this.table = table;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Retrieves the segment files of the archive, in the order that they were
+     * written.
+     *
+     * @return the segment files, or an empty list if nothing has been archived
+     *         out of the table yet.
+     */
+    public List<File> getSegments() {
+        String prefix = table.getName() + EXTENSION + ".";
+        File[] files = table.getAbsoluteFile().getParentFile().listFiles(
+                (File dir, String name) -> name.startsWith(prefix)
+                        && name.substring(prefix.length()).matches("\\d+"));
+        ArrayList<File> segments = new ArrayList<>();
+
+        if ( files != null ) {
+            for ( File file : files ) {
+                segments.add(file);
+            }
+        }
+
+        segments.sort(Comparator.comparingInt(this::numberOf));
+
+        return segments;
+    }
+
+    /**
+     * Moves the records of the table that pass a test out of the table, and
+     * into a new segment of the archive. If none of the records pass, nothing
+     * is written.
+     *
+     * @param test the test that a record must pass to be archived. It is given
+     *             a tokenizer positioned at the first field of the row.
+     * @return the number of records archived.
+     * @throws IOException in the event the table cannot be read or rewritten,
+     *                     or the segment cannot be written.
+     */
+    public int archive(Predicate<RecordTokenizer> test) throws IOException {
+        if ( SqlStore.isConfigured() ) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        int count = 0;
+
+        for ( File file : TablePartitions.getFiles(table) ) {
+            if ( file.exists() ) {
+                count += new ChangeLog(file).archive(test, this);
+            }
+        }
+
+        // Every copy of the table that is in memory is now out of date.
+        TableRegistry.invalidate(table);
+
+        if ( count > 0 ) {
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage("Archived " + count + " rows of "
+                    + table.getName() + " in "
+                    + (System.nanoTime() - start) / 1000000 + " ms.");
+            entry.setSourceMethodName("archive");
+            entry.setParameters(null);
+            Starter.logger.info(entry);
+        }
+
+        return count;
+    }
+
+    /**
+     * Scans all of the records in the archive, oldest segment first. This is
+     * the way to find a record that is no longer in the table.
+     *
+     * @param visitor the visitor to hand each row to.
+     * @return the number of rows visited.
+     * @throws IOException in the event a segment cannot be read.
+     */
+    public int scan(ChangeLog.RowVisitor visitor) throws IOException {
+        RecordTokenizer record = new RecordTokenizer();
+        int row = 0;
+
+        for ( File segment : getSegments() ) {
+            try ( BufferedReader in = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new FileInputStream(segment)),
+                    Charset.defaultCharset())) ) {
+                String line = in.readLine();
+
+                while ( line != null ) {
+                    if ( !visitor.visit(row++, record.reset(line)) ) {
+                        return row;
+                    }
+
+                    line = in.readLine();
+                }
+            }
+        }
+
+        return row;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Instance Methods">
+    // Writes the archived rows to a new segment, numbered one past the last,
+    //+ and forces it to disk. The segment only takes its name once it has
+    //+ been written in full.
+    void write(List<String> lines) throws IOException {
+        synchronized ( TableArchive.class ) {
+            List<File> segments = getSegments();
+            int number = segments.isEmpty() ? 1
+                    : numberOf(segments.get(segments.size() - 1)) + 1;
+            File segment = new File(table.getPath() + EXTENSION + "."
+                    + number);
+            File tmp = new File(segment.getPath() + ".tmp");
+
+            try ( FileOutputStream fos = new FileOutputStream(tmp);
+                    GZIPOutputStream gzip = new GZIPOutputStream(fos);
+                    BufferedWriter out = new BufferedWriter(
+                            new OutputStreamWriter(gzip,
+                                    Charset.defaultCharset())) ) {
+                for ( String line : lines ) {
+                    out.write(line);
+                    out.write('\n');
+                }
+
+                out.flush();
+                gzip.finish();
+                fos.getFD().sync();
+            }
+
+            Files.move(tmp.toPath(), segment.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private int numberOf(File segment) {
+        String name = segment.getName();
+
+        return Integer.parseInt(name.substring(name.lastIndexOf('.') + 1));
+    }
+    //</editor-fold>
+
+}
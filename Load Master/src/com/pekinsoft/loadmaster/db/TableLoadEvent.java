@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TableLoadEvent
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Describes how a `TableLoader` finished reading in its tables.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import java.util.EventObject;
+
+/**
+ * The event that is sent to each {@link TableLoadListener} once a
+ * {@link TableLoader} has finished. The event tells how many of the tables
+ * were read in, and whether the load was cancelled or ran into an error.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public class TableLoadEvent extends EventObject {
+
+    private static final long serialVersionUID = -4333261785558750083L;
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final int tablesLoaded;
+    private final int tableCount;
+    private final boolean cancelled;
+    private final Throwable error;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates a new `TableLoadEvent`.
+     *
+     * @param source       the `TableLoader` that finished.
+     * @param tablesLoaded the number of tables that were read in.
+     * @param tableCount   the number of tables that were to be read in.
+     * @param cancelled    whether the load was cancelled.
+     * @param error        the first error that occurred, or `null` if none.
+     */
+    public TableLoadEvent (TableLoader source, int tablesLoaded, int tableCount,
+            boolean cancelled, Throwable error) {
+        super(source);
+
+        this.tablesLoaded = tablesLoaded;
+        this.tableCount = tableCount;
+        this.cancelled = cancelled;
+        this.error = error;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Retrieves the `TableLoader` that finished.
+     *
+     * @return the source of this event.
+     */
+    @Override
+    public TableLoader getSource() {
+        return (TableLoader) super.getSource();
+    }
+
+    /**
+     * Retrieves the number of tables that were read in, and are now held in
+     * the {@link TableRegistry}.
+     *
+     * @return the number of tables read in.
+     */
+    public int getTablesLoaded() {
+        return tablesLoaded;
+    }
+
+    /**
+     * Retrieves the number of tables the loader was asked to read in.
+     *
+     * @return the number of tables to be read in.
+     */
+    public int getTableCount() {
+        return tableCount;
+    }
+
+    /**
+     * Determines whether the load was cancelled before it could finish.
+     *
+     * @return `true` if the load was cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Retrieves the first error that occurred while reading in the tables.
+     * The tables that did not fail are still read in.
+     *
+     * @return the first error, or `null` if there were no errors.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Determines whether every table was read in without error.
+     *
+     * @return `true` if all of the tables were read in.
+     */
+    public boolean isSuccessful() {
+        return !cancelled && error == null && tablesLoaded == tableCount;
+    }
+    //</editor-fold>
+
+}
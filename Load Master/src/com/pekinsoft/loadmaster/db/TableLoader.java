@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TableLoader
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Reads the data tables in on a background thread, so that the window is
+ *      not frozen while they load.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.err.DataStoreException;
+import com.pekinsoft.loadmaster.utils.MessageBox;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.event.EventListenerList;
+
+/**
+ * The `TableLoader` reads the data tables in on a background thread, instead
+ * of on the Event Dispatching Thread (EDT). Each table is read in by creating
+ * its controller, which registers the records in the {@link TableRegistry}.
+ * The controllers that the windows create after that simply take their records
+ * from the registry, so they open straight away.
+ *
+ * The progress of the load is measured by the number of bytes that have been
+ * read from the table and change log files, out of the total size of those
+ * files, and is published through the standard `progress` bound property of
+ * the `SwingWorker`, as a percentage. The `SwingWorker` coalesces the progress
+ * changes, so listeners are only told about them as often as the EDT can keep
+ * up with them.
+ *
+ * The load can be cancelled at any time by calling `cancel`. The table being
+ * read when the load is cancelled is abandoned part way through, and is not
+ * registered, so it is read in again the next time a controller is created
+ * for it.
+ *
+ * Once the load has finished, whether it completed, failed or was cancelled,
+ * a {@link TableLoadEvent} is sent to each {@link TableLoadListener} on the
+ * EDT.
+ *
+ * The controllers report the records that they cannot make sense of through
+ * `reportError`, instead of showing them to the user themselves, as the
+ * user cannot be shown anything from the background thread. The errors are
+ * held until the load has finished, and are then shown to the user on the
+ * EDT.
+ *
+ * <dl><dt>Note</dt><dd>The tables are read in the order in which they were
+ * added, so tables that other tables depend upon (such as `stops.tbl`, which
+ * `loads.tbl` uses) should be added first.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public class TableLoader extends SwingWorker<Void, Void> {
+    //<editor-fold defaultstate="collapsed" desc="Public Interfaces">
+    /**
+     * Reads a table in, typically by creating the controller for that table.
+     * A constructor reference, such as `StopCtl::new`, is all that is needed.
+     */
+    @FunctionalInterface
+    public interface Opener {
+        /**
+         * Reads the table in.
+         *
+         * @throws DataStoreException in the event the table cannot be read.
+         */
+        void open() throws DataStoreException;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    // The loader that is reading tables in on the current thread, if any.
+    private static final ThreadLocal<TableLoader> CURRENT = new ThreadLocal<>();
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final LinkedHashMap<File, Opener> tables;
+    private final EventListenerList listeners;
+
+    // Only used on the background thread.
+    private long totalBytes;
+    private long bytesRead;
+
+    private volatile int tablesLoaded;
+
+    // Added to on the background thread, and shown to the user on the EDT,
+    //+ once the load has finished. Guarded by itself.
+    private final ArrayList<Exception> recordErrors;
+    private final ArrayList<String> recordTitles;
+
+    // Only used on the EDT. Set once the load has finished.
+    private TableLoadEvent finished;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates a `TableLoader` with no tables to be read in.
+     */
+    public TableLoader () {
+        tables = new LinkedHashMap<>();
+        listeners = new EventListenerList();
+        totalBytes = 0;
+        bytesRead = 0;
+        tablesLoaded = 0;
+        recordErrors = new ArrayList<>();
+        recordTitles = new ArrayList<>();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Shows the user an error found in a record while its table was being read
+     * in, or any other error found off of the EDT, such as a save written by
+     * the {@link SaveScheduler} that could not be. If a table is being read in
+     * by a `TableLoader` on the current thread, the error is held until the
+     * load has finished, and is shown then. Otherwise, it is shown straight
+     * away, on the EDT. The error should already have been logged.
+     *
+     * @param ex    the error that was found.
+     * @param title the title of the message box.
+     */
+    public static void reportError(Exception ex, String title) {
+        TableLoader loader = CURRENT.get();
+
+        if ( loader != null ) {
+            synchronized ( loader.recordErrors ) {
+                loader.recordErrors.add(ex);
+                loader.recordTitles.add(title);
+            }
+        } else if ( SwingUtilities.isEventDispatchThread() ) {
+            MessageBox.showError(ex, title);
+        } else {
+            SwingUtilities.invokeLater(() -> MessageBox.showError(ex, title));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Adds a table to be read in. Tables may only be added before the loader
+     * is started.
+     *
+     * @param table  the table file, used to measure the progress of the load.
+     * @param opener reads the table in.
+     * @throws IllegalStateException if the loader has already been started.
+     */
+    public void addTable(File table, Opener opener) {
+        if ( getState() != StateValue.PENDING ) {
+            throw new IllegalStateException("Tables cannot be added once the "
+                    + "TableLoader has been started.");
+        }
+
+        tables.put(table, opener);
+    }
+
+    /**
+     * Adds a listener to be told when the load has finished. If the load has
+     * already finished, the listener is told straight away. This method must
+     * be called on the EDT.
+     *
+     * @param listener the listener to add.
+     */
+    public void addTableLoadListener(TableLoadListener listener) {
+        listeners.add(TableLoadListener.class, listener);
+
+        if ( finished != null ) {
+            listener.tablesLoaded(finished);
+        }
+    }
+
+    /**
+     * Removes a listener that was added with `addTableLoadListener`.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeTableLoadListener(TableLoadListener listener) {
+        listeners.remove(TableLoadListener.class, listener);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Protected Instance Methods">
+    @Override
+    protected Void doInBackground() throws Exception {
+        for ( File table : tables.keySet() ) {
+            totalBytes += sizeOf(table);
+        }
+
+        DataStoreException error = null;
+        long bytesDone = 0;
+
+        ChangeLog.setProgress(this::bytesRead);
+        CURRENT.set(this);
+
+        try {
+            for ( Map.Entry<File, Opener> table : tables.entrySet() ) {
+                if ( isCancelled() ) {
+                    break;
+                }
+
+                try {
+                    table.getValue().open();
+                    tablesLoaded++;
+                } catch ( DataStoreException ex ) {
+                    if ( isCancelled() ) {
+                        break;
+                    }
+
+                    // Keep going, so that the other tables are still read in,
+                    //+ but hold on to the first error for the listeners.
+                    if ( error == null ) {
+                        error = ex;
+                    }
+                }
+
+                // The table may have been in the registry already, so it was
+                //+ never read. Either way, it is done, so bring the progress
+                //+ up to the end of this table.
+                bytesDone += sizeOf(table.getKey());
+                bytesRead = bytesDone;
+                updateProgress();
+            }
+        } finally {
+            ChangeLog.setProgress(null);
+            CURRENT.remove();
+        }
+
+        if ( error != null ) {
+            throw error;
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void done() {
+        Throwable error = null;
+
+        if ( !isCancelled() ) {
+            try {
+                get();
+            } catch ( ExecutionException ex ) {
+                error = ex.getCause();
+            } catch ( InterruptedException ex ) {
+                // Cannot happen, as the work is already done.
+                error = ex;
+            }
+        }
+
+        finished = new TableLoadEvent(this, tablesLoaded, tables.size(),
+                isCancelled(), error);
+
+        for ( TableLoadListener l
+                : listeners.getListeners(TableLoadListener.class) ) {
+            l.tablesLoaded(finished);
+        }
+
+        showRecordErrors();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    // A table with one bad record often has many, so only the first is shown
+    //+ in full. They have all been logged by the controllers.
+    private void showRecordErrors() {
+        synchronized ( recordErrors ) {
+            if ( recordErrors.isEmpty() ) {
+                return;
+            }
+
+            MessageBox.showError(recordErrors.get(0), recordTitles.get(0));
+
+            if ( recordErrors.size() > 1 ) {
+                MessageBox.showWarning((recordErrors.size() - 1) + " more "
+                        + "errors were found in the records that were read "
+                        + "in. They have been written to the log.",
+                        recordTitles.get(0));
+            }
+
+            recordErrors.clear();
+            recordTitles.clear();
+        }
+    }
+
+    private void bytesRead(long count) throws InterruptedIOException {
+        if ( isCancelled() ) {
+            throw new InterruptedIOException("Loading of the tables was "
+                    + "cancelled.");
+        }
+
+        bytesRead += count;
+        updateProgress();
+    }
+
+    private void updateProgress() {
+        if ( totalBytes > 0 ) {
+            // setProgress only fires when the percentage actually changes.
+            setProgress((int) Math.min(100, bytesRead * 100 / totalBytes));
+        }
+    }
+
+    // Only the files that are read in when the table is opened count.
+    private long sizeOf(File table) {
+        long size = 0;
+
+        try {
+            for ( File file : TablePartitions.getCurrentFiles(table) ) {
+                size += file.length() + new File(file.getPath()
+                        + ChangeLog.EXTENSION).length();
+            }
+        } catch ( IOException ex ) {
+            // The manifest is read again when the table is opened, and the
+            //+ error is reported then.
+        }
+
+        return size;
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TablePartitions
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Splits a data table that only ever grows into one table file for each
+ *      year or month, listed in a small manifest, so that opening the table
+ *      only costs the current period.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.sys.Logger;
+import com.pekinsoft.loadmaster.utils.DateUtils;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.logging.LogRecord;
+
+/**
+ * The `TablePartitions` class keeps the records of a data table that only
+ * ever grows, such as `loads.tbl` or the General Ledger, in one table file for
+ * each year or month, by the date in one of the fields of its rows (the
+ * dispatch date of a load, or the date of a journal entry). Each partition is
+ * an ordinary table file, with its own change log, named for the table file
+ * with the period added to it, such as `loads.tbl.2026` or `0.ldgr.2026-10`.
+ *
+ * The partitions of a table are listed in its manifest (the table file name
+ * with a `.parts` extension added to it). The first line of the manifest is
+ * the size of the periods, `year` or `month`, and each line after that is
+ * one of the periods, oldest first. A {@link Table} reads in the partition
+ * of the current period, and any after it, when it is opened, and only reads
+ * the older partitions in when the record pointer is moved back onto them.
+ *
+ * A table is partitioned by the `table.partition` setting, which is `year`,
+ * `month`, or `none` (the default). The first time that a partitioned table is
+ * opened, its table file is split up into its partitions, and is removed once
+ * the manifest has been written. A table that has been split up stays that way,
+ * whatever the setting is changed to afterwards, and keeps the size of period
+ * it was split up with.
+ *
+ * <dl><dt>Note</dt><dd>The rows of the {@link SqlStore} are keyed by their row
+ * in the table file, so the tables are not partitioned while a database is set
+ * up, and a table that has already been partitioned cannot be migrated into
+ * the database.</dd></dl>
+ *
+ * <dl><dt>Developer's Note</dt><dd>A record stays in the partition that it was
+ * first saved to, even if its date is changed later on. A new record whose
+ * date falls before the newest partition is saved to the newest partition, so
+ * that records are only ever added to the end of the table, and the rows of
+ * the records that are already in memory never move.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class TablePartitions {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The extension added to the table file name for the manifest file.
+     */
+    public static final String EXTENSION = ".parts";
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final String YEAR = "year";
+    private static final String MONTH = "month";
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final File table;
+    private final File manifest;
+    private final int dateField;
+    private final String unit;
+
+    // The periods that have a partition, oldest first.
+    private final ArrayList<String> periods;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    private TablePartitions (File table, int dateField, String unit,
+            List<String> periods) {
+        this.table = table;
+        this.manifest = new File(table.getPath() + EXTENSION);
+        this.dateField = dateField;
+        this.unit = unit;
+        this.periods = new ArrayList<>(periods);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Opens the partitions of a table. If the table has not been partitioned
+     * yet, and the `table.partition` setting asks for it to be, its table file
+     * is split up into its partitions first.
+     *
+     * @param table     the table file.
+     * @param dateField the index of the field of each row that holds the date
+     *                  that the row is partitioned by.
+     * @return the partitions of the table, or `null` if the table is not
+     *         partitioned.
+     * @throws IOException in the event the manifest cannot be read, or the
+     *                     table cannot be split up.
+     */
+    public static TablePartitions open(File table, int dateField)
+            throws IOException {
+        synchronized ( TablePartitions.class ) {
+            File manifest = new File(table.getPath() + EXTENSION);
+
+            if ( manifest.exists() ) {
+                List<String> lines = Files.readAllLines(manifest.toPath(),
+                        Charset.defaultCharset());
+
+                return new TablePartitions(table, dateField, lines.get(0),
+                        lines.subList(1, lines.size()));
+            }
+
+            String unit = getUnit();
+
+            if ( unit == null ) {
+                return null;
+            }
+
+            TablePartitions partitions = new TablePartitions(table,
+                    dateField, unit, Collections.emptyList());
+            partitions.split();
+
+            return partitions;
+        }
+    }
+
+    /**
+     * Determines whether a table has been split up into partitions.
+     *
+     * @param table the table file.
+     * @return `true` if the table has a manifest.
+     */
+    public static boolean isPartitioned(File table) {
+        return new File(table.getPath() + EXTENSION).exists();
+    }
+
+    /**
+     * Retrieves all of the files that the records of a table are kept in,
+     * oldest first. This is the way to read through the whole of a table that
+     * may have been partitioned.
+     *
+     * @param table the table file.
+     * @return the partition files, or just the table file itself if the table
+     *         is not partitioned.
+     * @throws IOException in the event the manifest cannot be read.
+     */
+    public static List<File> getFiles(File table) throws IOException {
+        return getFiles(table, false);
+    }
+
+    /**
+     * Retrieves the files that are read in when a table is opened: the
+     * partitions for the current period and after, or the table file itself
+     * if the table is not partitioned.
+     *
+     * @param table the table file.
+     * @return the files that are read when the table is opened.
+     * @throws IOException in the event the manifest cannot be read.
+     */
+    public static List<File> getCurrentFiles(File table) throws IOException {
+        return getFiles(table, true);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Retrieves the periods that have a partition, oldest first.
+     *
+     * @return the periods, such as `2025` and `2026`, or `2026-09` and
+     *         `2026-10`.
+     */
+    public List<String> getPeriods() {
+        return Collections.unmodifiableList(periods);
+    }
+
+    /**
+     * Retrieves the partition file for a period.
+     *
+     * @param period the period.
+     * @return the partition file.
+     */
+    public File getFile(String period) {
+        return new File(table.getPath() + "." + period);
+    }
+
+    /**
+     * Retrieves the period that today falls in. The partitions for it, and
+     * for any period after it, are read in when the table is opened.
+     *
+     * @return the current period.
+     */
+    public String getCurrentPeriod() {
+        return periodOf(new Date());
+    }
+
+    /**
+     * Works out the period that a date falls in.
+     *
+     * @param date the date.
+     * @return the period, or `null` if `date` is `null`.
+     */
+    public String periodOf(Date date) {
+        if ( date == null ) {
+            return null;
+        }
+
+        return DateUtils.format(date, MONTH.equals(unit) ? "yyyy-MM" : "yyyy");
+    }
+
+    /**
+     * Works out the period of a row of the table, from its date field.
+     *
+     * @param record a tokenizer positioned at the first field of the row.
+     * @return the period, or `null` if the row has no date, or its date
+     *         cannot be read.
+     */
+    public String periodOf(RecordTokenizer record) {
+        try {
+            for ( int x = 0; x < dateField; x++ ) {
+                record.skip();
+            }
+
+            return periodOf(record.nextDate());
+        } catch ( ParseException | RuntimeException ex ) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds a partition for a new period to the table, creating its empty
+     * partition file and listing it in the manifest. If there already is a
+     * partition for that period, nothing is changed.
+     *
+     * @param period the new period.
+     * @throws IOException in the event the partition file or the manifest
+     *                     cannot be written.
+     */
+    public void add(String period) throws IOException {
+        synchronized ( TablePartitions.class ) {
+            // Another controller may have added partitions since this one
+            //+ read the manifest.
+            if ( manifest.exists() ) {
+                List<String> lines = Files.readAllLines(manifest.toPath(),
+                        Charset.defaultCharset());
+                merge(lines.subList(1, lines.size()));
+            }
+
+            if ( periods.contains(period) ) {
+                return;
+            }
+
+            getFile(period).createNewFile();
+
+            periods.add(period);
+            Collections.sort(periods);
+            writeManifest();
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    // The size of the periods that the setting asks for, or null for none.
+    private static String getUnit() {
+        if ( SqlStore.isConfigured() ) {
+            return null;
+        }
+
+        String unit = Starter.props.getProperty("table.partition", "none")
+                .trim().toLowerCase();
+
+        return YEAR.equals(unit) || MONTH.equals(unit) ? unit : null;
+    }
+
+    private static List<File> getFiles(File table, boolean current)
+            throws IOException {
+        File manifest = new File(table.getPath() + EXTENSION);
+        ArrayList<File> files = new ArrayList<>();
+
+        if ( !manifest.exists() ) {
+            files.add(table);
+
+            return files;
+        }
+
+        List<String> lines = Files.readAllLines(manifest.toPath(),
+                Charset.defaultCharset());
+        TablePartitions partitions = new TablePartitions(table, -1,
+                lines.get(0), lines.subList(1, lines.size()));
+        String now = partitions.getCurrentPeriod();
+
+        for ( String period : partitions.periods ) {
+            if ( !current || period.compareTo(now) >= 0 ) {
+                files.add(partitions.getFile(period));
+            }
+        }
+
+        return files;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private String newest() {
+        return periods.get(periods.size() - 1);
+    }
+
+    private void merge(List<String> more) {
+        for ( String period : more ) {
+            if ( !periods.contains(period) ) {
+                periods.add(period);
+            }
+        }
+
+        Collections.sort(periods);
+    }
+
+    // Splits the table file up into its partitions. The partitions are all
+    //+ written before the manifest, and the table file is only removed once
+    //+ the manifest is in place, so a crash part way through just means that
+    //+ the table is split up again on the next open. The table is locked
+    //+ exclusively the whole way through, so that another instance of the
+    //+ application can neither save to the table while it is being split up,
+    //+ nor split it up at the same time.
+    private void split() throws IOException {
+        long start = System.nanoTime();
+        TreeMap<String, ArrayList<String>> split = new TreeMap<>();
+        String[] last = { getCurrentPeriod() };
+        ChangeLog changes = new ChangeLog(table);
+
+        changes.change(() -> {
+            // Another instance may have split the table up while this one
+            //+ waited for the lock.
+            if ( manifest.exists() ) {
+                List<String> lines = Files.readAllLines(manifest.toPath(),
+                        Charset.defaultCharset());
+                merge(lines.subList(1, lines.size()));
+
+                return false;
+            }
+
+            if ( table.exists() ) {
+                changes.scan((int x, RecordTokenizer record) -> {
+                    String line = record.toString();
+                    String period = periodOf(record);
+
+                    // A row without a date goes in with the row before it.
+                    if ( period != null ) {
+                        last[0] = period;
+                    }
+
+                    split.computeIfAbsent(last[0],
+                            (String p) -> new ArrayList<>()).add(line);
+
+                    return true;
+                });
+            }
+
+            int rows = 0;
+
+            for ( String period : split.keySet() ) {
+                write(getFile(period), split.get(period));
+                rows += split.get(period).size();
+            }
+
+            periods.addAll(split.keySet());
+            writeManifest();
+
+            TableRegistry.invalidate(table);
+            Files.deleteIfExists(table.toPath());
+            Files.deleteIfExists(new File(table.getPath()
+                    + ChangeLog.EXTENSION).toPath());
+
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage("Split " + rows + " rows of " + table.getName()
+                    + " into " + split.size() + " partitions by " + unit
+                    + " in " + (System.nanoTime() - start) / 1000000
+                    + " ms.");
+            entry.setSourceMethodName("split");
+            entry.setParameters(null);
+            Starter.logger.info(entry);
+
+            return true;
+        });
+    }
+
+    private void writeManifest() throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add(unit);
+        lines.addAll(periods);
+
+        File tmp = new File(manifest.getPath() + ".tmp");
+        write(tmp, lines);
+
+        Files.move(tmp.toPath(), manifest.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void write(File file, List<String> lines)
+            throws IOException {
+        try ( FileOutputStream fos = new FileOutputStream(file);
+                BufferedWriter out = new BufferedWriter(
+                        new OutputStreamWriter(fos,
+                                Charset.defaultCharset())) ) {
+            for ( String line : lines ) {
+                out.write(line);
+                out.write('\n');
+            }
+
+            out.flush();
+            fos.getFD().sync();
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TableRegistry
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Holds the records of each data table in memory, once they have been
+ *      read in, so that they are shared by all of the controllers for that
+ *      table.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The `TableRegistry` is the process-wide store of the records that have been
+ * read in from each of the data tables. The first controller to be created for
+ * a table reads the table file in and registers its records here. Every
+ * controller that is created for that table after that simply takes its
+ * records from the registry, which only costs the copying of the references to
+ * the records, instead of reading and parsing the entire table file again.
+ *
+ * The records are held as an unmodifiable snapshot. A controller works on its
+ * own copy of the list, so that records that it adds are not seen by any other
+ * controller until they have been saved. Before a controller saves its
+ * changes, it takes in the records that the other controllers have added to
+ * the snapshot since it took its copy, ahead of its own new records, and once
+ * it has saved them, it publishes its records as the new snapshot for its
+ * table.
+ *
+ * <dl><dt>Note</dt><dd>The record objects themselves are shared between the
+ * controllers, just as they are shared between the windows that display them.
+ * Changes made to a record should always be saved through its controller, so
+ * that the table file and the registry stay the same.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class TableRegistry {
+    //<editor-fold defaultstate="collapsed" desc="Private Static Fields">
+    private static final ConcurrentHashMap<String, List<?>> TABLES;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Static Initializer">
+    static {
+        TABLES = new ConcurrentHashMap<>();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    private TableRegistry () {
+        // Only static methods, so no need to construct.
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Retrieves the records that are currently registered for the specified
+     * table file.
+     *
+     * @param <T>   the type of model stored in the table.
+     * @param table the table file.
+     * @return an unmodifiable list of the records for the table, or `null` if
+     *         the table has not been read in yet, or has been invalidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> lookup(File table) {
+        return (List<T>) TABLES.get(key(table));
+    }
+
+    /**
+     * Registers the records for the specified table file, replacing any that
+     * were registered before. A copy is taken of the list, so the caller is
+     * free to go on changing its own list.
+     *
+     * @param <T>     the type of model stored in the table.
+     * @param table   the table file.
+     * @param records the records that are now stored in the table.
+     */
+    public static <T> void publish(File table, List<T> records) {
+        TABLES.put(key(table),
+                Collections.unmodifiableList(new ArrayList<>(records)));
+    }
+
+    /**
+     * Removes the records for the specified table file from the registry, so
+     * that the next controller created for the table reads the table file in
+     * again. The records of all of the partitions of the table (see
+     * {@link TablePartitions}) are removed along with them.
+     *
+     * @param table the table file, or one of its partitions.
+     */
+    public static void invalidate(File table) {
+        String key = key(table);
+
+        TABLES.remove(key);
+        TABLES.keySet().removeIf((String k) -> k.startsWith(key + "."));
+    }
+
+    /**
+     * Removes the records for all tables from the registry.
+     */
+    public static void clear() {
+        TABLES.clear();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    private static String key(File table) {
+        return table.getAbsolutePath();
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TableSnapshot
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Holds a table open, as it was at a given moment, so that any of its
+ *      rows can be read back from the disk when they are needed, instead of
+ *      keeping the whole table in memory.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A `TableSnapshot` is a table, as it stood when the snapshot was taken by
+ * {@link ChangeLog#snapshot()}, whose rows are read from the disk on demand.
+ *
+ * The table file is held open for as long as the snapshot is, and since the
+ * table file is only ever replaced, never written to, the rows that are read
+ * back are always the ones that were there when the snapshot was taken, even
+ * if the table is saved or compacted in the meantime. The rows that had been
+ * changed in the log by then are kept in memory, as they are not in the table
+ * file.
+ *
+ * A row of a binary table is found directly from its row number. For a text
+ * table, the snapshot keeps a sparse index of the position in the file of
+ * every {@value #BLOCK_ROWS}th line, so a row is found by reading forward from
+ * the nearest indexed line before it. That index costs eight bytes for each
+ * block of lines, rather than for each line.
+ *
+ * <dl><dt>Note</dt><dd>A `TableSnapshot` is not thread-safe, and must be
+ * closed once it is no longer needed, to release the table file.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class TableSnapshot implements Closeable {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The number of lines of a text table between each of the positions kept
+     * in the sparse index.
+     */
+    public static final int BLOCK_ROWS = 64;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    // How much of the table file is mapped into memory at one time while the
+    //+ sparse index is being built.
+    private static final long INDEX_WINDOW = 64L * 1024 * 1024;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final FileChannel channel;
+    private final BinaryTable binary;
+
+    // The position of the first line of each block of a text table, and the
+    //+ number of rows in the table file.
+    private final long[] offsets;
+    private final int baseRows;
+
+    // The rows that have been changed or added in the log, by row.
+    private final HashMap<Integer, String> changed;
+    private int rows;
+
+    // The lines of the block most recently read from a text table.
+    private ByteBuffer block;
+    private int blockNumber;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates a `TableSnapshot` over an open table file. The snapshot takes
+     * over the channel, and closes it when the snapshot is closed.
+     *
+     * @param channel the open table file, or `null` if there is no table file
+     *                yet.
+     * @throws IOException in the event an error occurs reading the table.
+     */
+    TableSnapshot (FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        if ( channel != null && BinaryTable.isBinary(channel) ) {
+            binary = BinaryTable.open(channel);
+            offsets = null;
+            baseRows = binary.getRowCount();
+        } else {
+            binary = null;
+            offsets = channel == null ? new long[0] : indexLines(channel);
+            baseRows = channel == null ? 0 : countRows(channel, offsets);
+        }
+
+        changed = new HashMap<>();
+        rows = baseRows;
+        blockNumber = -1;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Retrieves the number of rows in the table.
+     *
+     * @return the number of rows.
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Reads the specified rows of the table, handing each one to the visitor.
+     * The rows are read in the order given, which should be row order, so
+     * that the rows in the same block are all read from a single read of that
+     * block.
+     *
+     * @param rowNumbers the rows to read.
+     * @param from       the index in `rowNumbers` of the first row to read.
+     * @param to         the index in `rowNumbers` just past the last row to
+     *                   read.
+     * @param visitor    the visitor to hand each row to.
+     * @return the number of rows visited.
+     * @throws IOException in the event an error occurs reading the table.
+     * @throws IndexOutOfBoundsException if a row is not in the table.
+     */
+    public int read(int[] rowNumbers, int from, int to,
+            ChangeLog.RowVisitor visitor) throws IOException {
+        RecordTokenizer record = new RecordTokenizer();
+
+        for ( int x = from; x < to; x++ ) {
+            if ( !visit(rowNumbers[x], record, visitor) ) {
+                return x - from + 1;
+            }
+        }
+
+        return to - from;
+    }
+
+    /**
+     * Reads all of the rows of the table, in row order, handing each one to
+     * the visitor.
+     *
+     * @param visitor the visitor to hand each row to.
+     * @return the number of rows visited.
+     * @throws IOException in the event an error occurs reading the table.
+     */
+    public int scan(ChangeLog.RowVisitor visitor) throws IOException {
+        RecordTokenizer record = new RecordTokenizer();
+
+        for ( int row = 0; row < rows; row++ ) {
+            if ( !visit(row, record, visitor) ) {
+                return row + 1;
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Closes the table file.
+     *
+     * @throws IOException in the event an error occurs closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        block = null;
+
+        if ( channel != null ) {
+            channel.close();
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Instance Methods">
+    // The number of rows in the table file itself.
+    int getBaseRowCount() {
+        return baseRows;
+    }
+
+    // Takes the rows changed by the log from the lines the log was replayed
+    //+ over, in which every row that the log did not change is null.
+    void setChanges(ArrayList<String> lines) {
+        for ( int row = 0; row < lines.size(); row++ ) {
+            if ( lines.get(row) != null ) {
+                changed.put(row, lines.get(row));
+            }
+        }
+
+        rows = Math.max(baseRows, lines.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private boolean visit(int row, RecordTokenizer record,
+            ChangeLog.RowVisitor visitor) throws IOException {
+        if ( row < 0 || row >= rows ) {
+            throw new IndexOutOfBoundsException("Row " + row + " is not in "
+                    + "the table, which has " + rows + " rows.");
+        }
+
+        String line = changed.get(row);
+
+        if ( line != null ) {
+            record.reset(line);
+        } else if ( binary != null ) {
+            record.reset(binary, row);
+        } else {
+            resetFromBlock(row, record);
+        }
+
+        return visitor.visit(row, record);
+    }
+
+    // Finds the row in its block of the text table, reading the block in if
+    //+ it is not the one already read.
+    private void resetFromBlock(int row, RecordTokenizer record)
+            throws IOException {
+        int number = row / BLOCK_ROWS;
+
+        if ( number != blockNumber ) {
+            readBlock(number);
+        }
+
+        int start = 0;
+        int limit = block.limit();
+
+        for ( int line = number * BLOCK_ROWS; line < row; line++ ) {
+            while ( start < limit && block.get(start) != '\n' ) {
+                start++;
+            }
+
+            start++;
+        }
+
+        int end = start;
+
+        while ( end < limit && block.get(end) != '\n' ) {
+            end++;
+        }
+
+        // Leave off the carriage return, if there is one.
+        if ( end > start && block.get(end - 1) == '\r' ) {
+            end--;
+        }
+
+        record.reset(block, start, end);
+    }
+
+    private void readBlock(int number) throws IOException {
+        long from = offsets[number];
+        long to = number + 1 < offsets.length ? offsets[number + 1]
+                : channel.size();
+        int length = (int) (to - from);
+
+        if ( block == null || block.capacity() < length ) {
+            block = ByteBuffer.allocate(Math.max(length, 8192));
+        }
+
+        block.clear();
+        block.limit(length);
+
+        while ( block.hasRemaining() ) {
+            if ( channel.read(block, from + block.position()) < 0 ) {
+                throw new IOException("The table file ended before the end "
+                        + "of the block of rows at row "
+                        + (number * BLOCK_ROWS) + ".");
+            }
+        }
+
+        block.flip();
+        blockNumber = number;
+    }
+
+    // Finds the position of the first line of each block of the table file.
+    private static long[] indexLines(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long[] found = new long[16];
+        int count = size > 0 ? 1 : 0;   // The first line starts the file.
+        int line = 1;
+
+        for ( long pos = 0; pos < size; pos += INDEX_WINDOW ) {
+            long length = Math.min(size - pos, INDEX_WINDOW);
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+                    pos, length);
+
+            for ( int x = 0; x < length; x++ ) {
+                // Every line feed, other than one that ends the file, starts
+                //+ another line.
+                if ( buf.get(x) != '\n' || pos + x + 1 == size ) {
+                    continue;
+                }
+
+                if ( line++ % BLOCK_ROWS == 0 ) {
+                    if ( count == found.length ) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+
+                    found[count++] = pos + x + 1;
+                }
+            }
+        }
+
+        return Arrays.copyOf(found, count);
+    }
+
+    // Counts the lines in the last block, which is the only one that is not
+    //+ known to be full.
+    private static int countRows(FileChannel channel, long[] offsets)
+            throws IOException {
+        if ( offsets.length == 0 ) {
+            return 0;
+        }
+
+        long from = offsets[offsets.length - 1];
+        long size = channel.size();
+        ByteBuffer buf = ByteBuffer.allocate((int) (size - from));
+
+        while ( buf.hasRemaining() ) {
+            if ( channel.read(buf, from + buf.position()) < 0 ) {
+                break;
+            }
+        }
+
+        int lines = 0;
+
+        for ( int x = 0; x < buf.position(); x++ ) {
+            if ( buf.get(x) == '\n' ) {
+                lines++;
+            }
+        }
+
+        if ( buf.position() > 0 && buf.get(buf.position() - 1) != '\n' ) {
+            lines++;    // The last line has no line feed.
+        }
+
+        return (offsets.length - 1) * BLOCK_ROWS + lines;
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,815 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   Transaction
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Groups the saves of several data tables together, so that they are
+ *      either all written or none of them are, even if the application is
+ *      stopped part way through writing them.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.err.ConflictException;
+import com.pekinsoft.loadmaster.err.DataStoreException;
+import com.pekinsoft.loadmaster.sys.Logger;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeSet;
+import java.util.logging.LogRecord;
+
+/**
+ * A `Transaction` groups the saves of several data tables together, so that
+ * the changes to all of them are written as one. This is used wherever a
+ * single action by the user changes more than one table, such as booking a
+ * load, which adds the load, its stops and its receivable.
+ *
+ * While a transaction is open on a thread, the saves made on that thread,
+ * through any of the controllers, do not write to the change logs of their
+ * tables. Instead, the entries that they would have written are staged in the
+ * transaction. When the transaction is committed, the staged entries for all
+ * of the tables are written to a single journal file (a sequence number with
+ * the `.txn` extension, in the data folder), followed by a commit marker, and
+ * that one file is forced to disk. That is the point at which the transaction
+ * is committed. Only then are the entries appended to the change log of each
+ * table. Those logs are forced to disk, and the journal removed, later on, on
+ * the background compaction thread, or straight away if one of the tables is
+ * saved again before then.
+ *
+ * When the application starts, the journals left behind by a stop part way
+ * through a commit are recovered, before any of the tables are read. A
+ * journal that has no commit marker is rolled back by simply removing it, as
+ * none of its entries can have reached the change logs. A journal that has
+ * its commit marker is rolled forward. The journal holds the generation (see
+ * {@link ChangeLog}) that each table was at when its entries were to be
+ * appended to its log, and the entries are only appended if the table is
+ * still at that generation, which shows that they never got there. Entries
+ * that the table already holds are passed over. If a table has been saved by
+ * another instance of the application since, and does not hold the entries,
+ * nothing is appended to any of the tables, rather than write over the other
+ * instance's saves, and the journal is left in place, as a conflict. As each
+ * table is checked against its own generation, the order in which the
+ * journals of more than one instance are recovered does not matter.
+ *
+ * More than one instance of the application may share the same data folder,
+ * so each journal is locked, through its `FileChannel`, by the instance that
+ * wrote it, from the moment it is created until it has been removed. A
+ * journal that is still locked belongs to an instance that is still running,
+ * and part way through committing or settling it, so it is left alone by the
+ * recovery.
+ *
+ * A transaction is used like this:
+ * <pre>
+ *     try ( Transaction tx = Transaction.begin() ) {
+ *         stops.close();
+ *         loads.close();
+ *         tx.commit();
+ *     }
+ * </pre>
+ *
+ * If the transaction is closed without having been committed, it is rolled
+ * back: the staged entries are thrown away, the controllers are told that
+ * their changes have not been saved, and the shared records of the tables are
+ * dropped from the {@link TableRegistry}, so that the next controller reads
+ * the tables back in from their files.
+ *
+ * <dl><dt>Note</dt><dd>Within a transaction, a controller sees the changes
+ * staged by the other controllers for its table, as they are shared through
+ * the `TableRegistry` just as they are after any other save. Cursors and
+ * scans read the table files, so they do not see the changes until the
+ * transaction has been committed.</dd></dl>
+ *
+ * <dl><dt>Note</dt><dd>A transaction belongs to the thread that began it,
+ * and only one may be open on a thread at a time. Nothing that can let other
+ * events be handled on the Event Dispatching Thread (EDT), such as a modal
+ * dialog, should be shown while a transaction is open on it.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public final class Transaction implements AutoCloseable {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The extension of the journal files.
+     */
+    public static final String EXTENSION = ".txn";
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Interfaces">
+    // Something to be done once the transaction has been committed, such as
+    //+ writing the saved rows to the database.
+    @FunctionalInterface
+    interface Action {
+        void run() throws DataStoreException;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Fields">
+    // The transaction open on each thread, if there is one.
+    private static final ThreadLocal<Transaction> CURRENT;
+
+    // Held while a transaction is being committed, or its logs forced, so
+    //+ that the journals are written and removed in order.
+    private static final Object LOCK;
+
+    // The journals whose entries have been appended to the change logs, but
+    //+ whose change logs have not been forced to disk yet.
+    private static final ArrayList<Journal> UNSETTLED;
+
+    // The number of the last journal file.
+    private static long sequence;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final ArrayList<Staged> staged;
+    private final ArrayList<Action> actions;
+    private final Thread owner;
+    private boolean open;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Static Initializer">
+    static {
+        CURRENT = new ThreadLocal<>();
+        LOCK = new Object();
+        UNSETTLED = new ArrayList<>();
+        sequence = System.currentTimeMillis();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    private Transaction () {
+        staged = new ArrayList<>();
+        actions = new ArrayList<>();
+        owner = Thread.currentThread();
+        open = true;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods">
+    /**
+     * Begins a transaction on the current thread. Every save made on this
+     * thread, until the transaction is committed or closed, is staged in it.
+     *
+     * @return the transaction.
+     * @throws IllegalStateException if a transaction is already open on the
+     *                               current thread.
+     */
+    public static Transaction begin() {
+        if ( CURRENT.get() != null ) {
+            throw new IllegalStateException("A transaction is already open on "
+                    + Thread.currentThread().getName() + ".");
+        }
+
+        Transaction tx = new Transaction();
+        CURRENT.set(tx);
+
+        return tx;
+    }
+
+    /**
+     * Recovers the journals left behind by a commit that did not finish,
+     * rolling the committed ones forward and the rest back. This must be
+     * called when the application starts, before any of the tables are read.
+     *
+     * @return the number of transactions that were rolled forward.
+     */
+    public static int recover() {
+        File[] journals = new File(Starter.DB_URL).listFiles(
+                (File dir, String name) -> name.endsWith(EXTENSION));
+
+        if ( journals == null || journals.length == 0 ) {
+            return 0;
+        }
+
+        // The names are all the same length, so the journals of any one
+        //+ instance sort into the order in which they were committed. Those of
+        //+ different instances may not, but as no batch is appended over a
+        //+ table that has moved on since it was committed, that does no harm.
+        Arrays.sort(journals);
+        int recovered = 0;
+
+        synchronized ( LOCK ) {
+            for ( File journal : journals ) {
+                try ( FileChannel channel = FileChannel.open(journal.toPath(),
+                        StandardOpenOption.READ, StandardOpenOption.WRITE) ) {
+                    // The instance that wrote the journal removes it before
+                    //+ it lets go of it, so a journal that is gone once it
+                    //+ has been locked has been settled.
+                    if ( !tryLock(channel) || !journal.exists() ) {
+                        continue;
+                    }
+
+                    if ( rollForward(journal, channel) ) {
+                        recovered++;
+                    }
+
+                    Files.delete(journal.toPath());
+                } catch ( NoSuchFileException ex ) {
+                    // Settled by the instance that wrote it, since the
+                    //+ journals were listed.
+                } catch ( ConflictException ex ) {
+                    LogRecord entry = Logger.newRecord(Transaction.class);
+                    entry.setMessage("Unable to roll forward the transaction "
+                            + "in " + journal.getName() + ", as its tables "
+                            + "have been saved by another instance of "
+                            + Starter.props.getProjectName() + " since it was "
+                            + "committed. Nothing in it has been written, and "
+                            + "it has been left in place, so that its changes "
+                            + "can be made again.\n\n" + "-".repeat(80) + "\n"
+                            + ex.getMessage());
+                    entry.setThrown(ex);
+                    entry.setSourceMethodName("recover");
+                    entry.setParameters(null);
+                    Starter.logger.error(entry);
+                } catch ( IOException | DataStoreException ex ) {
+                    LogRecord entry = Logger.newRecord(Transaction.class);
+                    entry.setMessage("Unable to recover the transaction in "
+                            + journal.getName() + ". It has been left in "
+                            + "place, to be tried again on the next start.\n\n"
+                            + "-".repeat(80) + "\n" + ex.getMessage());
+                    entry.setThrown(ex);
+                    entry.setSourceMethodName("recover");
+                    entry.setParameters(null);
+                    Starter.logger.error(entry);
+                }
+            }
+        }
+
+        return recovered;
+    }
+
+    /**
+     * Forces the change logs of all of the committed transactions to disk,
+     * and removes their journals. This is done in the background after each
+     * commit, and before a table that was part of a transaction is saved
+     * again, but may also be called before the application exits.
+     *
+     * @throws IOException in the event a change log cannot be forced to disk.
+     *                     The journals that were not removed are recovered
+     *                     on the next start.
+     */
+    public static void settle() throws IOException {
+        synchronized ( LOCK ) {
+            while ( !UNSETTLED.isEmpty() ) {
+                Journal journal = UNSETTLED.get(0);
+
+                for ( ChangeLog log : journal.logs ) {
+                    log.force();
+                }
+
+                journal.remove();
+                UNSETTLED.remove(0);
+            }
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Commits the transaction, writing the changes staged in it to all of
+     * their tables as one. Once this returns, the changes will survive the
+     * application being stopped, even though they may not all be in the
+     * change logs yet.
+     *
+     * @throws ConflictException in the event another instance of the
+     *                           application has saved one of the tables since
+     *                           it was read in, in which case the transaction
+     *                           has been rolled back.
+     * @throws DataStoreException in the event the changes cannot be written,
+     *                            in which case none of them have been, and
+     *                            the transaction has been rolled back. Also
+     *                            thrown if the changes were written, but
+     *                            could not be copied into the database.
+     * @throws IllegalStateException if the transaction has already been
+     *                               committed or closed, or is being
+     *                               committed on a thread other than the one
+     *                               that began it.
+     */
+    public void commit() throws DataStoreException {
+        checkOpen();
+
+        if ( !staged.isEmpty() ) {
+            try {
+                write();
+            } catch ( IOException ex ) {
+                rollback();
+
+                LogRecord entry = Logger.newRecord(getClass());
+                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                        + "\nRolled back. Throwing DataStoreException...");
+                entry.setThrown(ex);
+                entry.setSourceMethodName("commit");
+                entry.setParameters(null);
+                Starter.logger.error(entry);
+
+                throw new DataStoreException(ex.getMessage(), ex);
+            } catch ( ConflictException ex ) {
+                rollback();
+
+                LogRecord entry = Logger.newRecord(getClass());
+                entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                        + "\nRolled back. Throwing ConflictException...");
+                entry.setThrown(ex);
+                entry.setSourceMethodName("commit");
+                entry.setParameters(null);
+                Starter.logger.warning(entry);
+
+                throw ex;
+            }
+        }
+
+        end();
+
+        // The tables have been written, so each action is tried, even if one
+        //+ before it failed.
+        DataStoreException failed = null;
+
+        for ( Action action : actions ) {
+            try {
+                action.run();
+            } catch ( DataStoreException ex ) {
+                failed = failed == null ? ex : failed;
+            }
+        }
+
+        if ( failed != null ) {
+            throw failed;
+        }
+    }
+
+    /**
+     * Rolls the transaction back, throwing away all of the changes staged in
+     * it. The controllers that took part are left as they were before their
+     * saves, so their changes may be saved again.
+     *
+     * @throws IllegalStateException if the transaction has already been
+     *                               committed or closed.
+     */
+    public void rollback() {
+        checkOpen();
+
+        // In reverse, so that a log that was saved twice ends up as it was
+        //+ before the first save.
+        for ( int x = staged.size() - 1; x >= 0; x-- ) {
+            Staged s = staged.get(x);
+            s.log.restore(s.storedRows, s.updated);
+            TableRegistry.invalidate(s.log.getTable());
+        }
+
+        end();
+    }
+
+    /**
+     * Closes the transaction, rolling it back if it has not been committed.
+     */
+    @Override
+    public void close() {
+        if ( open ) {
+            rollback();
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Static Methods">
+    // The transaction open on the current thread, or null.
+    static Transaction current() {
+        return CURRENT.get();
+    }
+
+    // Runs the action once the transaction open on the current thread has
+    //+ been committed, or straight away, if there is none.
+    static void afterCommit(Action action) throws DataStoreException {
+        Transaction tx = current();
+
+        if ( tx == null ) {
+            action.run();
+        } else {
+            tx.actions.add(action);
+        }
+    }
+
+    // Whether there are journals whose change logs have not been forced yet.
+    static boolean isUnsettled() {
+        synchronized ( LOCK ) {
+            return !UNSETTLED.isEmpty();
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Instance Methods">
+    // Stages the entries of one save, along with what the log looked like
+    //+ before it, so that it can be put back on a rollback.
+    void stage(ChangeLog log, String entries, int count, int rowCount,
+            int storedRows, TreeSet<Integer> updated) {
+        staged.add(new Staged(log, entries, count, rowCount, storedRows,
+                updated));
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Instance Methods">
+    private void checkOpen() {
+        if ( !open ) {
+            throw new IllegalStateException("The transaction has already been "
+                    + "ended.");
+        }
+
+        if ( Thread.currentThread() != owner ) {
+            throw new IllegalStateException("The transaction belongs to "
+                    + owner.getName() + ".");
+        }
+    }
+
+    private void end() {
+        open = false;
+        CURRENT.remove();
+    }
+
+    private void write() throws IOException, ConflictException {
+        ArrayList<ChangeLog> logs = new ArrayList<>();
+
+        for ( Staged s : staged ) {
+            if ( !logs.contains(s.log) ) {
+                logs.add(s.log);
+            }
+        }
+
+        // The tables are locked from before their generations are checked
+        //+ until the last batch has been appended to them, so that no other
+        //+ instance of the application can save any of them in between, only
+        //+ to have its saves written over.
+        synchronized ( LOCK ) {
+            ChangeLog.lockAll(logs, () -> write(logs));
+        }
+
+        ChangeLog.execute(() -> {
+            try {
+                settle();
+            } catch ( IOException ex ) {
+                LogRecord entry = Logger.newRecord(Transaction.class);
+                entry.setMessage("Unable to force the change logs to disk. "
+                        + "The journal has been left in place, to be "
+                        + "recovered on the next start.");
+                entry.setThrown(ex);
+                entry.setSourceMethodName("settle");
+                entry.setParameters(null);
+                Starter.logger.error(entry);
+            }
+        });
+    }
+
+    // Writes the journal, and then appends its batches to their logs. Must be
+    //+ called while holding LOCK, with all of the tables locked.
+    private void write(ArrayList<ChangeLog> logs) throws IOException,
+            ConflictException {
+        StringBuilder text = new StringBuilder();
+        HashMap<File, Long> generations = new HashMap<>();
+        HashSet<File> pending = new HashSet<>();
+
+        // Nothing is committed over the saves of another instance of the
+        //+ application.
+        for ( ChangeLog log : logs ) {
+            log.checkGeneration();
+            generations.put(log.getTable(), log.getGeneration());
+
+            if ( log.hasPending() ) {
+                pending.add(log.getTable());
+            }
+        }
+
+        // Each batch is journalled with the generation at which it is to be
+        //+ appended to its log, so that the recovery can tell whether it got
+        //+ there. Any saves still waiting on the SaveScheduler are appended
+        //+ along with the first batch for their table, so that batch moves the
+        //+ generation on, even if it has no entries of its own.
+        for ( Staged s : staged ) {
+            File table = s.log.getTable();
+            long generation = generations.get(table);
+
+            text.append("T~").append(s.count).append('~').append(generation)
+                    .append('~').append(table.getAbsolutePath()).append('\n')
+                    .append(s.entries);
+
+            if ( pending.remove(table) || s.count > 0 ) {
+                generations.put(table, generation + 1);
+            }
+        }
+
+        text.append("C~").append(staged.size()).append('\n');
+
+        Journal journal = create(logs);
+
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(text.toString().getBytes(
+                    Charset.defaultCharset()));
+
+            while ( buf.hasRemaining() ) {
+                journal.channel.write(buf);
+            }
+
+            journal.channel.force(true);
+        } catch ( IOException ex ) {
+            journal.remove();
+
+            throw ex;
+        }
+
+        // Committed. From here on, a failure is put right by recovering the
+        //+ journal on the next start, so it must not be removed.
+        try {
+            for ( Staged s : staged ) {
+                s.log.write(s.entries, s.count, s.rowCount, false, true);
+            }
+        } catch ( IOException | ConflictException ex ) {
+            // Let go of the journal, so that it can be recovered.
+            journal.channel.close();
+
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage("The transaction in " + journal.file.getName()
+                    + " was committed, but could not be written to all of "
+                    + "its change logs. It will be finished on the next "
+                    + "start.");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("commit");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+
+            return;
+        }
+
+        UNSETTLED.add(journal);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods">
+    // Creates the next journal file, and locks it. Another instance of the
+    //+ application may have taken the number already, in which case the next
+    //+ number is tried. Must be called while holding LOCK.
+    private static Journal create(ArrayList<ChangeLog> logs)
+            throws IOException {
+        while ( true ) {
+            File file = new File(Starter.DB_URL
+                    + String.format("%019d", ++sequence) + EXTENSION);
+            FileChannel channel;
+
+            try {
+                channel = FileChannel.open(file.toPath(),
+                        StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.WRITE);
+            } catch ( FileAlreadyExistsException ex ) {
+                continue;
+            }
+
+            try {
+                channel.lock();
+            } catch ( IOException | RuntimeException ex ) {
+                channel.close();
+                Files.deleteIfExists(file.toPath());
+
+                throw ex;
+            }
+
+            return new Journal(file, channel, logs);
+        }
+    }
+
+    // Returns whether the journal could be locked. It cannot be while the
+    //+ instance of the application that wrote it is still using it, which may
+    //+ be this one.
+    private static boolean tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock() != null;
+        } catch ( OverlappingFileLockException ex ) {
+            return false;
+        }
+    }
+
+    // Returns whether the journal was committed, and so rolled forward. It is
+    //+ read through the channel that holds its lock. Throws a
+    //+ ConflictException, without writing anything, if any of its tables has
+    //+ been saved by another instance since, and does not hold its entries.
+    private static boolean rollForward(File journal, FileChannel channel)
+            throws IOException, DataStoreException {
+        ArrayList<Batch> tables = new ArrayList<>();
+        ArrayList<StringBuilder> entries = new ArrayList<>();
+        boolean committed = false;
+
+        try ( BufferedReader in = new BufferedReader(new InputStreamReader(
+                Channels.newInputStream(channel), Charset.defaultCharset())) ) {
+            String line = in.readLine();
+
+            while ( line != null && !committed ) {
+                if ( line.startsWith("C~") ) {
+                    committed = true;
+                } else if ( line.startsWith("T~") ) {
+                    tables.add(new Batch(line));
+                    entries.add(new StringBuilder());
+                } else if ( !entries.isEmpty() ) {
+                    entries.get(entries.size() - 1).append(line).append('\n');
+                }
+
+                line = in.readLine();
+            }
+        }
+
+        if ( !committed ) {
+            LogRecord entry = Logger.newRecord(Transaction.class);
+            entry.setMessage("Rolled back the uncommitted transaction in "
+                    + journal.getName() + ".");
+            entry.setSourceMethodName("recover");
+            entry.setParameters(null);
+            Starter.logger.warning(entry);
+
+            return false;
+        }
+
+        // All of the batches are checked before any of them is appended, so
+        //+ that the transaction is rolled forward as a whole, or not at all.
+        HashMap<File, Long> generations = new HashMap<>();
+        boolean[] append = new boolean[tables.size()];
+
+        for ( int x = 0; x < tables.size(); x++ ) {
+            Batch batch = tables.get(x);
+
+            if ( batch.count == 0 ) {
+                continue;
+            } else if ( batch.generation < 0 ) {
+                // Journalled before the generations were, so it can only be
+                //+ appended again, as it always was.
+                append[x] = true;
+                continue;
+            }
+
+            ChangeLog log = new ChangeLog(batch.table);
+            Long now = generations.get(batch.table);
+
+            if ( now == null ) {
+                now = log.getGeneration();
+            }
+
+            if ( now == batch.generation ) {
+                append[x] = true;
+                generations.put(batch.table, now + 1);
+            } else if ( now > batch.generation
+                    && log.holds(entries.get(x).toString()) ) {
+                generations.put(batch.table, now);
+            } else {
+                throw new ConflictException(batch.table.getName() + " has "
+                        + "been saved since the transaction was committed "
+                        + "(generation " + batch.generation + ", now " + now
+                        + "), and does not hold its changes.");
+            }
+        }
+
+        SqlStore store = SqlStore.getInstance();
+
+        for ( int x = 0; x < tables.size(); x++ ) {
+            File table = tables.get(x).table;
+            String text = entries.get(x).toString();
+
+            if ( append[x] ) {
+                new ChangeLog(table).recover(text, tables.get(x).count,
+                        tables.get(x).generation);
+            }
+
+            SqlTable mirror = store == null ? null : SqlTable.forFile(table);
+
+            if ( mirror != null ) {
+                mirror(store, mirror, text);
+            }
+        }
+
+        LogRecord entry = Logger.newRecord(Transaction.class);
+        entry.setMessage("Rolled forward the committed transaction in "
+                + journal.getName() + ".");
+        entry.setSourceMethodName("recover");
+        entry.setParameters(null);
+        Starter.logger.info(entry);
+
+        return true;
+    }
+
+    // Writes the recovered rows of a table to the database as well.
+    private static void mirror(SqlStore store, SqlTable table, String text)
+            throws DataStoreException {
+        ArrayList<Integer> rows = new ArrayList<>();
+        ArrayList<String> lines = new ArrayList<>();
+
+        for ( String line : text.split("\n") ) {
+            String[] change = line.split("~", 3);
+
+            if ( change.length == 3 ) {
+                rows.add(Integer.valueOf(change[1]));
+                lines.add(change[2]);
+            }
+        }
+
+        store.write(table, rows.stream().mapToInt(Integer::intValue).toArray(),
+                lines.toArray(new String[0]));
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Classes">
+    private static class Staged {
+        final ChangeLog log;
+        final String entries;
+        final int count;
+        final int rowCount;
+        final int storedRows;
+        final TreeSet<Integer> updated;
+
+        Staged (ChangeLog log, String entries, int count, int rowCount,
+                int storedRows, TreeSet<Integer> updated) {
+            this.log = log;
+            this.entries = entries;
+            this.count = count;
+            this.rowCount = rowCount;
+            this.storedRows = storedRows;
+            this.updated = updated;
+        }
+    }
+
+    // The header of the batch of entries for one table in a journal.
+    private static class Batch {
+        final int count;
+        final long generation;
+        final File table;
+
+        // Reads a `T~count~generation~path` line, or a `T~count~path` line
+        //+ from a journal written before the generations were kept.
+        Batch (String line) {
+            String[] header = line.split("~", 4);
+            count = Integer.parseInt(header[1]);
+
+            if ( header.length == 4 && header[2].matches("\\d+") ) {
+                generation = Long.parseLong(header[2]);
+                table = new File(header[3]);
+            } else {
+                generation = -1;
+                table = new File(line.split("~", 3)[2]);
+            }
+        }
+    }
+
+    private static class Journal {
+        final File file;
+        final FileChannel channel;     // Holds the lock on the file.
+        final ArrayList<ChangeLog> logs;
+
+        Journal (File file, FileChannel channel, ArrayList<ChangeLog> logs) {
+            this.file = file;
+            this.channel = channel;
+            this.logs = logs;
+        }
+
+        // The file is removed before its lock is let go of, so another
+        //+ instance of the application never finds it unlocked.
+        void remove() throws IOException {
+            Files.deleteIfExists(file.toPath());
+            channel.close();
+        }
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.pekinsoft.loadmaster.err;
+
+/**
+ * Thrown when a data table cannot be saved because another instance of the
+ * application, sharing the same data folder, has written to the table since
+ * it was read in. The table needs to be read in again before it is saved.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ */
+public class ConflictException extends DataStoreException {
+
+    private static final long serialVersionUID = 3719865882350755293L;
+
+    /**
+     * Constructs an instance of <code>ConflictException</code> with the
+     * specified detail message.
+     *
+     * @param msg the detail message.
+     */
+    public ConflictException(String msg) {
+        super(msg);
+    }
+}
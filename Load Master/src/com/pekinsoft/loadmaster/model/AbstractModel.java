@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   AbstractModel
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Keeps track of whether a record has been changed since it was last
+ *      read from or written to its data table.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.model;
+
+/**
+ * The `AbstractModel` class is the base of the models that are kept in the
+ * data tables. Each of their setters marks the record as modified, so that
+ * the {@link com.pekinsoft.loadmaster.db.Table} that holds the record knows
+ * to write it on the next save, even if the record was changed without being
+ * passed back to the `update` method of its controller. A table whose records
+ * have not been modified, added or updated writes nothing when it is saved.
+ *
+ * The table tells each of its records which row it is in, through `track`, so
+ * that the record can tell the table as soon as it is first modified. The
+ * table then only has to write the rows that it has been told about, instead
+ * of asking every one of its records whether it has been modified.
+ *
+ * <dl><dt>Note</dt><dd>A record is marked as modified by any call to one of
+ * its setters, even if the value is the same as the one it already had.</dd>
+ * </dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public abstract class AbstractModel {
+    //<editor-fold defaultstate="collapsed" desc="Public Interfaces">
+    /**
+     * Is told when a record is first modified after it was last read from or
+     * written to its table.
+     */
+    @FunctionalInterface
+    public interface Tracker {
+
+        /**
+         * Called when the record in the specified row is modified.
+         *
+         * @param row the row of the record, as given to `track`.
+         */
+        void modified(int row);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private boolean modified;
+
+    // Who to tell when the record is modified, and the row to tell them.
+    private Tracker tracker;
+    private int row;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Instance Methods">
+    /**
+     * Determines whether the record has been changed since it was last read
+     * from or written to its table.
+     *
+     * @return `true` if the record has been modified, `false` otherwise.
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Marks the record as being the same as it is in its table. This is
+     * called by the table once the record has been read or written.
+     */
+    public void clearModified() {
+        modified = false;
+    }
+
+    /**
+     * Sets who is to be told when the record is modified. This is called by
+     * the table once the record has been read or written, with the row that
+     * it is stored in.
+     *
+     * @param tracker who to tell, or `null` for no one.
+     * @param row     the row to tell them.
+     */
+    public void track(Tracker tracker, int row) {
+        this.tracker = tracker;
+        this.row = row;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Protected Instance Methods">
+    /**
+     * Marks the record as having been changed. Called by each of the setters.
+     */
+    protected void markModified() {
+        // The tracker only needs to be told once, until the record is saved.
+        if ( !modified && tracker != null ) {
+            tracker.modified(row);
+        }
+
+        modified = true;
+    }
+    //</editor-fold>
+
+}
@@ -13,7 +13,7 @@ package com.pekinsoft.loadmaster.model;
  * @version 0.1.0
  * @since 0.1.0
  */
-public class BrokerModel {
+public class BrokerModel extends AbstractModel {
     //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
     
     //</editor-fold>
@@ -83,6 +83,7 @@ public class BrokerModel {
      */
     public void setId(long id) {
         this.id = id;
+        markModified();
     }
     
     /**
@@ -108,6 +109,7 @@ public class BrokerModel {
             this.company = company.substring(0, 49);
         else
             this.company = company;
+        markModified();
     }
 
     /**
@@ -135,6 +137,7 @@ public class BrokerModel {
             this.street = street.substring(0, 39);
         else
             this.street = street;
+        markModified();
     }
 
     /**
@@ -174,6 +177,7 @@ public class BrokerModel {
             this.suite = suite.substring(0, 14);
         else
             this.suite = suite;
+        markModified();
     }
 
     /**
@@ -201,6 +205,7 @@ public class BrokerModel {
             this.city = city.substring(0, 29);
         else
             this.city = city;
+        markModified();
     }
 
     /**
@@ -225,6 +230,7 @@ public class BrokerModel {
      */
     public void setState(String state) {
         this.state = state;
+        markModified();
     }
 
     public String getZip() {
@@ -233,6 +239,7 @@ public class BrokerModel {
 
     public void setZip(String zip) {
         this.zip = zip;
+        markModified();
     }
 
     public String getContact() {
@@ -249,6 +256,7 @@ public class BrokerModel {
             this.contact = contact.substring(0, 29);
         else
             this.contact = contact;
+        markModified();
     }
 
     public String getPhone() {
@@ -262,6 +270,7 @@ public class BrokerModel {
             phone = " ";
         
         this.phone = phone;
+        markModified();
     }
 
     public String getEmail() {
@@ -275,6 +284,7 @@ public class BrokerModel {
             email = " ";
         
         this.email = email;
+        markModified();
     }
 
     public String getFax() {
@@ -283,6 +293,7 @@ public class BrokerModel {
 
     public void setFax(String fax) {
         this.fax = fax;
+        markModified();
     }
     //</editor-fold>
 
@@ -45,7 +45,7 @@ package com.pekinsoft.loadmaster.model;
  * @version 0.1.0
  * @since 0.1.0
  */
-public class CustomerModel {
+public class CustomerModel extends AbstractModel {
     //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
     
     //</editor-fold>
@@ -126,6 +126,7 @@ public class CustomerModel {
      */
     public void setId(long id) {
         this.id = id;
+        markModified();
     }
     
     /**
@@ -151,6 +152,7 @@ public class CustomerModel {
             this.company = company.substring(0, 49);
         else
             this.company = company;
+        markModified();
     }
 
     /**
@@ -178,6 +180,7 @@ public class CustomerModel {
             this.street = street.substring(0, 39);
         else
             this.street = street;
+        markModified();
     }
 
     /**
@@ -217,6 +220,7 @@ public class CustomerModel {
             this.suite = suite.substring(0, 14);
         else
             this.suite = suite;
+        markModified();
     }
 
     /**
@@ -244,6 +248,7 @@ public class CustomerModel {
             this.city = city.substring(0, 29);
         else
             this.city = city;
+        markModified();
     }
 
     /**
@@ -268,6 +273,7 @@ public class CustomerModel {
      */
     public void setState(String state) {
         this.state = state;
+        markModified();
     }
 
     public String getZip() {
@@ -276,6 +282,7 @@ public class CustomerModel {
 
     public void setZip(String zip) {
         this.zip = zip;
+        markModified();
     }
     
     public String getAddress() {
@@ -305,6 +312,7 @@ public class CustomerModel {
             this.contact = contact.substring(0, 29);
         else
             this.contact = contact;
+        markModified();
     }
 
     public String getPhone() {
@@ -318,6 +326,7 @@ public class CustomerModel {
             phone = " ";
         
         this.phone = phone;
+        markModified();
     }
 
     public String getComments() {
@@ -331,6 +340,7 @@ public class CustomerModel {
             comments = " ";
         
         this.comments = comments;
+        markModified();
     }
     //</editor-fold>
 
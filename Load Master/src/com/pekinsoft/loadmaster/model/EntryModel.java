@@ -33,8 +33,8 @@
  */
 package com.pekinsoft.loadmaster.model;
 
+import com.pekinsoft.loadmaster.utils.DateUtils;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
@@ -55,7 +55,7 @@ import java.util.Date;
  * @version 0.1.0
  * @since 0.7.8 build 2549
  */
-public class EntryModel {
+public class EntryModel extends AbstractModel {
     /** Transaction date. */
     private Date date;
     /** Transaction code. */
@@ -123,8 +123,7 @@ public class EntryModel {
      * @return Transaction date as string.
      */
     public String getDateAsString() {
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        return sdf.format(this.date);
+        return DateUtils.formatDate(this.date);
     }
     
     /**
@@ -134,8 +133,7 @@ public class EntryModel {
      * @return Transaction date as string.
      */
     public String getDateAsString(String format) {
-        SimpleDateFormat sdf = new SimpleDateFormat(format);
-        return sdf.format(this.date);
+        return DateUtils.format(this.date, format);
     }
 
     /**
@@ -145,6 +143,7 @@ public class EntryModel {
      */
     public void setDate(Date date) {
         this.date = date;
+        markModified();
     }
     
     /**
@@ -154,9 +153,8 @@ public class EntryModel {
      * @throws ParseException In the event the date cannot be properly parsed.
      */
     public void setDate(String date) throws ParseException {
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        
-        this.date = sdf.parse(date);
+        this.date = DateUtils.parseDate(date);
+        markModified();
     }
     
     /**
@@ -168,9 +166,8 @@ public class EntryModel {
      * @throws ParseException In the event the date cannot be properly parsed.
      */
     public void setDate(String format, String date) throws ParseException {
-        SimpleDateFormat sdf = new SimpleDateFormat(format);
-        
-        this.date = sdf.parse(date);
+        this.date = DateUtils.parse(date, format);
+        markModified();
     }
 
     /**
@@ -189,6 +186,7 @@ public class EntryModel {
      */
     public void setCode(String code) {
         this.code = code;
+        markModified();
     }
 
     /**
@@ -207,6 +205,7 @@ public class EntryModel {
      */
     public void setDescription(String description) {
         this.description = description;
+        markModified();
     }
 
     /**
@@ -227,6 +226,7 @@ public class EntryModel {
      */
     public void setFromAccount(int fromAccount) {
         this.fromAccount = fromAccount;
+        markModified();
     }
 
     /**
@@ -247,6 +247,7 @@ public class EntryModel {
      */
     public void setToAccount(int toAccount) {
         this.toAccount = toAccount;
+        markModified();
     }
 
     /**
@@ -265,6 +266,7 @@ public class EntryModel {
      */
     public void setAmount(double amount) {
         this.amount = amount;
+        markModified();
     }
 
     /**
@@ -283,6 +285,7 @@ public class EntryModel {
      */
     public void setDeductible(boolean deductible) {
         this.deductible = deductible;
+        markModified();
     }
 
     /**
@@ -303,5 +306,6 @@ public class EntryModel {
      */
     public void setBalanced(boolean balanced) {
         this.balanced = balanced;
+        markModified();
     }
 }
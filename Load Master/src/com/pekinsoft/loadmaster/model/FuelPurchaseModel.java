@@ -32,10 +32,10 @@
 
 package com.pekinsoft.loadmaster.model;
 
+import com.pekinsoft.loadmaster.utils.DateUtils;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
@@ -54,7 +54,7 @@ import java.util.Date;
  * @version 0.1.0
  * @since 0.1.0
  */
-public class FuelPurchaseModel {
+public class FuelPurchaseModel extends AbstractModel {
     //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
     
     //</editor-fold>
@@ -132,6 +132,7 @@ public class FuelPurchaseModel {
      */
     public void setId(long id) {
         this.id = id;
+        markModified();
     }
     
     /**
@@ -145,6 +146,7 @@ public class FuelPurchaseModel {
      */
     public void setId(String id) {
         this.id = Long.parseLong(id);
+        markModified();
     }
 
     /**
@@ -164,8 +166,7 @@ public class FuelPurchaseModel {
      * @return the purchase date.
      */
     public String getDateAsString() {
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        return sdf.format(date);
+        return DateUtils.formatDate(date);
     }
     
     /**
@@ -176,8 +177,7 @@ public class FuelPurchaseModel {
      * @return the purchase date.
      */
     public String getDateAsString(String format) {
-        SimpleDateFormat sdf = new SimpleDateFormat(format);
-        return sdf.format(date);
+        return DateUtils.format(date, format);
     }
 
     /**
@@ -192,6 +192,7 @@ public class FuelPurchaseModel {
      */
     public void setDate(Date date) {
         this.date = date;
+        markModified();
     }
 
     /**
@@ -220,6 +221,7 @@ public class FuelPurchaseModel {
      */
     public void setOdometer(int odometer) {
         this.odometer = odometer;
+        markModified();
     }
     
     /**
@@ -230,6 +232,7 @@ public class FuelPurchaseModel {
      */
     public void setOdometer(String odometer) {
         this.odometer = Integer.parseInt(odometer);
+        markModified();
     }
 
     /**
@@ -251,6 +254,7 @@ public class FuelPurchaseModel {
      */
     public void setLocation(String location) {
         this.location = location;
+        markModified();
     }
 
     /**
@@ -294,6 +298,7 @@ public class FuelPurchaseModel {
      */
     public void setGallonsOfDiesel(double gallonsOfDiesel) {
         this.gallonsOfDiesel = gallonsOfDiesel;
+        markModified();
     }
     
     /**
@@ -304,6 +309,7 @@ public class FuelPurchaseModel {
      */
     public void setGallonsOfDiesel(String gallonsOfDiesel) {
         this.gallonsOfDiesel = Double.parseDouble(gallonsOfDiesel);
+        markModified();
     }
 
     /**
@@ -347,6 +353,7 @@ public class FuelPurchaseModel {
      */
     public void setPricePerGallonDiesel(double pricePerGallonDiesel) {
         this.pricePerGallonDiesel = pricePerGallonDiesel;
+        markModified();
     }
     
     /**
@@ -357,6 +364,7 @@ public class FuelPurchaseModel {
      */
     public void setPricePerGallonOfDiesel(String pricePerGallon) {
         this.pricePerGallonDiesel = Double.valueOf(pricePerGallon);
+        markModified();
     }
 
     /**
@@ -376,6 +384,7 @@ public class FuelPurchaseModel {
      */
     public void setDefPurchased(boolean defPurchased) {
         this.defPurchased = defPurchased;
+        markModified();
     }
 
     /**
@@ -419,6 +428,7 @@ public class FuelPurchaseModel {
      */
     public void setGallonsOfDef(double gallonsOfDef) {
         this.gallonsOfDef = gallonsOfDef;
+        markModified();
     }
     
     /**
@@ -429,6 +439,7 @@ public class FuelPurchaseModel {
      */
     public void setGallonsOfDef(String gallonsOfDef) {
         this.gallonsOfDef = Double.parseDouble(gallonsOfDef);
+        markModified();
     }
 
     /**
@@ -472,6 +483,7 @@ public class FuelPurchaseModel {
      */
     public void setPricePerGallonDef(double pricePerGallonDef) {
         this.pricePerGallonDef = pricePerGallonDef;
+        markModified();
     }
     
     /**
@@ -482,6 +494,7 @@ public class FuelPurchaseModel {
      */
     public void setPricePerGallonDef(String pricePerGallon) {
         this.pricePerGallonDef = Double.parseDouble(pricePerGallon);
+        markModified();
     }
 
     /**
@@ -504,6 +517,7 @@ public class FuelPurchaseModel {
      */
     public void setNotes(String notes) {
         this.notes = notes;
+        markModified();
     }
     //</editor-fold>
 
@@ -52,7 +52,7 @@ import java.util.Date;
  * @version 0.1.0
  * @since 0.1.0
  */
-public class LoadModel {
+public class LoadModel extends AbstractModel {
     //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
     
     //</editor-fold>
@@ -123,6 +123,7 @@ public class LoadModel {
      */
     public void setCompleted(boolean completed) {
         this.completed = completed;
+        markModified();
     }
 
     /**
@@ -141,6 +142,7 @@ public class LoadModel {
      */
     public void setCancelled(boolean cancelled) {
         this.cancelled = cancelled;
+        markModified();
     }
 
     /**
@@ -159,6 +161,7 @@ public class LoadModel {
      */
     public void setOrder(String order) {
         this.order = order;
+        markModified();
     }
 
     /**
@@ -177,6 +180,7 @@ public class LoadModel {
      */
     public void setTrip(String trip) {
         this.trip = trip;
+        markModified();
     }
 
     /**
@@ -195,6 +199,7 @@ public class LoadModel {
      */
     public void setStartOdo(int startOdo) {
         this.startOdo = startOdo;
+        markModified();
     }
 
     /**
@@ -213,6 +218,7 @@ public class LoadModel {
      */
     public void setEndOdo(int endOdo) {
         this.endOdo = endOdo;
+        markModified();
     }
 
     /**
@@ -231,6 +237,7 @@ public class LoadModel {
      */
     public void setDispatch(Date dispatch) {
         this.dispatch = dispatch;
+        markModified();
     }
 
     /**
@@ -249,6 +256,7 @@ public class LoadModel {
      */
     public void setRate(double rate) {
         this.rate = rate;
+        markModified();
     }
 
     /**
@@ -267,6 +275,7 @@ public class LoadModel {
      */
     public void setMiles(int miles) {
         this.miles = miles;
+        markModified();
     }
 
     /**
@@ -285,6 +294,7 @@ public class LoadModel {
      */
     public void setWeight(int weight) {
         this.weight = weight;
+        markModified();
     }
 
     /**
@@ -306,6 +316,7 @@ public class LoadModel {
             commodity = " ";
         
         this.commodity = commodity;
+        markModified();
     }
 
     /**
@@ -324,6 +335,7 @@ public class LoadModel {
      */
     public void setHazMat(boolean hazMat) {
         this.hazMat = hazMat;
+        markModified();
     }
 
     /**
@@ -342,6 +354,7 @@ public class LoadModel {
      */
     public void setTarped(boolean tarped) {
         this.tarped = tarped;
+        markModified();
     }
 
     /**
@@ -361,6 +374,7 @@ public class LoadModel {
      */
     public void setTwic(boolean twic) {
         this.twic = twic;
+        markModified();
     }
 
     /**
@@ -381,6 +395,7 @@ public class LoadModel {
      */
     public void setTopCust(boolean topCust) {
         this.topCust = topCust;
+        markModified();
     }
 
     /**
@@ -399,6 +414,7 @@ public class LoadModel {
      */
     public void setLtl(boolean ltl) {
         this.ltl = ltl;
+        markModified();
     }
 
     /**
@@ -417,6 +433,7 @@ public class LoadModel {
      */
     public void setCbd(boolean cbd) {
         this.cbd = cbd;
+        markModified();
     }
 
     /**
@@ -435,6 +452,7 @@ public class LoadModel {
      */
     public void setRamps(boolean ramps) {
         this.ramps = ramps;
+        markModified();
     }
 
     /**
@@ -453,6 +471,7 @@ public class LoadModel {
      */
     public void setBroker(long broker) {
         this.broker = broker;
+        markModified();
     }
 
     /**
@@ -501,6 +520,7 @@ public class LoadModel {
             bol = " ";
         
         this.bol = bol;
+        markModified();
     }
 
     /**
@@ -548,6 +568,7 @@ public class LoadModel {
      */
     public void setPieces(int pieces) {
         this.pieces = pieces;
+        markModified();
     }
 
     /**
@@ -567,6 +588,7 @@ public class LoadModel {
      */
     public void setTeam(boolean team) {
         this.team = team;
+        markModified();
     }
 
     //</editor-fold>
@@ -32,8 +32,8 @@
 
 package com.pekinsoft.loadmaster.model;
 
+import com.pekinsoft.loadmaster.utils.DateUtils;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
@@ -61,7 +61,7 @@ import java.util.Date;
  * @version 0.1.0
  * @since 0.7.8 build 2549
  */
-public class ReceivablesModel {
+public class ReceivablesModel extends AbstractModel {
     //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
     
     //</editor-fold>
@@ -124,6 +124,7 @@ public class ReceivablesModel {
      */
     public void setTripNumber(String tripNumber) {
         this.tripNumber = tripNumber;
+        markModified();
     }
 
     /**
@@ -142,6 +143,7 @@ public class ReceivablesModel {
      */
     public void setOrderNumber(String orderNumber) {
         this.orderNumber = orderNumber;
+        markModified();
     }
 
     /**
@@ -161,8 +163,7 @@ public class ReceivablesModel {
      * @return receivable acquisition date.
      */
     public String getDateAsString() {
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        return sdf.format(this.date);
+        return DateUtils.formatDate(this.date);
     }
     
     /**
@@ -173,8 +174,7 @@ public class ReceivablesModel {
      * @return          receivable acquisition date in the desired format.
      */
     public String getDateAsString(String format) {
-        SimpleDateFormat sdf = new SimpleDateFormat(format);
-        return sdf.format(this.date);
+        return DateUtils.format(this.date, format);
     }
     /**
      * Sets the date this receivable was acquired using a `java.util.Date` 
@@ -184,6 +184,7 @@ public class ReceivablesModel {
      */
     public void setDate(Date date) {
         this.date = date;
+        markModified();
     }
     
     /**
@@ -194,8 +195,8 @@ public class ReceivablesModel {
      * @throws ParseException in the event the date cannot be parsed.
      */
     public void setDate(String date) throws ParseException {
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
-        this.date = sdf.parse(date);
+        this.date = DateUtils.parseDate(date);
+        markModified();
     }
     
     /**
@@ -207,8 +208,8 @@ public class ReceivablesModel {
      * @throws ParseException in the event the date cannot be parsed.
      */
     public void setDate(String date, String format) throws ParseException {
-        SimpleDateFormat sdf = new SimpleDateFormat(format);
-        this.date = sdf.parse(date);
+        this.date = DateUtils.parse(date, format);
+        markModified();
     }
 
     /**
@@ -236,6 +237,7 @@ public class ReceivablesModel {
      */
     public void setAmount(double amount) {
         this.amount = amount;
+        markModified();
     }
     
     /**
@@ -245,6 +247,7 @@ public class ReceivablesModel {
      */
     public void setAmount(String amount) {
         this.amount = Double.parseDouble(amount);
+        markModified();
     }
 
     /**
@@ -275,6 +278,7 @@ public class ReceivablesModel {
      */
     public void setId(long id) {
         this.id = id;
+        markModified();
     }
     
     /**
@@ -286,6 +290,7 @@ public class ReceivablesModel {
      */
     public void setId(String id) {
         this.id = Long.valueOf(id);
+        markModified();
     }
     
     /**
@@ -306,6 +311,7 @@ public class ReceivablesModel {
      */
     public void setSettled(boolean settled) {
         this.settled = settled;
+        markModified();
     }
     //</editor-fold>
 
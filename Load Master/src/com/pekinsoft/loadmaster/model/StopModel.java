@@ -42,8 +42,8 @@
 package com.pekinsoft.loadmaster.model;
 
 import com.pekinsoft.loadmaster.err.InvalidTimeException;
+import com.pekinsoft.loadmaster.utils.DateUtils;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
@@ -53,7 +53,7 @@ import java.util.Date;
  * @version 0.1.0
  * @since 0.1.0
  */
-public class StopModel {
+public class StopModel extends AbstractModel {
     //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
     
     //</editor-fold>
@@ -106,6 +106,7 @@ public class StopModel {
 
     public void setStopNumber(int stopNumber) {
         this.stopNumber = stopNumber;
+        markModified();
     }
 
     public long getCustomer() {
@@ -114,6 +115,7 @@ public class StopModel {
 
     public void setCustomer(long customer) {
         this.customer = customer;
+        markModified();
     }
 
     public Date getEarlyDate() {
@@ -122,6 +124,7 @@ public class StopModel {
 
     public void setEarlyDate(Date earlyDate) {
         this.earlyDate = earlyDate;
+        markModified();
     }
 
     public String getEarlyTime() {
@@ -135,15 +138,15 @@ public class StopModel {
         
         try {
             if ( earlyTime.length() > 1 ) {
-                SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-                Date time = sdf.parse(earlyTime);
+                DateUtils.parseTime(earlyTime);
             }
         } catch ( ParseException ex ) {
-            throw new InvalidTimeException("The provided time, " + depTime 
+            throw new InvalidTimeException("The provided time, " + earlyTime 
                     + ", is invalid.");
         }
 
         this.earlyTime = earlyTime;
+        markModified();
     }
 
     public Date getLateDate() {
@@ -152,6 +155,7 @@ public class StopModel {
 
     public void setLateDate(Date lateDate) {
         this.lateDate = lateDate;
+        markModified();
     }
 
     public String getLateTime() {
@@ -165,15 +169,15 @@ public class StopModel {
         
         try {
             if ( lateTime.length() > 1 ) {
-                SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-                Date time = sdf.parse(lateTime);
+                DateUtils.parseTime(lateTime);
             }
         } catch ( ParseException ex ) {
-            throw new InvalidTimeException("The provided time, " + depTime 
+            throw new InvalidTimeException("The provided time, " + lateTime 
                     + ", is invalid.");
         }
         
         this.lateTime = lateTime;
+        markModified();
     }
     
     public Date getArrDate() {
@@ -182,6 +186,7 @@ public class StopModel {
     
     public void setArrDate(Date arrDate) {
         this.arrDate = arrDate;
+        markModified();
     }
     
     public String getArrTime() {
@@ -195,15 +200,15 @@ public class StopModel {
         
         try {
             if ( arrTime.length() > 1 ) {
-                SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-                Date time = sdf.parse(arrTime);
+                DateUtils.parseTime(arrTime);
             }
         } catch ( ParseException ex ) {
-            throw new InvalidTimeException("The provided time, " + depTime 
+            throw new InvalidTimeException("The provided time, " + arrTime 
                     + ", is invalid.");
         }
         
         this.arrTime = arrTime;
+        markModified();
     }
     
     public Date getDepDate() {
@@ -212,6 +217,7 @@ public class StopModel {
     
     public void setDepDate(Date depDate) {
         this.depDate = depDate;
+        markModified();
     }
     
     public String getDepTime() {
@@ -225,8 +231,7 @@ public class StopModel {
         
         try {
             if ( depTime.length() > 1 ) {
-                SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-                Date time = sdf.parse(depTime);
+                DateUtils.parseTime(depTime);
             }
         } catch ( ParseException ex ) {
             throw new InvalidTimeException("The provided time, " + depTime 
@@ -234,6 +239,7 @@ public class StopModel {
         }
             
         this.depTime = depTime;
+        markModified();
     }
 
     public String getSignedBy() {
@@ -242,6 +248,7 @@ public class StopModel {
     
     public void setSignedBy(String signedBy) {
         this.signedBy = signedBy;
+        markModified();
     }
 
     public String getTripNumber() {
@@ -250,6 +257,7 @@ public class StopModel {
 
     public void setTripNumber(String tripNumber) {
         this.tripNumber = tripNumber;
+        markModified();
     }
     //</editor-fold>
 
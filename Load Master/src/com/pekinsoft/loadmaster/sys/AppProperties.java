@@ -45,7 +45,6 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Properties;
-import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import com.pekinsoft.loadmaster.enums.SysExits;
 
@@ -73,8 +72,6 @@ public class AppProperties {
     
     private static final Properties props;
     private static final Logger log = Logger.getInstance();
-    private static final LogRecord record = new LogRecord(Level.ALL, 
-            "Instantiating Logging");
     private static final AppProperties appProps = new AppProperties();
     
     static {
@@ -110,7 +107,7 @@ public class AppProperties {
             //+ Therefore, we will just write a configuration log entry, 
             //+ advising that this exception was thrown, but not write an error
             //+ message to the log.
-            record.setSourceClassName(AppProperties.class.getName());
+            LogRecord record = Logger.newRecord(AppProperties.class);
             record.setSourceMethodName("static {} initializer");
             log.enter(record);
             record.setMessage("Exception while trying to read in the "
@@ -521,7 +518,7 @@ public class AppProperties {
         } catch ( IOException ex ) {
             // If we come to this error handler, unlike in the static initializer,
             //+ we have a problem. Therefore, we will log an error.
-            record.setSourceClassName(AppProperties.class.getName());
+            LogRecord record = Logger.newRecord(AppProperties.class);
             record.setSourceMethodName("exit");
             record.setMessage(ex.getMessage());
             record.setThrown(ex);
@@ -543,7 +540,7 @@ public class AppProperties {
      * @param status `com.northwind.enums.SysExits` enumeration value
      */
     public void exit(SysExits status) {
-        record.setSourceClassName(AppProperties.class.getName());
+        LogRecord record = Logger.newRecord(AppProperties.class);
         record.setSourceMethodName("exit");
         record.setParameters(new Object[]{status});
         record.setMessage("Entering the `exit` procedure.");
@@ -567,7 +564,6 @@ public class AppProperties {
         } catch ( IOException ex ) {
             // If we come to this error handler, unlike in the static initializer,
             //+ we have a problem. Therefore, we will log an error.
-            record.setSourceClassName(AppProperties.class.getName());
             record.setSourceMethodName("exit");
             record.setMessage(ex.getMessage());
             record.setThrown(ex);
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   LogRingBuffer
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      A bounded, lock-free queue of log entries waiting to be written by the
+ *      `Logger`'s background writer thread.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.sys;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * `LogRingBuffer` is a fixed-size ring of log entries that any number of
+ * threads may add to, and that exactly one thread (the `Logger`'s writer
+ * thread) takes entries from. No locks are taken on either side: each slot in
+ * the ring carries a sequence number, which tells a producer whether the slot
+ * is free and tells the consumer whether the slot has been filled.
+ *
+ * <dl><dt>Note</dt><dd>`poll` and `isEmpty` must only ever be called from the
+ * single consuming thread.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+final class LogRingBuffer {
+    //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
+    private final int mask;
+    private final AtomicReferenceArray<String> entries;
+    private final AtomicLongArray sequences;
+
+    // The next position to be filled, shared by all producers.
+    private final AtomicLong head;
+
+    // The next position to be taken, owned by the consumer.
+    private long tail;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    /**
+     * Creates a ring that holds at least the specified number of entries. The
+     * capacity is rounded up to the next power of two.
+     *
+     * @param capacity the minimum number of entries the ring can hold.
+     */
+    LogRingBuffer (int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+
+        mask = size - 1;
+        entries = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        head = new AtomicLong();
+        tail = 0;
+
+        for ( int x = 0; x < size; x++ ) {
+            sequences.set(x, x);
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package-Private Methods">
+    /**
+     * Adds an entry to the ring, if there is room for it.
+     *
+     * @param entry the entry to add.
+     * @return `true` if the entry was added, `false` if the ring is full.
+     */
+    boolean offer(String entry) {
+        long pos = head.get();
+
+        while ( true ) {
+            int slot = (int) (pos & mask);
+            long diff = sequences.get(slot) - pos;
+
+            if ( diff == 0 ) {
+                // The slot is free, so try to claim it.
+                if ( head.compareAndSet(pos, pos + 1) ) {
+                    entries.lazySet(slot, entry);
+                    sequences.set(slot, pos + 1);   // Publish the entry.
+                    return true;
+                }
+
+                pos = head.get();
+            } else if ( diff < 0 ) {
+                // The consumer has not taken the entry in this slot yet, so
+                //+ the ring is full.
+                return false;
+            } else {
+                // Another producer claimed the slot first.
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest entry from the ring.
+     *
+     * @return the oldest entry, or `null` if the ring is empty.
+     */
+    String poll() {
+        int slot = (int) (tail & mask);
+
+        if ( sequences.get(slot) != tail + 1 ) {
+            return null;
+        }
+
+        String entry = entries.get(slot);
+        entries.lazySet(slot, null);
+
+        // Hand the slot back to the producers for their next trip around.
+        sequences.set(slot, tail + mask + 1);
+        tail++;
+
+        return entry;
+    }
+
+    /**
+     * Determines whether there are any entries waiting in the ring.
+     *
+     * @return `true` if there are no entries waiting.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) (tail & mask)) != tail + 1;
+    }
+    //</editor-fold>
+
+}
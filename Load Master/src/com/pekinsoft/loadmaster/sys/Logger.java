@@ -42,13 +42,17 @@ package com.pekinsoft.loadmaster.sys;
 
 import com.pekinsoft.loadmaster.err.InvalidLoggingLevelException;
 import com.pekinsoft.loadmaster.utils.MessageBox;
+import com.pekinsoft.loadmaster.utils.DateUtils;
 import com.pekinsoft.loadmaster.utils.StringUtils;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
 /**
@@ -95,6 +99,29 @@ public class Logger {
      * before calling a logging event.
      */
     public static final int OFF = 100;
+    
+    /**
+     * Overflow policy for asynchronous logging: when the log buffer is full,
+     * the calling thread waits until there is room for its entry. No entries
+     * are ever lost.
+     */
+    public static final int OVERFLOW_BLOCK = 0;
+    /**
+     * Overflow policy for asynchronous logging: when the log buffer is full,
+     * new entries are dropped. The number of dropped entries is written to the
+     * log once there is room again.
+     */
+    public static final int OVERFLOW_DROP = 1;
+    /**
+     * Overflow policy for asynchronous logging: when the log buffer is full,
+     * one out of every `SAMPLE_RATE` new entries is kept (waiting for room, as
+     * with `OVERFLOW_BLOCK`), and the rest are dropped.
+     */
+    public static final int OVERFLOW_SAMPLE = 2;
+    /**
+     * The rate at which entries are kept under the `OVERFLOW_SAMPLE` policy.
+     */
+    public static final int SAMPLE_RATE = 10;
     //</editor-fold>
     
     //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
@@ -112,6 +139,28 @@ public class Logger {
             " END MESSAGE ".length() / 2)) + "  E N D " + 
             "-".repeat(40 - (" END ".length() / 2)) + "\n";
     private static final Logger logger = new Logger();
+    
+    // Asynchronous logging: the most characters written to the log file in a
+    //+ single write, and how long the writer thread sleeps when there is
+    //+ nothing to write, or a blocked caller waits for room in the buffer.
+    private static final int BATCH_SIZE = 64 * 1024;
+    private static final long IDLE_WAIT_NANOS = 50_000_000L;
+    private static final long BLOCK_WAIT_NANOS = 100_000L;
+    
+    // Private constants for the banners in the error reports.
+    private static final String ERR_RULE = "#".repeat(80) + "\n";
+    private static final String ERR_HDR = "#".repeat(40 
+            - (" E R R O R ".length() / 2)) + " E R R O R " 
+            + "#".repeat(39 - (" E R R O R ".length() / 2)) + "\n";
+    private static final String ERR_FTR = "#".repeat(40 
+            - (" E N D   O F   E R R O R ".length() / 2)) 
+            + " E N D   O F   E R R O R " 
+            + "#".repeat(39 - (" E N D   O F   E R R O R ".length() / 2));
+    
+    // Each thread builds its error reports in its own buffer, which is reused
+    //+ from one report to the next.
+    private static final ThreadLocal<StringBuilder> REPORT 
+            = ThreadLocal.withInitial(() -> new StringBuilder(4096));
     //</editor-fold>
 
     {
@@ -137,10 +186,18 @@ public class Logger {
     
     //<editor-fold defaultstate="collapsed" desc="Private Member Fields">
     private FileWriter log; // The file to which messages will be written.
-    private FileWriter err; // The file to which errors will be written.
     private boolean append; // Whether or not to append to existing file.
-    private int level;      // Level at which to log messages.
-    private LogRecord record;   // Record for logging messages.
+    private volatile int level; // Level at which to log messages.
+    
+    // Asynchronous logging. The queue is null when logging synchronously.
+    private volatile LogRingBuffer queue;
+    private volatile Thread writer;
+    private volatile boolean writerWaiting;
+    private volatile boolean closing;
+    private volatile boolean closed;
+    private int overflowPolicy;
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
@@ -260,6 +317,36 @@ public class Logger {
         return logger;
     }
     
+    /**
+     * Creates a new, empty `LogRecord` for a single log entry, with its source
+     * class already filled in.
+     * 
+     * A `LogRecord` should never be shared between log entries that may be
+     * made from different threads. The `Logger` is safe to call from any 
+     * number of threads at once, and reads everything it needs out of the 
+     * `LogRecord` before the logging method returns, but it cannot stop one
+     * thread from changing a shared `LogRecord` while another thread is 
+     * logging it. The simplest way to keep this from happening is to create a
+     * new `LogRecord` through this method for each entry, or at least for each
+     * method call, and to let it go once the entry has been logged:
+     * 
+     * <pre>
+     * LogRecord entry = Logger.newRecord(getClass());
+     * entry.setSourceMethodName("connect");
+     * entry.setMessage(ex.getMessage());
+     * entry.setThrown(ex);
+     * Starter.logger.error(entry);
+     * </pre>
+     * 
+     * @param source the class making the log entry.
+     * @return a new `LogRecord` for the entry.
+     */
+    public static LogRecord newRecord(Class<?> source) {
+        LogRecord record = new LogRecord(Level.FINEST, "");
+        record.setSourceClassName(source.getCanonicalName());
+        return record;
+    }
+    
     /**
      * This is a convenience method to allow an application to log a 
      * configuration level message without having to go through the rigamarole
@@ -269,31 +356,67 @@ public class Logger {
      */
     public void config(LogRecord record) {
         // We need to try to log the message, however, we will only do so if 
-        //+ logging is not turned off and level is set to config or higher.
-        if ( this.level != OFF && this.level >= CONFIG || this.level == DEBUG) {
+        //+ logging is not turned off and level is set to config or lower.
+        if ( isEnabled(CONFIG) ) {
             // We're good to log the message to the log file.
-            try {
-                log.write(StringUtils.wrapAt("CONFIG: " + record.getMessage(),
-                        80) + "\n");
-                
-                // Now, flush the buffer to be sure the data was written.
-                log.flush();
-            } catch ( IOException ex ) {
-                // Let the user know that the message was not written.
-                String ttl = "I/O Error: Entry Not Written";
-                MessageBox.showError(ex, ttl);
-            }
+            write(StringUtils.wrapAt("CONFIG: " + record.getMessage(), 80) 
+                    + "\n");
+        }
+    }
+    
+    /**
+     * Logs a configuration level message that is only built if configuration
+     * messages are being logged. Use this method whenever building the message
+     * costs more than a simple string, such as in loops.
+     * 
+     * @param record  The `LogRecord` to use for this log entry.
+     * @param message Supplies the message for the log entry.
+     */
+    public void config(LogRecord record, Supplier<String> message) {
+        if ( isEnabled(CONFIG) ) {
+            record.setMessage(message.get());
+            config(record);
         }
     }
     
     /**
      * Provides the calling application with a method to close the log file
      * prior to the application exiting.
+     * 
+     * When logging asynchronously, this method waits until every entry that
+     * was waiting in the log buffer has been written out before closing the
+     * log file. Anything logged after the `Logger` has been closed is ignored.
      */
-    public void close() {
+    public synchronized void close() {
+        if ( closed ) {
+            return;
+        }
+        
+        // Let the writer thread finish writing out all of the waiting entries.
+        Thread w = writer;
+        if ( w != null ) {
+            closing = true;
+            LockSupport.unpark(w);
+            
+            boolean interrupted = false;
+            while ( w.isAlive() ) {
+                try {
+                    w.join();
+                } catch ( InterruptedException ex ) {
+                    interrupted = true;
+                }
+            }
+            
+            if ( interrupted ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        closed = true;
+        
         // We need to try to close the log, however, we will only do so if 
         //+ logging is not turned off.
-        if ( this.level != OFF && this.level >= CONFIG ) {
+        if ( this.level != OFF ) {
             // We're good to log the message to the log file.
             try {
                 log.flush(); // First, flush it to be sure all data is written.
@@ -355,9 +478,7 @@ public class Logger {
         StringBuilder src = new StringBuilder();
         String rule = "-".repeat(80);
         
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
-        Date now = new Date();
-        String timeStamp = sdf.format(now);
+        String timeStamp = DateUtils.format(new Date(), "yyyy-MM-dd-HH-mm-ss");
         
         src.append("Error Location: ");
         src.append(record.getMessage());
@@ -457,12 +578,13 @@ public class Logger {
         //+ logging is not turned off.
 //        if ( this.level != OFF ) {
             // We're good to log the message to the log file.
-            try {
-                this.err = new FileWriter(ERR_PATH + 
+            // Each critical error gets its own error log, so the writer is 
+            //+ local to this call, and closed as soon as it has been written.
+            try ( FileWriter err = new FileWriter(ERR_PATH + 
                         record.getSourceClassName().substring(
                                 record.getSourceClassName().lastIndexOf(".") 
                                         + 1) + "_" + 
-                        "class_" + timeStamp + ".err");
+                        "class_" + timeStamp + ".err") ) {
         
 //                err.write(MSG_HDR);
                 err.write(src.toString());
@@ -479,10 +601,7 @@ public class Logger {
                 src.append(timeStamp);
                 src.append(".err\n\n");
                 
-                log.write(src.toString());
-                
-                // Flush the log.
-                log.flush();
+                write(src.toString());
             } catch ( IOException e ) {
                 // Let the user know that the message was not written.
                 String ttl = "I/O Error: Entry Not Written";
@@ -501,19 +620,25 @@ public class Logger {
         // We need to try to log the message, however, we will only do so if 
         //+ logging is not turned off and the level is set to debugging or
         //+ higher.
-        if ( this.level != OFF && this.level >= DEBUG ) {
+        if ( isEnabled(DEBUG) ) {
             // We're good to log the message to the log file.
-            try {
-                log.write(StringUtils.wrapAt("DEBUG: " + record.getMessage(), 
-                        80) + "\n");
-
-                // Now, flush the buffer to be sure the data was written.
-                log.flush();
-            } catch ( IOException ex ) {
-                // Let the user know that the message was not written.
-                String ttl = "I/O Error: Entry Not Written";
-                MessageBox.showError(ex, ttl);
-            }
+            write(StringUtils.wrapAt("DEBUG: " + record.getMessage(), 80) 
+                    + "\n");
+        }
+    }
+    
+    /**
+     * Logs a debugging message that is only built if debugging messages are
+     * being logged. Use this method whenever building the message costs more
+     * than a simple string, such as in loops.
+     * 
+     * @param record  The `LogRecord` to use for this log entry.
+     * @param message Supplies the message for the log entry.
+     */
+    public void debug(LogRecord record, Supplier<String> message) {
+        if ( isEnabled(DEBUG) ) {
+            record.setMessage(message.get());
+            debug(record);
         }
     }
     
@@ -547,34 +672,23 @@ public class Logger {
 //    }
     
     /**
-     * As long as the `Logger` is not `OFF`, then an entry message to a method
-     * with one parameter will be written to the file, regardless of logging
-     * level.
+     * As long as the `Logger` is logging at the `DEBUG` level, then an entry
+     * message to a method with one parameter will be written to the file.
      * 
      * @param record The `LogRecord` to use for this log entry.
      */
     public void enter(LogRecord record) {
-        // We need to build our source before we write to the file.
-        String src = record.getSourceClassName() + "." 
-                + record.getSourceMethodName() + "( " 
-                + record.getParameters() + " )";
-        
         // We need to try to log the message, however, we will only do so if 
-        //+ logging is not turned off.
-        if ( this.level != OFF ) {
+        //+ method tracing is turned on.
+        if ( isEnabled(DEBUG) ) {
+            // We need to build our source before we write to the file.
+            String src = record.getSourceClassName() + "." 
+                    + record.getSourceMethodName() + "( " 
+                    + record.getParameters() + " )";
+            
             // We're good to log the message to the log file.
-            try {
-                log.write(MSG_HDR);
-                log.write(" -> " + LocalDateTime.now().toString() + "\n");
-                log.write(StringUtils.wrapAt("Entering: " + src, 80) + "\n");
-                
-                // Now, flush the buffer to be sure the data was written.
-                log.flush();
-            } catch ( IOException ex ) {
-                // Let the user know that the message was not written.
-                String ttl = "I/O Error: Entry Not Written";
-                MessageBox.showError(ex, ttl);
-            }
+            write(MSG_HDR + " -> " + LocalDateTime.now().toString() + "\n"
+                    + StringUtils.wrapAt("Entering: " + src, 80) + "\n");
         }
     }
     
@@ -639,64 +753,68 @@ public class Logger {
      * @param record The `LogRecord` to use for this log entry.
      */
     public void error(LogRecord record) {
+        // We need to try to log the message, however, we will only do so if 
+        //+ logging is not turned off and level is set to error or lower.
+        if ( !isEnabled(ERROR) ) {
+            return;
+        }
+        
         // We need to create our message with the Exception and extra data that
         //+ has been provided.
-        String src = "#".repeat(80) + "\n";
-        src += "#".repeat(40 - (" E R R O R ".length() / 2)) + " E R R O R ";
-        src += "#".repeat(39 - (" E R R O R ".length() / 2)) + "\n";
-        src += "Message: " + record.getThrown().getMessage() + "\n";
+        StringBuilder src = report();
+        src.append(ERR_RULE).append(ERR_HDR);
+        src.append("Message: ").append(record.getThrown().getMessage())
+                .append("\n");
         if ( record.getThrown().getCause() != null )
-            src += "Source: " + record.getThrown().getCause().toString() + "\n";
-        src += record.getMessage() + "\n\nStacktrace:\n";
+            src.append("Source: ").append(record.getThrown().getCause())
+                    .append("\n");
+        src.append(record.getMessage()).append("\n\nStacktrace:\n");
         
         StackTraceElement[] stack = record.getThrown().getStackTrace();
         
         for ( StackTraceElement element : stack ) {
-            src += element.toString() + "\n";
+            src.append(element).append("\n");
         }
         
-        src += "#".repeat(40 - (" E N D   O F   E R R O R ".length() / 2));
-        src += " E N D   O F   E R R O R ";
-        src += "#".repeat(39 - (" E N D   O F   E R R O R ".length() / 2)) + "\n\n";
-        src += " ".repeat(40 - ("USER INFORMATION".length() / 2));
-        src += "USER INFORMATION"+  "\n\n";
-        src += record.getMessage() + "\n";
-        src += " ".repeat(40 - ("SYSTEM INFORMATION".length() / 2)) + "\n\n";
-        src += "SYSTEM INFORMATION" + "\n\n";
-        src += "OS\t\t" + System.getProperty("os.name") + "\n";
-        src += "OS Version:\t" + System.getProperty("os.version") + "\n";
-        src += "Architecture:\t" + System.getProperty("os.arch") + "\n\n";
-        src += " ".repeat(40 - ("JAVA INFORMATION".length() / 2)) + "\n\n";
-        src += "JAVA INFORMATION" + "\n\n";
-        src += "Java Virtual Machine: " + System.getProperty("java.vm.name") + "\n";
-        src += "Java VM Version:\t" + System.getProperty("java.vm.version") + "\n";
-        src += "Java Runtime:\t" + System.getProperty("java.runtime.name") + "\n";
-        src += "Java Runtime Version: " + System.getProperty("java.runtime.version") + "\n";
-        src += "Java Specification:\t" + System.getProperty("java.specification.name") + "\n";
-        src += "Java Spec. Version:\t" + System.getProperty("java.specification.version") + "\n";
-        src += "\n";
-        src += "JDK Module Path:\t" + System.getProperty("jdk.module.path") + "\n";
-        src += "\n";
-        src += "Java Library Path:\t" + System.getProperty("java.library.path") + "\n";
-        src += "\n -> " + LocalDateTime.now().toString();
+        src.append(ERR_FTR).append("\n\n");
+        src.append(" ".repeat(40 - ("USER INFORMATION".length() / 2)));
+        src.append("USER INFORMATION").append("\n\n");
+        src.append(record.getMessage()).append("\n");
+        src.append(" ".repeat(40 - ("SYSTEM INFORMATION".length() / 2)))
+                .append("\n\n");
+        src.append("SYSTEM INFORMATION").append("\n\n");
+        src.append("OS\t\t").append(System.getProperty("os.name")).append("\n");
+        src.append("OS Version:\t").append(System.getProperty("os.version"))
+                .append("\n");
+        src.append("Architecture:\t").append(System.getProperty("os.arch"))
+                .append("\n\n");
+        src.append(" ".repeat(40 - ("JAVA INFORMATION".length() / 2)))
+                .append("\n\n");
+        src.append("JAVA INFORMATION").append("\n\n");
+        src.append("Java Virtual Machine: ")
+                .append(System.getProperty("java.vm.name")).append("\n");
+        src.append("Java VM Version:\t")
+                .append(System.getProperty("java.vm.version")).append("\n");
+        src.append("Java Runtime:\t")
+                .append(System.getProperty("java.runtime.name")).append("\n");
+        src.append("Java Runtime Version: ")
+                .append(System.getProperty("java.runtime.version")).append("\n");
+        src.append("Java Specification:\t")
+                .append(System.getProperty("java.specification.name"))
+                .append("\n");
+        src.append("Java Spec. Version:\t")
+                .append(System.getProperty("java.specification.version"))
+                .append("\n");
+        src.append("\n");
+        src.append("JDK Module Path:\t")
+                .append(System.getProperty("jdk.module.path")).append("\n");
+        src.append("\n");
+        src.append("Java Library Path:\t")
+                .append(System.getProperty("java.library.path")).append("\n");
+        src.append("\n -> ").append(LocalDateTime.now());
         
-        // We need to try to log the message, however, we will only do so if 
-        //+ logging is not turned off.
-        if ( this.level != OFF ) {
-            // We're good to log the message to the log file.
-            try {
-                log.write(MSG_HDR);
-                log.write(src);
-                log.write(MSG_FTR);
-                
-                // Now, flush the buffer to be sure the data was written.
-                log.flush();
-            } catch ( IOException e ) {
-                // Let the user know that the message was not written.
-                String ttl = "I/O Error: Entry Not Written";
-                MessageBox.showError(e, ttl);
-            }
-        }
+        // We're good to log the message to the log file.
+        write(MSG_HDR + src + MSG_FTR);
     }
     
 //    /**
@@ -729,35 +847,25 @@ public class Logger {
 //    }
     
     /**
-     * As long as `Logging` is not `OFF`, then a message will be written to the
-     * log file whenever control passes back out of the method that has a return
-     * value, but no parameters.
+     * As long as the `Logger` is logging at the `DEBUG` level, then a message 
+     * will be written to the log file whenever control passes back out of the
+     * method that has a return value, but no parameters.
      * 
      * @param record The `LogRecord` to use for this log entry.
      * @param returnValue   The name of the return variable.
      */
     public void exit(LogRecord record, Object returnValue) {
-        // We need to build up our string to print.
-        String src = record.getSourceClassName() + "." 
-                + record.getSourceMethodName() 
-                + " :: " + returnValue;
-        
         // We need to try to log the message, however, we will only do so if 
-        //+ logging is not turned off.
-        if ( this.level != OFF ) {
+        //+ method tracing is turned on.
+        if ( isEnabled(DEBUG) ) {
+            // We need to build up our string to print.
+            String src = record.getSourceClassName() + "." 
+                    + record.getSourceMethodName() 
+                    + " :: " + returnValue;
+            
             // We're good to log the message to the log file.
-            try {
-                log.write(StringUtils.wrapAt("Exiting: " + src, 80));
-                log.write("\n -> " + LocalDateTime.now().toString());
-                log.write(MSG_FTR);
-                
-                // Now, flush the buffer to be sure the data was written.
-                log.flush();
-            } catch ( IOException ex ) {
-                // Let the user know that the message was not written.
-                String ttl = "I/O Error: Entry Not Written";
-                MessageBox.showError(ex, ttl);
-            }
+            write(StringUtils.wrapAt("Exiting: " + src, 80) + "\n -> " 
+                    + LocalDateTime.now().toString() + MSG_FTR);
         }
     }
     
@@ -845,16 +953,6 @@ public class Logger {
         return this.level;
     }
     
-    /**
-     * Provides a method for retrieving the `LogRecord` that is currently stored
-     * in the `Logger`, if any.
-     * 
-     * @return 
-     */
-    public LogRecord getRecord() {
-        return this.record; 
-    }
-    
     /**
      * Logs a non-critical error to the log file, typically, when it is thrown
      * and just before the program handles it. This should only be used 
@@ -868,47 +966,37 @@ public class Logger {
      * @param record The `LogRecord` to use for this log entry.
      */
     public void handledError(LogRecord record) {
+        // We need to try to log the message, however, we will only do so if 
+        //+ logging is not turned off and level is set to error or lower.
+        if ( !isEnabled(ERROR) ) {
+            return;
+        }
+        
         // We need to create our message with the Exception and extra data that
         //+ has been provided.
-        String src = "#".repeat(80) + "\n";
-        src += "#".repeat(40 - (" E R R O R ".length() / 2)) + " E R R O R ";
-        src += "#".repeat(39 - (" E R R O R ".length() / 2)) + "\n";
-        src += "Message: " + record.getThrown().getMessage() + "\n";
+        StringBuilder src = report();
+        src.append(ERR_RULE).append(ERR_HDR);
+        src.append("Message: ").append(record.getThrown().getMessage())
+                .append("\n");
         if ( record.getThrown().getCause() != null )
-            src += "Source: " + record.getThrown().getCause().toString() + "\n";
-        src += " ".repeat(40 - ("Extra Data".length() / 2));
-        src += "EXTRA DATA"+  "\n\n";
-        src += record.getMessage() + "\n";
-        src += "\nStacktrace:\n";
+            src.append("Source: ").append(record.getThrown().getCause())
+                    .append("\n");
+        src.append(" ".repeat(40 - ("Extra Data".length() / 2)));
+        src.append("EXTRA DATA").append("\n\n");
+        src.append(record.getMessage()).append("\n");
+        src.append("\nStacktrace:\n");
         
         StackTraceElement[] stack = record.getThrown().getStackTrace();
         
         for ( StackTraceElement element : stack ) {
-            src += element.toString() + "\n";
+            src.append(element).append("\n");
         }
         
-        src += "#".repeat(40 - (" E N D   O F   E R R O R ".length() / 2));
-        src += " E N D   O F   E R R O R ";
-        src += "#".repeat(39 - (" E N D   O F   E R R O R ".length() / 2));
-        src += "\n -> " + LocalDateTime.now().toString();
+        src.append(ERR_FTR);
+        src.append("\n -> ").append(LocalDateTime.now());
         
-        // We need to try to log the message, however, we will only do so if 
-        //+ logging is not turned off.
-        if ( this.level != OFF ) {
-            // We're good to log the message to the log file.
-            try {
-                log.write(MSG_HDR);
-                log.write(src);
-                log.write(MSG_FTR);
-                
-                // Now, flush the buffer to be sure the data was written.
-                log.flush();
-            } catch ( IOException e ) {
-                // Let the user know that the message was not written.
-                String ttl = "I/O Error: Entry Not Written";
-                MessageBox.showError(e, ttl);
-            }
-        }
+        // We're good to log the message to the log file.
+        write(MSG_HDR + src + MSG_FTR);
     }
     
     /**
@@ -922,30 +1010,46 @@ public class Logger {
     public void info(LogRecord record) {
         // We need to try to log the message, however, we will only do so if 
         //+ logging is not turned off and the level is set to info or higher.
-        if ( this.level != OFF && this.level >= INFO || this.level == DEBUG ) {
+        if ( isEnabled(INFO) ) {
             // We're good to log the message to the log file.
-            try {
-                log.write(StringUtils.wrapAt("INFO: " + record.getMessage(), 
-                        80) + "\n");
-                
-                // Now, flush the buffer to be sure the data was written.
-                log.flush();
-            } catch ( IOException ex ) {
-                // Let the user know that the message was not written.
-                String ttl = "I/O Error: Entry Not Written";
-                MessageBox.showError(ex, ttl);
-            }
+            write(StringUtils.wrapAt("INFO: " + record.getMessage(), 80) 
+                    + "\n");
         }
     }
     
     /**
-     * Provides a method of storing a `LogRecord` in the `Logger` for later use,
-     * either in the same `Class` or `Method`, or another.
+     * Logs an informational message that is only built if informational
+     * messages are being logged. Use this method whenever building the message
+     * costs more than a simple string, such as in loops.
      * 
-     * @param record 
+     * @param record  The `LogRecord` to use for this log entry.
+     * @param message Supplies the message for the log entry.
      */
-    public void setRecord (LogRecord record) {
-        this.record = record;
+    public void info(LogRecord record, Supplier<String> message) {
+        if ( isEnabled(INFO) ) {
+            record.setMessage(message.get());
+            info(record);
+        }
+    }
+    
+    /**
+     * Determines whether messages at the specified level are currently being
+     * written to the log. Calling code can use this to skip building messages
+     * that would only be thrown away, which only costs a single comparison:
+     * 
+     * <pre>
+     * if ( Starter.logger.isEnabled(Logger.DEBUG) ) {
+     *     entry.setMessage("Parsed: " + line);
+     *     Starter.logger.debug(entry);
+     * }
+     * </pre>
+     * 
+     * @param level one of the logging levels, `DEBUG` through `CRITICAL`.
+     * @return `true` if messages at the specified level are being logged.
+     */
+    public boolean isEnabled(int level) {
+        // OFF is above every message level, so this one test covers it, too.
+        return level >= this.level;
     }
     
     /**
@@ -993,19 +1097,24 @@ public class Logger {
     public void warning(LogRecord record) {
         // We need to try to log the message, however, we will only do so if 
         //+ logging is not turned off and the level is set to warning or higher.
-        if ( this.level != OFF && this.level >= WARN || this.level == DEBUG ) {
+        if ( isEnabled(WARN) ) {
             // We're good to log the message to the log file.
-            try {
-                log.write(StringUtils.wrapAt("WARNING: " + record.getMessage(),
-                        80) + "\n");
-                
-                // Now, flush the buffer to be sure the data was written.
-                log.flush();
-            } catch ( IOException ex ) {
-                // Let the user know that the message was not written.
-                String ttl = "I/O Error: Entry Not Written";
-                MessageBox.showError(ex, ttl);
-            }
+            write(StringUtils.wrapAt("WARNING: " + record.getMessage(), 80)
+                    + "\n");
+        }
+    }
+    
+    /**
+     * Logs a warning message that is only built if warning messages are being
+     * logged.
+     * 
+     * @param record  The `LogRecord` to use for this log entry.
+     * @param message Supplies the message for the log entry.
+     */
+    public void warning(LogRecord record, Supplier<String> message) {
+        if ( isEnabled(WARN) ) {
+            record.setMessage(message.get());
+            warning(record);
         }
     }
     
@@ -1115,8 +1224,124 @@ public class Logger {
             msg +=(System.getProperty("user.language"));
             msg += "\n" + ruler + "\n" + dRule + "\n" + ruler + "\n";
             
+            write(msg);
+        }
+    }
+    
+    /**
+     * Switches the `Logger` over to asynchronous logging. Once this method has
+     * been called, the logging methods no longer write to the log file
+     * themselves. Instead, they place their entries into a bounded buffer, and
+     * return right away. A single background thread takes the entries out of
+     * the buffer and writes them to the log file in batches, flushing the log
+     * file once per batch, instead of once per entry.
+     * 
+     * If the buffer fills up, because entries are being logged faster than
+     * they can be written, what happens is decided by the overflow policy:
+     * <dl>
+     *  <dt>`OVERFLOW_BLOCK`</dt>
+     *  <dd>The calling thread waits for room in the buffer.</dd>
+     *  <dt>`OVERFLOW_DROP`</dt>
+     *  <dd>The entry is dropped.</dd>
+     *  <dt>`OVERFLOW_SAMPLE`</dt>
+     *  <dd>One in every `SAMPLE_RATE` entries waits for room in the buffer,
+     *      and the rest are dropped.</dd>
+     * </dl>
+     * 
+     * The entries waiting in the buffer are always written out when the
+     * `Logger` is closed, which is also done when the JVM shuts down.
+     * 
+     * If the `Logger` is already logging asynchronously, or has been closed,
+     * this method does nothing.
+     * 
+     * @param capacity       the number of entries the buffer can hold.
+     * @param overflowPolicy one of `OVERFLOW_BLOCK`, `OVERFLOW_DROP` or
+     *                       `OVERFLOW_SAMPLE`.
+     */
+    public synchronized void startAsync(int capacity, int overflowPolicy) {
+        if ( queue != null || closed || this.level == OFF ) {
+            return;
+        }
+        
+        switch ( overflowPolicy ) {
+            case OVERFLOW_DROP:
+            case OVERFLOW_SAMPLE:
+                this.overflowPolicy = overflowPolicy;
+                break;
+            case OVERFLOW_BLOCK:
+            default:
+                this.overflowPolicy = OVERFLOW_BLOCK;
+                break;
+        }
+        
+        queue = new LogRingBuffer(capacity);
+        
+        writer = new Thread(this::drain, "Logger Writer");
+        writer.setDaemon(true);
+        writer.start();
+        
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, 
+                "Logger Shutdown"));
+    }
+    
+    /**
+     * Determines whether the `Logger` is logging asynchronously.
+     * 
+     * @return `true` if entries are being written by the background writer
+     *         thread.
+     */
+    public boolean isAsync() {
+        return queue != null;
+    }
+    
+    /**
+     * Converts the name of an overflow policy, as it would be stored in the
+     * application's settings, into one of the `OVERFLOW_*` constants. The
+     * valid names are "block", "drop" and "sample". Any other name is taken to
+     * mean "block".
+     * 
+     * @param name the name of the overflow policy.
+     * @return the matching `OVERFLOW_*` constant.
+     */
+    public static int toOverflowPolicy(String name) {
+        if ( name == null ) {
+            return OVERFLOW_BLOCK;
+        }
+        
+        switch ( name.trim().toLowerCase() ) {
+            case "drop":
+                return OVERFLOW_DROP;
+            case "sample":
+                return OVERFLOW_SAMPLE;
+            default:
+                return OVERFLOW_BLOCK;
+        }
+    }
+    
+    private static StringBuilder report() {
+        StringBuilder sb = REPORT.get();
+        sb.setLength(0);
+        return sb;
+    }
+    
+    /**
+     * All logging methods write their entries out through this method, which
+     * either writes the entry to the log file right away, or hands it off to
+     * the writer thread, depending upon whether the `Logger` is logging
+     * asynchronously.
+     * 
+     * @param text the fully formatted text of the entry.
+     */
+    private void write(String text) {
+        if ( closed ) {
+            return;
+        }
+        
+        LogRingBuffer q = queue;
+        
+        if ( q == null ) {
             try {
-                log.write(msg);
+                log.write(text);
                 
                 // Now, flush the buffer to be sure the data was written.
                 log.flush();
@@ -1125,6 +1350,93 @@ public class Logger {
                 String ttl = "I/O Error: Entry Not Written";
                 MessageBox.showError(ex, ttl);
             }
+            
+            return;
+        }
+        
+        if ( !q.offer(text) ) {
+            overflow(q, text);
+        }
+        
+        if ( writerWaiting ) {
+            LockSupport.unpark(writer);
+        }
+    }
+    
+    private void overflow(LogRingBuffer q, String text) {
+        if ( overflowPolicy == OVERFLOW_DROP || (overflowPolicy == OVERFLOW_SAMPLE
+                && overflows.getAndIncrement() % SAMPLE_RATE != 0) ) {
+            dropped.incrementAndGet();
+            return;
+        }
+        
+        // Wait for the writer thread to make room for the entry.
+        while ( !q.offer(text) ) {
+            if ( closed || !writer.isAlive() ) {
+                dropped.incrementAndGet();
+                return;
+            }
+            
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+        }
+    }
+    
+    /**
+     * The body of the writer thread. Takes the entries from the buffer as they
+     * come in and writes them to the log file in batches, until the `Logger`
+     * is closed and the buffer is empty.
+     */
+    private void drain() {
+        StringBuilder batch = new StringBuilder(BATCH_SIZE);
+        
+        while ( true ) {
+            String text = queue.poll();
+            
+            while ( text != null ) {
+                batch.append(text);
+                
+                if ( batch.length() >= BATCH_SIZE ) {
+                    writeBatch(batch);
+                }
+                
+                text = queue.poll();
+            }
+            
+            long lost = dropped.getAndSet(0);
+            if ( lost > 0 ) {
+                batch.append("WARNING: ").append(lost).append(" log entries "
+                        + "were dropped because the log buffer was full.\n");
+            }
+            
+            if ( batch.length() > 0 ) {
+                writeBatch(batch);
+                continue;
+            }
+            
+            if ( closing ) {
+                break;
+            }
+            
+            // Nothing to write, so sleep until a caller wakes us up.
+            writerWaiting = true;
+            if ( queue.isEmpty() && !closing ) {
+                LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+            }
+            writerWaiting = false;
         }
     }
+    
+    private void writeBatch(StringBuilder batch) {
+        try {
+            log.write(batch.toString());
+            log.flush();
+        } catch ( IOException ex ) {
+            // Let the user know that the messages were not written.
+            String ttl = "I/O Error: Entry Not Written";
+            MessageBox.showError(ex, ttl);
+        }
+        
+        batch.setLength(0);
+    }
 }
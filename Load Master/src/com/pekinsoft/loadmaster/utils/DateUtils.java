@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * *****************************************************************************
+ * *****************************************************************************
+ *  Project    :   Load_Master
+ *  Class      :   DateUtils.java
+ *  Author     :   Sean Carrick
+ *  Created    :   Oct 18, 2026
+ *  Modified   :   Oct 18, 2026
+ *
+ *  Purpose:
+ *      Converts dates and times to and from the text layouts used in the data
+ *      tables, without building a new `SimpleDateFormat` every time.
+ *
+ *  Revision History:
+ *
+ *  WHEN          BY                  REASON
+ *  ------------  ------------------- ------------------------------------------
+ *  Oct 18, 2026  Sean Carrick        Initial creation.
+ * *****************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.utils;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * `DateUtils` converts dates to and from the `MM/dd/yyyy` layout that all of
+ * the data tables use, and times to and from the `HH:mm` layout, along with
+ * any other layout that is asked for.
+ *
+ * Building a `SimpleDateFormat` is expensive, and one cannot be shared between
+ * threads, so building one for every record that was read or written was a
+ * large part of the cost of reading in the tables. The methods of this class
+ * are all thread-safe, and build nothing that they do not have to:
+ *
+ * * The `MM/dd/yyyy` and `HH:mm` layouts are read and written by hand.
+ * * Every date that is read or written is remembered, by its day number, so a
+ *   date that is seen again (such as the dispatch date shared by a load and
+ *   all of its stops) costs a single array lookup.
+ * * Any other layout is handled by a `java.time.format.DateTimeFormatter`,
+ *   which is built once per layout and then shared.
+ *
+ * Since the tables only store dates, and not times, a date that is read in is
+ * always midnight, local time, on that day.
+ *
+ * <dl><dt>Note</dt><dd>The local time zone is taken when this class is first
+ * used, and is not looked at again.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public class DateUtils {
+    //<editor-fold defaultstate="collapsed" desc="Public Static Constants">
+    /**
+     * The layout of the dates stored in the data tables.
+     */
+    public static final String DATE_FORMAT = "MM/dd/yyyy";
+
+    /**
+     * The layout of the times stored in the data tables.
+     */
+    public static final String TIME_FORMAT = "HH:mm";
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Constants">
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int CACHE_SIZE = 4096;     // Must be a power of two.
+
+    private static final ZoneId ZONE;
+    private static final TimeZone TIME_ZONE;
+
+    // The dates most recently read or written, indexed by their day number.
+    //+ The Day objects never change once built, so reading a slot while
+    //+ another thread replaces it is safe: either Day is correct, and a miss
+    //+ simply builds the Day again.
+    private static final Day[] DAYS;
+
+    private static final ConcurrentHashMap<String, DateTimeFormatter> FORMATS;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Static Initializer">
+    static {
+        TIME_ZONE = TimeZone.getDefault();
+        ZONE = TIME_ZONE.toZoneId();
+        DAYS = new Day[CACHE_SIZE];
+        FORMATS = new ConcurrentHashMap<>();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    private DateUtils () {
+        // Privatized to prevent this class from being instantiated.
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Public Static Methods and Functions">
+    /**
+     * Formats a date in the `MM/dd/yyyy` layout used by the data tables.
+     *
+     * @param date the date to format.
+     * @return the formatted date, or an empty string if `date` is `null`.
+     */
+    public static String formatDate(Date date) {
+        if ( date == null ) {
+            return "";
+        }
+
+        long millis = date.getTime();
+        long epochDay = Math.floorDiv(millis + TIME_ZONE.getOffset(millis),
+                MILLIS_PER_DAY);
+
+        return day(epochDay).text;
+    }
+
+    /**
+     * Parses a date in the `MM/dd/yyyy` layout used by the data tables. As
+     * with `SimpleDateFormat`, the month and day may be one or two digits, and
+     * values that are out of range roll over into the next month or year.
+     *
+     * @param text the text to parse.
+     * @return the date, at midnight local time.
+     * @throws ParseException if `text` is not a date in the right layout.
+     */
+    public static Date parseDate(CharSequence text) throws ParseException {
+        int length = text.length();
+        char[] chars = new char[length];
+
+        for ( int x = 0; x < length; x++ ) {
+            chars[x] = text.charAt(x);
+        }
+
+        return parseDate(chars, 0, length);
+    }
+
+    /**
+     * Parses a date in the `MM/dd/yyyy` layout directly from a range of a
+     * character buffer, such as the one used by the
+     * {@link com.pekinsoft.loadmaster.db.RecordTokenizer RecordTokenizer}.
+     *
+     * @param buffer the buffer holding the date.
+     * @param start  the index of the first character of the date.
+     * @param end    the index just past the last character of the date.
+     * @return the date, at midnight local time.
+     * @throws ParseException if the range is not a date in the right layout.
+     */
+    public static Date parseDate(char[] buffer, int start, int end)
+            throws ParseException {
+        int month = 0;
+        int day = 0;
+        int year = 0;
+        int part = 0;
+        int partDigits = 0;
+
+        for ( int x = start; x < end; x++ ) {
+            char c = buffer[x];
+
+            if ( c >= '0' && c <= '9' ) {
+                int digit = c - '0';
+
+                switch ( part ) {
+                    case 0:
+                        month = month * 10 + digit;
+                        break;
+                    case 1:
+                        day = day * 10 + digit;
+                        break;
+                    default:
+                        year = year * 10 + digit;
+                }
+
+                if ( ++partDigits > (part < 2 ? 2 : 4) ) {
+                    throw invalid(buffer, start, end, x);
+                }
+            } else if ( c == '/' && part < 2 && partDigits > 0 ) {
+                part++;
+                partDigits = 0;
+            } else {
+                throw invalid(buffer, start, end, x);
+            }
+        }
+
+        if ( part < 2 || partDigits == 0 ) {
+            throw invalid(buffer, start, end, end);
+        }
+
+        long epochDay;
+
+        if ( month >= 1 && month <= 12 && day >= 1 && day <= 28 ) {
+            // Always a valid date, so no need to check for roll over.
+            epochDay = LocalDate.of(year, month, day).toEpochDay();
+        } else {
+            epochDay = LocalDate.of(year, 1, 1).plusMonths(month - 1)
+                    .plusDays(day - 1).toEpochDay();
+        }
+
+        return new Date(day(epochDay).midnight);
+    }
+
+    /**
+     * Formats the time of day of a date in the `HH:mm` layout used by the data
+     * tables.
+     *
+     * @param date the date whose time is to be formatted.
+     * @return the formatted time, or an empty string if `date` is `null`.
+     */
+    public static String formatTime(Date date) {
+        if ( date == null ) {
+            return "";
+        }
+
+        long millis = date.getTime();
+        long minutes = Math.floorMod(millis + TIME_ZONE.getOffset(millis),
+                MILLIS_PER_DAY) / 60_000L;
+        int hour = (int) (minutes / 60);
+        int minute = (int) (minutes % 60);
+
+        return new String(new char[] {
+            (char) ('0' + hour / 10), (char) ('0' + hour % 10), ':',
+            (char) ('0' + minute / 10), (char) ('0' + minute % 10)
+        });
+    }
+
+    /**
+     * Parses a time in the `HH:mm` layout used by the data tables. As with
+     * `SimpleDateFormat`, the hours and minutes may be any number of digits,
+     * anything following the minutes is ignored, and values that are out of
+     * range roll over.
+     *
+     * @param text the text to parse.
+     * @return the number of minutes past midnight.
+     * @throws ParseException if `text` does not start with a time in the right
+     *                        layout.
+     */
+    public static int parseTime(CharSequence text) throws ParseException {
+        int length = text.length();
+        int hours = 0;
+        int minutes = 0;
+        int x = 0;
+
+        while ( x < length && Character.isDigit(text.charAt(x)) ) {
+            hours = hours * 10 + (text.charAt(x++) - '0');
+        }
+
+        if ( x == 0 || x == length || text.charAt(x++) != ':' ) {
+            throw new ParseException("Unparseable time: \"" + text + "\"", x);
+        }
+
+        int first = x;
+
+        while ( x < length && Character.isDigit(text.charAt(x)) ) {
+            minutes = minutes * 10 + (text.charAt(x++) - '0');
+        }
+
+        if ( x == first ) {
+            throw new ParseException("Unparseable time: \"" + text + "\"", x);
+        }
+
+        return hours * 60 + minutes;
+    }
+
+    /**
+     * Formats a date using the specified layout, which uses the same pattern
+     * letters as `SimpleDateFormat`.
+     *
+     * @param date   the date to format.
+     * @param format the layout to use.
+     * @return the formatted date, or an empty string if `date` is `null`.
+     */
+    public static String format(Date date, String format) {
+        if ( date == null ) {
+            return "";
+        }
+
+        if ( DATE_FORMAT.equals(format) ) {
+            return formatDate(date);
+        } else if ( TIME_FORMAT.equals(format) ) {
+            return formatTime(date);
+        }
+
+        return formatter(format).format(
+                ZonedDateTime.ofInstant(date.toInstant(), ZONE));
+    }
+
+    /**
+     * Parses a date using the specified layout, which uses the same pattern
+     * letters as `SimpleDateFormat`. Any part of the date that is not in the
+     * layout is taken from midnight on January 1, 1970, just as it is with
+     * `SimpleDateFormat`.
+     *
+     * @param text   the text to parse.
+     * @param format the layout to use.
+     * @return the date.
+     * @throws ParseException if `text` is not a date in the specified layout.
+     */
+    public static Date parse(CharSequence text, String format)
+            throws ParseException {
+        if ( DATE_FORMAT.equals(format) ) {
+            return parseDate(text);
+        }
+
+        try {
+            TemporalAccessor parsed = formatter(format).parse(text);
+
+            LocalDate date = LocalDate.of(
+                    get(parsed, ChronoField.YEAR, 1970),
+                    get(parsed, ChronoField.MONTH_OF_YEAR, 1),
+                    get(parsed, ChronoField.DAY_OF_MONTH, 1));
+            LocalTime time = LocalTime.of(
+                    get(parsed, ChronoField.HOUR_OF_DAY, 0),
+                    get(parsed, ChronoField.MINUTE_OF_HOUR, 0),
+                    get(parsed, ChronoField.SECOND_OF_MINUTE, 0));
+
+            return Date.from(date.atTime(time).atZone(ZONE).toInstant());
+        } catch ( RuntimeException ex ) {
+            ParseException pe = new ParseException("Unparseable date: \""
+                    + text + "\"", 0);
+            pe.initCause(ex);
+
+            throw pe;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Methods and Functions">
+    private static Day day(long epochDay) {
+        int slot = (int) (epochDay & (CACHE_SIZE - 1));
+        Day day = DAYS[slot];
+
+        if ( day == null || day.epochDay != epochDay ) {
+            day = new Day(epochDay);
+            DAYS[slot] = day;
+        }
+
+        return day;
+    }
+
+    private static DateTimeFormatter formatter(String format) {
+        return FORMATS.computeIfAbsent(format, (String f) ->
+                new DateTimeFormatterBuilder()
+                        .parseCaseInsensitive()
+                        .parseLenient()
+                        .appendPattern(f)
+                        .toFormatter()
+                        .withResolverStyle(ResolverStyle.LENIENT));
+    }
+
+    private static int get(TemporalAccessor parsed, ChronoField field,
+            int defaultValue) {
+        return parsed.isSupported(field) ? parsed.get(field) : defaultValue;
+    }
+
+    private static ParseException invalid(char[] buffer, int start, int end,
+            int offset) {
+        return new ParseException("Unparseable date: \""
+                + new String(buffer, start, end - start) + "\"",
+                offset - start);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Private Static Classes">
+    // A single day, with its text and the time of its midnight worked out.
+    private static final class Day {
+        final long epochDay;
+        final long midnight;
+        final String text;
+
+        Day (long epochDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+
+            this.epochDay = epochDay;
+            this.midnight = date.atStartOfDay(ZONE).toInstant().toEpochMilli();
+
+            int month = date.getMonthValue();
+            int day = date.getDayOfMonth();
+            int year = date.getYear();
+
+            StringBuilder sb = new StringBuilder(10);
+            sb.append((char) ('0' + month / 10))
+                    .append((char) ('0' + month % 10))
+                    .append('/')
+                    .append((char) ('0' + day / 10))
+                    .append((char) ('0' + day % 10))
+                    .append('/');
+
+            if ( year >= 0 && year < 1000 ) {
+                // SimpleDateFormat pads the year out to four digits.
+                sb.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+            }
+
+            this.text = sb.append(year).toString();
+        }
+    }
+    //</editor-fold>
+
+}
@@ -133,6 +133,33 @@ public class BrokerSelector extends javax.swing.JDialog {
     //                MessageBox.showError(ex, "Database Access");
                 }
             }
+        } else if ( companyFilterOption.isSelected() ) {
+            // Match on any word of the company name, so that the user only
+            //+ needs to type the start of any part of the name. The companies
+            //+ whose names start with the text are listed first, though, as
+            //+ they are most likely the ones the user is looking for.
+            filtered = records.getCompaniesStartingWith(
+                    criteriaField.getText());
+            ArrayList<BrokerModel> words = records.getCompaniesWithWord(
+                    criteriaField.getText());
+            
+            if ( filtered == null ) {
+                filtered = words;
+            } else if ( words != null ) {
+                for ( BrokerModel c : words ) {
+                    if ( !filtered.contains(c) ) {
+                        filtered.add(c);
+                    }
+                }
+            }
+            
+            if ( filtered != null && filtered.size() > 0 ) {
+                for ( int x = 0; x < filtered.size(); x++ ) {
+                    brokerList.addItem(filtered.get(x).getContact() + " (" 
+                            + filtered.get(x).getId() + ")");
+                }
+            } else
+                MessageBox.showInfo("No matching records found!", "No Records");
         } else if ( cityFilterOption.isSelected() ) {
             try {
                 filtered = records.getCompaniesByCity(criteriaField.getText(), 
@@ -191,6 +218,7 @@ public class BrokerSelector extends javax.swing.JDialog {
         selectBroker = new javax.swing.JButton();
         filterPanel = new javax.swing.JPanel();
         allFilterOption = new javax.swing.JRadioButton();
+        companyFilterOption = new javax.swing.JRadioButton();
         cityFilterOption = new javax.swing.JRadioButton();
         stateFilterOption = new javax.swing.JRadioButton();
         criteriaLabel = new javax.swing.JLabel();
@@ -227,6 +255,10 @@ public class BrokerSelector extends javax.swing.JDialog {
         allFilterOption.setSelected(true);
         allFilterOption.setText("All");
 
+        filterButtonGroup.add(companyFilterOption);
+        companyFilterOption.setMnemonic('m');
+        companyFilterOption.setText("By Company");
+
         filterButtonGroup.add(cityFilterOption);
         cityFilterOption.setMnemonic('C');
         cityFilterOption.setText("By City");
@@ -262,6 +294,8 @@ public class BrokerSelector extends javax.swing.JDialog {
                     .addGroup(filterPanelLayout.createSequentialGroup()
                         .addComponent(allFilterOption)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(companyFilterOption)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                         .addComponent(cityFilterOption)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                         .addComponent(stateFilterOption)
@@ -280,6 +314,7 @@ public class BrokerSelector extends javax.swing.JDialog {
                 .addContainerGap()
                 .addGroup(filterPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(allFilterOption)
+                    .addComponent(companyFilterOption)
                     .addComponent(cityFilterOption)
                     .addComponent(stateFilterOption))
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
@@ -325,40 +360,18 @@ public class BrokerSelector extends javax.swing.JDialog {
     }// </editor-fold>//GEN-END:initComponents
 
     private void selectBrokerActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_selectBrokerActionPerformed
-        // In order to get the selected broker, we need to loop through the
-        //+ records to find which record has the selected ID number.
+        // In order to get the selected broker, we need to look up the record
+        //+ that has the selected ID number.
         if ( !brokerList.getSelectedItem().toString().equalsIgnoreCase(
                 "select broker/agent...") ) {
             String selectedBroker = brokerList.getSelectedItem().toString();
             long brokerID = Long.valueOf(selectedBroker.substring(
-                    selectedBroker.indexOf("(") + 1,    // Start after (
-                    selectedBroker.indexOf(")")));  // End before )
+                    selectedBroker.lastIndexOf("(") + 1,    // Start after (
+                    selectedBroker.lastIndexOf(")")));  // End before )
         
-            try {
-                records.first();
-
-                for ( int x = 0; x < records.getRecordCount(); x++ ) {
-                    BrokerModel b = records.get();
-
-                    if ( brokerID == b.getId() ) {
-                        broker = b;
-                        break;
-                    } else {
-                        if ( records.hasNext() ) 
-                            records.next();
-                    }
-                }
+            broker = records.getById(brokerID);
         
-                setVisible(false); 
-            } catch ( DataStoreException ex ) {
-                lr.setMessage("Something went wrong moving to the next record.");
-                lr.setThrown(ex);
-                Starter.logger.error(lr);
-
-    //            MessageBox.showError(ex, "Database Access");
-
-                dispose();
-            }
+            setVisible(false); 
         }       
     }//GEN-LAST:event_selectBrokerActionPerformed
 
@@ -425,6 +438,7 @@ public class BrokerSelector extends javax.swing.JDialog {
     private javax.swing.JLabel brokerLabel;
     private javax.swing.JComboBox<String> brokerList;
     private javax.swing.JRadioButton cityFilterOption;
+    private javax.swing.JRadioButton companyFilterOption;
     private javax.swing.JTextField criteriaField;
     private javax.swing.JLabel criteriaLabel;
     private javax.swing.JButton filterButton;
@@ -34,6 +34,11 @@
 package com.pekinsoft.loadmaster.view;
 
 import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.controller.EntryCtl;
+import com.pekinsoft.loadmaster.controller.FuelPurchaseCtl;
+import com.pekinsoft.loadmaster.controller.ReceivablesCtl;
+import com.pekinsoft.loadmaster.db.RecordTokenizer;
+import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.model.ChartModel;
 import com.pekinsoft.loadmaster.utils.ScreenUtils;
 import java.awt.Image;
@@ -167,11 +172,10 @@ public class ChartOfAccountsViewer extends javax.swing.JDialog {
             // We need to read in the chart of accounts from file and save it to
             //+ our member field `chart`.
             String line = in.readLine();
+            RecordTokenizer record = new RecordTokenizer();
             
             while ( line != null ) {
-                String[] record = line.split("~");
-                
-                createAndAddRecord(record);
+                createAndAddRecord(record.reset(line));
                 
                 line = in.readLine();
             }
@@ -184,11 +188,11 @@ public class ChartOfAccountsViewer extends javax.swing.JDialog {
 
     }
     
-    private void createAndAddRecord(String[] record) {
+    private void createAndAddRecord(RecordTokenizer record) {
         ChartModel model = new ChartModel();
-        model.setNumber(Long.parseLong(record[0]));
-        model.setName(record[1]);
-        model.setDescription(record[2]);
+        model.setNumber(record.nextLong());
+        model.setName(record.nextString());
+        model.setDescription(record.nextString());
         
         chart.add(model);
     }
@@ -199,13 +203,34 @@ public class ChartOfAccountsViewer extends javax.swing.JDialog {
         for ( int x = 0; x < chart.size(); x++ ) {
             Object[] row = {chart.get(x).getNumber(),
                             chart.get(x).getName(),
-                            chart.get(x).getDescription()
+                            chart.get(x).getDescription(),
+                            getBalance(chart.get(x).getNumber())
             };
             model.addRow(row);
         }
         
         coaTable.setModel(model);
     }
+    
+    private Double getBalance(long account) {
+        try {
+            // The fuel and receivables accounts keep their own journals, which
+            //+ hold the detail for those accounts, so their balances are taken
+            //+ from the journals. All other accounts are totalled from the
+            //+ General Ledger.
+            if ( account == 10040 ) {
+                return FuelPurchaseCtl.getTotalCost();
+            } else if ( account == 50500 ) {
+                return ReceivablesCtl.getOutstandingTotal();
+            } else {
+                return EntryCtl.getAccountTotal((int) account);
+            }
+        } catch ( DataStoreException ex ) {
+            // The controllers have already logged the error, so the balance is
+            //+ simply left blank.
+            return null;
+        }
+    }
 
     /**
      * This method is called from within the constructor to initialize the form.
@@ -233,14 +258,14 @@ public class ChartOfAccountsViewer extends javax.swing.JDialog {
 
             },
             new String [] {
-                "Account Number", "Account Name", "Description"
+                "Account Number", "Account Name", "Description", "Balance"
             }
         ) {
             Class[] types = new Class [] {
-                java.lang.Long.class, java.lang.String.class, java.lang.String.class
+                java.lang.Long.class, java.lang.String.class, java.lang.String.class, java.lang.Double.class
             };
             boolean[] canEdit = new boolean [] {
-                false, false, false
+                false, false, false, false
             };
 
             public Class getColumnClass(int columnIndex) {
@@ -191,13 +191,23 @@ public class CustomerSelector extends javax.swing.JDialog {
             } else
                 MessageBox.showInfo("No matching records found!", "No Records");
         } else if ( companyFilterOption.isSelected() ) {
-            try {
-                filtered = records.getCustomersByCompany(criteriaField.getText(), 
-                        LoadMaster.fileProgress);
-            } catch ( DataStoreException ex ) {
-                lr.setMessage("Something went wrong moving to the next record.");
-                lr.setThrown(ex);
-                Starter.logger.error(lr);
+            // Match on any word of the company name, so that the user only
+            //+ needs to type the start of any part of the name. The companies
+            //+ whose names start with the text are listed first, though, as
+            //+ they are most likely the ones the user is looking for.
+            filtered = records.getCompaniesStartingWith(
+                    criteriaField.getText());
+            ArrayList<CustomerModel> words = records.getCompaniesWithWord(
+                    criteriaField.getText());
+            
+            if ( filtered == null ) {
+                filtered = words;
+            } else if ( words != null ) {
+                for ( CustomerModel c : words ) {
+                    if ( !filtered.contains(c) ) {
+                        filtered.add(c);
+                    }
+                }
             }
             
             if ( filtered != null && filtered.size() > 0 ) {
@@ -213,40 +223,23 @@ public class CustomerSelector extends javax.swing.JDialog {
     }
     
     private void doSave() {
-        // In order to get the selected broker, we need to loop through the
-        //+ records to find which record has the selected ID number.
+        // In order to get the selected customer, we need to look up the record
+        //+ that has the selected ID number.
         if ( !customerList.getSelectedItem().toString().equalsIgnoreCase(
                 "select customer...") ) {
-            String selectedBroker = customerList.getSelectedItem().toString();
-            long brokerID = Long.valueOf(selectedBroker.substring(
-                    selectedBroker.indexOf("(") + 1,    // Start after (
-                    selectedBroker.indexOf(")")));  // End before )
+            String selectedCustomer = customerList.getSelectedItem().toString();
+            
+            // The full list shows the ID in square brackets, but the filtered
+            //+ lists show it in parentheses, so take whichever comes last.
+            int idStart = Math.max(selectedCustomer.lastIndexOf("["),
+                    selectedCustomer.lastIndexOf("("));
+            long customerID = Long.valueOf(selectedCustomer.substring(
+                    idStart + 1,                        // Start after [ or (
+                    selectedCustomer.length() - 1));    // End before ] or )
         
-            try {
-                records.first();
-
-                for ( int x = 0; x < records.getRecordCount(); x++ ) {
-                    CustomerModel c = records.get();
-
-                    if ( brokerID == c.getId() ) {
-                        customer = c;
-                        break;
-                    } else {
-                        if ( records.hasNext() ) 
-                            records.next();
-                    }
-                }
+            customer = records.getById(customerID);
         
-                setVisible(false); 
-            } catch ( DataStoreException ex ) {
-                lr.setMessage("Something went wrong moving to the next record.");
-                lr.setThrown(ex);
-                Starter.logger.error(lr);
-
-    //            MessageBox.showError(ex, "Database Access");
-
-                dispose();
-            }
+            setVisible(false); 
         }       
     }
     
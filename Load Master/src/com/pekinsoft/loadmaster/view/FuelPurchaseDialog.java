@@ -33,6 +33,7 @@ package com.pekinsoft.loadmaster.view;
 import com.pekinsoft.loadmaster.Starter;
 import com.pekinsoft.loadmaster.controller.EntryCtl;
 import com.pekinsoft.loadmaster.controller.FuelPurchaseCtl;
+import com.pekinsoft.loadmaster.db.Transaction;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.model.EntryModel;
 import com.pekinsoft.loadmaster.model.FuelPurchaseModel;
@@ -137,92 +138,109 @@ public class FuelPurchaseDialog extends javax.swing.JDialog {
         model.setNotes(notesField.getText());
         model.setOdometer(odometerField.getText());
         
-        try {
-            FuelPurchaseCtl records = new FuelPurchaseCtl();
+        // The purchase and its ledger entries are written together, so the
+        //+ journal and the General Ledger always agree.
+        try ( Transaction tx = Transaction.begin() ) {
+            try {
+                FuelPurchaseCtl records = new FuelPurchaseCtl();
             
-            records.addNew(model);
-            records.close();
+                records.addNew(model);
+                records.close();
             
-        } catch ( DataStoreException ex ) {
-            
-        }
-        
-        // Since the batch EntryCtl object is not null, the user is using 
-        //+ the batch posting method, so we need to add this transaction to
-        //+ the batch of transactions.
-        EntryModel transaction = new EntryModel();
-        transaction.setAmount(purchase.getGallonsOfDiesel() 
-                * purchase.getPricePerGallonDiesel());
-        transaction.setBalanced(false);
-        transaction.setCode("Diesel");
-        transaction.setDate(purchase.getDate());
-        transaction.setDeductible(true);
-        transaction.setDescription(purchase.getGallonsOfDiesel() 
-                + " gallons at " + purchase.getLocation());
-        transaction.setFromAccount(50040);
-        transaction.setToAccount(10040);
-
-        // If the user is using the batch posting method, we need to add this
-        //+ purchase to the batch.
-        if ( LoadMaster.batch != null ) 
-            LoadMaster.batch.addNew(transaction);
-        else {
-            // We need to get our general ledger and add this transaction to it.
-            try {
-                // Get our General Ledger.
-                EntryCtl ledger = new EntryCtl();
-                
-                // Add our new transaction to it.
-                ledger.addNew(transaction);
-                
-                // Close the General Ledger, thereby writing the data out to it.
-                ledger.close();
             } catch ( DataStoreException ex ) {
-                entry.setSourceMethodName("doSave");
-                entry.setMessage(ex.getMessage());
-                entry.setParameters(null);
-                entry.setThrown(ex);
-                Starter.logger.error(entry);
+            
             }
-        }
-
-        // Next, we need to check to see if DEF was also purchased.
-        if ( purchase.isDefPurchased() ) {
-            // We need to create a new transaction for this purchase.
-            transaction = new EntryModel();
-            transaction.setAmount(purchase.getGallonsOfDef() 
-                    * purchase.getPricePerGallonDef());
+        
+            // Since the batch EntryCtl object is not null, the user is using 
+            //+ the batch posting method, so we need to add this transaction to
+            //+ the batch of transactions.
+            EntryModel transaction = new EntryModel();
+            transaction.setAmount(purchase.getGallonsOfDiesel() 
+                    * purchase.getPricePerGallonDiesel());
             transaction.setBalanced(false);
-            transaction.setCode("DEF");
+            transaction.setCode("Diesel");
             transaction.setDate(purchase.getDate());
             transaction.setDeductible(true);
-            transaction.setDescription(purchase.getGallonsOfDef() 
+            transaction.setDescription(purchase.getGallonsOfDiesel() 
                     + " gallons at " + purchase.getLocation());
             transaction.setFromAccount(50040);
             transaction.setToAccount(10040);
 
-            // If the user is using the batch posting method, we need to add this
-            //+ purchase to the batch.
-            if ( LoadMaster.batch != null ) 
+            // If the user is using the batch posting method, we need to add
+            //+ this purchase to the batch.
+            if ( LoadMaster.getBatch() != null ) 
                 LoadMaster.batch.addNew(transaction);
-        } else {
-            // We need to get our general ledger and add this transaction to it.
-            try {
-                // Get our General Ledger.
-                EntryCtl ledger = new EntryCtl();
+            else {
+                // We need to get our general ledger and add this transaction to
+                //+ it.
+                try {
+                    // Get our General Ledger.
+                    EntryCtl ledger = new EntryCtl();
                 
-                // Add our new transaction to it.
-                ledger.addNew(transaction);
+                    // Add our new transaction to it.
+                    ledger.addNew(transaction);
                 
-                // Close the General Ledger, thereby writing the data out to it.
-                ledger.close();
-            } catch ( DataStoreException ex ) {
-                entry.setSourceMethodName("doSave");
-                entry.setMessage(ex.getMessage());
-                entry.setParameters(null);
-                entry.setThrown(ex);
-                Starter.logger.error(entry);
+                    // Close the General Ledger, thereby writing the data out to
+                    //+ it.
+                    ledger.close();
+                } catch ( DataStoreException ex ) {
+                    entry.setSourceMethodName("doSave");
+                    entry.setMessage(ex.getMessage());
+                    entry.setParameters(null);
+                    entry.setThrown(ex);
+                    Starter.logger.error(entry);
+                }
             }
+
+            // Next, we need to check to see if DEF was also purchased.
+            if ( purchase.isDefPurchased() ) {
+                // We need to create a new transaction for this purchase.
+                transaction = new EntryModel();
+                transaction.setAmount(purchase.getGallonsOfDef() 
+                        * purchase.getPricePerGallonDef());
+                transaction.setBalanced(false);
+                transaction.setCode("DEF");
+                transaction.setDate(purchase.getDate());
+                transaction.setDeductible(true);
+                transaction.setDescription(purchase.getGallonsOfDef() 
+                        + " gallons at " + purchase.getLocation());
+                transaction.setFromAccount(50040);
+                transaction.setToAccount(10040);
+
+                // If the user is using the batch posting method, we need to add
+                //+ this purchase to the batch.
+                if ( LoadMaster.getBatch() != null ) 
+                    LoadMaster.batch.addNew(transaction);
+            } else {
+                // We need to get our general ledger and add this transaction to
+                //+ it.
+                try {
+                    // Get our General Ledger.
+                    EntryCtl ledger = new EntryCtl();
+                
+                    // Add our new transaction to it.
+                    ledger.addNew(transaction);
+                
+                    // Close the General Ledger, thereby writing the data out to
+                    //+ it.
+                    ledger.close();
+                } catch ( DataStoreException ex ) {
+                    entry.setSourceMethodName("doSave");
+                    entry.setMessage(ex.getMessage());
+                    entry.setParameters(null);
+                    entry.setThrown(ex);
+                    Starter.logger.error(entry);
+                }
+            }
+        
+            
+            tx.commit();
+        } catch ( DataStoreException ex ) {
+            entry.setSourceMethodName("doSave");
+            entry.setMessage(ex.getMessage());
+            entry.setParameters(null);
+            entry.setThrown(ex);
+            Starter.logger.error(entry);
         }
         
         // Leave as last statement.
@@ -41,14 +41,21 @@
 package com.pekinsoft.loadmaster.view;
 
 import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.controller.BrokerCtl;
+import com.pekinsoft.loadmaster.controller.CustomerCtl;
 import com.pekinsoft.loadmaster.controller.EntryCtl;
 import com.pekinsoft.loadmaster.controller.LoadCtl;
 import com.pekinsoft.loadmaster.controller.StopCtl;
+import com.pekinsoft.loadmaster.db.TableLoadEvent;
+import com.pekinsoft.loadmaster.db.TableLoader;
+import com.pekinsoft.loadmaster.db.Transaction;
 import com.pekinsoft.loadmaster.enums.SysExits;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.err.InvalidTimeException;
 import com.pekinsoft.loadmaster.model.LoadModel;
 import com.pekinsoft.loadmaster.model.StopModel;
+import com.pekinsoft.loadmaster.sys.Logger;
+import com.pekinsoft.loadmaster.utils.DateUtils;
 import com.pekinsoft.loadmaster.utils.MessageBox;
 import com.pekinsoft.loadmaster.view.wiz.LoadBookerWizardPanelProvider;
 import com.pekinsoft.loadmaster.view.wiz.book.BrokerPage;
@@ -60,8 +67,10 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
+import java.beans.PropertyChangeEvent;
+import java.io.File;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -80,6 +89,14 @@ import org.netbeans.spi.wizard.Wizard;
  */
 public class LoadMaster extends javax.swing.JFrame {
     public static EntryCtl batch;
+    public static TableLoader loader;
+    
+    // The stops of the active load are kept on hand, so that each arrival and
+    //+ departure goes straight to its stop.
+    private StopCtl tripStops;
+    private String activeTrip;
+    private ArrayList<StopModel> activeStops;
+    
     private final LogRecord record = new LogRecord(Level.ALL, 
             "Logging started for com.pekinsoft.loadmaster.view.LoadMaster");
     
@@ -115,17 +132,35 @@ public class LoadMaster extends javax.swing.JFrame {
                 .equalsIgnoreCase("No Active Load") )
             loadProgress.setVisible(false);
         
-        if ( Starter.props.getPropertyAsBoolean("acct.batch", "false") ) {
+        // Read the tables in on a background thread, so that the window is
+        //+ usable while they load.
+        batch = null;
+        loadTables();
+    }
+    
+    /**
+     * Retrieves the batch of unposted transactions, if the batch posting method
+     * is being used. If the tables are still being read in, the batch is read
+     * in right away, instead of waiting on the background load.
+     * 
+     * @return the batch, or `null` if the batch posting method is not being
+     *         used, or the batch could not be read.
+     */
+    public static EntryCtl getBatch() {
+        if ( batch == null 
+                && Starter.props.getPropertyAsBoolean("acct.batch", "false") ) {
             try {
                 batch = new EntryCtl();
             } catch ( DataStoreException ex ) {
-                record.setMessage(ex.getMessage());
-                record.setThrown(ex);
-                Starter.logger.error(record);
+                LogRecord entry = Logger.newRecord(LoadMaster.class);
+                entry.setMessage(ex.getMessage());
+                entry.setSourceMethodName("getBatch");
+                entry.setThrown(ex);
+                Starter.logger.error(entry);
             }
-        } else {
-            batch = null;
         }
+        
+        return batch;
     }
     
     public void setWindowTitle(String title) {
@@ -550,9 +585,75 @@ public class LoadMaster extends javax.swing.JFrame {
     }
     
     private void exit(SysExits status) {
+        if ( loader != null ) {
+            loader.cancel(true);
+        }
+        
         Starter.exit(status);
     }
     
+    private void loadTables() {
+        loader = new TableLoader();
+        
+        // The stops go first, as the loads pick up their stops from them. If
+        //+ the settings ask for it, the completed and cancelled loads are
+        //+ moved into the archive, along with their stops, before either table
+        //+ is read in, so that they are never read in at all.
+        loader.addTable(new File(Starter.DB_URL + "stops.tbl"), () -> {
+            if ( Starter.props.getPropertyAsBoolean("archive.loads", 
+                    "false") ) {
+                LoadCtl.archiveClosed();
+            }
+            
+            new StopCtl();
+        });
+        loader.addTable(new File(Starter.DB_URL + "loads.tbl"), LoadCtl::new);
+        loader.addTable(new File(Starter.DB_URL + "brokers.tbl"), 
+                BrokerCtl::new);
+        loader.addTable(new File(Starter.DB_URL + "customers.tbl"), 
+                CustomerCtl::new);
+        
+        if ( Starter.props.getPropertyAsBoolean("acct.batch", "false") ) {
+            loader.addTable(new File(Starter.props.getDataFolder() + "0.ldgr"),
+                    EntryCtl::new);
+        }
+        
+        loader.addPropertyChangeListener((PropertyChangeEvent evt) -> {
+            if ( "progress".equals(evt.getPropertyName()) ) {
+                fileProgress.setValue((Integer) evt.getNewValue());
+            }
+        });
+        loader.addTableLoadListener(this::tablesLoaded);
+        
+        fileProgress.setMinimum(0);
+        fileProgress.setMaximum(100);
+        fileProgress.setValue(0);
+        fileProgress.setVisible(true);
+        
+        loader.execute();
+    }
+    
+    private void tablesLoaded(TableLoadEvent evt) {
+        fileProgress.setValue(0);
+        fileProgress.setVisible(false);
+        
+        if ( evt.isCancelled() ) {
+            return;
+        }
+        
+        if ( evt.getError() != null ) {
+            record.setSourceMethodName("tablesLoaded");
+            record.setMessage("Only " + evt.getTablesLoaded() + " of " 
+                    + evt.getTableCount() + " tables were read in. The others "
+                    + "will be read when they are opened.");
+            record.setThrown(evt.getError());
+            Starter.logger.error(record);
+        }
+        
+        // The ledger is now in memory, so this does not read it again.
+        getBatch();
+    }
+    
     private void doCloseLoad() {
         
         
@@ -603,70 +704,33 @@ public class LoadMaster extends javax.swing.JFrame {
         
         
         // Retrieve the current stop from the table.
-        StopModel current = null;
-        StopCtl stops = null;
-        
         try {
-            stops = new StopCtl();
+            StopModel current = getCurrentStop();
+            
+            if ( current != null ) {
+                Date arr = new Date();
+                current.setArrDate(arr);
+                
+                try {
+                    current.setArrTime(DateUtils.formatTime(arr));
+                } catch ( InvalidTimeException | ParseException ex ) {
+                    record.setMessage("Time not properly parsed or invalid.");
+                    record.setThrown(ex);
+                    Starter.logger.error(record);
+
+                    MessageBox.showError(ex, "Parsing Error");
+                }
+                
+                tripStops.save(current);
+            }
         } catch ( DataStoreException ex ) {
             record.setSourceMethodName("doArrival");
-            record.setMessage("An error occurred while creating a StopCtl "
-                    + "object.");
+            record.setMessage("An error occurred while attempting to access "
+                    + "the stops table file.");
             record.setThrown(ex);
             Starter.logger.error(record);
             
             MessageBox.showError(ex, "Data Access Error");
-        } finally {
-            if ( stops != null ) {
-                if ( stops.getRecordCount() > 0 ) {
-                    current = stops.get();
-                    
-                    if ( !current.getTripNumber().equalsIgnoreCase(
-                            Starter.props.getProperty("load.current"))) {
-                        while ( stops.hasNext() ) {
-                            try {
-                                current = stops.next();
-                            } catch ( DataStoreException ex ) {
-                                record.setMessage("An error occurred while "
-                                        + "trying to move to the next stop.");
-                                Starter.logger.error(record);
-                                
-                                MessageBox.showError(ex, "Record Navigation "
-                                        + "Error");
-                            }
-                            
-                            if ( current.getTripNumber().equalsIgnoreCase(
-                                    Starter.props.getProperty("load.current")))
-                                break;
-                        }
-                    }
-                    
-                    SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-                    current.setArrDate(new Date());
-                    try {
-                        current.setArrTime(sdf.format(new Date()));
-                    } catch ( InvalidTimeException | ParseException ex ) {
-                        record.setMessage("Time not properly parsed or invalid.");
-                        record.setThrown(ex);
-                        Starter.logger.error(record);
-                        
-                        MessageBox.showError(ex, "Parsing Error");
-                    }
-                    
-                    stops.update(current);
-                    
-                    try {
-                        stops.close();
-                    } catch ( DataStoreException ex ) {
-                        record.setMessage("An error occurred while attempting "
-                                + "to access the stops table file.");
-                        record.setThrown(ex);
-                        Starter.logger.error(record);
-                        
-                        MessageBox.showError(ex, "Data Access Error");
-                    }
-                }
-            }
         }
         
         updateLoadProgress();
@@ -686,9 +750,9 @@ public class LoadMaster extends javax.swing.JFrame {
         int result = JOptionPane.showConfirmDialog(this, "Is this a delivery?");
         boolean pickingUp = true;
         
-        if ( result == JOptionPane.NO_OPTION ) {
+        if ( result == JOptionPane.YES_OPTION ) {
             pickingUp = false;
-            dlg = new DepartPickupDialog(this, true);
+            dlg = new DepartDeliveryDialog(this, true);
             dlg.pack();
             dlg.setVisible(true);
         } else {
@@ -697,150 +761,108 @@ public class LoadMaster extends javax.swing.JFrame {
             dlg.setVisible(true);
         }        
         
-        // Retrieve the current stop from the table.
-        StopModel current = null;
-        StopCtl stops = null;
+        // Retrieve the current stop from the table. The stop, and the load if
+        //+ this stop is a pickup, are written together.
+        try ( Transaction tx = Transaction.begin() ) {
+            StopModel current = getCurrentStop();
+            
+            if ( current != null ) {
+                Date dep = new Date();
+                current.setDepDate(dep);
+                
+                try {
+                    current.setDepTime(DateUtils.formatTime(dep));
+                } catch ( InvalidTimeException | ParseException ex ) {
+                    record.setMessage("Time not properly parsed or invalid.");
+                    record.setThrown(ex);
+                    Starter.logger.error(record);
+
+                    MessageBox.showError(ex, "Parsing Error");
+                }
+                
+                if ( !pickingUp ) {
+                    current.setSignedBy(
+                            ((DepartDeliveryDialog)dlg).getSignedBy());
+                }
+                
+                tripStops.save(current);
+            }
         
-        try {
-            stops = new StopCtl();
+            // Now, we need to update the load with the information provided if
+            //+ this stop is a pickup.
+            if ( pickingUp ) {
+                // The active load is kept in the settings by its trip number.
+                String currentLoad = Starter.props.getProperty("load.current", 
+                        "No Active Load");
+                
+                LoadCtl loads = new LoadCtl();
+                LoadModel load = loads.findByTrip(currentLoad);
+                
+                if ( load != null ) {
+                    load.setBol(((DepartPickupDialog)dlg)
+                            .getBillOfLadingNumber());
+                    load.setPieces(((DepartPickupDialog)dlg).getPieceCount());
+                    load.setWeight(((DepartPickupDialog)dlg).getWeight());
+                    
+                    // Update the record to include the new data we just
+                    //+ received, and save it.
+                    loads.update(load);
+                    loads.close();
+                }
+            }
+            
+            tx.commit();
         } catch ( DataStoreException ex ) {
-            record.setSourceMethodName("doDeparture");
-            record.setMessage("An error occurred while creating a StopCtl "
-                    + "object.");
+            record.setSourceMethodName("doShowDeparture");
+            record.setMessage("An error occurred while attempting to write "
+                    + "the departure to the stops and loads tables.");
             record.setThrown(ex);
             Starter.logger.error(record);
             
             MessageBox.showError(ex, "Data Access Error");
-        } finally {
-            if ( stops != null ) {
-                if ( stops.getRecordCount() > 0 ) {
-                    current = stops.get();
-                    
-                    if ( !current.getTripNumber().equalsIgnoreCase(
-                            Starter.props.getProperty("load.current"))) {
-                        while ( stops.hasNext() ) {
-                            try {
-                                current = stops.next();
-                            } catch ( DataStoreException ex ) {
-                                record.setMessage("An error occurred while "
-                                        + "trying to move to the next stop.");
-                                Starter.logger.error(record);
-                                
-                                MessageBox.showError(ex, "Record Navigation "
-                                        + "Error");
-                            }
-                            
-                            if ( current.getTripNumber().equalsIgnoreCase(
-                                    Starter.props.getProperty("load.current")))
-                                break;
-                        }
-                    }
-                    
-                    SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-                    Date dep = new Date();
-                    current.setDepDate(dep);
-                    try {
-                        current.setDepTime(sdf.format(dep));
-                    } catch ( InvalidTimeException | ParseException ex ) {
-                        record.setMessage("Time not properly parsed or invalid.");
-                        record.setThrown(ex);
-                        Starter.logger.error(record);
-                        
-                        MessageBox.showError(ex, "Parsing Error");
-                    }
-                    
-                    if ( !pickingUp ) {
-                        current.setSignedBy(
-                                ((DepartDeliveryDialog)dlg).getSignedBy());
-                    }
-                    
-                    stops.update(current);
-                    
-                    try {
-                        stops.close();
-                    } catch ( DataStoreException ex ) {
-                        record.setMessage("An error occurred while attempting "
-                                + "to access the stops table file.");
-                        record.setThrown(ex);
-                        Starter.logger.error(record);
-                        
-                        MessageBox.showError(ex, "Data Access Error");
-                    }
-                }
-            }
         }
         
-        // Now, we need to update the load with the information provided if this
-        //+ stop is a pickup.
-        if ( pickingUp ) {
-            // To store the pickup information, we need to create and use two (2)
-            //+ objects: LoadModel and LoadCtl. First, we will create a LoadModel.
-            LoadModel load = new LoadModel();
-            String currentLoad = Starter.props.getProperty("load.current", 
-                    "No Active Load");
+        updateLoadProgress();
+    }
+    
+    /**
+     * Retrieves the stop of the active load that the driver is currently at.
+     * The stops of the active load are read in once, when the load first
+     * arrives or departs, and are then kept, so that each arrival and
+     * departure after that goes straight to its stop. The current stop is
+     * worked out from the `load.stop` setting, which is bumped up once for
+     * each arrival and once for each departure.
+     * 
+     * @return the current stop, or `null` if there is no active load, or the
+     *         load has no more stops.
+     * @throws DataStoreException in the event the stops table cannot be read.
+     */
+    private StopModel getCurrentStop() throws DataStoreException {
+        String trip = Starter.props.getProperty("load.current", 
+                "No Active Load");
+        
+        if ( tripStops == null || !trip.equals(activeTrip) ) {
+            tripStops = new StopCtl();
             
-            // Now, we need to create our LoadCtl object.
-            try {
-                LoadCtl loads = new LoadCtl();
-                
-                // Next, check to be sure there are records available.
-                if ( loads.getRecordCount() > 0 ) {
-                    // We need to get the first record into our local load object.
-                    load = loads.get();
-                    
-                    if ( !currentLoad.equals("No Active Load") ) {
-                        if ( !load.getOrder().equalsIgnoreCase(currentLoad) ) {
-                            // We need to loop through all of the loads until we
-                            //+ find the record for the active load.
-                            while ( loads.hasNext() ) {
-                                load = loads.next();
-                                
-                                if ( load.getOrder().equalsIgnoreCase(
-                                        currentLoad) ) {
-                                    // Now, since we found our current load, we
-                                    //+ can update the information in the load...
-                                    load.setBol(((DepartPickupDialog)dlg)
-                                            .getBillOfLadingNumber());
-                                    load.setPieces(((DepartPickupDialog)dlg)
-                                            .getPieceCount());
-                                    load.setWeight(((DepartPickupDialog)dlg)
-                                            .getWeight());
-                                    
-                                    //+ Then, break out of the loop.
-                                    break;
-                                } // end if in the while
-                            } // end while loop
-                        } else {
-                            // We got lucky and our load was the first load in
-                            //+ the table, so store the pickup information.
-                            load.setBol(((DepartPickupDialog)dlg)
-                                    .getBillOfLadingNumber());
-                            load.setPieces(((DepartPickupDialog)dlg)
-                                    .getPieceCount());
-                            load.setWeight(((DepartPickupDialog)dlg)
-                                    .getWeight());
-                        } // end check of first load record
-                    } // end no active load check
-                } // end records exist check
-                
-                // Update the record to include the new data we just received.
-                loads.update(load);
-                
-                // Close the loads table.
-                loads.close();
-            } catch ( DataStoreException ex ) {
-                record.setMessage("An error occurred trying to access the loads"
-                        + " table.");
-                record.setSourceMethodName("doShowDeparture");
-                record.setSourceClassName(getClass().getName());
-                record.setThrown(ex);
-                Starter.logger.error(record);
-                
-                MessageBox.showError(ex, "Database Access Error");
+            // The stops of the active load may be in an older partition of
+            //+ the stops table, if it was dispatched in an earlier period.
+            LoadModel load = new LoadCtl().findByTrip(trip);
+            
+            if ( load != null ) {
+                tripStops.loadBackTo(load.getDispatch());
             }
+            
+            activeStops = tripStops.getStopsForTrip(trip);
+            activeTrip = trip;
         }
         
-        updateLoadProgress();
+        int stop = (Starter.props.getPropertyAsInt("load.stop", "0") + 1) / 2;
+        
+        if ( stop < 1 || stop > activeStops.size() ) {
+            return null;
+        }
+        
+        return activeStops.get(stop - 1);
     }
     
     private void doShowChartOfAccounts() {
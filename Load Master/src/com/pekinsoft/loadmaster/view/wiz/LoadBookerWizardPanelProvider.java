@@ -46,6 +46,7 @@ import com.pekinsoft.loadmaster.Starter;
 import com.pekinsoft.loadmaster.controller.LoadCtl;
 import com.pekinsoft.loadmaster.controller.ReceivablesCtl;
 import com.pekinsoft.loadmaster.controller.StopCtl;
+import com.pekinsoft.loadmaster.db.Transaction;
 import com.pekinsoft.loadmaster.err.DataStoreException;
 import com.pekinsoft.loadmaster.model.LoadModel;
 import com.pekinsoft.loadmaster.model.ReceivablesModel;
@@ -66,6 +67,7 @@ import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import javax.swing.JComponent;
 import org.netbeans.spi.wizard.WizardController;
+import org.netbeans.spi.wizard.WizardException;
 import org.netbeans.spi.wizard.WizardPanelProvider;
 
 /**
@@ -264,7 +266,16 @@ public class LoadBookerWizardPanelProvider extends WizardPanelProvider
     }
 
     @Override
-    protected Object finish(Map settings) {
+    protected Object finish(Map settings) throws WizardException {
+        // The same load must not be booked twice, so send the user back to the
+        //+ load page if the order number is already in the loads table.
+        String order = settings.get("order").toString();
+        
+        if ( loads != null && loads.containsOrder(order) ) {
+            throw new WizardException("Order number " + order + " has already "
+                    + "been booked.", "load");
+        }
+        
         // Once the user clicks finish, we need to create the load record in the
         //+ loads table, as well as the stop record(s) in the stops table.
         load = new LoadModel();
@@ -273,7 +284,7 @@ public class LoadBookerWizardPanelProvider extends WizardPanelProvider
         load.setCommodity(settings.get("commodity").toString());
         load.setHazMat(Boolean.parseBoolean(settings.get("hazmat").toString()));
         load.setLtl(Boolean.parseBoolean(settings.get("ltl").toString()));
-        load.setOrder(settings.get("order").toString());
+        load.setOrder(order);
         load.setRamps(Boolean.parseBoolean(settings.get("ramps").toString()));
         try {
             NumberFormat nf = new java.text.DecimalFormat("#,##0.00");
@@ -307,18 +318,11 @@ public class LoadBookerWizardPanelProvider extends WizardPanelProvider
             load.addStop(stop);
         } while ( x < stopCount );
         
-        try {
-            stops.close();
-        } catch ( DataStoreException ex ) {
-            entry.setMessage("An error occurred accessing the stops database.");
-            entry.setThrown(ex);
-            Starter.logger.error(entry);
-
-            MessageBox.showError(ex, "Stops Database Error");
-        }
-
         // The last thing to do is to check to see if the driver is on an active
-        //+ trip.
+        //+ trip. This is asked before anything is written, so that the load,
+        //+ its stops and its receivable can all be written together.
+        boolean startTrip = false;
+        
         if ( Starter.props.getProperty("load.current", "No Active Load")
                 .equalsIgnoreCase("No Active Load") ) {
             // If not, see if the driver wants to start this trip.
@@ -334,46 +338,47 @@ public class LoadBookerWizardPanelProvider extends WizardPanelProvider
 
                 if ( !dlg.isCancelled() ) {
                     load.setStartOdo(dlg.getOdometer());
-
-                    Starter.props.setProperty("load.current", load.getTrip());
-                    Starter.props.setPropertyAsInt("stop.count", 
-                            load.getStopCount() * 2);
-                    Starter.props.setPropertyAsInt("load.stop", 0);
-                    Starter.props.flush();
-                    
-                    ReceivablesCtl ctl;
-                    
-                    try {
-                        ctl = new ReceivablesCtl();
-//                        ReceivablesModel ar = ;
-                        ctl.addNew(new ReceivablesModel(
-                                load.getDispatch(),
-                                load.getTrip(),
-                                load.getOrder(),
-                                load.getRate()));
-                        ctl.close();
-                    } catch ( DataStoreException ex ) {
-                        entry.setMessage("An error occurred accessing the stops "
-                                + "database.");
-                        entry.setThrown(ex);
-                        Starter.logger.error(entry);
-
-                        MessageBox.showError(ex, "Receivables Journal Error");
-                    }
+                    startTrip = true;
                 }
             }
         }
 
         loads.addNew(load);
         
-        try {
+        // Either all of the tables are written, or none of them are.
+        try ( Transaction tx = Transaction.begin() ) {
+            stops.close();
+            
+            if ( startTrip ) {
+                ReceivablesCtl ctl = new ReceivablesCtl();
+                ctl.addNew(new ReceivablesModel(
+                        load.getDispatch(),
+                        load.getTrip(),
+                        load.getOrder(),
+                        load.getRate()));
+                ctl.close();
+            }
+            
             loads.close();
+            tx.commit();
         } catch ( DataStoreException ex ) {
-            entry.setMessage("An error occurred accessing the loads database.");
+            entry.setMessage("An error occurred writing the load, its stops and "
+                    + "its receivable. None of them have been booked.");
             entry.setThrown(ex);
             Starter.logger.error(entry);
 
-            MessageBox.showError(ex, "Stops Database Error");
+            MessageBox.showError(ex, "Booking Error");
+            
+            return null;
+        }
+        
+        // The trip is only started once the load has been booked.
+        if ( startTrip ) {
+            Starter.props.setProperty("load.current", load.getTrip());
+            Starter.props.setPropertyAsInt("stop.count", 
+                    load.getStopCount() * 2);
+            Starter.props.setPropertyAsInt("load.stop", 0);
+            Starter.props.flush();
         }
         
         // Now, we need to see if the user is currently on
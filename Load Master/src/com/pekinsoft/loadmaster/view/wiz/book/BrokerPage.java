@@ -305,8 +305,8 @@ public class BrokerPage extends WizardPage {
             }
         }
         
-        // In order to get the selected broker, we need to loop through the
-        //+ records to find which record has the selected ID number.
+        // In order to get the selected broker, we need to look up the record
+        //+ that has the selected ID number.
         if ( !brokerList.getSelectedItem().toString().equalsIgnoreCase(
                 "select broker/agent...") ) {
             String selectedBroker = brokerList.getSelectedItem().toString();
@@ -314,21 +314,9 @@ public class BrokerPage extends WizardPage {
                     selectedBroker.indexOf("(") + 1,    // Start after (
                     selectedBroker.indexOf(")")));  // End before )
         
-            try {
-                records.first();
-
-                for ( int x = 0; x < records.getRecordCount(); x++ ) {
-                    BrokerModel b = records.get();
-
-                    if ( brokerID == b.getId() ) {
-                        broker = b;
-                        break;
-                    } else {
-                        if ( records.hasNext() ) 
-                            records.next();
-                    }
-                }
-                
+            broker = records.getById(brokerID);
+            
+            if ( broker != null ) {
                 if ( broker.getContact() != null && !broker.getContact().isBlank()
                         && !broker.getContact().isEmpty() ) {
                     brokerField.setText(broker.getContact());
@@ -345,12 +333,6 @@ public class BrokerPage extends WizardPage {
                 if ( broker.getEmail() != null ) {
                     emailField.setText(broker.getEmail());
                 }
-            } catch ( DataStoreException ex ) {
-                lr.setMessage("Something went wrong moving to the next record.");
-                lr.setThrown(ex);
-                Starter.logger.error(lr);
-
-    //            MessageBox.showError(ex, "Database Access");
             }
         }       
     }                                      
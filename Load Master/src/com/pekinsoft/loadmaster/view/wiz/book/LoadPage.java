@@ -38,7 +38,12 @@
 
 package com.pekinsoft.loadmaster.view.wiz.book;
 
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.controller.LoadCtl;
+import com.pekinsoft.loadmaster.err.DataStoreException;
+import com.pekinsoft.loadmaster.sys.Logger;
 import java.awt.Component;
+import java.util.logging.LogRecord;
 import org.netbeans.spi.wizard.WizardPage;
 
 /**
@@ -75,6 +80,9 @@ public class LoadPage extends WizardPage {
     private javax.swing.JTextField tripField;
     private javax.swing.JCheckBox twicField;
     // End of variables declaration                   
+    
+    // Used to check that the load has not already been booked.
+    private LoadCtl loads;
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="Static Initializer">
@@ -92,6 +100,20 @@ public class LoadPage extends WizardPage {
     //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
     public LoadPage () {
         initComponents();
+        
+        try {
+            loads = new LoadCtl();
+        } catch ( DataStoreException ex ) {
+            LogRecord entry = Logger.newRecord(getClass());
+            entry.setMessage(ex.getMessage() + "\n\n" + "-".repeat(80)
+                    + "Booked order numbers will not be checked.");
+            entry.setThrown(ex);
+            entry.setSourceMethodName("LoadPage");
+            entry.setParameters(null);
+            Starter.logger.error(entry);
+            
+            loads = null;
+        }
     }
     //</editor-fold>
 
@@ -268,6 +290,8 @@ public class LoadPage extends WizardPage {
         // Set the flags to our settings.
         if ( orderField.getText().length() == 0 )
             return "Order Number is required.";
+        else if ( loads != null && loads.containsOrder(orderField.getText()) )
+            return "Order Number has already been booked.";
         else if ( tripField.getText().length() == 0 )
             return "Trip Number is required.";
         else if ( grossPayField.getText().length() == 0 )
@@ -192,24 +192,16 @@ public class SummaryPage extends WizardPage {
                 StopModel stop = (StopModel)row;
                 long desiredID = stop.getCustomer();
                 
-                // Now that we have the customer ID we need to match, we need to
-                //+ loop through all of the records in the customer table until
-                //+ we find that customer record.
-                do {
-                    if ( table.get().getId() == desiredID ) {
-                        cust = table.get();
-                        
-                        // Exit the loop.
-                        break;
-                    } else
-                        table.next();
-                }  while ( table.hasNext() );
+                // Now that we have the customer ID we need to match, we can
+                //+ look that customer record up directly.
+                cust = table.getById(desiredID);
                 
                 // Now that we have gotten the appropriate customer information
                 //+ for the stop, we can add the info to the summary page.
                 summary.append("<tr><td>");
                 summary.append(stop.getStopNumber()).append("</td><td>");
-                summary.append(cust.getCompany()).append("</td><td>");
+                summary.append(cust != null ? cust.getCompany() 
+                        : "Unknown Customer #" + desiredID).append("</td><td>");
                 
                 SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
                 
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   Bench
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      The small bits of plumbing that the main-based benchmarks share.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * The plumbing shared by the benchmarks in this package. The benchmarks are
+ * plain `main` programs, not JUnit tests, so they are never run by the `test`
+ * target. Each one is run on its own, with the test classpath, such as:
+ * <pre>
+ *     java -cp build/classes:build/test/classes:../swingx-1.6.1.jar \
+ *             com.pekinsoft.loadmaster.bench.LoadStartupBenchmark
+ * </pre>
+ *
+ * <dl><dt>Note</dt><dd>The application works out its data folder from the
+ * `user.home` system property the first time that `Starter` is touched, so
+ * every benchmark calls `useScratchHome` before anything else, so that it
+ * never reads or writes the real data tables.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+final class Bench {
+    //<editor-fold defaultstate="collapsed" desc="Public Interfaces">
+    /**
+     * A piece of work to be timed.
+     */
+    @FunctionalInterface
+    interface Task {
+        void run() throws Exception;
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    private Bench () {
+        // Only static methods, so no need to construct.
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Static Methods">
+    // Points the application at a new, empty home folder, and returns its
+    //+ data folder. Must be called before Starter is first touched.
+    static File useScratchHome(String name) throws IOException {
+        File home = Files.createTempDirectory(name).toFile();
+        System.setProperty("user.home", home.getPath());
+        System.setProperty("java.awt.headless", "true");
+
+        File data = new File(home, ".loadmaster" + File.separator + "data");
+        data.mkdirs();
+
+        return data;
+    }
+
+    // Runs the task the given number of times, after the given number of
+    //+ warm-up runs, and returns the median time of a run, in milliseconds.
+    static double medianMillis(int warmUp, int runs, Task task)
+            throws Exception {
+        for ( int x = 0; x < warmUp; x++ ) {
+            task.run();
+        }
+
+        long[] times = new long[runs];
+
+        for ( int x = 0; x < runs; x++ ) {
+            long start = System.nanoTime();
+            task.run();
+            times[x] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(times);
+
+        return times[runs / 2] / 1e6;
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   IdLookupBenchmark
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Times finding brokers by their ID numbers through the ID index of the
+ *      BrokerCtl, against searching the table for them from the top.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.bench;
+
+import com.pekinsoft.loadmaster.controller.BrokerCtl;
+import com.pekinsoft.loadmaster.model.BrokerModel;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Random;
+
+/**
+ * Times how long it takes to find a broker by its ID number, through
+ * `BrokerCtl.getById`, which looks it up in the {@link
+ * com.pekinsoft.loadmaster.db.IdIndex} of the controller, against searching
+ * the records of the controller from the top, which is how the selectors used
+ * to find them. The IDs looked up are picked at random, the same ones for both,
+ * so that the search finds them halfway down the table on average.
+ *
+ * The number of brokers may be given on the command line. It defaults to
+ * 50,000.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public class IdLookupBenchmark {
+
+    private static final int LOOKUPS = 10000;
+
+    // Keeps the work of each run from being optimized away.
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        File data = Bench.useScratchHome("loadmaster-bench");
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+
+        try ( BufferedWriter out = new BufferedWriter(new FileWriter(
+                new File(data, "brokers.tbl"))) ) {
+            for ( int x = 0; x < count; x++ ) {
+                out.write((1000000L + x) + "~Broker " + x + "~" + x
+                        + " Main St~~Springfield~IL~62701~Pat~555-0100~~"
+                        + "pat@broker" + x + ".com\n");
+            }
+        }
+
+        BrokerCtl brokers = new BrokerCtl();
+        Random random = new Random(42);
+        long[] ids = new long[LOOKUPS];
+
+        for ( int x = 0; x < LOOKUPS; x++ ) {
+            ids[x] = 1000000L + random.nextInt(count);
+        }
+
+        report("index", count, Bench.medianMillis(3, 7, () -> {
+            for ( long id : ids ) {
+                sink += brokers.getById(id).getId();
+            }
+        }));
+
+        report("search", count, Bench.medianMillis(1, 3, () -> {
+            for ( long id : ids ) {
+                for ( int x = 0; x < brokers.getRecordCount(); x++ ) {
+                    BrokerModel broker = brokers.get(x);
+
+                    if ( broker.getId() == id ) {
+                        sink += broker.getId();
+                        break;
+                    }
+                }
+            }
+        }));
+
+        System.exit(sink < 0 ? 1 : 0);
+    }
+
+    private static void report(String name, int count, double millis) {
+        System.out.printf("%-6s %,7d brokers, %,d lookups: %,10.1f ms "
+                + "(%,9.3f us/lookup)%n", name, count, LOOKUPS, millis,
+                millis * 1000 / LOOKUPS);
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   LoadStartupBenchmark
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Times the reading in of the loads table, along with the stops of each
+ *      load, over synthetic tables of 10,000 and 100,000 loads.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.bench;
+
+import com.pekinsoft.loadmaster.controller.LoadCtl;
+import com.pekinsoft.loadmaster.db.TableRegistry;
+import com.pekinsoft.loadmaster.utils.DateUtils;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Times how long it takes to open a `LoadCtl`, which reads in the loads table
+ * and attaches the stops of each load to it from a single pass over the stops
+ * table. The loads and stops tables are written out fresh for each size, with
+ * three stops to every load, and both are dropped from the
+ * {@link TableRegistry} before every run, so that every run reads them from
+ * the disk.
+ *
+ * The sizes may be given on the command line. They default to 10,000 and
+ * 100,000 loads.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public class LoadStartupBenchmark {
+
+    private static final int STOPS_PER_LOAD = 3;
+
+    public static void main(String[] args) throws Exception {
+        File data = Bench.useScratchHome("loadmaster-bench");
+        File loads = new File(data, "loads.tbl");
+        File stops = new File(data, "stops.tbl");
+
+        String[] sizes = args.length > 0 ? args
+                : new String[] { "10000", "100000" };
+
+        for ( String size : sizes ) {
+            int count = Integer.parseInt(size);
+            writeTables(loads, stops, count);
+
+            double millis = Bench.medianMillis(2, 5, () -> {
+                TableRegistry.invalidate(stops);
+                TableRegistry.invalidate(loads);
+                new LoadCtl();
+            });
+
+            System.out.printf("%,9d loads, %,9d stops: %,10.1f ms%n", count,
+                    count * STOPS_PER_LOAD, millis);
+        }
+
+        System.exit(0);
+    }
+
+    private static void writeTables(File loads, File stops, int count)
+            throws IOException {
+        String date = DateUtils.formatDate(new Date());
+
+        try ( BufferedWriter out = new BufferedWriter(new FileWriter(
+                loads)) ) {
+            for ( int x = 0; x < count; x++ ) {
+                out.write("O" + x + "~T" + x + "~1000~1500~" + date
+                        + "~1250.0~500~40000~12~Freight~false~false~false"
+                        + "~false~false~false~false~false~" + (x % 500)
+                        + "~B" + x + "~false~false\n");
+            }
+        }
+
+        try ( BufferedWriter out = new BufferedWriter(new FileWriter(
+                stops)) ) {
+            for ( int x = 0; x < count; x++ ) {
+                for ( int s = 1; s <= STOPS_PER_LOAD; s++ ) {
+                    out.write("T" + x + "~" + s + "~" + (x % 1000) + "~"
+                            + date + "~08:00~" + date + "~17:00~~~~~\n");
+                }
+            }
+        }
+
+        // Any change log left from the last size is out of date.
+        new File(loads.getPath() + ".wal").delete();
+        new File(stops.getPath() + ".wal").delete();
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   LoggerBenchmark
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Times the cost, per row, of a debugging entry that is not logged, with
+ *      and without checking the logging level before the entry is built.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.bench;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.controller.LoadCtl;
+import com.pekinsoft.loadmaster.sys.Logger;
+import java.util.logging.LogRecord;
+
+/**
+ * Times what a debugging entry made for every row read in, such as the ones in
+ * the `createAndAddRecord` methods of the controllers, costs each row while
+ * the logging level is above `DEBUG`, so that the entry is never written. It
+ * is timed three ways:
+ * <ul>
+ *  <li>unguarded: the entry is built in full, and handed to `debug`, which
+ *      throws it away.</li>
+ *  <li>guarded: the entry is only built once `isEnabled(Logger.DEBUG)` has
+ *      said that it will be written.</li>
+ *  <li>supplier: the message is handed to `debug` as a `Supplier`, which is
+ *      only called if it will be written.</li>
+ * </ul>
+ *
+ * The number of rows may be given on the command line. It defaults to
+ * 1,000,000.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ *
+ * @version 0.1.0
+ * @since 0.1.0
+ */
+public class LoggerBenchmark {
+
+    // Keeps the work of each run from being optimized away.
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        Bench.useScratchHome("loadmaster-bench");
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        Logger logger = Starter.logger;
+        logger.setLevel(Logger.INFO);
+
+        report("unguarded", rows, Bench.medianMillis(3, 7, () -> {
+            for ( int x = 0; x < rows; x++ ) {
+                LogRecord entry = Logger.newRecord(LoadCtl.class);
+                entry.setMessage("Adding record " + x + " to the table.\n\n"
+                        + "-".repeat(80));
+                entry.setSourceMethodName("createAndAddRecord");
+                entry.setParameters(new Object[] { x });
+                logger.debug(entry);
+                sink += entry.getMessage().length();
+            }
+        }));
+
+        report("guarded", rows, Bench.medianMillis(3, 7, () -> {
+            for ( int x = 0; x < rows; x++ ) {
+                if ( logger.isEnabled(Logger.DEBUG) ) {
+                    LogRecord entry = Logger.newRecord(LoadCtl.class);
+                    entry.setMessage("Adding record " + x + " to the table."
+                            + "\n\n" + "-".repeat(80));
+                    entry.setSourceMethodName("createAndAddRecord");
+                    entry.setParameters(new Object[] { x });
+                    logger.debug(entry);
+                    sink += entry.getMessage().length();
+                }
+            }
+        }));
+
+        LogRecord shared = Logger.newRecord(LoadCtl.class);
+        shared.setSourceMethodName("createAndAddRecord");
+
+        report("supplier", rows, Bench.medianMillis(3, 7, () -> {
+            for ( int x = 0; x < rows; x++ ) {
+                int row = x;
+                logger.debug(shared, () -> "Adding record " + row
+                        + " to the table.\n\n" + "-".repeat(80));
+            }
+        }));
+
+        System.exit(sink < 0 ? 1 : 0);
+    }
+
+    private static void report(String name, int rows, double millis) {
+        System.out.printf("%-9s %,9d rows: %,10.1f ms (%,8.1f ns/row)%n", name,
+                rows, millis, millis * 1e6 / rows);
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   ChangeLogTest
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Tests the replay of the change log of a table, for committed batches
+ *      and for batches torn by a crash, and the rejection of saves made over
+ *      those of another instance of the application, or of another log.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.err.ConflictException;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the replay of the change log of a table, and the checks made before a
+ * save is written to it.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ */
+public class ChangeLogTest {
+
+    private static File data;
+
+    private File table;
+    private File log;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        data = TestData.useScratchHome("changelog-test");
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        table = TestData.newTable(data, "names.tbl");
+        log = new File(table.getPath() + ChangeLog.EXTENSION);
+        TestData.write(table, "Acme", "Beta");
+    }
+
+    @Test
+    public void testCommittedBatchIsApplied() throws Exception {
+        TestData.write(log, "U~0~Acme Ltd", "I~2~Gamma", "C~2");
+
+        assertEquals(TestData.lines("Acme Ltd", "Beta", "Gamma"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testUncommittedBatchIsIgnored() throws Exception {
+        TestData.write(log, "U~0~Acme Ltd", "C~1", "U~1~Torn");
+
+        assertEquals(TestData.lines("Acme Ltd", "Beta"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testTornBatchIsIgnoredAfterTheNextSave() throws Exception {
+        TestData.write(log, "U~0~99~TORN");
+
+        ChangeLog changes = new ChangeLog(table);
+        ArrayList<String> lines = changes.read();
+        assertEquals(TestData.lines("Acme", "Beta"), lines);
+
+        lines.add("Gamma");
+        changes.commit(lines.size(), lines::get);
+
+        assertEquals(TestData.lines("Acme", "Beta", "Gamma"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testHalfWrittenLineIsEndedBeforeTheNextSave()
+            throws Exception {
+        TestData.append(log, "U~0~Acme Ltd\nC~1\nU~1~Be");
+
+        ChangeLog changes = new ChangeLog(table);
+        ArrayList<String> lines = changes.read();
+        assertEquals(TestData.lines("Acme Ltd", "Beta"), lines);
+
+        lines.add("Gamma");
+        changes.commit(lines.size(), lines::get);
+
+        assertEquals(TestData.lines("Acme Ltd", "Beta", "Gamma"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testMarkerWithTooFewEntriesIsIgnored() throws Exception {
+        TestData.write(log, "U~0~Acme Ltd", "C~2", "U~1~Beta Inc", "C~1");
+
+        assertEquals(TestData.lines("Acme", "Beta Inc"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testScanSeesTheSameRowsAsRead() throws Exception {
+        TestData.write(log, "U~1~99~TORN", "U~0~Acme Ltd", "C~1");
+        ArrayList<String> scanned = new ArrayList<>();
+
+        new ChangeLog(table).scan((int row, RecordTokenizer record) -> {
+            scanned.add(record.toString());
+            return true;
+        });
+
+        assertEquals(TestData.lines("Acme Ltd", "Beta"), scanned);
+    }
+
+    @Test
+    public void testRowsAddedOverAnotherLogsAreRejected() throws Exception {
+        ChangeLog first = new ChangeLog(table);
+        ChangeLog second = new ChangeLog(table);
+        ArrayList<String> firstLines = first.read();
+        ArrayList<String> secondLines = second.read();
+
+        firstLines.add("Gamma");
+        first.commit(firstLines.size(), firstLines::get);
+        secondLines.add("Delta");
+
+        try {
+            second.commit(secondLines.size(), secondLines::get);
+            fail("The row was written over the one added by the other log.");
+        } catch ( ConflictException ex ) {
+            // Expected.
+        }
+
+        assertEquals(TestData.lines("Acme", "Beta", "Gamma"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testUpdatesAfterAnotherLogAddedRowsAreWritten()
+            throws Exception {
+        ChangeLog first = new ChangeLog(table);
+        ChangeLog second = new ChangeLog(table);
+        ArrayList<String> firstLines = first.read();
+        ArrayList<String> secondLines = second.read();
+
+        firstLines.add("Gamma");
+        first.commit(firstLines.size(), firstLines::get);
+        secondLines.set(1, "Beta Inc");
+        second.markUpdated(1);
+        second.commit(secondLines.size(), secondLines::get);
+
+        assertEquals(TestData.lines("Acme", "Beta Inc", "Gamma"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testStaleSaveIsRejected() throws Exception {
+        ChangeLog changes = new ChangeLog(table);
+        ArrayList<String> lines = changes.read();
+        saveFromAnotherInstance();
+
+        lines.add("Gamma");
+
+        try {
+            changes.commit(lines.size(), lines::get);
+            fail("The save was written over the other instance's.");
+        } catch ( ConflictException ex ) {
+            // Expected.
+        }
+
+        assertEquals(TestData.lines("Acme", "Beta"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testStaleWaitingSaveIsThrownByFlushNow() throws Exception {
+        // Long enough that the scheduler never writes the save by itself.
+        Starter.props.setProperty("save.delay", "60000");
+
+        try {
+            ChangeLog changes = new ChangeLog(table);
+            ArrayList<String> lines = changes.read();
+
+            lines.add("Gamma");
+            changes.commit(lines.size(), lines::get);
+            saveFromAnotherInstance();
+
+            try {
+                SaveScheduler.flushNow();
+                fail("The waiting save was written over the other "
+                        + "instance's.");
+            } catch ( ConflictException ex ) {
+                // Expected.
+            }
+        } finally {
+            Starter.props.setProperty("save.delay", "0");
+        }
+
+        assertEquals(TestData.lines("Acme", "Beta"),
+                new ChangeLog(table).read());
+    }
+
+    // Moves the generation in the lock file on, as a save by another instance
+    //+ of the application would.
+    private void saveFromAnotherInstance() throws Exception {
+        File lock = new File(table.getPath() + ChangeLog.LOCK_EXTENSION);
+        long generation = lock.length() < Long.BYTES ? 0
+                : ByteBuffer.wrap(Files.readAllBytes(lock.toPath())).getLong();
+
+        Files.write(lock.toPath(), ByteBuffer.allocate(Long.BYTES)
+                .putLong(generation + 1).array());
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   RecordCursorTest
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Tests the paging of a cursor through the saved records of a table,
+ *      and of a table that has been split up into partitions.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import java.io.File;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the reading of the records of a table through a `RecordCursor`.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ */
+public class RecordCursorTest {
+
+    // The rows are read back as they are, so the tests can compare them.
+    private static final RecordCodec<String> CODEC = RecordCodec.of(
+            RecordTokenizer::toString, (String row) -> row);
+
+    private static File data;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        data = TestData.useScratchHome("cursor-test");
+    }
+
+    @After
+    public void tearDown() {
+        Starter.props.setProperty("table.partition", "none");
+    }
+
+    @Test
+    public void testPagesHoldTheSavedRows() throws Exception {
+        File table = TestData.newTable(data, "stops.tbl");
+        TestData.write(table, "A~1", "B~2", "C~3", "D~4", "E~5");
+        TestData.write(new File(table.getPath() + ChangeLog.EXTENSION),
+                "U~1~B~20", "I~5~F~6", "C~2");
+
+        try ( RecordCursor<String> cursor = Table.openCursor(table, CODEC,
+                null, 2) ) {
+            assertEquals(6, cursor.getRecordCount());
+            assertEquals(3, cursor.getPageCount());
+            assertEquals(TestData.lines("A~1", "B~20"), cursor.getPage(0));
+            assertEquals(TestData.lines("E~5", "F~6"), cursor.getPage(2));
+            assertEquals("F~6", cursor.last());
+            assertEquals("A~1", cursor.first());
+            assertNull(cursor.get(6));
+        }
+    }
+
+    @Test
+    public void testMatchesAreFoundAcrossPartitions() throws Exception {
+        File table = TestData.newTable(data, "loads.tbl");
+        TestData.write(table, "A~01/15/2025", "B~03/02/2026", "A~10/18/2026");
+
+        Starter.props.setProperty("table.partition", "year");
+        TablePartitions.open(table, 1);
+
+        try ( RecordCursor<String> cursor = Table.openCursor(table, CODEC,
+                (String row) -> row.startsWith("A~"), 1) ) {
+            assertEquals(2, cursor.getRecordCount());
+            assertEquals("A~01/15/2025", cursor.first());
+            assertEquals(0, cursor.getTableRow());
+            assertEquals("A~10/18/2026", cursor.next());
+            assertEquals(2, cursor.getTableRow());
+            assertFalse(cursor.hasNext());
+            assertEquals("A~01/15/2025", cursor.previous());
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TableArchiveTest
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Tests the moving of records out of a table and into its archive, and
+ *      the reading of them back out of the archive.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.err.ConflictException;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the moving of records out of a table and into its archive.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ */
+public class TableArchiveTest {
+
+    private static File data;
+
+    private File table;
+    private TableArchive archive;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        data = TestData.useScratchHome("archive-test");
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        table = TestData.newTable(data, "loads.tbl");
+        archive = new TableArchive(table);
+        TestData.write(table, "A~open", "B~closed", "C~open", "D~open");
+        TestData.write(new File(table.getPath() + ChangeLog.EXTENSION),
+                "U~2~C~closed", "C~1");
+    }
+
+    @Test
+    public void testClosedRowsAreMovedIntoTheArchive() throws Exception {
+        assertEquals(2, archive.archive(closed()));
+
+        assertEquals(TestData.lines("A~open", "D~open"),
+                new ChangeLog(table).read());
+        assertEquals(TestData.lines("B~closed", "C~closed"), scan());
+        assertEquals(1, archive.getSegments().size());
+    }
+
+    @Test
+    public void testEachArchiveIsReadBackInOrder() throws Exception {
+        archive.archive(closed());
+
+        ChangeLog changes = new ChangeLog(table);
+        ArrayList<String> lines = changes.read();
+        lines.set(0, "A~closed");
+        changes.markUpdated(0);
+        changes.commit(lines.size(), lines::get);
+
+        assertEquals(1, archive.archive(closed()));
+
+        assertEquals(TestData.lines("D~open"), new ChangeLog(table).read());
+        assertEquals(TestData.lines("B~closed", "C~closed", "A~closed"),
+                scan());
+        assertEquals(2, archive.getSegments().size());
+    }
+
+    @Test
+    public void testNothingIsWrittenWhenNoRowsPass() throws Exception {
+        assertEquals(0, archive.archive((RecordTokenizer record) -> false));
+
+        assertTrue(archive.getSegments().isEmpty());
+        assertEquals(TestData.lines("A~open", "B~closed", "C~closed",
+                "D~open"), new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testSaveToTheTableBeforeTheArchiveIsRejected()
+            throws Exception {
+        ChangeLog changes = new ChangeLog(table);
+        ArrayList<String> lines = changes.read();
+
+        archive.archive(closed());
+        lines.add("E~open");
+
+        try {
+            changes.commit(lines.size(), lines::get);
+            fail("The save was written over the rows that moved up.");
+        } catch ( ConflictException ex ) {
+            // Expected.
+        }
+    }
+
+    private static Predicate<RecordTokenizer> closed() {
+        return (RecordTokenizer record) -> {
+            record.skip();
+
+            return "closed".equals(record.nextString());
+        };
+    }
+
+    private List<String> scan() throws Exception {
+        ArrayList<String> rows = new ArrayList<>();
+
+        archive.scan((int row, RecordTokenizer record) -> {
+            rows.add(record.toString());
+            return true;
+        });
+
+        return rows;
+    }
+
+}
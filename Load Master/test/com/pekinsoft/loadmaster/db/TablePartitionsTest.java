@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TablePartitionsTest
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Tests the splitting up of a table file into its partitions, and the
+ *      reading of the table back out of them.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import com.pekinsoft.loadmaster.err.ConflictException;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the splitting up of a table file into its partitions.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ */
+public class TablePartitionsTest {
+
+    private static File data;
+
+    private File table;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        data = TestData.useScratchHome("partitions-test");
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        table = TestData.newTable(data, "loads.tbl");
+        TestData.write(table, "A~01/15/2025", "B~03/02/2026", "C~");
+        TestData.write(new File(table.getPath() + ChangeLog.EXTENSION),
+                "U~0~A~12/31/2025", "C~1");
+
+        Starter.props.setProperty("table.partition", "year");
+    }
+
+    @After
+    public void tearDown() {
+        Starter.props.setProperty("table.partition", "none");
+    }
+
+    @Test
+    public void testTableIsSplitUpByPeriod() throws Exception {
+        TablePartitions partitions = TablePartitions.open(table, 1);
+
+        assertEquals(TestData.lines("2025", "2026"),
+                partitions.getPeriods());
+        assertFalse(table.exists());
+
+        // The saved change is split up along with the rest, and the row
+        //+ without a date goes in with the row before it.
+        assertEquals(TestData.lines("A~12/31/2025"),
+                new ChangeLog(partitions.getFile("2025")).read());
+        assertEquals(TestData.lines("B~03/02/2026", "C~"),
+                new ChangeLog(partitions.getFile("2026")).read());
+    }
+
+    @Test
+    public void testAllOfTheRowsAreReadBackInOrder() throws Exception {
+        TablePartitions.open(table, 1);
+        List<String> rows = new ArrayList<>();
+
+        for ( File file : TablePartitions.getFiles(table) ) {
+            rows.addAll(new ChangeLog(file).read());
+        }
+
+        assertEquals(TestData.lines("A~12/31/2025", "B~03/02/2026", "C~"),
+                rows);
+    }
+
+    @Test
+    public void testSplitTableIsOpenedFromItsManifest() throws Exception {
+        TablePartitions.open(table, 1);
+        Starter.props.setProperty("table.partition", "none");
+
+        assertEquals(TestData.lines("2025", "2026"),
+                TablePartitions.open(table, 1).getPeriods());
+    }
+
+    @Test
+    public void testSaveToTheTableBeforeTheSplitIsRejected()
+            throws Exception {
+        ChangeLog changes = new ChangeLog(table);
+        ArrayList<String> lines = changes.read();
+
+        TablePartitions.open(table, 1);
+        lines.add("D~10/18/2026");
+
+        try {
+            changes.commit(lines.size(), lines::get);
+            fail("The save was written to the table after it was split up.");
+        } catch ( ConflictException ex ) {
+            // Expected.
+        }
+    }
+
+}
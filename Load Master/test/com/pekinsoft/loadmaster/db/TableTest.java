@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TableTest
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Tests the saving of the records of a table that is open in more than
+ *      one controller at once.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.model.AbstractModel;
+import java.io.File;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the saving of a table that is open in more than one controller.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ */
+public class TableTest {
+
+    private static final RecordCodec<Name> CODEC = RecordCodec.of(
+            (RecordTokenizer record) -> new Name(record.nextString()),
+            (Name record) -> record.getName());
+
+    private static File data;
+
+    private File table;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        data = TestData.useScratchHome("table-test");
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        table = TestData.newTable(data, "names.tbl");
+        TestData.write(table, "Acme", "Beta");
+    }
+
+    @Test
+    public void testRecordsAddedByTwoControllersAreBothSaved()
+            throws Exception {
+        Table<Name> first = new Table<>(table, CODEC, null);
+        Table<Name> second = new Table<>(table, CODEC, null);
+
+        first.addNew(new Name("Gamma"));
+        second.addNew(new Name("Delta"));
+        first.save();
+        second.save();
+
+        assertEquals(TestData.lines("Acme", "Beta", "Gamma", "Delta"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testRecordsSavedByAnotherControllerGoInAhead()
+            throws Exception {
+        Table<Name> first = new Table<>(table, CODEC, null);
+        Table<Name> second = new Table<>(table, CODEC, null);
+
+        first.addNew(new Name("Gamma"));
+        second.addNew(new Name("Delta"));
+        first.save();
+        second.save();
+
+        assertEquals(4, second.getRecordCount());
+        assertEquals("Gamma", second.get(2).getName());
+        assertEquals("Delta", second.get().getName());
+        assertEquals(1, second.getMoveCount());
+        assertEquals(0, first.getMoveCount());
+    }
+
+    @Test
+    public void testOnlyTheRecordsChangedThroughTheirSettersAreSaved()
+            throws Exception {
+        Table<Name> first = new Table<>(table, CODEC, null);
+        first.addNew(new Name("Gamma"));
+        first.save();
+
+        // The records are shared, so a change made through one controller is
+        //+ saved by the other.
+        Table<Name> second = new Table<>(table, CODEC, null);
+        second.get(2).setName("Gamma Inc");
+        second.get(0).setName("Acme Ltd");
+
+        assertTrue(first.hasChanges());
+        assertArrayEquals(new int[] {0, 2}, first.getModifiedRows());
+        assertEquals(2, first.save());
+        assertFalse(second.hasChanges());
+        assertEquals(0, second.save());
+        assertEquals(TestData.lines("Acme Ltd", "Beta", "Gamma Inc"),
+                new ChangeLog(table).read());
+    }
+
+    // The simplest of records, with just a name.
+    private static class Name extends AbstractModel {
+        private String name;
+
+        Name (String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
+            markModified();
+        }
+    }
+
+}
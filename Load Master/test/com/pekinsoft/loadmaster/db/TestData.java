@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TestData
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Points the data table tests at a scratch data folder, and reads and
+ *      writes the table files that they work with.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import com.pekinsoft.loadmaster.Starter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The plumbing shared by the tests of the data tables.
+ *
+ * <dl><dt>Note</dt><dd>The application works out its data folder from the
+ * `user.home` system property the first time that `Starter` is touched, so
+ * each test class calls `useScratchHome` from its `@BeforeClass` method,
+ * before anything else. The tests are run in a JVM of their own, so this
+ * never touches the real data tables.</dd></dl>
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ */
+final class TestData {
+    //<editor-fold defaultstate="collapsed" desc="Private Static Fields">
+    private static int tables;
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Constructor(s)">
+    private TestData () {
+        // Only static methods, so no need to construct.
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Package Static Methods">
+    // Points the application at a new, empty home folder, with every save
+    //+ written before it returns, and returns its data folder.
+    static File useScratchHome(String name) throws IOException {
+        File home = Files.createTempDirectory(name).toFile();
+        System.setProperty("user.home", home.getPath());
+        System.setProperty("java.awt.headless", "true");
+
+        Starter.props.setProperty("save.delay", "0");
+
+        File data = new File(Starter.DB_URL);
+        data.mkdirs();
+
+        return data;
+    }
+
+    // Names a new table file in the data folder, which has never been used
+    //+ before, so that nothing is left in memory for it by an earlier test,
+    //+ such as the rows that were added to it.
+    static File newTable(File data, String name) {
+        int dot = name.lastIndexOf('.');
+
+        return new File(data, name.substring(0, dot) + "-" + (++tables)
+                + name.substring(dot));
+    }
+
+    static void write(File file, String... lines) throws IOException {
+        Files.write(file.toPath(), Arrays.asList(lines),
+                Charset.defaultCharset());
+    }
+
+    // Appends the text as it is, so that a test can leave a line unended.
+    static void append(File file, String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(Charset.defaultCharset()),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    static List<String> lines(String... lines) {
+        return Arrays.asList(lines);
+    }
+    //</editor-fold>
+
+}
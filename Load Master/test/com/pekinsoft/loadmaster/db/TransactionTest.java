@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2020 PekinSOFT Systems
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  ******************************************************************************
+ *   Project:  Load_Master
+ *   Module:   TransactionTest
+ *   Created:  Oct 18, 2026
+ *   Modified: Oct 18, 2026
+ *
+ *   Purpose:
+ *      Tests the commit of transactions, and the recovery of the journals left
+ *      behind by them.
+ *
+ *   Revision History
+ *
+ *   WHEN          BY                  REASON
+ *   ------------  ------------------- ------------------------------------------
+ *   Oct 18, 2026  Sean Carrick        Initial Creation.
+ *  ******************************************************************************
+ */
+
+package com.pekinsoft.loadmaster.db;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the commit of transactions, and the recovery of their journals.
+ *
+ * @author Sean Carrick &lt;sean at pekinsoft dot com&gt;
+ */
+public class TransactionTest {
+
+    private static File data;
+
+    private File table;
+    private File journal;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        data = TestData.useScratchHome("transaction-test");
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        table = TestData.newTable(data, "names.tbl");
+        journal = new File(data, "0000000000000000001" + Transaction.EXTENSION);
+        TestData.write(table, "Acme", "Beta");
+        journal.delete();
+    }
+
+    @Test
+    public void testCommittedJournalIsRolledForward() throws Exception {
+        TestData.write(journal, "T~2~" + table.getAbsolutePath(),
+                "U~0~Acme Ltd", "I~2~Gamma", "C~1");
+
+        assertEquals(1, Transaction.recover());
+        assertFalse(journal.exists());
+        assertEquals(TestData.lines("Acme Ltd", "Beta", "Gamma"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testJournalAtTheTablesGenerationIsRolledForward()
+            throws Exception {
+        TestData.write(journal, "T~1~0~" + table.getAbsolutePath(),
+                "U~0~Acme Ltd", "C~1");
+
+        assertEquals(1, Transaction.recover());
+        assertFalse(journal.exists());
+        assertEquals(TestData.lines("Acme Ltd", "Beta"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testJournalAlreadyInTheLogIsNotAppendedAgain()
+            throws Exception {
+        ChangeLog changes = new ChangeLog(table);
+        ArrayList<String> lines = changes.read();
+        lines.set(0, "Acme Ltd");
+        changes.markUpdated(0);
+        changes.commit(lines.size(), lines::get);
+
+        // The save reached the log, but its journal was never removed.
+        TestData.write(journal, "T~1~0~" + table.getAbsolutePath(),
+                "U~0~Acme Ltd", "C~1");
+
+        assertEquals(1, Transaction.recover());
+        assertFalse(journal.exists());
+        assertEquals(TestData.lines("U~0~Acme Ltd", "C~1"),
+                Files.readAllLines(new File(table.getPath()
+                        + ChangeLog.EXTENSION).toPath(),
+                        Charset.defaultCharset()));
+    }
+
+    @Test
+    public void testJournalOverAnotherInstancesSaveIsLeftInPlace()
+            throws Exception {
+        // Stands in for another instance, which saved the table after the
+        //+ transaction was committed, but before it reached the log.
+        ChangeLog changes = new ChangeLog(table);
+        ArrayList<String> lines = changes.read();
+        lines.set(0, "Acme Corp");
+        changes.markUpdated(0);
+        changes.commit(lines.size(), lines::get);
+
+        TestData.write(journal, "T~1~0~" + table.getAbsolutePath(),
+                "U~0~Acme Ltd", "C~1");
+
+        assertEquals(0, Transaction.recover());
+        assertTrue(journal.exists());
+        assertEquals(TestData.lines("Acme Corp", "Beta"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testUncommittedJournalIsRolledBack() throws Exception {
+        TestData.write(journal, "T~2~" + table.getAbsolutePath(),
+                "U~0~Acme Ltd", "I~2~Gamma");
+
+        assertEquals(0, Transaction.recover());
+        assertFalse(journal.exists());
+        assertEquals(TestData.lines("Acme", "Beta"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testLockedJournalIsLeftAlone() throws Exception {
+        TestData.write(journal, "T~1~" + table.getAbsolutePath(),
+                "U~0~Acme Ltd");
+
+        // Stands in for another instance that is still writing the journal.
+        try ( FileChannel channel = FileChannel.open(journal.toPath(),
+                StandardOpenOption.WRITE) ) {
+            channel.lock();
+
+            assertEquals(0, Transaction.recover());
+            assertTrue(journal.exists());
+        }
+
+        assertEquals(TestData.lines("Acme", "Beta"),
+                new ChangeLog(table).read());
+    }
+
+    @Test
+    public void testCommitWritesTheLogsAndSettleRemovesTheJournal()
+            throws Exception {
+        ChangeLog changes = new ChangeLog(table);
+        ArrayList<String> lines = changes.read();
+
+        try ( Transaction tx = Transaction.begin() ) {
+            lines.add("Gamma");
+            changes.commit(lines.size(), lines::get);
+            tx.commit();
+        }
+
+        assertEquals(TestData.lines("Acme", "Beta", "Gamma"),
+                new ChangeLog(table).read());
+
+        Transaction.settle();
+
+        assertEquals(0, data.listFiles((File dir, String name)
+                -> name.endsWith(Transaction.EXTENSION)).length);
+    }
+
+    @Test
+    public void testCommitOverTwoTablesMovesBothOnOneGeneration()
+            throws Exception {
+        File other = TestData.newTable(data, "places.tbl");
+        TestData.write(other, "Peoria");
+        ChangeLog names = new ChangeLog(table);
+        ChangeLog places = new ChangeLog(other);
+        ArrayList<String> nameLines = names.read();
+        ArrayList<String> placeLines = places.read();
+        long nameGeneration = names.getGeneration();
+        long placeGeneration = places.getGeneration();
+
+        // The tables are staged out of the order in which they are locked.
+        try ( Transaction tx = Transaction.begin() ) {
+            placeLines.add("Pekin");
+            places.commit(placeLines.size(), placeLines::get);
+            nameLines.add("Gamma");
+            names.commit(nameLines.size(), nameLines::get);
+            tx.commit();
+        }
+
+        Transaction.settle();
+
+        assertEquals(nameGeneration + 1, names.getGeneration());
+        assertEquals(placeGeneration + 1, places.getGeneration());
+        assertEquals(TestData.lines("Acme", "Beta", "Gamma"),
+                new ChangeLog(table).read());
+        assertEquals(TestData.lines("Peoria", "Pekin"),
+                new ChangeLog(other).read());
+    }
+
+}